@@ -4,6 +4,7 @@ import org.gradle.api.tasks.testing.logging.TestLogEvent
 plugins {
     alias(libs.plugins.hivemq.extension)
     alias(libs.plugins.defaults)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.oci)
     alias(libs.plugins.spotless)
 }
@@ -35,12 +36,32 @@ tasks.compileJava {
     }
 }
 
+// classes that use Java 21 APIs (e.g. virtual threads) are packaged as a multi-release jar
+val java21: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java21"))
+}
+
+dependencies {
+    "java21CompileOnly"(libs.jetbrains.annotations)
+}
+
+tasks.named<JavaCompile>(java21.compileJavaTaskName) {
+    options.release = 21
+}
+
+tasks.jar {
+    into("META-INF/versions/21") {
+        from(java21.output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
 dependencies {
     compileOnly(libs.jetbrains.annotations)
     implementation(libs.commonsLang)
     implementation(libs.commonsText)
-    implementation(libs.jaxb.api)
-    runtimeOnly(libs.jaxb.impl)
 }
 
 oci {
@@ -79,6 +100,22 @@ oci {
     }
 }
 
+// benchmarks for the request handling and the extension startup, run with ./gradlew jmh
+// modes, forks and iterations are set per benchmark class, as the startup benchmarks need a fresh JVM per measurement
+jmh {
+    jmhVersion = libs.versions.jmh
+    // e.g. ./gradlew jmh -Pjmh.includes=ConfigurationParserBenchmark
+    includes = providers.gradleProperty("jmh.includes").map { listOf(it) }.orElse(listOf())
+    timeUnit = "us"
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
+
+dependencies {
+    jmhCompileOnly(libs.jetbrains.annotations)
+    jmhImplementation("com.hivemq:hivemq-extension-sdk:${libs.versions.hivemq.extensionSdk.get()}")
+}
+
 // see https://javadoc.io/doc/org.mockito/mockito-core/latest/org.mockito/org/mockito/Mockito.html#0.3
 val mockitoAgent = configurations.create("mockitoAgent") {
     isCanBeConsumed = false
@@ -141,6 +178,12 @@ testing {
                 implementation(libs.gradleOci.junitJupiter)
                 runtimeOnly(libs.logback.classic)
             }
+            targets.configureEach {
+                testTask {
+                    // settings of the ProbeStormIT, e.g. ./gradlew integrationTest -PprobeStorm.probers=5000
+                    systemProperties(providers.gradlePropertiesPrefixedBy("probeStorm.").get())
+                }
+            }
             oci.of(this) {
                 imageDependencies {
                     runtime(project()).tag("latest")
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat;
+
+import io.github.sgtsilvio.gradle.oci.junit.jupiter.OciImages;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.testcontainers.hivemq.HiveMQContainer;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Drives a sustained storm of concurrent heartbeat probes against the containerized broker and checks the observed
+ * latency and error ratio against SLO thresholds.
+ * <p>
+ * Every prober is a virtual thread that sends a probe every {@code intervalMillis}. With a probability of
+ * {@code reuseRatio} a probe reuses the connection of the previous probe, otherwise it is sent on a fresh connection
+ * with {@code Connection: close}, so the broker closes the connection and the client does not run out of ephemeral
+ * ports. Latencies are measured from the scheduled send time, so a slow server cannot hide its latency by delaying the
+ * next probes.
+ * <p>
+ * All settings can be overridden with Gradle properties, e.g. {@code ./gradlew integrationTest
+ * -PprobeStorm.probers=5000 -PprobeStorm.engine=nio -PprobeStorm.slo.p99Millis=20}.
+ *
+ * @since  1.2.0
+ */
+@Testcontainers
+class ProbeStormIT {
+
+    private static final @NotNull Settings SETTINGS = Settings.fromSystemProperties();
+
+    @Container
+    final @NotNull HiveMQContainer hivemq =
+            new HiveMQContainer(OciImages.getImageName("hivemq/extensions/hivemq-heartbeat-extension")
+                    .asCompatibleSubstituteFor("hivemq/hivemq-ce"))
+                    .withExposedPorts(9090)
+                    .withCopyToContainer(Transferable.of(SETTINGS.config()),
+                            "/opt/hivemq/extensions/hivemq-heartbeat-extension/conf/config.xml")
+                    .withLogConsumer(outputFrame -> System.out.print("HiveMQ: " + outputFrame.getUtf8String()))
+                    .withEnv("HIVEMQ_DISABLE_STATISTICS", "true");
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.MINUTES)
+    void probeStorm_withinSlo() throws Exception {
+        final var address = new InetSocketAddress(hivemq.getHost(), hivemq.getMappedPort(9090));
+        awaitReady(address);
+
+        final var results = new ArrayList<ProberResult>(SETTINGS.probers());
+        final var deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(SETTINGS.durationSeconds());
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var futures = new ArrayList<Future<ProberResult>>(SETTINGS.probers());
+            for (var i = 0; i < SETTINGS.probers(); i++) {
+                futures.add(executor.submit(() -> new Prober(address).run(deadlineNanos)));
+            }
+            for (final var future : futures) {
+                results.add(future.get());
+            }
+        }
+
+        final var report = Report.of(results);
+        System.out.println(report);
+        assertThat(report.probes()).as("probes").isPositive();
+        assertThat(report.errorRatio()).as("error ratio, " + report).isLessThanOrEqualTo(SETTINGS.maxErrorRatio());
+        assertThat(report.percentileMillis(0.5)).as("p50, " + report).isLessThanOrEqualTo(SETTINGS.p50Millis());
+        assertThat(report.percentileMillis(0.99)).as("p99, " + report).isLessThanOrEqualTo(SETTINGS.p99Millis());
+        assertThat(report.percentileMillis(0.999)).as("p999, " + report).isLessThanOrEqualTo(SETTINGS.p999Millis());
+    }
+
+    private static void awaitReady(final @NotNull InetSocketAddress address) throws Exception {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try (final var socket = connect(address)) {
+                socket.getOutputStream().write(Prober.CLOSE_REQUEST);
+                if (readStatusCode(new BufferedInputStream(socket.getInputStream())) == 200) {
+                    return;
+                }
+            } catch (final IOException ignored) {
+                // the listener is not started yet
+            }
+            Thread.sleep(100);
+        }
+        fail("Heartbeat did not become ready within 30 seconds");
+    }
+
+    private static @NotNull Socket connect(final @NotNull InetSocketAddress address) throws IOException {
+        final var socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(SETTINGS.timeoutMillis());
+        socket.connect(address, SETTINGS.timeoutMillis());
+        return socket;
+    }
+
+    /**
+     * Reads the head of a response without a body and returns its status code.
+     */
+    private static int readStatusCode(final @NotNull InputStream in) throws IOException {
+        var statusCode = 0;
+        var position = 0;
+        var lastBytes = 0;
+        // "\r\n\r\n" as the last four bytes read
+        while (lastBytes != 0x0D0A0D0A) {
+            final var b = in.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed before the end of the response head");
+            }
+            // "HTTP/1.1 " is followed by the three digit status code
+            if (position >= 9 && position < 12) {
+                statusCode = statusCode * 10 + (b - '0');
+            }
+            position++;
+            lastBytes = (lastBytes << 8) | b;
+        }
+        return statusCode;
+    }
+
+    private static final class Prober {
+
+        static final byte @NotNull [] KEEP_ALIVE_REQUEST =
+                "GET /heartbeat HTTP/1.1\r\nHost: heartbeat\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        static final byte @NotNull [] CLOSE_REQUEST =
+                "GET /heartbeat HTTP/1.1\r\nHost: heartbeat\r\nConnection: close\r\n\r\n".getBytes(
+                        StandardCharsets.US_ASCII);
+
+        private final @NotNull InetSocketAddress address;
+        private final @NotNull LatencyBuffer latencies = new LatencyBuffer();
+        private long errors;
+        private long rejections;
+        private @Nullable Socket socket;
+        private @Nullable InputStream in;
+
+        Prober(final @NotNull InetSocketAddress address) {
+            this.address = address;
+        }
+
+        @NotNull ProberResult run(final long deadlineNanos) throws InterruptedException {
+            final var random = ThreadLocalRandom.current();
+            final var intervalNanos = TimeUnit.MILLISECONDS.toNanos(SETTINGS.intervalMillis());
+            // spread the probers over the first interval, so they do not probe in lockstep
+            var scheduledNanos = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+            try {
+                while (scheduledNanos < deadlineNanos) {
+                    final var waitNanos = scheduledNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    probe(random.nextDouble() < SETTINGS.reuseRatio());
+                    latencies.add(System.nanoTime() - scheduledNanos);
+                    scheduledNanos += intervalNanos;
+                }
+            } finally {
+                disconnect();
+            }
+            return new ProberResult(latencies.toArray(), errors, rejections);
+        }
+
+        private void probe(final boolean reuse) {
+            try {
+                if (!reuse) {
+                    disconnect();
+                }
+                if (socket == null) {
+                    socket = connect(address);
+                    in = new BufferedInputStream(socket.getInputStream());
+                }
+                socket.getOutputStream().write(reuse ? KEEP_ALIVE_REQUEST : CLOSE_REQUEST);
+                final var statusCode = readStatusCode(in);
+                if (statusCode != 200) {
+                    rejections++;
+                }
+                if (!reuse) {
+                    disconnect();
+                }
+            } catch (final IOException e) {
+                errors++;
+                disconnect();
+            }
+        }
+
+        private void disconnect() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (final IOException ignored) {
+                }
+                socket = null;
+                in = null;
+            }
+        }
+    }
+
+    private static final class LatencyBuffer {
+
+        private long @NotNull [] values = new long[1024];
+        private int size;
+
+        void add(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long @NotNull [] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private record ProberResult(long @NotNull [] latencies, long errors, long rejections) {
+    }
+
+    private record Report(long @NotNull [] sortedLatencies, long errors, long rejections) {
+
+        static @NotNull Report of(final @NotNull List<ProberResult> results) {
+            final var probes = results.stream().mapToInt(result -> result.latencies().length).sum();
+            final var latencies = new long[probes];
+            var offset = 0;
+            var errors = 0L;
+            var rejections = 0L;
+            for (final var result : results) {
+                System.arraycopy(result.latencies(), 0, latencies, offset, result.latencies().length);
+                offset += result.latencies().length;
+                errors += result.errors();
+                rejections += result.rejections();
+            }
+            Arrays.sort(latencies);
+            return new Report(latencies, errors, rejections);
+        }
+
+        long probes() {
+            return sortedLatencies.length;
+        }
+
+        double errorRatio() {
+            return probes() == 0 ? 1 : (double) (errors + rejections) / probes();
+        }
+
+        double percentileMillis(final double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            final var rank = (int) Math.ceil(percentile * sortedLatencies.length);
+            final var index = Math.max(0, Math.min(sortedLatencies.length, rank) - 1);
+            return sortedLatencies[index] / 1_000_000.0;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return ("probe storm with %d probers for %d s: %d probes, %d errors, %d non-200 responses, " +
+                    "p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms").formatted(SETTINGS.probers(),
+                            SETTINGS.durationSeconds(),
+                            probes(),
+                            errors,
+                            rejections,
+                            percentileMillis(0.5),
+                            percentileMillis(0.99),
+                            percentileMillis(0.999),
+                            percentileMillis(1));
+        }
+    }
+
+    private record Settings(
+            @NotNull String engine,
+            int probers,
+            int durationSeconds,
+            int intervalMillis,
+            double reuseRatio,
+            int timeoutMillis,
+            double p50Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxErrorRatio) {
+
+        static @NotNull Settings fromSystemProperties() {
+            return new Settings(System.getProperty("probeStorm.engine", "jdk"),
+                    Integer.getInteger("probeStorm.probers", 2_000),
+                    Integer.getInteger("probeStorm.durationSeconds", 30),
+                    Integer.getInteger("probeStorm.intervalMillis", 100),
+                    doubleProperty("probeStorm.reuseRatio", 0.8),
+                    Integer.getInteger("probeStorm.timeoutMillis", 5_000),
+                    doubleProperty("probeStorm.slo.p50Millis", 25),
+                    doubleProperty("probeStorm.slo.p99Millis", 250),
+                    doubleProperty("probeStorm.slo.p999Millis", 1_000),
+                    doubleProperty("probeStorm.slo.maxErrorRatio", 0.001));
+        }
+
+        /**
+         * Returns the extension configuration for the storm, the connection limit leaves room for all probers.
+         */
+        @NotNull String config() {
+            return """
+                    <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                    <heartbeat-extension-configuration>
+                        <port>9090</port>
+                        <bind-address>0.0.0.0</bind-address>
+                        <path>/heartbeat</path>
+                        <engine>%s</engine>
+                        <connections>
+                            <max-connections>%d</max-connections>
+                        </connections>
+                    </heartbeat-extension-configuration>
+                    """.formatted(engine, probers * 2);
+        }
+
+        private static double doubleProperty(final @NotNull String name, final double defaultValue) {
+            final var value = System.getProperty(name);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration;
+
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Measures reading the configuration file at extension startup with the StAX based {@link ConfigurationXmlParser}.
+ * <p>
+ * Every measurement runs in a fresh JVM as the first and only invocation, so it includes class loading and the
+ * creation of the parser like the extension startup does. The allocation reported by the GC profiler approximates
+ * the footprint of the parser.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class ConfigurationParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ConfigState {
+
+        @NotNull File configFile;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            configFile = Files.createTempFile("config", ".xml").toFile();
+            Files.writeString(configFile.toPath(), """
+                    <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                    <heartbeat-extension-configuration>
+                        <port>9090</port>
+                        <bind-address>0.0.0.0</bind-address>
+                        <path>/heartbeat</path>
+                        <engine>nio</engine>
+                        <connections>
+                            <keep-alive>true</keep-alive>
+                            <max-connections>1024</max-connections>
+                        </connections>
+                        <health-checks>
+                            <listeners>
+                                <interval-ms>5000</interval-ms>
+                            </listeners>
+                        </health-checks>
+                    </heartbeat-extension-configuration>
+                    """);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(configFile.toPath());
+        }
+    }
+
+    @Benchmark
+    public @NotNull Heartbeat stax(final @NotNull ConfigState state) throws IOException {
+        return new ConfigurationXmlParser().unmarshalExtensionConfig(state.configFile);
+    }
+}
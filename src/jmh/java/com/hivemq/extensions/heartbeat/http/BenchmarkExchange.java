@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * Minimal reusable {@link HttpExchange} that lets the benchmarks call the {@link HiveMQHeartbeatHandler} without a
+ * server or socket.
+ */
+final class BenchmarkExchange extends HttpExchange {
+
+    private static final @NotNull InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("127.0.0.1", 50000);
+    private static final @NotNull InetSocketAddress LOCAL_ADDRESS = new InetSocketAddress("127.0.0.1", 9090);
+
+    private final @NotNull String method;
+    private final @NotNull URI requestUri;
+    private final @NotNull Headers requestHeaders = new Headers();
+    private final @NotNull Headers responseHeaders = new Headers();
+    private int responseCode = -1;
+
+    BenchmarkExchange(final @NotNull String method, final @NotNull String path) {
+        this.method = method;
+        this.requestUri = URI.create(path);
+    }
+
+    /**
+     * Prepares the exchange for the next invocation of the handler.
+     */
+    void reset() {
+        responseHeaders.clear();
+        responseCode = -1;
+    }
+
+    @Override
+    public @NotNull Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public @NotNull Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public @NotNull URI getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public @NotNull String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public @Nullable HttpContext getHttpContext() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public @NotNull InputStream getRequestBody() {
+        return InputStream.nullInputStream();
+    }
+
+    @Override
+    public @NotNull OutputStream getResponseBody() {
+        return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public void sendResponseHeaders(final int rCode, final long responseLength) {
+        responseCode = rCode;
+    }
+
+    @Override
+    public @NotNull InetSocketAddress getRemoteAddress() {
+        return REMOTE_ADDRESS;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public @NotNull InetSocketAddress getLocalAddress() {
+        return LOCAL_ADDRESS;
+    }
+
+    @Override
+    public @NotNull String getProtocol() {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public @Nullable Object getAttribute(final @NotNull String name) {
+        return null;
+    }
+
+    @Override
+    public void setAttribute(final @NotNull String name, final @Nullable Object value) {
+    }
+
+    @Override
+    public void setStreams(final @Nullable InputStream i, final @Nullable OutputStream o) {
+    }
+
+    @Override
+    public @Nullable HttpPrincipal getPrincipal() {
+        return null;
+    }
+}
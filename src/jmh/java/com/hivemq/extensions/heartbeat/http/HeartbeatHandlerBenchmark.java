@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Measures {@link HiveMQHeartbeatHandler#handle} without any network I/O.
+ * <p>
+ * The lifecycle stage that is otherwise read from the HiveMQ admin service is supplied by the benchmark, so the
+ * benchmark runs without a broker.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HeartbeatHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HandlerState {
+
+        @Param({"STARTED_SUCCESSFULLY", "STARTING"})
+        public @NotNull LifecycleStage stage;
+
+        @Param({"GET", "POST"})
+        public @NotNull String method;
+
+        @Param({"true", "false"})
+        public boolean keepAlive;
+
+        private @NotNull ScheduledExecutorService scheduler;
+        private @NotNull HeartbeatMetrics heartbeatMetrics;
+        @NotNull HiveMQHeartbeatHandler handler;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final var metricRegistry = new MetricRegistry();
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            final var readinessMonitor = new ReadinessMonitor(new Heartbeat(), scheduler, () -> stage, metricRegistry);
+            readinessMonitor.refresh();
+            heartbeatMetrics = new HeartbeatMetrics(scheduler, metricRegistry);
+            heartbeatMetrics.start();
+            handler = new HiveMQHeartbeatHandler(readinessMonitor, heartbeatMetrics, keepAlive);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            heartbeatMetrics.stop();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExchangeState {
+
+        @NotNull BenchmarkExchange exchange;
+
+        @Setup(Level.Trial)
+        public void setUp(final @NotNull HandlerState handlerState) {
+            exchange = new BenchmarkExchange(handlerState.method, "/heartbeat");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int handle_1(final @NotNull HandlerState handlerState, final @NotNull ExchangeState exchangeState)
+            throws IOException {
+        return handle(handlerState, exchangeState);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int handle_8(final @NotNull HandlerState handlerState, final @NotNull ExchangeState exchangeState)
+            throws IOException {
+        return handle(handlerState, exchangeState);
+    }
+
+    private static int handle(final @NotNull HandlerState handlerState, final @NotNull ExchangeState exchangeState)
+            throws IOException {
+        final var exchange = exchangeState.exchange;
+        exchange.reset();
+        handlerState.handler.handle(exchange);
+        return exchange.getResponseCode();
+    }
+}
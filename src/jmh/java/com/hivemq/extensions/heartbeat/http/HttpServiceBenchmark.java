@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Measures complete heartbeat probes against a running {@link HTTPService} over the loopback interface.
+ * <p>
+ * Every benchmark thread is one prober. With {@code keep-alive} each prober reuses its connection like most load
+ * balancers do, with {@code close} each probe opens a new connection.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HttpServiceBenchmark {
+
+    private static final byte @NotNull [] KEEP_ALIVE_REQUEST =
+            "GET /heartbeat HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] CLOSE_REQUEST = ("GET /heartbeat HTTP/1.1\r\nHost: localhost\r\n" +
+            "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    // "\r\n\r\n" as the last four bytes read
+    private static final int END_OF_HEAD = 0x0D0A0D0A;
+
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+
+        @Param({Heartbeat.ENGINE_JDK, Heartbeat.ENGINE_NIO})
+        public @NotNull String engine;
+
+        private @NotNull ScheduledExecutorService scheduler;
+        private @NotNull ReadinessMonitor readinessMonitor;
+        private @NotNull HeartbeatMetrics heartbeatMetrics;
+        private @NotNull HTTPService httpService;
+        int port;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            port = freePort();
+            final var heartbeat = new Heartbeat();
+            heartbeat.setPort(port);
+            heartbeat.setEngine(engine);
+            final var metricRegistry = new MetricRegistry();
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            readinessMonitor = new ReadinessMonitor(heartbeat,
+                    scheduler,
+                    () -> LifecycleStage.STARTED_SUCCESSFULLY,
+                    metricRegistry);
+            readinessMonitor.start();
+            heartbeatMetrics = new HeartbeatMetrics(scheduler, metricRegistry);
+            heartbeatMetrics.start();
+            httpService = new HTTPService(heartbeat, readinessMonitor, heartbeatMetrics, metricRegistry);
+            httpService.startHttpServer();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            httpService.stopHTTPServer();
+            heartbeatMetrics.stop();
+            readinessMonitor.stop();
+            scheduler.shutdownNow();
+        }
+
+        private static int freePort() throws IOException {
+            try (final var socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProberState {
+
+        @Param({"keep-alive", "close"})
+        public @NotNull String connection;
+
+        private int port;
+        private @Nullable Socket socket;
+        private @Nullable InputStream in;
+
+        @Setup(Level.Trial)
+        public void setUp(final @NotNull ServiceState serviceState) {
+            port = serviceState.port;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            disconnect();
+        }
+
+        int probe() throws IOException {
+            final var keepAlive = "keep-alive".equals(connection);
+            if (socket == null) {
+                final var newSocket = new Socket(InetAddress.getLoopbackAddress(), port);
+                newSocket.setTcpNoDelay(true);
+                socket = newSocket;
+                in = new BufferedInputStream(newSocket.getInputStream());
+            }
+            socket.getOutputStream().write(keepAlive ? KEEP_ALIVE_REQUEST : CLOSE_REQUEST);
+            final var statusCode = readResponseHead(in);
+            if (!keepAlive) {
+                disconnect();
+            }
+            return statusCode;
+        }
+
+        private void disconnect() throws IOException {
+            if (socket != null) {
+                socket.close();
+                socket = null;
+                in = null;
+            }
+        }
+
+        /**
+         * Reads the head of a response without a body and returns its status code.
+         */
+        private static int readResponseHead(final @NotNull InputStream in) throws IOException {
+            var statusCode = 0;
+            var position = 0;
+            var lastBytes = 0;
+            while (lastBytes != END_OF_HEAD) {
+                final var b = in.read();
+                if (b < 0) {
+                    throw new EOFException("Connection closed before the end of the response head");
+                }
+                // "HTTP/1.1 " is followed by the three digit status code
+                if (position >= 9 && position < 12) {
+                    statusCode = statusCode * 10 + (b - '0');
+                }
+                position++;
+                lastBytes = (lastBytes << 8) | b;
+            }
+            return statusCode;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int probe_1(final @NotNull ProberState proberState) throws IOException {
+        return proberState.probe();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int probe_4(final @NotNull ProberState proberState) throws IOException {
+        return proberState.probe();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int probe_16(final @NotNull ProberState proberState) throws IOException {
+        return proberState.probe();
+    }
+}
@@ -21,28 +21,51 @@ import com.hivemq.extension.sdk.api.parameter.ExtensionStartInput;
 import com.hivemq.extension.sdk.api.parameter.ExtensionStartOutput;
 import com.hivemq.extension.sdk.api.parameter.ExtensionStopInput;
 import com.hivemq.extension.sdk.api.parameter.ExtensionStopOutput;
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.publish.PayloadFormatIndicator;
+import com.hivemq.extension.sdk.api.services.Services;
+import com.hivemq.extension.sdk.api.services.builder.Builders;
+import com.hivemq.extensions.heartbeat.configuration.ConfigurationWatcher;
 import com.hivemq.extensions.heartbeat.configuration.ExtensionConfiguration;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.health.HealthCheckFactory;
 import com.hivemq.extensions.heartbeat.http.HTTPService;
-import com.hivemq.extensions.heartbeat.http.HiveMQHeartbeatHandler;
+import com.hivemq.extensions.heartbeat.http.HealthDetail;
+import com.hivemq.extensions.heartbeat.http.HeartbeatMetrics;
+import com.hivemq.extensions.heartbeat.publish.StatusPublisher;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Main entry point for the HiveMQ Heartbeat Extension.
  * <p>
  * This extension provides a lightweight HTTP endpoint for load balancer health checks. During extension startup, it:
  * <ol>
  * <li>Loads configuration from the extension home folder</li>
+ * <li>Starts the background sampling of the HiveMQ lifecycle stage and the configured health checks</li>
+ * <li>Publishes the readiness as a retained MQTT message if configured</li>
  * <li>Starts an HTTP server on the configured port and bind address</li>
  * <li>Registers a heartbeat handler at the configured path</li>
+ * <li>Watches the configuration file and applies changes to the HTTP server</li>
  * </ol>
  * <p>
- * During extension shutdown, the HTTP server is gracefully stopped.
+ * During extension shutdown, which is also part of the HiveMQ shutdown, the HTTP server is drained if configured and
+ * gracefully stopped afterward.
  * <p>
- * The heartbeat endpoint returns HTTP 200 when HiveMQ is fully started and ready to accept connections, or HTTP 503
- * when HiveMQ is still starting up or shutting down.
+ * The heartbeat endpoint returns HTTP 200 when HiveMQ is fully started and all health checks pass, or HTTP 503 when
+ * HiveMQ is still starting up, shutting down or a health check fails. An overloaded HiveMQ can be configured to be
+ * answered with HTTP 429 instead.
  *
  * @author David Sondermann
  * @since  1.0.0
@@ -51,7 +74,11 @@ import org.slf4j.LoggerFactory;
 public class HeartbeatMain implements ExtensionMain {
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(HeartbeatMain.class);
+    private static @Nullable ReadinessMonitor readinessMonitor;
+    private static @Nullable StatusPublisher statusPublisher;
+    private static @Nullable HeartbeatMetrics heartbeatMetrics;
     private static @Nullable HTTPService httpService;
+    private static @Nullable ConfigurationWatcher configurationWatcher;
 
     /**
      * Called when the extension is started by HiveMQ.
@@ -81,7 +108,9 @@ public class HeartbeatMain implements ExtensionMain {
     /**
      * Called when the extension is stopped by HiveMQ.
      * <p>
-     * This method gracefully stops the HTTP server to ensure all resources are properly released.
+     * This method stops watching the configuration file, drains the HTTP server for the configured drain window and
+     * gracefully stops the HTTP server, the status publisher, the heartbeat metrics and the readiness monitor to ensure
+     * all resources are properly released.
      *
      * @param extensionStopInput  provides information about the extension stop event
      * @param extensionStopOutput allows customizing the extension stop behavior
@@ -90,18 +119,124 @@ public class HeartbeatMain implements ExtensionMain {
     public final void extensionStop(
             final @NotNull ExtensionStopInput extensionStopInput,
             final @NotNull ExtensionStopOutput extensionStopOutput) {
+        if (configurationWatcher != null) {
+            configurationWatcher.stop();
+        }
         if (httpService != null) {
+            httpService.drain();
             httpService.stopHTTPServer();
         }
+        if (statusPublisher != null) {
+            statusPublisher.stop();
+        }
+        if (heartbeatMetrics != null) {
+            heartbeatMetrics.stop();
+        }
+        if (readinessMonitor != null) {
+            readinessMonitor.stop();
+        }
     }
 
     /**
-     * Initializes and starts the HTTP service with the loaded configuration.
+     * Initializes and starts the readiness monitor, the status publisher, the heartbeat metrics and the HTTP service
+     * with the loaded configuration.
      *
      * @param extensionConfiguration the configuration containing heartbeat settings
      */
     private void startRestService(final @NotNull ExtensionConfiguration extensionConfiguration) {
-        httpService = new HTTPService(extensionConfiguration.getHeartbeatConfig(), new HiveMQHeartbeatHandler());
-        httpService.startHttpServer();
+        final var heartbeat = extensionConfiguration.getHeartbeatConfig();
+        final var metricRegistry = Services.metricRegistry();
+        final var scheduler = Services.extensionExecutorService();
+        final var healthChecks = HealthCheckFactory.create(heartbeat.getHealthChecks(),
+                scheduler,
+                HeartbeatMain::listenerAddresses,
+                () -> Services.adminService().getServerInformation().getDataFolder(),
+                metricRegistry,
+                HeartbeatMain.class.getClassLoader());
+        final var monitor = new ReadinessMonitor(heartbeat,
+                scheduler,
+                () -> Services.adminService().getCurrentStage(),
+                metricRegistry,
+                healthChecks);
+        monitor.start();
+        readinessMonitor = monitor;
+        final var statusPublish = heartbeat.getStatusPublish();
+        if (statusPublish.isEnabled()) {
+            final var publisher = new StatusPublisher(statusPublish,
+                    nodeName(),
+                    monitor,
+                    scheduler,
+                    (topic, payload) -> publishStatus(statusPublish, topic, payload),
+                    metricRegistry);
+            publisher.start();
+            statusPublisher = publisher;
+        }
+        final var metrics = new HeartbeatMetrics(scheduler, metricRegistry);
+        metrics.start();
+        heartbeatMetrics = metrics;
+        final var service = new HTTPService(heartbeat, monitor, metrics, metricRegistry);
+        service.startHttpServer();
+        httpService = service;
+        final var watcher = new ConfigurationWatcher(extensionConfiguration.getConfigFile(), scheduler, () -> {
+            final var newHeartbeat = extensionConfiguration.reload();
+            if (newHeartbeat != null) {
+                service.reload(newHeartbeat);
+            }
+        });
+        watcher.start();
+        configurationWatcher = watcher;
+    }
+
+    /**
+     * Returns the socket addresses of the HiveMQ listeners.
+     *
+     * @return the listener addresses
+     */
+    private static @NotNull Collection<InetSocketAddress> listenerAddresses() {
+        final var listeners = Services.adminService().getServerInformation().getListener();
+        final var addresses = new ArrayList<InetSocketAddress>(listeners.size());
+        for (final var listener : listeners) {
+            addresses.add(new InetSocketAddress(listener.getBindAddress(), listener.getPort()));
+        }
+        return addresses;
+    }
+
+    /**
+     * Returns the host name of the node that replaces the node placeholder of the status topic.
+     *
+     * @return the host name, or {@code unknown} if it cannot be resolved
+     */
+    private static @NotNull String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (final UnknownHostException e) {
+            LOG.warn("Could not resolve the host name for the status topic, using 'unknown'");
+            return "unknown";
+        }
+    }
+
+    /**
+     * Publishes the readiness as a retained message via the HiveMQ publish service.
+     *
+     * @param  statusPublish the status publish configuration
+     * @param  topic         the resolved topic
+     * @param  payload       the JSON payload
+     * @return               a future that completes when HiveMQ has processed the publish
+     */
+    private static @NotNull CompletableFuture<Void> publishStatus(
+            final @NotNull StatusPublish statusPublish,
+            final @NotNull String topic,
+            final byte @NotNull [] payload) {
+        final var builder = Builders.publish()
+                .topic(topic)
+                .qos(Qos.valueOf(statusPublish.getQos()))
+                .retain(true)
+                .payloadFormatIndicator(PayloadFormatIndicator.UTF_8)
+                .contentType(HealthDetail.CONTENT_TYPE)
+                .payload(ByteBuffer.wrap(payload));
+        if (statusPublish.getMessageExpiry() > 0) {
+            builder.messageExpiryInterval(statusPublish.getMessageExpiry());
+        }
+        return Services.publishService().publish(builder.build());
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configuration file for changes with a {@link WatchService} on its folder.
+ * <p>
+ * The watch service is polled by the scheduler instead of a dedicated thread. All events of a poll interval are
+ * coalesced, so an editor that writes the file in several steps triggers a single reload in most cases.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class ConfigurationWatcher {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ConfigurationWatcher.class);
+    private static final long DEFAULT_POLL_INTERVAL_MILLIS = 1000;
+
+    private final @NotNull Path configFile;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull Runnable listener;
+    private final long pollIntervalMillis;
+
+    private @Nullable WatchService watchService;
+    private @Nullable ScheduledFuture<?> pollFuture;
+
+    /**
+     * Creates a new configuration watcher.
+     *
+     * @param configFile the configuration file to watch, its folder must exist
+     * @param scheduler  the scheduler that polls the watch service
+     * @param listener   the listener that is called on the scheduler after the configuration file has changed
+     */
+    public ConfigurationWatcher(
+            final @NotNull Path configFile,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull Runnable listener) {
+        this(configFile, scheduler, listener, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    ConfigurationWatcher(
+            final @NotNull Path configFile,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull Runnable listener,
+            final long pollIntervalMillis) {
+        this.configFile = configFile.toAbsolutePath();
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * Starts watching the configuration file.
+     * <p>
+     * If the folder of the configuration file cannot be watched, a warning is logged and the configuration is not
+     * reloaded.
+     */
+    public synchronized void start() {
+        final var folder = configFile.getParent();
+        try {
+            final var newWatchService = folder.getFileSystem().newWatchService();
+            folder.register(newWatchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = newWatchService;
+        } catch (final IOException e) {
+            LOG.warn("Unable to watch the Heartbeat extension configuration file {}, changes are not reloaded, " +
+                    "reason: {}", configFile, e.getMessage());
+            return;
+        }
+        pollFuture = scheduler.scheduleWithFixedDelay(this::poll,
+                pollIntervalMillis,
+                pollIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        LOG.debug("Watching the Heartbeat extension configuration file {} for changes", configFile);
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    public synchronized void stop() {
+        if (pollFuture != null) {
+            pollFuture.cancel(false);
+            pollFuture = null;
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (final IOException e) {
+                LOG.debug("Could not close the watch service of the Heartbeat extension configuration file", e);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Drains the pending events of the watch service and calls the listener once if any event concerns the
+     * configuration file.
+     */
+    void poll() {
+        final WatchService currentWatchService;
+        synchronized (this) {
+            currentWatchService = watchService;
+        }
+        if (currentWatchService == null) {
+            return;
+        }
+        var changed = false;
+        try {
+            for (var key = currentWatchService.poll(); key != null; key = currentWatchService.poll()) {
+                for (final var event : key.pollEvents()) {
+                    // an overflow may have dropped the event of the configuration file
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                            configFile.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+            }
+        } catch (final ClosedWatchServiceException e) {
+            return;
+        }
+        if (changed) {
+            LOG.info("Heartbeat extension configuration file {} has changed, reloading", configFile);
+            try {
+                listener.run();
+            } catch (final RuntimeException e) {
+                LOG.error("Could not apply the changed Heartbeat extension configuration", e);
+            }
+        }
+    }
+}
@@ -17,24 +17,51 @@
 package com.hivemq.extensions.heartbeat.configuration;
 
 import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.AccessLog;
+import com.hivemq.extensions.heartbeat.configuration.entities.CheckSchedule;
+import com.hivemq.extensions.heartbeat.configuration.entities.Connections;
+import com.hivemq.extensions.heartbeat.configuration.entities.Drain;
+import com.hivemq.extensions.heartbeat.configuration.entities.GrpcHealth;
+import com.hivemq.extensions.heartbeat.configuration.entities.HandlerExecutor;
+import com.hivemq.extensions.heartbeat.configuration.entities.HealthChecks;
 import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.JAXBException;
+import com.hivemq.extensions.heartbeat.configuration.entities.Layer4;
+import com.hivemq.extensions.heartbeat.configuration.entities.Listener;
+import com.hivemq.extensions.heartbeat.configuration.entities.MetricThreshold;
+import com.hivemq.extensions.heartbeat.configuration.entities.OverloadCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.ProberStatistics;
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import com.hivemq.extensions.heartbeat.configuration.entities.ResourcesCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.SocketOptions;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.configuration.entities.Tls;
+import com.hivemq.extensions.heartbeat.configuration.entities.Watch;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 
 /**
  * XML parser for heartbeat extension configuration files.
  * <p>
- * This parser uses JAXB (Java Architecture for XML Binding) to deserialize XML configuration files into
- * {@link Heartbeat} objects. The parser is thread-safe as the underlying JAXB context is thread-safe.
+ * This parser reads the configuration with the StAX implementation of the JDK in a single pass and maps the elements
+ * to the fields of the {@link Heartbeat} entities, elements that are not configured keep their default value. Compared
+ * to a JAXB context, there is no reflective model to build at startup and no XML binding runtime has to be packaged
+ * with the extension. The parser is thread-safe as the underlying input factory is only configured once.
  * <p>
- * The parser handles XML unmarshalling errors gracefully by wrapping JAXB exceptions in {@link IOException} for easier
- * error handling by callers.
+ * Unknown elements are ignored. Values that cannot be converted to the type of their element are logged and replaced
+ * by the default value, the ranges of valid values are checked by the {@link ExtensionConfiguration}. The parser
+ * handles malformed XML gracefully by wrapping StAX exceptions in {@link IOException} for easier error handling by
+ * callers.
  *
  * @author David Sondermann
  * @since  1.0.0
@@ -43,22 +70,19 @@ import java.io.IOException;
 public class ConfigurationXmlParser {
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(ConfigurationXmlParser.class);
+    private static final @NotNull String ROOT_ELEMENT = "heartbeat-extension-configuration";
 
-    // JAXB context is thread safe
-    private final @NotNull JAXBContext jaxb;
+    // the input factory is thread safe once it is configured
+    private final @NotNull XMLInputFactory inputFactory;
 
     /**
-     * Initializes the XML parser by creating a JAXB context for {@link Heartbeat} objects.
-     *
-     * @throws RuntimeException if the JAXB context cannot be initialized
+     * Initializes the XML parser with the StAX input factory of the JDK. DTDs and external entities are not
+     * supported.
      */
     ConfigurationXmlParser() {
-        try {
-            jaxb = JAXBContext.newInstance(Heartbeat.class);
-        } catch (final JAXBException e) {
-            LOG.error("Error in the Heartbeat Extension: Could not initialize XML parser", e);
-            throw new RuntimeException("Could not initialize XML parser.", e);
-        }
+        inputFactory = XMLInputFactory.newDefaultFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
     /**
@@ -69,12 +93,625 @@ public class ConfigurationXmlParser {
      * @throws IOException if the file cannot be read or the XML is invalid
      */
     final @NotNull Heartbeat unmarshalExtensionConfig(final @NotNull File file) throws IOException {
-        try {
-            final var unmarshaller = jaxb.createUnmarshaller();
-            return (Heartbeat) unmarshaller.unmarshal(file);
-        } catch (final JAXBException e) {
+        try (final var in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            final var reader = inputFactory.createXMLStreamReader(in);
+            try {
+                return readHeartbeat(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException e) {
             LOG.error("Error in the Heartbeat Extension: Could not unmarshal XML configuration", e);
             throw new IOException("Could not unmarshal XML configuration.", e);
         }
     }
+
+    private static @NotNull Heartbeat readHeartbeat(final @NotNull XMLStreamReader reader)
+            throws XMLStreamException {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // skips the prolog
+        }
+        if (!ROOT_ELEMENT.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Unexpected root element '" +
+                    reader.getLocalName() +
+                    "', expected '" +
+                    ROOT_ELEMENT +
+                    "'", reader.getLocation());
+        }
+        final var heartbeat = new Heartbeat();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "port":
+                    heartbeat.setPort(readInt(reader, heartbeat.getPort()));
+                    break;
+                case "bind-address":
+                    heartbeat.setBindAddress(reader.getElementText());
+                    break;
+                case "listeners":
+                    readListeners(reader, heartbeat.getListeners());
+                    break;
+                case "path":
+                    heartbeat.setPath(reader.getElementText());
+                    break;
+                case "liveness-path":
+                    heartbeat.setLivenessPath(reader.getElementText());
+                    break;
+                case "readiness-path":
+                    heartbeat.setReadinessPath(reader.getElementText());
+                    break;
+                case "startup-path":
+                    heartbeat.setStartupPath(reader.getElementText());
+                    break;
+                case "detail-path":
+                    heartbeat.setDetailPath(reader.getElementText());
+                    break;
+                case "detail-max-age-seconds":
+                    heartbeat.setDetailMaxAge(readInt(reader, heartbeat.getDetailMaxAge()));
+                    break;
+                case "metrics-path":
+                    heartbeat.setMetricsPath(reader.getElementText());
+                    break;
+                case "metrics-max-age-ms":
+                    heartbeat.setMetricsMaxAge(readLong(reader, heartbeat.getMetricsMaxAge()));
+                    break;
+                case "probers-path":
+                    heartbeat.setProbersPath(reader.getElementText());
+                    break;
+                case "watch-path":
+                    heartbeat.setWatchPath(reader.getElementText());
+                    break;
+                case "state-poll-interval-ms":
+                    heartbeat.setStatePollInterval(readLong(reader, heartbeat.getStatePollInterval()));
+                    break;
+                case "state-poll-jitter-ms":
+                    heartbeat.setStatePollJitter(readLong(reader, heartbeat.getStatePollJitter()));
+                    break;
+                case "engine":
+                    heartbeat.setEngine(reader.getElementText());
+                    break;
+                case "executor":
+                    readExecutor(reader, heartbeat.getExecutor());
+                    break;
+                case "connections":
+                    readConnections(reader, heartbeat.getConnections());
+                    break;
+                case "socket-options":
+                    readSocketOptions(reader, heartbeat.getSocketOptions());
+                    break;
+                case "rate-limit":
+                    readRateLimit(reader, heartbeat.getRateLimit());
+                    break;
+                case "tls":
+                    readTls(reader, heartbeat.getTls());
+                    break;
+                case "access-log":
+                    readAccessLog(reader, heartbeat.getAccessLog());
+                    break;
+                case "prober-statistics":
+                    readProberStatistics(reader, heartbeat.getProberStatistics());
+                    break;
+                case "watch":
+                    readWatch(reader, heartbeat.getWatch());
+                    break;
+                case "layer4":
+                    readLayer4(reader, heartbeat.getLayer4());
+                    break;
+                case "grpc-health":
+                    readGrpcHealth(reader, heartbeat.getGrpcHealth());
+                    break;
+                case "status-publish":
+                    readStatusPublish(reader, heartbeat.getStatusPublish());
+                    break;
+                case "drain":
+                    readDrain(reader, heartbeat.getDrain());
+                    break;
+                case "health-checks":
+                    readHealthChecks(reader, heartbeat.getHealthChecks());
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return heartbeat;
+    }
+
+    private static void readListeners(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull List<Listener> listeners) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("listener".equals(reader.getLocalName())) {
+                listeners.add(readListener(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static @NotNull Listener readListener(final @NotNull XMLStreamReader reader) throws XMLStreamException {
+        final var listener = new Listener();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "port":
+                    listener.setPort(readInt(reader, listener.getPort()));
+                    break;
+                case "bind-address":
+                    listener.setBindAddress(reader.getElementText());
+                    break;
+                case "path":
+                    listener.setPath(reader.getElementText());
+                    break;
+                case "liveness-path":
+                    listener.setLivenessPath(reader.getElementText());
+                    break;
+                case "readiness-path":
+                    listener.setReadinessPath(reader.getElementText());
+                    break;
+                case "startup-path":
+                    listener.setStartupPath(reader.getElementText());
+                    break;
+                case "detail-path":
+                    listener.setDetailPath(reader.getElementText());
+                    break;
+                case "metrics-path":
+                    listener.setMetricsPath(reader.getElementText());
+                    break;
+                case "probers-path":
+                    listener.setProbersPath(reader.getElementText());
+                    break;
+                case "watch-path":
+                    listener.setWatchPath(reader.getElementText());
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return listener;
+    }
+
+    private static void readExecutor(final @NotNull XMLStreamReader reader, final @NotNull HandlerExecutor executor)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "type":
+                    executor.setType(reader.getElementText());
+                    break;
+                case "threads":
+                    executor.setThreads(readInt(reader, executor.getThreads()));
+                    break;
+                case "queue-size":
+                    executor.setQueueSize(readInt(reader, executor.getQueueSize()));
+                    break;
+                case "rejection-policy":
+                    executor.setRejectionPolicy(reader.getElementText());
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readConnections(final @NotNull XMLStreamReader reader, final @NotNull Connections connections)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "keep-alive":
+                    connections.setKeepAlive(readBoolean(reader, connections.isKeepAlive()));
+                    break;
+                case "max-connections":
+                    connections.setMaxConnections(readInt(reader, connections.getMaxConnections()));
+                    break;
+                case "idle-timeout-ms":
+                    connections.setIdleTimeout(readLong(reader, connections.getIdleTimeout()));
+                    break;
+                case "request-timeout-ms":
+                    connections.setRequestTimeout(readLong(reader, connections.getRequestTimeout()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readSocketOptions(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull SocketOptions socketOptions) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "backlog":
+                    socketOptions.setBacklog(readInt(reader, socketOptions.getBacklog()));
+                    break;
+                case "reuse-address":
+                    socketOptions.setReuseAddress(readBoolean(reader, socketOptions.isReuseAddress()));
+                    break;
+                case "reuse-port":
+                    socketOptions.setReusePort(readBoolean(reader, socketOptions.isReusePort()));
+                    break;
+                case "acceptors":
+                    socketOptions.setAcceptors(readInt(reader, socketOptions.getAcceptors()));
+                    break;
+                case "tcp-no-delay":
+                    socketOptions.setTcpNoDelay(readBoolean(reader, socketOptions.isTcpNoDelay()));
+                    break;
+                case "send-buffer-size":
+                    socketOptions.setSendBufferSize(readInt(reader, socketOptions.getSendBufferSize()));
+                    break;
+                case "receive-buffer-size":
+                    socketOptions.setReceiveBufferSize(readInt(reader, socketOptions.getReceiveBufferSize()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readRateLimit(final @NotNull XMLStreamReader reader, final @NotNull RateLimit rateLimit)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "requests-per-second":
+                    rateLimit.setRequestsPerSecond(readInt(reader, rateLimit.getRequestsPerSecond()));
+                    break;
+                case "burst":
+                    rateLimit.setBurst(readInt(reader, rateLimit.getBurst()));
+                    break;
+                case "max-clients":
+                    rateLimit.setMaxClients(readInt(reader, rateLimit.getMaxClients()));
+                    break;
+                case "action":
+                    rateLimit.setAction(reader.getElementText());
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readTls(final @NotNull XMLStreamReader reader, final @NotNull Tls tls)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "keystore-path":
+                    tls.setKeystorePath(reader.getElementText());
+                    break;
+                case "keystore-password":
+                    tls.setKeystorePassword(reader.getElementText());
+                    break;
+                case "keystore-type":
+                    tls.setKeystoreType(reader.getElementText());
+                    break;
+                case "private-key-password":
+                    tls.setPrivateKeyPassword(reader.getElementText());
+                    break;
+                case "protocols":
+                    tls.setProtocols(reader.getElementText());
+                    break;
+                case "session-cache-size":
+                    tls.setSessionCacheSize(readInt(reader, tls.getSessionCacheSize()));
+                    break;
+                case "session-timeout-seconds":
+                    tls.setSessionTimeout(readInt(reader, tls.getSessionTimeout()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readAccessLog(final @NotNull XMLStreamReader reader, final @NotNull AccessLog accessLog)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "enabled":
+                    accessLog.setEnabled(readBoolean(reader, accessLog.isEnabled()));
+                    break;
+                case "file":
+                    accessLog.setFile(reader.getElementText());
+                    break;
+                case "buffer-size":
+                    accessLog.setBufferSize(readInt(reader, accessLog.getBufferSize()));
+                    break;
+                case "overflow":
+                    accessLog.setOverflow(reader.getElementText());
+                    break;
+                case "flush-interval-ms":
+                    accessLog.setFlushInterval(readInt(reader, accessLog.getFlushInterval()));
+                    break;
+                case "max-file-size-mb":
+                    accessLog.setMaxFileSize(readInt(reader, accessLog.getMaxFileSize()));
+                    break;
+                case "max-files":
+                    accessLog.setMaxFiles(readInt(reader, accessLog.getMaxFiles()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readProberStatistics(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull ProberStatistics proberStatistics) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "enabled":
+                    proberStatistics.setEnabled(readBoolean(reader, proberStatistics.isEnabled()));
+                    break;
+                case "max-probers":
+                    proberStatistics.setMaxProbers(readInt(reader, proberStatistics.getMaxProbers()));
+                    break;
+                case "top":
+                    proberStatistics.setTop(readInt(reader, proberStatistics.getTop()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readWatch(final @NotNull XMLStreamReader reader, final @NotNull Watch watch)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "enabled":
+                    watch.setEnabled(readBoolean(reader, watch.isEnabled()));
+                    break;
+                case "max-streams":
+                    watch.setMaxStreams(readInt(reader, watch.getMaxStreams()));
+                    break;
+                case "keep-alive-interval-ms":
+                    watch.setKeepAliveInterval(readLong(reader, watch.getKeepAliveInterval()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readLayer4(final @NotNull XMLStreamReader reader, final @NotNull Layer4 layer4)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "bind-address":
+                    layer4.setBindAddress(reader.getElementText());
+                    break;
+                case "tcp-port":
+                    layer4.setTcpPort(readInt(reader, layer4.getTcpPort()));
+                    break;
+                case "udp-port":
+                    layer4.setUdpPort(readInt(reader, layer4.getUdpPort()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readGrpcHealth(final @NotNull XMLStreamReader reader, final @NotNull GrpcHealth grpcHealth)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "bind-address":
+                    grpcHealth.setBindAddress(reader.getElementText());
+                    break;
+                case "port":
+                    grpcHealth.setPort(readInt(reader, grpcHealth.getPort()));
+                    break;
+                case "max-streams":
+                    grpcHealth.setMaxStreams(readInt(reader, grpcHealth.getMaxStreams()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readStatusPublish(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull StatusPublish statusPublish) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "enabled":
+                    statusPublish.setEnabled(readBoolean(reader, statusPublish.isEnabled()));
+                    break;
+                case "topic":
+                    statusPublish.setTopic(reader.getElementText());
+                    break;
+                case "qos":
+                    statusPublish.setQos(readInt(reader, statusPublish.getQos()));
+                    break;
+                case "min-interval-ms":
+                    statusPublish.setMinInterval(readLong(reader, statusPublish.getMinInterval()));
+                    break;
+                case "refresh-interval-ms":
+                    statusPublish.setRefreshInterval(readLong(reader, statusPublish.getRefreshInterval()));
+                    break;
+                case "message-expiry-seconds":
+                    statusPublish.setMessageExpiry(readLong(reader, statusPublish.getMessageExpiry()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readDrain(final @NotNull XMLStreamReader reader, final @NotNull Drain drain)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "check-interval-ms":
+                    drain.setCheckInterval(readInt(reader, drain.getCheckInterval()));
+                    break;
+                case "unhealthy-threshold":
+                    drain.setUnhealthyThreshold(readInt(reader, drain.getUnhealthyThreshold()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readHealthChecks(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull HealthChecks healthChecks) throws XMLStreamException {
+        // a configured check starts from the defaults of its entity, so it is enabled unless configured otherwise
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "listeners":
+                    final var listeners = new CheckSchedule();
+                    readCheckSchedule(reader, listeners);
+                    healthChecks.setListeners(listeners);
+                    break;
+                case "resources":
+                    final var resources = new ResourcesCheck();
+                    readCheckSchedule(reader, resources);
+                    healthChecks.setResources(resources);
+                    break;
+                case "overload":
+                    final var overload = new OverloadCheck();
+                    readCheckSchedule(reader, overload);
+                    healthChecks.setOverload(overload);
+                    break;
+                case "custom":
+                    final var custom = new CheckSchedule();
+                    readCheckSchedule(reader, custom);
+                    healthChecks.setCustom(custom);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readCheckSchedule(final @NotNull XMLStreamReader reader, final @NotNull CheckSchedule schedule)
+            throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            final var element = reader.getLocalName();
+            if ("enabled".equals(element)) {
+                schedule.setEnabled(readBoolean(reader, schedule.isEnabled()));
+            } else if ("interval-ms".equals(element)) {
+                schedule.setInterval(readLong(reader, schedule.getInterval()));
+            } else if ("deadline-ms".equals(element)) {
+                schedule.setDeadline(readLong(reader, schedule.getDeadline()));
+            } else if (schedule instanceof ResourcesCheck && "min-free-heap-percent".equals(element)) {
+                final var resources = (ResourcesCheck) schedule;
+                resources.setMinFreeHeapPercent(readInt(reader, resources.getMinFreeHeapPercent()));
+            } else if (schedule instanceof ResourcesCheck && "min-free-disk-mb".equals(element)) {
+                final var resources = (ResourcesCheck) schedule;
+                resources.setMinFreeDisk(readLong(reader, resources.getMinFreeDisk()));
+            } else if (schedule instanceof OverloadCheck && "status-code".equals(element)) {
+                final var overload = (OverloadCheck) schedule;
+                overload.setStatusCode(readInt(reader, overload.getStatusCode()));
+            } else if (schedule instanceof OverloadCheck && "recover-percent".equals(element)) {
+                final var overload = (OverloadCheck) schedule;
+                overload.setRecoverPercent(readInt(reader, overload.getRecoverPercent()));
+            } else if (schedule instanceof OverloadCheck && "thresholds".equals(element)) {
+                readThresholds(reader, ((OverloadCheck) schedule).getThresholds());
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void readThresholds(
+            final @NotNull XMLStreamReader reader,
+            final @NotNull List<MetricThreshold> thresholds) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("threshold".equals(reader.getLocalName())) {
+                thresholds.add(readThreshold(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static @NotNull MetricThreshold readThreshold(final @NotNull XMLStreamReader reader)
+            throws XMLStreamException {
+        final var threshold = new MetricThreshold();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "metric":
+                    threshold.setMetric(reader.getElementText().trim());
+                    break;
+                case "max":
+                    threshold.setMax(readDouble(reader, threshold.getMax()));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return threshold;
+    }
+
+    private static int readInt(final @NotNull XMLStreamReader reader, final int defaultValue)
+            throws XMLStreamException {
+        final var element = reader.getLocalName();
+        final var text = reader.getElementText().trim();
+        try {
+            return Integer.parseInt(text);
+        } catch (final NumberFormatException e) {
+            return invalidValue(element, text, defaultValue);
+        }
+    }
+
+    private static long readLong(final @NotNull XMLStreamReader reader, final long defaultValue)
+            throws XMLStreamException {
+        final var element = reader.getLocalName();
+        final var text = reader.getElementText().trim();
+        try {
+            return Long.parseLong(text);
+        } catch (final NumberFormatException e) {
+            return invalidValue(element, text, defaultValue);
+        }
+    }
+
+    private static double readDouble(final @NotNull XMLStreamReader reader, final double defaultValue)
+            throws XMLStreamException {
+        final var element = reader.getLocalName();
+        final var text = reader.getElementText().trim();
+        try {
+            return Double.parseDouble(text);
+        } catch (final NumberFormatException e) {
+            return invalidValue(element, text, defaultValue);
+        }
+    }
+
+    private static boolean readBoolean(final @NotNull XMLStreamReader reader, final boolean defaultValue)
+            throws XMLStreamException {
+        final var element = reader.getLocalName();
+        final var text = reader.getElementText().trim();
+        // the lexical space of xs:boolean
+        switch (text) {
+            case "true":
+            case "1":
+                return true;
+            case "false":
+            case "0":
+                return false;
+            default:
+                return invalidValue(element, text, defaultValue);
+        }
+    }
+
+    private static <T> @NotNull T invalidValue(
+            final @NotNull String element,
+            final @NotNull String text,
+            final @NotNull T defaultValue) {
+        LOG.warn("Invalid value '{}' for <{}> in the Heartbeat extension configuration, using default {}",
+                text,
+                element,
+                defaultValue);
+        return defaultValue;
+    }
+
+    private static void skipElement(final @NotNull XMLStreamReader reader) throws XMLStreamException {
+        var depth = 1;
+        while (depth > 0) {
+            final var event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
 }
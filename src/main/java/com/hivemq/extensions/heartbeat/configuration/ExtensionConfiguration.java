@@ -16,7 +16,24 @@
 
 package com.hivemq.extensions.heartbeat.configuration;
 
+import com.hivemq.extensions.heartbeat.configuration.entities.AccessLog;
+import com.hivemq.extensions.heartbeat.configuration.entities.CheckSchedule;
+import com.hivemq.extensions.heartbeat.configuration.entities.Connections;
+import com.hivemq.extensions.heartbeat.configuration.entities.Drain;
+import com.hivemq.extensions.heartbeat.configuration.entities.GrpcHealth;
+import com.hivemq.extensions.heartbeat.configuration.entities.HandlerExecutor;
+import com.hivemq.extensions.heartbeat.configuration.entities.HealthChecks;
 import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.Layer4;
+import com.hivemq.extensions.heartbeat.configuration.entities.Listener;
+import com.hivemq.extensions.heartbeat.configuration.entities.OverloadCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.ProberStatistics;
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import com.hivemq.extensions.heartbeat.configuration.entities.ResourcesCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.SocketOptions;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.configuration.entities.Tls;
+import com.hivemq.extensions.heartbeat.configuration.entities.Watch;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -24,6 +41,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
 
 /**
  * Manages the heartbeat extension configuration, including loading and validating settings.
@@ -47,11 +66,13 @@ public class ExtensionConfiguration {
     private static final @NotNull String EXTENSION_CONFIG_LOCATION = "conf/config.xml";
     private static final @NotNull String EXTENSION_CONFIG_LEGACY_LOCATION = "extension-config.xml";
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(ExtensionConfiguration.class);
+    private static final int MAX_PORT = 65535;
 
     private final @NotNull ConfigurationXmlParser configurationXmlParser = new ConfigurationXmlParser();
     private final @NotNull ConfigResolver configResolver;
+    private final @NotNull Path extensionHome;
 
-    private @Nullable Heartbeat heartbeat;
+    private volatile @Nullable Heartbeat heartbeat;
 
     /**
      * Creates a new extension configuration manager.
@@ -59,6 +80,7 @@ public class ExtensionConfiguration {
      * @param extensionHomeFolder the extension home folder where the configuration file is located
      */
     public ExtensionConfiguration(final @NotNull File extensionHomeFolder) {
+        this.extensionHome = extensionHomeFolder.toPath();
         this.configResolver = new ConfigResolver(extensionHomeFolder.toPath(),
                 EXTENSION_NAME,
                 EXTENSION_CONFIG_LOCATION,
@@ -69,15 +91,53 @@ public class ExtensionConfiguration {
      * Returns the heartbeat configuration, loading it from the configuration file if needed.
      * <p>
      * This method uses lazy loading - the configuration is only read when first requested. Subsequent calls return the
-     * cached configuration object.
+     * cached configuration object until it is replaced by {@link #reload()}.
      *
      * @return the heartbeat configuration with validated settings
      */
     public @NotNull Heartbeat getHeartbeatConfig() {
-        if (heartbeat == null) {
-            heartbeat = read(configResolver.get().toFile());
+        var current = heartbeat;
+        if (current == null) {
+            current = read(configResolver.get().toFile());
+            heartbeat = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the path of the configuration file.
+     *
+     * @return the path of the configuration file, which does not need to exist
+     */
+    public @NotNull Path getConfigFile() {
+        return configResolver.get();
+    }
+
+    /**
+     * Reads the configuration file again and replaces the cached heartbeat configuration.
+     * <p>
+     * Unlike the initial read, a missing, empty or invalid file does not fall back to the defaults, as this is usually
+     * a file that is currently being written. The current configuration is kept in that case.
+     *
+     * @return the new validated heartbeat configuration or {@code null} if the file could not be read
+     */
+    public @Nullable Heartbeat reload() {
+        final var configFile = configResolver.get().toFile();
+        if (!configFile.canRead() || configFile.length() == 0) {
+            LOG.warn("Unable to reload Heartbeat extension configuration file {}, keeping the current configuration",
+                    configFile.getAbsolutePath());
+            return null;
+        }
+        try {
+            final var newHeartbeat =
+                    validate(configurationXmlParser.unmarshalExtensionConfig(configFile), new Heartbeat());
+            heartbeat = newHeartbeat;
+            return newHeartbeat;
+        } catch (final IOException e) {
+            LOG.warn("Could not reload Heartbeat extension configuration file, keeping the current configuration, " +
+                    "reason: {}", e.getMessage());
+            return null;
         }
-        return heartbeat;
     }
 
     /**
@@ -115,6 +175,25 @@ public class ExtensionConfiguration {
      * Currently validates:
      * <ul>
      * <li>Port number must be greater than 0</li>
+     * <li>Probe, detail, metrics, probers and watch paths must be empty or start with a slash</li>
+     * <li>Detail and metrics max-age must not be negative</li>
+     * <li>State poll interval must be greater than 0</li>
+     * <li>State poll jitter must not be negative</li>
+     * <li>Engine must be a known value</li>
+     * <li>Executor type and rejection policy must be known values</li>
+     * <li>Executor threads and queue size must be greater than 0</li>
+     * <li>Maximum connections, idle timeout and request timeout must be greater than 0</li>
+     * <li>Socket backlog and acceptors must be greater than 0, more than one acceptor requires reuse-port, buffer
+     * sizes must not be negative</li>
+     * <li>Maximum and listed probers must be greater than 0</li>
+     * <li>Watch max streams and keep-alive interval must be greater than 0, the watch endpoint requires the
+     * {@value Heartbeat#ENGINE_NIO} engine</li>
+     * <li>Layer 4 and gRPC ports must be 0 or a valid port number, gRPC max streams must be greater than 0</li>
+     * <li>Status publish topic must be a topic name without wildcards, QoS must be 0, 1 or 2 and the intervals and
+     * message expiry must not be negative</li>
+     * <li>Health check intervals and deadlines must be greater than 0</li>
+     * <li>Resources check thresholds must be within their range</li>
+     * <li>Overload check status code must be 503 or 429, metric thresholds need a name and must not be negative</li>
      * </ul>
      *
      * @param  newHeartbeat     the heartbeat configuration to validate
@@ -128,6 +207,614 @@ public class ExtensionConfiguration {
             LOG.warn("Port must be greater than 0, using default port {}", defaultHeartbeat.getPort());
             newHeartbeat.setPort(defaultHeartbeat.getPort());
         }
+        if (isInvalidProbePath(newHeartbeat.getLivenessPath())) {
+            LOG.warn("Liveness path '{}' must be empty or start with '/', using default liveness path '{}'",
+                    newHeartbeat.getLivenessPath(),
+                    defaultHeartbeat.getLivenessPath());
+            newHeartbeat.setLivenessPath(defaultHeartbeat.getLivenessPath());
+        }
+        if (isInvalidProbePath(newHeartbeat.getReadinessPath())) {
+            LOG.warn("Readiness path '{}' must be empty or start with '/', using default readiness path '{}'",
+                    newHeartbeat.getReadinessPath(),
+                    defaultHeartbeat.getReadinessPath());
+            newHeartbeat.setReadinessPath(defaultHeartbeat.getReadinessPath());
+        }
+        if (isInvalidProbePath(newHeartbeat.getStartupPath())) {
+            LOG.warn("Startup path '{}' must be empty or start with '/', using default startup path '{}'",
+                    newHeartbeat.getStartupPath(),
+                    defaultHeartbeat.getStartupPath());
+            newHeartbeat.setStartupPath(defaultHeartbeat.getStartupPath());
+        }
+        if (isInvalidProbePath(newHeartbeat.getDetailPath())) {
+            LOG.warn("Detail path '{}' must be empty or start with '/', using default detail path '{}'",
+                    newHeartbeat.getDetailPath(),
+                    defaultHeartbeat.getDetailPath());
+            newHeartbeat.setDetailPath(defaultHeartbeat.getDetailPath());
+        }
+        if (newHeartbeat.getDetailMaxAge() < 0) {
+            LOG.warn("Detail max-age must not be negative, using default detail max-age {} s",
+                    defaultHeartbeat.getDetailMaxAge());
+            newHeartbeat.setDetailMaxAge(defaultHeartbeat.getDetailMaxAge());
+        }
+        if (isInvalidProbePath(newHeartbeat.getMetricsPath())) {
+            LOG.warn("Metrics path '{}' must be empty or start with '/', using default metrics path '{}'",
+                    newHeartbeat.getMetricsPath(),
+                    defaultHeartbeat.getMetricsPath());
+            newHeartbeat.setMetricsPath(defaultHeartbeat.getMetricsPath());
+        }
+        if (newHeartbeat.getMetricsMaxAge() < 0) {
+            LOG.warn("Metrics max-age must not be negative, using default metrics max-age {} ms",
+                    defaultHeartbeat.getMetricsMaxAge());
+            newHeartbeat.setMetricsMaxAge(defaultHeartbeat.getMetricsMaxAge());
+        }
+        if (isInvalidProbePath(newHeartbeat.getProbersPath())) {
+            LOG.warn("Probers path '{}' must be empty or start with '/', using default probers path '{}'",
+                    newHeartbeat.getProbersPath(),
+                    defaultHeartbeat.getProbersPath());
+            newHeartbeat.setProbersPath(defaultHeartbeat.getProbersPath());
+        }
+        if (isInvalidProbePath(newHeartbeat.getWatchPath())) {
+            LOG.warn("Watch path '{}' must be empty or start with '/', using default watch path '{}'",
+                    newHeartbeat.getWatchPath(),
+                    defaultHeartbeat.getWatchPath());
+            newHeartbeat.setWatchPath(defaultHeartbeat.getWatchPath());
+        }
+        if (newHeartbeat.getStatePollInterval() < 1) {
+            LOG.warn("State poll interval must be greater than 0, using default state poll interval {} ms",
+                    defaultHeartbeat.getStatePollInterval());
+            newHeartbeat.setStatePollInterval(defaultHeartbeat.getStatePollInterval());
+        }
+        if (newHeartbeat.getStatePollJitter() < 0) {
+            LOG.warn("State poll jitter must not be negative, using default state poll jitter {} ms",
+                    defaultHeartbeat.getStatePollJitter());
+            newHeartbeat.setStatePollJitter(defaultHeartbeat.getStatePollJitter());
+        }
+        final var engine = newHeartbeat.getEngine();
+        if (!Heartbeat.ENGINE_JDK.equals(engine) && !Heartbeat.ENGINE_NIO.equals(engine)) {
+            LOG.warn("Unknown engine '{}', using default engine '{}'", engine, defaultHeartbeat.getEngine());
+            newHeartbeat.setEngine(defaultHeartbeat.getEngine());
+        }
+        validateExecutor(newHeartbeat.getExecutor(), defaultHeartbeat.getExecutor());
+        validateConnections(newHeartbeat.getConnections(), defaultHeartbeat.getConnections());
+        validateRateLimit(newHeartbeat.getRateLimit(), defaultHeartbeat.getRateLimit());
+        validateTls(newHeartbeat, defaultHeartbeat.getTls());
+        validateSocketOptions(newHeartbeat, defaultHeartbeat.getSocketOptions());
+        validateAccessLog(newHeartbeat.getAccessLog(), defaultHeartbeat.getAccessLog());
+        validateProberStatistics(newHeartbeat.getProberStatistics(), defaultHeartbeat.getProberStatistics());
+        validateWatch(newHeartbeat, defaultHeartbeat.getWatch());
+        validateLayer4(newHeartbeat.getLayer4());
+        validateGrpcHealth(newHeartbeat.getGrpcHealth(), defaultHeartbeat.getGrpcHealth());
+        validateStatusPublish(newHeartbeat.getStatusPublish(), defaultHeartbeat.getStatusPublish());
+        validateDrain(newHeartbeat.getDrain(), defaultHeartbeat.getDrain());
+        validateListeners(newHeartbeat);
+        validateHealthChecks(newHeartbeat.getHealthChecks(), defaultHeartbeat.getHealthChecks());
         return newHeartbeat;
     }
+
+    /**
+     * Returns whether the given probe path is neither empty nor an absolute path.
+     *
+     * @param  path the probe path to check
+     * @return      {@code true} if the path is invalid
+     */
+    private static boolean isInvalidProbePath(final @NotNull String path) {
+        return !path.isEmpty() && !path.startsWith("/");
+    }
+
+    /**
+     * Validates the rate limit configuration and replaces invalid values with defaults.
+     *
+     * @param newRateLimit     the rate limit configuration to validate
+     * @param defaultRateLimit the default rate limit configuration to use for invalid values
+     */
+    private void validateRateLimit(final @NotNull RateLimit newRateLimit, final @NotNull RateLimit defaultRateLimit) {
+        if (newRateLimit.getRequestsPerSecond() < 0) {
+            LOG.warn("Rate limit requests per second must not be negative, using default requests per second {}",
+                    defaultRateLimit.getRequestsPerSecond());
+            newRateLimit.setRequestsPerSecond(defaultRateLimit.getRequestsPerSecond());
+        }
+        if (newRateLimit.getBurst() < 1) {
+            LOG.warn("Rate limit burst must be greater than 0, using default burst {}", defaultRateLimit.getBurst());
+            newRateLimit.setBurst(defaultRateLimit.getBurst());
+        }
+        if (newRateLimit.getMaxClients() < 1) {
+            LOG.warn("Rate limit max clients must be greater than 0, using default max clients {}",
+                    defaultRateLimit.getMaxClients());
+            newRateLimit.setMaxClients(defaultRateLimit.getMaxClients());
+        }
+        final var action = newRateLimit.getAction();
+        if (!RateLimit.ACTION_REJECT.equals(action) && !RateLimit.ACTION_DROP.equals(action)) {
+            LOG.warn("Unknown rate limit action '{}', using default rate limit action '{}'",
+                    action,
+                    defaultRateLimit.getAction());
+            newRateLimit.setAction(defaultRateLimit.getAction());
+        }
+    }
+
+    /**
+     * Validates the TLS configuration, replaces invalid values with defaults and resolves a relative keystore path
+     * against the extension folder. As only the {@value Heartbeat#ENGINE_JDK} engine serves HTTPS, it is used if TLS is
+     * enabled.
+     *
+     * @param newHeartbeat the heartbeat configuration with the TLS configuration to validate
+     * @param defaultTls   the default TLS configuration to use for invalid values
+     */
+    private void validateTls(final @NotNull Heartbeat newHeartbeat, final @NotNull Tls defaultTls) {
+        final var newTls = newHeartbeat.getTls();
+        if (newTls.getSessionCacheSize() < 1) {
+            LOG.warn("TLS session cache size must be greater than 0, using default session cache size {}",
+                    defaultTls.getSessionCacheSize());
+            newTls.setSessionCacheSize(defaultTls.getSessionCacheSize());
+        }
+        if (newTls.getSessionTimeout() < 1) {
+            LOG.warn("TLS session timeout must be greater than 0, using default session timeout {} s",
+                    defaultTls.getSessionTimeout());
+            newTls.setSessionTimeout(defaultTls.getSessionTimeout());
+        }
+        if (!newTls.isEnabled()) {
+            return;
+        }
+        newTls.setKeystorePath(extensionHome.resolve(newTls.getKeystorePath()).toString());
+        if (!Heartbeat.ENGINE_JDK.equals(newHeartbeat.getEngine())) {
+            LOG.warn("TLS is only supported by engine '{}', using engine '{}' instead of '{}'",
+                    Heartbeat.ENGINE_JDK,
+                    Heartbeat.ENGINE_JDK,
+                    newHeartbeat.getEngine());
+            newHeartbeat.setEngine(Heartbeat.ENGINE_JDK);
+        }
+    }
+
+    /**
+     * Validates the access log configuration, replaces invalid values with defaults and resolves the file against the
+     * extension folder.
+     *
+     * @param newAccessLog     the access log configuration to validate
+     * @param defaultAccessLog the default access log configuration to use for invalid values
+     */
+    private void validateAccessLog(final @NotNull AccessLog newAccessLog, final @NotNull AccessLog defaultAccessLog) {
+        if (newAccessLog.getFile().isBlank()) {
+            LOG.warn("Access log file must not be empty, using default access log file '{}'",
+                    defaultAccessLog.getFile());
+            newAccessLog.setFile(defaultAccessLog.getFile());
+        }
+        newAccessLog.setFile(extensionHome.resolve(newAccessLog.getFile()).toString());
+        if (newAccessLog.getBufferSize() < 1) {
+            LOG.warn("Access log buffer size must be greater than 0, using default buffer size {}",
+                    defaultAccessLog.getBufferSize());
+            newAccessLog.setBufferSize(defaultAccessLog.getBufferSize());
+        }
+        final var overflow = newAccessLog.getOverflow();
+        if (!AccessLog.OVERFLOW_DROP_NEWEST.equals(overflow) && !AccessLog.OVERFLOW_DROP_OLDEST.equals(overflow)) {
+            LOG.warn("Unknown access log overflow '{}', using default access log overflow '{}'",
+                    overflow,
+                    defaultAccessLog.getOverflow());
+            newAccessLog.setOverflow(defaultAccessLog.getOverflow());
+        }
+        if (newAccessLog.getFlushInterval() < 1) {
+            LOG.warn("Access log flush interval must be greater than 0, using default flush interval {} ms",
+                    defaultAccessLog.getFlushInterval());
+            newAccessLog.setFlushInterval(defaultAccessLog.getFlushInterval());
+        }
+        if (newAccessLog.getMaxFileSize() < 1) {
+            LOG.warn("Access log max file size must be greater than 0, using default max file size {} MB",
+                    defaultAccessLog.getMaxFileSize());
+            newAccessLog.setMaxFileSize(defaultAccessLog.getMaxFileSize());
+        }
+        if (newAccessLog.getMaxFiles() < 1) {
+            LOG.warn("Access log max files must be greater than 0, using default max files {}",
+                    defaultAccessLog.getMaxFiles());
+            newAccessLog.setMaxFiles(defaultAccessLog.getMaxFiles());
+        }
+    }
+
+    /**
+     * Validates the prober statistics configuration and replaces invalid values with defaults.
+     *
+     * @param newProberStatistics     the prober statistics configuration to validate
+     * @param defaultProberStatistics the default prober statistics configuration to use for invalid values
+     */
+    private void validateProberStatistics(
+            final @NotNull ProberStatistics newProberStatistics,
+            final @NotNull ProberStatistics defaultProberStatistics) {
+        if (newProberStatistics.getMaxProbers() < 1) {
+            LOG.warn("Max probers must be greater than 0, using default max probers {}",
+                    defaultProberStatistics.getMaxProbers());
+            newProberStatistics.setMaxProbers(defaultProberStatistics.getMaxProbers());
+        }
+        if (newProberStatistics.getTop() < 1) {
+            LOG.warn("Listed top probers must be greater than 0, using default top probers {}",
+                    defaultProberStatistics.getTop());
+            newProberStatistics.setTop(defaultProberStatistics.getTop());
+        }
+    }
+
+    /**
+     * Validates the watch configuration and replaces invalid values with defaults.
+     * <p>
+     * The event streams are only served by the {@value Heartbeat#ENGINE_NIO} engine, which does not block a thread per
+     * stream, so the watch endpoint is disabled for the {@value Heartbeat#ENGINE_JDK} engine. The engine must already
+     * be validated, as TLS may have changed it.
+     *
+     * @param newHeartbeat the heartbeat configuration with the watch configuration to validate
+     * @param defaultWatch the default watch configuration to use for invalid values
+     */
+    private void validateWatch(final @NotNull Heartbeat newHeartbeat, final @NotNull Watch defaultWatch) {
+        final var newWatch = newHeartbeat.getWatch();
+        if (newWatch.isEnabled() && !Heartbeat.ENGINE_NIO.equals(newHeartbeat.getEngine())) {
+            LOG.warn("The watch endpoint is only supported by engine '{}', disabling the watch endpoint",
+                    Heartbeat.ENGINE_NIO);
+            newWatch.setEnabled(false);
+        }
+        if (newWatch.getMaxStreams() < 1) {
+            LOG.warn("Watch max streams must be greater than 0, using default max streams {}",
+                    defaultWatch.getMaxStreams());
+            newWatch.setMaxStreams(defaultWatch.getMaxStreams());
+        }
+        if (newWatch.getKeepAliveInterval() < 1) {
+            LOG.warn("Watch keep-alive interval must be greater than 0, using default keep-alive interval {} ms",
+                    defaultWatch.getKeepAliveInterval());
+            newWatch.setKeepAliveInterval(defaultWatch.getKeepAliveInterval());
+        }
+    }
+
+    /**
+     * Validates the layer 4 configuration and disables responders with an invalid port.
+     *
+     * @param newLayer4 the layer 4 configuration to validate
+     */
+    private void validateLayer4(final @NotNull Layer4 newLayer4) {
+        if (newLayer4.getTcpPort() < 0 || newLayer4.getTcpPort() > MAX_PORT) {
+            LOG.warn("Layer 4 TCP port {} must be between 0 and {}, disabling the TCP responder",
+                    newLayer4.getTcpPort(),
+                    MAX_PORT);
+            newLayer4.setTcpPort(0);
+        }
+        if (newLayer4.getUdpPort() < 0 || newLayer4.getUdpPort() > MAX_PORT) {
+            LOG.warn("Layer 4 UDP port {} must be between 0 and {}, disabling the UDP responder",
+                    newLayer4.getUdpPort(),
+                    MAX_PORT);
+            newLayer4.setUdpPort(0);
+        }
+    }
+
+    /**
+     * Validates the gRPC health configuration and replaces invalid values with defaults.
+     *
+     * @param newGrpcHealth     the gRPC health configuration to validate
+     * @param defaultGrpcHealth the default gRPC health configuration to use for invalid values
+     */
+    private void validateGrpcHealth(
+            final @NotNull GrpcHealth newGrpcHealth,
+            final @NotNull GrpcHealth defaultGrpcHealth) {
+        if (newGrpcHealth.getPort() < 0 || newGrpcHealth.getPort() > MAX_PORT) {
+            LOG.warn("gRPC health port {} must be between 0 and {}, disabling the gRPC health service",
+                    newGrpcHealth.getPort(),
+                    MAX_PORT);
+            newGrpcHealth.setPort(0);
+        }
+        if (newGrpcHealth.getMaxStreams() < 1) {
+            LOG.warn("gRPC health max streams must be greater than 0, using default max streams {}",
+                    defaultGrpcHealth.getMaxStreams());
+            newGrpcHealth.setMaxStreams(defaultGrpcHealth.getMaxStreams());
+        }
+    }
+
+    /**
+     * Validates the status publish configuration and replaces invalid values with defaults.
+     *
+     * @param newStatusPublish     the status publish configuration to validate
+     * @param defaultStatusPublish the default status publish configuration to use for invalid values
+     */
+    private void validateStatusPublish(
+            final @NotNull StatusPublish newStatusPublish,
+            final @NotNull StatusPublish defaultStatusPublish) {
+        final var topic = newStatusPublish.getTopic();
+        if (topic.isEmpty() || topic.contains("+") || topic.contains("#")) {
+            LOG.warn("Status publish topic '{}' must not be empty or contain wildcards, using default topic '{}'",
+                    topic,
+                    defaultStatusPublish.getTopic());
+            newStatusPublish.setTopic(defaultStatusPublish.getTopic());
+        }
+        if (newStatusPublish.getQos() < 0 || newStatusPublish.getQos() > 2) {
+            LOG.warn("Status publish QoS {} must be 0, 1 or 2, using default QoS {}",
+                    newStatusPublish.getQos(),
+                    defaultStatusPublish.getQos());
+            newStatusPublish.setQos(defaultStatusPublish.getQos());
+        }
+        if (newStatusPublish.getMinInterval() < 0) {
+            LOG.warn("Status publish min interval must not be negative, using default min interval {} ms",
+                    defaultStatusPublish.getMinInterval());
+            newStatusPublish.setMinInterval(defaultStatusPublish.getMinInterval());
+        }
+        if (newStatusPublish.getRefreshInterval() < 0) {
+            LOG.warn("Status publish refresh interval must not be negative, using default refresh interval {} ms",
+                    defaultStatusPublish.getRefreshInterval());
+            newStatusPublish.setRefreshInterval(defaultStatusPublish.getRefreshInterval());
+        }
+        if (newStatusPublish.getMessageExpiry() < 0) {
+            LOG.warn("Status publish message expiry must not be negative, using default message expiry {} s",
+                    defaultStatusPublish.getMessageExpiry());
+            newStatusPublish.setMessageExpiry(defaultStatusPublish.getMessageExpiry());
+        }
+    }
+
+    /**
+     * Validates the drain configuration and replaces invalid values with defaults.
+     *
+     * @param newDrain     the drain configuration to validate
+     * @param defaultDrain the default drain configuration to use for invalid values
+     */
+    private void validateDrain(final @NotNull Drain newDrain, final @NotNull Drain defaultDrain) {
+        if (newDrain.getCheckInterval() < 0) {
+            LOG.warn("Drain check interval must not be negative, using default check interval {} ms",
+                    defaultDrain.getCheckInterval());
+            newDrain.setCheckInterval(defaultDrain.getCheckInterval());
+        }
+        if (newDrain.getUnhealthyThreshold() < 1) {
+            LOG.warn("Drain unhealthy threshold must be greater than 0, using default unhealthy threshold {}",
+                    defaultDrain.getUnhealthyThreshold());
+            newDrain.setUnhealthyThreshold(defaultDrain.getUnhealthyThreshold());
+        }
+    }
+
+    /**
+     * Validates the listeners, removes listeners without a valid and unique address and lets invalid paths be inherited
+     * from the heartbeat.
+     *
+     * @param newHeartbeat the heartbeat configuration with the listeners to validate
+     */
+    private void validateListeners(final @NotNull Heartbeat newHeartbeat) {
+        final var addresses = new HashSet<String>();
+        final var iterator = newHeartbeat.getListeners().iterator();
+        while (iterator.hasNext()) {
+            final var listener = iterator.next();
+            if (listener.getPort() < 1) {
+                LOG.warn("Port of listener {} must be greater than 0, ignoring the listener", listener.getPort());
+                iterator.remove();
+                continue;
+            }
+            final var bindAddress =
+                    listener.getBindAddress() != null ? listener.getBindAddress() : newHeartbeat.getBindAddress();
+            if (!addresses.add(bindAddress + ":" + listener.getPort())) {
+                LOG.warn("Listener on address '{}' and port {} is configured twice, ignoring the duplicate",
+                        bindAddress,
+                        listener.getPort());
+                iterator.remove();
+                continue;
+            }
+            listener.setPath(validListenerPath("Heartbeat", listener.getPath(), listener));
+            listener.setLivenessPath(validListenerPath("Liveness", listener.getLivenessPath(), listener));
+            listener.setReadinessPath(validListenerPath("Readiness", listener.getReadinessPath(), listener));
+            listener.setStartupPath(validListenerPath("Startup", listener.getStartupPath(), listener));
+            listener.setDetailPath(validListenerPath("Detail", listener.getDetailPath(), listener));
+            listener.setMetricsPath(validListenerPath("Metrics", listener.getMetricsPath(), listener));
+            listener.setProbersPath(validListenerPath("Probers", listener.getProbersPath(), listener));
+            listener.setWatchPath(validListenerPath("Watch", listener.getWatchPath(), listener));
+        }
+    }
+
+    /**
+     * Returns the given path of a listener if it is valid, otherwise {@code null} so the path is inherited.
+     *
+     * @param  name     the name of the endpoint for the log message
+     * @param  path     the configured path or {@code null} if it is inherited
+     * @param  listener the listener the path belongs to
+     * @return          the valid path or {@code null}
+     */
+    private static @Nullable String validListenerPath(
+            final @NotNull String name,
+            final @Nullable String path,
+            final @NotNull Listener listener) {
+        if (path != null && isInvalidProbePath(path)) {
+            LOG.warn("{} path '{}' of listener {} must be empty or start with '/', using the path of the heartbeat",
+                    name,
+                    path,
+                    listener.getPort());
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * Validates the executor configuration and replaces invalid values with defaults.
+     *
+     * @param newExecutor     the executor configuration to validate
+     * @param defaultExecutor the default executor configuration to use for invalid values
+     */
+    private void validateExecutor(
+            final @NotNull HandlerExecutor newExecutor,
+            final @NotNull HandlerExecutor defaultExecutor) {
+        final var type = newExecutor.getType();
+        if (!HandlerExecutor.TYPE_DISPATCHER.equals(type) &&
+                !HandlerExecutor.TYPE_BOUNDED.equals(type) &&
+                !HandlerExecutor.TYPE_VIRTUAL.equals(type)) {
+            LOG.warn("Unknown executor type '{}', using default executor type '{}'", type, defaultExecutor.getType());
+            newExecutor.setType(defaultExecutor.getType());
+        }
+        if (newExecutor.getThreads() < 1) {
+            LOG.warn("Executor threads must be greater than 0, using default executor threads {}",
+                    defaultExecutor.getThreads());
+            newExecutor.setThreads(defaultExecutor.getThreads());
+        }
+        if (newExecutor.getQueueSize() < 1) {
+            LOG.warn("Executor queue size must be greater than 0, using default executor queue size {}",
+                    defaultExecutor.getQueueSize());
+            newExecutor.setQueueSize(defaultExecutor.getQueueSize());
+        }
+        final var rejectionPolicy = newExecutor.getRejectionPolicy();
+        if (!HandlerExecutor.POLICY_SERVICE_UNAVAILABLE.equals(rejectionPolicy) &&
+                !HandlerExecutor.POLICY_CALLER_RUNS.equals(rejectionPolicy)) {
+            LOG.warn("Unknown executor rejection policy '{}', using default executor rejection policy '{}'",
+                    rejectionPolicy,
+                    defaultExecutor.getRejectionPolicy());
+            newExecutor.setRejectionPolicy(defaultExecutor.getRejectionPolicy());
+        }
+    }
+
+    /**
+     * Validates the connections configuration and replaces invalid values with defaults.
+     *
+     * @param newConnections     the connections configuration to validate
+     * @param defaultConnections the default connections configuration to use for invalid values
+     */
+    private void validateConnections(
+            final @NotNull Connections newConnections,
+            final @NotNull Connections defaultConnections) {
+        if (newConnections.getMaxConnections() < 1) {
+            LOG.warn("Max connections must be greater than 0, using default max connections {}",
+                    defaultConnections.getMaxConnections());
+            newConnections.setMaxConnections(defaultConnections.getMaxConnections());
+        }
+        if (newConnections.getIdleTimeout() < 1) {
+            LOG.warn("Idle timeout must be greater than 0, using default idle timeout {} ms",
+                    defaultConnections.getIdleTimeout());
+            newConnections.setIdleTimeout(defaultConnections.getIdleTimeout());
+        }
+        if (newConnections.getRequestTimeout() < 1) {
+            LOG.warn("Request timeout must be greater than 0, using default request timeout {} ms",
+                    defaultConnections.getRequestTimeout());
+            newConnections.setRequestTimeout(defaultConnections.getRequestTimeout());
+        }
+    }
+
+    /**
+     * Validates the socket options and replaces invalid values with defaults. The {@value Heartbeat#ENGINE_JDK} engine
+     * only applies the backlog, so the other options are reported as ignored. The engine must already be validated, as
+     * TLS may have changed it.
+     *
+     * @param newHeartbeat         the heartbeat configuration with the socket options to validate
+     * @param defaultSocketOptions the default socket options to use for invalid values
+     */
+    private void validateSocketOptions(
+            final @NotNull Heartbeat newHeartbeat,
+            final @NotNull SocketOptions defaultSocketOptions) {
+        final var newSocketOptions = newHeartbeat.getSocketOptions();
+        if (newSocketOptions.getBacklog() < 1) {
+            LOG.warn("Socket backlog must be greater than 0, using default backlog {}",
+                    defaultSocketOptions.getBacklog());
+            newSocketOptions.setBacklog(defaultSocketOptions.getBacklog());
+        }
+        if (newSocketOptions.getAcceptors() < 1) {
+            LOG.warn("Socket acceptors must be greater than 0, using default acceptors {}",
+                    defaultSocketOptions.getAcceptors());
+            newSocketOptions.setAcceptors(defaultSocketOptions.getAcceptors());
+        }
+        if (newSocketOptions.getAcceptors() > 1 && !newSocketOptions.isReusePort()) {
+            LOG.warn("Socket acceptors {} require reuse-port, using a single acceptor",
+                    newSocketOptions.getAcceptors());
+            newSocketOptions.setAcceptors(1);
+        }
+        if (newSocketOptions.getSendBufferSize() < 0) {
+            LOG.warn("Socket send buffer size must not be negative, using default send buffer size {}",
+                    defaultSocketOptions.getSendBufferSize());
+            newSocketOptions.setSendBufferSize(defaultSocketOptions.getSendBufferSize());
+        }
+        if (newSocketOptions.getReceiveBufferSize() < 0) {
+            LOG.warn("Socket receive buffer size must not be negative, using default receive buffer size {}",
+                    defaultSocketOptions.getReceiveBufferSize());
+            newSocketOptions.setReceiveBufferSize(defaultSocketOptions.getReceiveBufferSize());
+        }
+        if (!Heartbeat.ENGINE_NIO.equals(newHeartbeat.getEngine())) {
+            final var backlogOnly = new SocketOptions();
+            backlogOnly.setBacklog(newSocketOptions.getBacklog());
+            if (!newSocketOptions.equals(backlogOnly)) {
+                LOG.warn("Engine '{}' only applies the socket backlog, the other socket options require engine '{}'",
+                        newHeartbeat.getEngine(),
+                        Heartbeat.ENGINE_NIO);
+            }
+        }
+    }
+
+    /**
+     * Validates the health checks configuration and replaces invalid values with defaults.
+     *
+     * @param newHealthChecks     the health checks configuration to validate
+     * @param defaultHealthChecks the default health checks configuration to use for invalid values
+     */
+    private void validateHealthChecks(
+            final @NotNull HealthChecks newHealthChecks,
+            final @NotNull HealthChecks defaultHealthChecks) {
+        validateCheckSchedule("listeners", newHealthChecks.getListeners(), defaultHealthChecks.getListeners());
+        validateCheckSchedule("resources", newHealthChecks.getResources(), defaultHealthChecks.getResources());
+        validateCheckSchedule("overload", newHealthChecks.getOverload(), defaultHealthChecks.getOverload());
+        validateCheckSchedule("custom", newHealthChecks.getCustom(), defaultHealthChecks.getCustom());
+        final var newResources = newHealthChecks.getResources();
+        final var defaultResources = defaultHealthChecks.getResources();
+        if (newResources.getMinFreeHeapPercent() < 0 || newResources.getMinFreeHeapPercent() > 99) {
+            LOG.warn("Min free heap must be between 0 and 99 percent, using default min free heap {} percent",
+                    defaultResources.getMinFreeHeapPercent());
+            newResources.setMinFreeHeapPercent(defaultResources.getMinFreeHeapPercent());
+        }
+        if (newResources.getMinFreeDisk() < 0) {
+            LOG.warn("Min free disk must not be negative, using default min free disk {} MB",
+                    defaultResources.getMinFreeDisk());
+            newResources.setMinFreeDisk(defaultResources.getMinFreeDisk());
+        }
+        validateOverload(newHealthChecks.getOverload(), defaultHealthChecks.getOverload());
+    }
+
+    /**
+     * Validates the overload check configuration, replaces invalid values with defaults and removes invalid
+     * thresholds.
+     *
+     * @param newOverload     the overload check configuration to validate
+     * @param defaultOverload the default overload check configuration to use for invalid values
+     */
+    private void validateOverload(
+            final @NotNull OverloadCheck newOverload,
+            final @NotNull OverloadCheck defaultOverload) {
+        if (newOverload.getStatusCode() != OverloadCheck.STATUS_CODE_SERVICE_UNAVAILABLE &&
+                newOverload.getStatusCode() != OverloadCheck.STATUS_CODE_TOO_MANY_REQUESTS) {
+            LOG.warn("Overload status code must be {} or {}, using default status code {}",
+                    OverloadCheck.STATUS_CODE_SERVICE_UNAVAILABLE,
+                    OverloadCheck.STATUS_CODE_TOO_MANY_REQUESTS,
+                    defaultOverload.getStatusCode());
+            newOverload.setStatusCode(defaultOverload.getStatusCode());
+        }
+        if (newOverload.getRecoverPercent() < 1 || newOverload.getRecoverPercent() > 100) {
+            LOG.warn("Overload recover share must be between 1 and 100 percent, using default recover share {} percent",
+                    defaultOverload.getRecoverPercent());
+            newOverload.setRecoverPercent(defaultOverload.getRecoverPercent());
+        }
+        newOverload.getThresholds().removeIf(threshold -> {
+            if (threshold.getMetric().isBlank()) {
+                LOG.warn("Overload threshold without a metric name, ignoring threshold");
+                return true;
+            }
+            if (!(threshold.getMax() >= 0)) {
+                LOG.warn("Overload threshold of metric {} must not be negative, ignoring threshold",
+                        threshold.getMetric());
+                return true;
+            }
+            return false;
+        });
+        if (newOverload.isEnabled() && newOverload.getThresholds().isEmpty()) {
+            LOG.warn("Overload health check is enabled without thresholds, it always passes");
+        }
+    }
+
+    /**
+     * Validates the schedule of a health check and replaces invalid values with defaults.
+     *
+     * @param name            the name of the health check, used for logging
+     * @param newSchedule     the health check schedule to validate
+     * @param defaultSchedule the default health check schedule to use for invalid values
+     */
+    private void validateCheckSchedule(
+            final @NotNull String name,
+            final @NotNull CheckSchedule newSchedule,
+            final @NotNull CheckSchedule defaultSchedule) {
+        if (newSchedule.getInterval() < 1) {
+            LOG.warn("Interval of the {} health check must be greater than 0, using default interval {} ms",
+                    name,
+                    defaultSchedule.getInterval());
+            newSchedule.setInterval(defaultSchedule.getInterval());
+        }
+        if (newSchedule.getDeadline() < 1) {
+            LOG.warn("Deadline of the {} health check must be greater than 0, using default deadline {} ms",
+                    name,
+                    defaultSchedule.getDeadline());
+            newSchedule.setDeadline(defaultSchedule.getDeadline());
+        }
+    }
 }
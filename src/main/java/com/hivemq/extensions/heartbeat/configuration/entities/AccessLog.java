@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the access log of the heartbeat endpoints.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>enabled</b>: Whether every request is written to the access log (default: {@value DEFAULT_ENABLED})</li>
+ * <li><b>file</b>: The access log file, relative paths are resolved against the extension folder (default:
+ * {@value DEFAULT_FILE})</li>
+ * <li><b>buffer-size</b>: The number of records that are buffered for the background writer (default:
+ * {@value DEFAULT_BUFFER_SIZE})</li>
+ * <li><b>overflow</b>: Which record is dropped while the buffer is full, {@value OVERFLOW_DROP_NEWEST} drops the new
+ * record, {@value OVERFLOW_DROP_OLDEST} drops the oldest buffered record (default: {@value DEFAULT_OVERFLOW})</li>
+ * <li><b>flush-interval-ms</b>: The time in milliseconds the writer waits for new records when the buffer is empty
+ * (default: {@value DEFAULT_FLUSH_INTERVAL})</li>
+ * <li><b>max-file-size-mb</b>: The size in megabytes at which the file is rolled (default:
+ * {@value DEFAULT_MAX_FILE_SIZE})</li>
+ * <li><b>max-files</b>: The number of rolled files that are kept besides the current file (default:
+ * {@value DEFAULT_MAX_FILES})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class AccessLog {
+
+    public static final @NotNull String OVERFLOW_DROP_NEWEST = "drop-newest";
+    public static final @NotNull String OVERFLOW_DROP_OLDEST = "drop-oldest";
+
+    private static final boolean DEFAULT_ENABLED = false;
+    private static final @NotNull String DEFAULT_FILE = "access.log";
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final @NotNull String DEFAULT_OVERFLOW = OVERFLOW_DROP_NEWEST;
+    private static final int DEFAULT_FLUSH_INTERVAL = 500;
+    private static final int DEFAULT_MAX_FILE_SIZE = 10;
+    private static final int DEFAULT_MAX_FILES = 5;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private @NotNull String file = DEFAULT_FILE;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private @NotNull String overflow = DEFAULT_OVERFLOW;
+    private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private int maxFileSize = DEFAULT_MAX_FILE_SIZE;
+    private int maxFiles = DEFAULT_MAX_FILES;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the access log is disabled.
+     */
+    public AccessLog() {
+    }
+
+    /**
+     * Returns whether every request is written to the access log.
+     *
+     * @return {@code true} if the access log is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether every request is written to the access log.
+     *
+     * @param enabled {@code true} to enable the access log
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the access log file.
+     *
+     * @return the file path, absolute after the configuration was validated
+     */
+    public @NotNull String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the access log file.
+     *
+     * @param file the file path, relative paths are resolved against the extension folder
+     */
+    public void setFile(final @NotNull String file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the number of records that are buffered for the background writer.
+     *
+     * @return the buffer size
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Sets the number of records that are buffered for the background writer.
+     *
+     * @param bufferSize the buffer size (must be greater than 0)
+     */
+    public void setBufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns which record is dropped while the buffer is full.
+     *
+     * @return {@value OVERFLOW_DROP_NEWEST} or {@value OVERFLOW_DROP_OLDEST}
+     */
+    public @NotNull String getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Sets which record is dropped while the buffer is full.
+     *
+     * @param overflow {@value OVERFLOW_DROP_NEWEST} or {@value OVERFLOW_DROP_OLDEST}
+     */
+    public void setOverflow(final @NotNull String overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * Returns the time the writer waits for new records when the buffer is empty.
+     *
+     * @return the flush interval in milliseconds
+     */
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Sets the time the writer waits for new records when the buffer is empty.
+     *
+     * @param flushInterval the flush interval in milliseconds (must be greater than 0)
+     */
+    public void setFlushInterval(final int flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Returns the size at which the file is rolled.
+     *
+     * @return the maximum file size in megabytes
+     */
+    public int getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Sets the size at which the file is rolled.
+     *
+     * @param maxFileSize the maximum file size in megabytes (must be greater than 0)
+     */
+    public void setMaxFileSize(final int maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Returns the number of rolled files that are kept besides the current file.
+     *
+     * @return the maximum number of rolled files
+     */
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    /**
+     * Sets the number of rolled files that are kept besides the current file.
+     *
+     * @param maxFiles the maximum number of rolled files (must be greater than 0)
+     */
+    public void setMaxFiles(final int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (AccessLog) o;
+        return enabled == that.enabled &&
+                bufferSize == that.bufferSize &&
+                flushInterval == that.flushInterval &&
+                maxFileSize == that.maxFileSize &&
+                maxFiles == that.maxFiles &&
+                file.equals(that.file) &&
+                overflow.equals(that.overflow);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, file, bufferSize, overflow, flushInterval, maxFileSize, maxFiles);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "AccessLog{" +
+                "enabled=" +
+                enabled +
+                ", file='" +
+                file +
+                '\'' +
+                ", bufferSize=" +
+                bufferSize +
+                ", overflow='" +
+                overflow +
+                '\'' +
+                ", flushInterval=" +
+                flushInterval +
+                ", maxFileSize=" +
+                maxFileSize +
+                ", maxFiles=" +
+                maxFiles +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration entity representing the schedule of a background health check.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>enabled</b>: Whether the check contributes to the readiness, a configured check is enabled unless this is set
+ * to {@code false} (default: {@value DEFAULT_ENABLED})</li>
+ * <li><b>interval-ms</b>: The delay in milliseconds between two evaluations of the check (default:
+ * {@value DEFAULT_INTERVAL})</li>
+ * <li><b>deadline-ms</b>: The time in milliseconds an evaluation may take, a check that overruns its deadline keeps
+ * its last result and is marked as stale (default: {@value DEFAULT_DEADLINE})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class CheckSchedule {
+
+    private static final boolean DEFAULT_ENABLED = true;
+    private static final long DEFAULT_INTERVAL = 5_000;
+    private static final long DEFAULT_DEADLINE = 1_000;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private long interval = DEFAULT_INTERVAL;
+    private long deadline = DEFAULT_DEADLINE;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public CheckSchedule() {
+    }
+
+    /**
+     * Creates a schedule with the default interval and deadline.
+     *
+     * @param enabled whether the check is enabled
+     */
+    public CheckSchedule(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether the check contributes to the readiness.
+     *
+     * @return {@code true} if the check is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the check contributes to the readiness.
+     *
+     * @param enabled {@code true} to enable the check
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the delay between two evaluations of the check.
+     *
+     * @return the interval in milliseconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the delay between two evaluations of the check.
+     *
+     * @param interval the interval in milliseconds (must be greater than 0)
+     */
+    public void setInterval(final long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Returns the time an evaluation of the check may take.
+     *
+     * @return the deadline in milliseconds
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the time an evaluation of the check may take.
+     *
+     * @param deadline the deadline in milliseconds (must be greater than 0)
+     */
+    public void setDeadline(final long deadline) {
+        this.deadline = deadline;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "CheckSchedule{" +
+                "enabled=" +
+                enabled +
+                ", interval=" +
+                interval +
+                ", deadline=" +
+                deadline +
+                '}';
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the connection handling of the heartbeat listener.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>keep-alive</b>: Whether connections are kept open for subsequent requests (default:
+ * {@value DEFAULT_KEEP_ALIVE})</li>
+ * <li><b>max-connections</b>: The maximum number of concurrently open connections, further connections are not
+ * accepted until a connection is closed (default: {@value DEFAULT_MAX_CONNECTIONS})</li>
+ * <li><b>idle-timeout-ms</b>: The time in milliseconds a kept-alive connection may wait for the next request before it
+ * is closed (default: {@value DEFAULT_IDLE_TIMEOUT})</li>
+ * <li><b>request-timeout-ms</b>: The time in milliseconds a client has to send a complete request head, or to read the
+ * response, before the connection is closed (default: {@value DEFAULT_REQUEST_TIMEOUT})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class Connections {
+
+    private static final boolean DEFAULT_KEEP_ALIVE = true;
+    private static final int DEFAULT_MAX_CONNECTIONS = 1024;
+    private static final long DEFAULT_IDLE_TIMEOUT = 30_000;
+    private static final long DEFAULT_REQUEST_TIMEOUT = 5_000;
+
+    private boolean keepAlive = DEFAULT_KEEP_ALIVE;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private long requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public Connections() {
+    }
+
+    /**
+     * Returns whether connections are kept open for subsequent requests.
+     *
+     * @return {@code true} if keep-alive is enabled
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Sets whether connections are kept open for subsequent requests.
+     *
+     * @param keepAlive {@code true} to enable keep-alive
+     */
+    public void setKeepAlive(final boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Returns the maximum number of concurrently open connections.
+     *
+     * @return the maximum number of connections
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets the maximum number of concurrently open connections.
+     *
+     * @param maxConnections the maximum number of connections (must be greater than 0)
+     */
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Returns the time a kept-alive connection may wait for the next request.
+     *
+     * @return the idle timeout in milliseconds
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the time a kept-alive connection may wait for the next request.
+     *
+     * @param idleTimeout the idle timeout in milliseconds (must be greater than 0)
+     */
+    public void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns the time a client has to send a complete request head or to read the response.
+     *
+     * @return the request timeout in milliseconds
+     */
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Sets the time a client has to send a complete request head or to read the response.
+     *
+     * @param requestTimeout the request timeout in milliseconds (must be greater than 0)
+     */
+    public void setRequestTimeout(final long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (Connections) o;
+        return keepAlive == that.keepAlive &&
+                maxConnections == that.maxConnections &&
+                idleTimeout == that.idleTimeout &&
+                requestTimeout == that.requestTimeout;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keepAlive, maxConnections, idleTimeout, requestTimeout);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Connections{" +
+                "keepAlive=" +
+                keepAlive +
+                ", maxConnections=" +
+                maxConnections +
+                ", idleTimeout=" +
+                idleTimeout +
+                ", requestTimeout=" +
+                requestTimeout +
+                '}';
+    }
+}
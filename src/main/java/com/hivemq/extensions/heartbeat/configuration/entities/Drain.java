@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the drain phase before the heartbeat endpoints are closed on shutdown.
+ * <p>
+ * While draining, the readiness probe fails but the listeners keep serving, so the load balancer takes the node out
+ * of rotation by its regular health checks instead of by connection errors. The drain window is derived from the
+ * health check settings of the load balancer.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>check-interval-ms</b>: The interval in milliseconds in which the load balancer checks the readiness, 0 to
+ * close the listeners without draining (default: {@value DEFAULT_CHECK_INTERVAL})</li>
+ * <li><b>unhealthy-threshold</b>: The number of consecutive failed checks after which the load balancer considers the
+ * node unhealthy (default: {@value DEFAULT_UNHEALTHY_THRESHOLD})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class Drain {
+
+    private static final int DEFAULT_CHECK_INTERVAL = 0;
+    private static final int DEFAULT_UNHEALTHY_THRESHOLD = 2;
+
+    private int checkInterval = DEFAULT_CHECK_INTERVAL;
+    private int unhealthyThreshold = DEFAULT_UNHEALTHY_THRESHOLD;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the listeners are closed without draining.
+     */
+    public Drain() {
+    }
+
+    /**
+     * Returns whether the listeners are drained before they are closed.
+     *
+     * @return {@code true} if the check interval is greater than 0
+     */
+    public boolean isEnabled() {
+        return checkInterval > 0;
+    }
+
+    /**
+     * Returns the time the listeners keep serving after the readiness probe started to fail, which is the time the
+     * load balancer needs to detect the node as unhealthy.
+     *
+     * @return the drain window in milliseconds, 0 if draining is disabled
+     */
+    public long getWindow() {
+        return (long) checkInterval * unhealthyThreshold;
+    }
+
+    /**
+     * Returns the interval in which the load balancer checks the readiness.
+     *
+     * @return the check interval in milliseconds, 0 if draining is disabled
+     */
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Sets the interval in which the load balancer checks the readiness.
+     *
+     * @param checkInterval the check interval in milliseconds (must not be negative, 0 disables draining)
+     */
+    public void setCheckInterval(final int checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Returns the number of consecutive failed checks after which the load balancer considers the node unhealthy.
+     *
+     * @return the unhealthy threshold
+     */
+    public int getUnhealthyThreshold() {
+        return unhealthyThreshold;
+    }
+
+    /**
+     * Sets the number of consecutive failed checks after which the load balancer considers the node unhealthy.
+     *
+     * @param unhealthyThreshold the unhealthy threshold (must be greater than 0)
+     */
+    public void setUnhealthyThreshold(final int unhealthyThreshold) {
+        this.unhealthyThreshold = unhealthyThreshold;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (Drain) o;
+        return checkInterval == that.checkInterval && unhealthyThreshold == that.unhealthyThreshold;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(checkInterval, unhealthyThreshold);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Drain{" +
+                "checkInterval=" +
+                checkInterval +
+                ", unhealthyThreshold=" +
+                unhealthyThreshold +
+                '}';
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the gRPC health checking service ({@code grpc.health.v1.Health}) over cleartext
+ * HTTP/2.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>bind-address</b>: The network address the gRPC listener binds to (default: the bind address of the
+ * {@link Heartbeat})</li>
+ * <li><b>port</b>: The port of the gRPC listener, {@code 0} to disable the service (default:
+ * {@value DEFAULT_PORT})</li>
+ * <li><b>max-streams</b>: The maximum number of concurrent streams per connection, i.e. the checks in progress and
+ * the open watches (default: {@value DEFAULT_MAX_STREAMS})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class GrpcHealth {
+
+    private static final int DEFAULT_PORT = 0;
+    private static final int DEFAULT_MAX_STREAMS = 100;
+
+    private @Nullable String bindAddress;
+    private int port = DEFAULT_PORT;
+    private int maxStreams = DEFAULT_MAX_STREAMS;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the service is disabled.
+     */
+    public GrpcHealth() {
+    }
+
+    /**
+     * Returns the network address the gRPC listener binds to.
+     *
+     * @return the bind address or {@code null} if it is inherited from the heartbeat
+     */
+    public @Nullable String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * Sets the network address the gRPC listener binds to.
+     *
+     * @param bindAddress the bind address or {@code null} to inherit it
+     */
+    public void setBindAddress(final @Nullable String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Returns the port of the gRPC listener.
+     *
+     * @return the port or {@code 0} if the service is disabled
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port of the gRPC listener.
+     *
+     * @param port the port or {@code 0} to disable the service
+     */
+    public void setPort(final int port) {
+        this.port = port;
+    }
+
+    /**
+     * Returns the maximum number of concurrent streams per connection.
+     *
+     * @return the maximum number of streams
+     */
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams per connection.
+     *
+     * @param maxStreams the maximum number of streams (must be greater than 0)
+     */
+    public void setMaxStreams(final int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Returns whether the gRPC health service is enabled.
+     *
+     * @return {@code true} if a port is configured
+     */
+    public boolean isEnabled() {
+        return port > 0;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (GrpcHealth) o;
+        return port == that.port &&
+                maxStreams == that.maxStreams &&
+                Objects.equals(bindAddress, that.bindAddress);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bindAddress, port, maxStreams);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "GrpcHealth{" +
+                "bindAddress='" +
+                bindAddress +
+                '\'' +
+                ", port=" +
+                port +
+                ", maxStreams=" +
+                maxStreams +
+                '}';
+    }
+}
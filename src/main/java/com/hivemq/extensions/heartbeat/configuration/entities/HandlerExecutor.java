@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the executor that runs the heartbeat HTTP handler.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>type</b>: {@value TYPE_DISPATCHER} handles requests on the HTTP server dispatcher thread,
+ * {@value TYPE_BOUNDED} uses a bounded platform thread pool, {@value TYPE_VIRTUAL} starts a virtual thread per request
+ * on Java 21 or later (default: {@value DEFAULT_TYPE})</li>
+ * <li><b>threads</b>: The number of platform threads of the bounded pool (default: {@value DEFAULT_THREADS})</li>
+ * <li><b>queue-size</b>: The number of requests the bounded pool queues before it is saturated (default:
+ * {@value DEFAULT_QUEUE_SIZE})</li>
+ * <li><b>rejection-policy</b>: {@value POLICY_SERVICE_UNAVAILABLE} answers requests with HTTP 503 when the pool is
+ * saturated, {@value POLICY_CALLER_RUNS} handles them on the dispatcher thread (default:
+ * {@value DEFAULT_REJECTION_POLICY})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class HandlerExecutor {
+
+    public static final @NotNull String TYPE_DISPATCHER = "dispatcher";
+    public static final @NotNull String TYPE_BOUNDED = "bounded";
+    public static final @NotNull String TYPE_VIRTUAL = "virtual";
+
+    public static final @NotNull String POLICY_SERVICE_UNAVAILABLE = "service-unavailable";
+    public static final @NotNull String POLICY_CALLER_RUNS = "caller-runs";
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 128;
+
+    private static final @NotNull String DEFAULT_TYPE = TYPE_DISPATCHER;
+    private static final @NotNull String DEFAULT_REJECTION_POLICY = POLICY_SERVICE_UNAVAILABLE;
+
+    private @NotNull String type = DEFAULT_TYPE;
+    private int threads = DEFAULT_THREADS;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private @NotNull String rejectionPolicy = DEFAULT_REJECTION_POLICY;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public HandlerExecutor() {
+    }
+
+    /**
+     * Returns the executor type.
+     *
+     * @return one of {@value TYPE_DISPATCHER}, {@value TYPE_BOUNDED} or {@value TYPE_VIRTUAL}
+     */
+    public @NotNull String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the executor type.
+     *
+     * @param type one of {@value TYPE_DISPATCHER}, {@value TYPE_BOUNDED} or {@value TYPE_VIRTUAL}
+     */
+    public void setType(final @NotNull String type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the number of platform threads of the bounded pool.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of platform threads of the bounded pool.
+     *
+     * @param threads the number of threads (must be greater than 0)
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the number of requests the bounded pool queues before it is saturated.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Sets the number of requests the bounded pool queues before it is saturated.
+     *
+     * @param queueSize the queue size (must be greater than 0)
+     */
+    public void setQueueSize(final int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Returns the policy that is applied when the bounded pool is saturated.
+     *
+     * @return one of {@value POLICY_SERVICE_UNAVAILABLE} or {@value POLICY_CALLER_RUNS}
+     */
+    public @NotNull String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * Sets the policy that is applied when the bounded pool is saturated.
+     *
+     * @param rejectionPolicy one of {@value POLICY_SERVICE_UNAVAILABLE} or {@value POLICY_CALLER_RUNS}
+     */
+    public void setRejectionPolicy(final @NotNull String rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (HandlerExecutor) o;
+        return threads == that.threads &&
+                queueSize == that.queueSize &&
+                type.equals(that.type) &&
+                rejectionPolicy.equals(that.rejectionPolicy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, threads, queueSize, rejectionPolicy);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "HandlerExecutor{" +
+                "type='" +
+                type +
+                '\'' +
+                ", threads=" +
+                threads +
+                ", queueSize=" +
+                queueSize +
+                ", rejectionPolicy='" +
+                rejectionPolicy +
+                '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration entity representing the background health checks that contribute to the readiness in addition to the
+ * HiveMQ lifecycle stage.
+ * <p>
+ * This class defines the following checks:
+ * <ul>
+ * <li><b>listeners</b>: Connects to every HiveMQ listener, see {@link CheckSchedule} (default: disabled)</li>
+ * <li><b>resources</b>: Compares the free heap and disk space against thresholds, see {@link ResourcesCheck}
+ * (default: disabled)</li>
+ * <li><b>overload</b>: Compares metrics of HiveMQ, e.g. the connection count, against thresholds, see
+ * {@link OverloadCheck} (default: disabled)</li>
+ * <li><b>custom</b>: The schedule of all checks discovered via the health check service provider interface, see
+ * {@link CheckSchedule} (default: enabled)</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class HealthChecks {
+
+    private @NotNull CheckSchedule listeners = new CheckSchedule(false);
+    private @NotNull ResourcesCheck resources = new ResourcesCheck(false);
+    private @NotNull OverloadCheck overload = new OverloadCheck(false);
+    private @NotNull CheckSchedule custom = new CheckSchedule(true);
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public HealthChecks() {
+    }
+
+    /**
+     * Returns the schedule of the listeners check.
+     *
+     * @return the listeners check schedule
+     */
+    public @NotNull CheckSchedule getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Sets the schedule of the listeners check.
+     *
+     * @param listeners the listeners check schedule
+     */
+    public void setListeners(final @NotNull CheckSchedule listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Returns the schedule and thresholds of the resources check.
+     *
+     * @return the resources check configuration
+     */
+    public @NotNull ResourcesCheck getResources() {
+        return resources;
+    }
+
+    /**
+     * Sets the schedule and thresholds of the resources check.
+     *
+     * @param resources the resources check configuration
+     */
+    public void setResources(final @NotNull ResourcesCheck resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * Returns the schedule and thresholds of the overload check.
+     *
+     * @return the overload check configuration
+     */
+    public @NotNull OverloadCheck getOverload() {
+        return overload;
+    }
+
+    /**
+     * Sets the schedule and thresholds of the overload check.
+     *
+     * @param overload the overload check configuration
+     */
+    public void setOverload(final @NotNull OverloadCheck overload) {
+        this.overload = overload;
+    }
+
+    /**
+     * Returns the schedule of the custom checks.
+     *
+     * @return the custom checks schedule
+     */
+    public @NotNull CheckSchedule getCustom() {
+        return custom;
+    }
+
+    /**
+     * Sets the schedule of the custom checks.
+     *
+     * @param custom the custom checks schedule
+     */
+    public void setCustom(final @NotNull CheckSchedule custom) {
+        this.custom = custom;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "HealthChecks{" +
+                "listeners=" +
+                listeners +
+                ", resources=" +
+                resources +
+                ", overload=" +
+                overload +
+                ", custom=" +
+                custom +
+                '}';
+    }
+}
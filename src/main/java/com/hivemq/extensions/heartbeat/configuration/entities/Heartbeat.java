@@ -16,51 +16,126 @@
 
 package com.hivemq.extensions.heartbeat.configuration.entities;
 
-import jakarta.xml.bind.annotation.XmlAccessType;
-import jakarta.xml.bind.annotation.XmlAccessorType;
-import jakarta.xml.bind.annotation.XmlElement;
-import jakarta.xml.bind.annotation.XmlRootElement;
-import jakarta.xml.bind.annotation.XmlType;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * JAXB entity representing the heartbeat extension configuration.
+ * Root entity of the heartbeat extension configuration.
  * <p>
  * This class defines the configuration parameters for the heartbeat HTTP endpoint:
  * <ul>
  * <li><b>port</b>: The port number where the HTTP server listens (default: {@value DEFAULT_PORT})</li>
  * <li><b>bind-address</b>: The network address to bind to (default: {@value DEFAULT_BIND_ADDRESS})</li>
- * <li><b>path</b>: The URL path for the heartbeat endpoint (default: {@value DEFAULT_SERVLET_PATH})</li>
+ * <li><b>listeners</b>: The listeners of the endpoints, each with its own port and optionally its own bind address and
+ * paths, see {@link Listener}. If configured, the port and bind address above only serve as defaults and no listener
+ * is opened for them (default: a single listener with the port, bind address and paths above)</li>
+ * <li><b>path</b>: The URL path for the heartbeat endpoint, which answers like the readiness endpoint (default:
+ * {@value DEFAULT_SERVLET_PATH})</li>
+ * <li><b>liveness-path</b>: The URL path for the liveness endpoint, empty to disable it (default:
+ * {@value DEFAULT_LIVENESS_PATH})</li>
+ * <li><b>readiness-path</b>: The URL path for the readiness endpoint, empty to disable it (default:
+ * {@value DEFAULT_READINESS_PATH})</li>
+ * <li><b>startup-path</b>: The URL path for the startup endpoint, empty to disable it (default:
+ * {@value DEFAULT_STARTUP_PATH})</li>
+ * <li><b>detail-path</b>: The URL path for the JSON health detail endpoint, which exposes the names and messages of
+ * the health checks, empty to disable it (default: empty)</li>
+ * <li><b>detail-max-age-seconds</b>: The max-age of the {@code Cache-Control} header of the health detail endpoint,
+ * {@code 0} to require revalidation (default: {@value DEFAULT_DETAIL_MAX_AGE})</li>
+ * <li><b>metrics-path</b>: The URL path for the Prometheus metrics endpoint, empty to disable it (default: empty)</li>
+ * <li><b>metrics-max-age-ms</b>: The time in milliseconds a rendered metrics exposition is reused for further scrapes
+ * (default: {@value DEFAULT_METRICS_MAX_AGE})</li>
+ * <li><b>probers-path</b>: The URL path for the prober statistics endpoint, empty to disable it (default:
+ * {@value DEFAULT_PROBERS_PATH})</li>
+ * <li><b>watch-path</b>: The URL path for the Server-Sent Events endpoint of the readiness state, empty to disable it
+ * (default: {@value DEFAULT_WATCH_PATH})</li>
+ * <li><b>state-poll-interval-ms</b>: The interval in milliseconds in which the HiveMQ lifecycle stage is sampled
+ * (default: {@value DEFAULT_STATE_POLL_INTERVAL})</li>
+ * <li><b>state-poll-jitter-ms</b>: The maximum random delay in milliseconds added to each poll interval (default:
+ * {@value DEFAULT_STATE_POLL_JITTER})</li>
+ * <li><b>engine</b>: The serving engine, {@value ENGINE_JDK} for the JDK built-in HTTP server or {@value ENGINE_NIO}
+ * for the built-in non-blocking selector loop (default: {@value DEFAULT_ENGINE})</li>
+ * <li><b>executor</b>: The executor that runs the heartbeat handler of the {@value ENGINE_JDK} engine, see
+ * {@link HandlerExecutor}</li>
+ * <li><b>connections</b>: The keep-alive, limits and timeouts of the listener connections, see
+ * {@link Connections}</li>
+ * <li><b>socket-options</b>: The accept backlog and the socket options of the listeners, see
+ * {@link SocketOptions}</li>
+ * <li><b>rate-limit</b>: The per client rate limit of the requests, see {@link RateLimit}</li>
+ * <li><b>tls</b>: The keystore and session settings to serve HTTPS, see {@link Tls}</li>
+ * <li><b>access-log</b>: The asynchronous access log of the requests, see {@link AccessLog}</li>
+ * <li><b>prober-statistics</b>: The per remote address statistics of the probing clients, see
+ * {@link ProberStatistics}</li>
+ * <li><b>watch</b>: The Server-Sent Events endpoint that pushes changes of the readiness state, see {@link Watch}</li>
+ * <li><b>layer4</b>: The raw TCP and UDP responders for load balancers without HTTP checks, see {@link Layer4}</li>
+ * <li><b>grpc-health</b>: The gRPC health checking service over cleartext HTTP/2, see {@link GrpcHealth}</li>
+ * <li><b>status-publish</b>: The retained MQTT message with the readiness of the node, see
+ * {@link StatusPublish}</li>
+ * <li><b>drain</b>: The drain phase before the listeners are closed on shutdown, see {@link Drain}</li>
+ * <li><b>health-checks</b>: The background health checks that contribute to the readiness, see
+ * {@link HealthChecks}</li>
  * </ul>
  * <p>
- * This class is used by JAXB to deserialize XML configuration files. The {@code @XmlElement} annotations map XML
- * elements to Java fields, with default values provided for optional elements.
+ * Configuration files are read by the {@link com.hivemq.extensions.heartbeat.configuration.ConfigurationXmlParser},
+ * which maps the XML elements to the fields of the entities and keeps the default values of optional elements.
  *
  * @author David Sondermann
  * @since  1.0.0
  */
 @SuppressWarnings("FieldMayBeFinal")
-@XmlRootElement(name = "heartbeat-extension-configuration")
-@XmlType(propOrder = {})
-@XmlAccessorType(XmlAccessType.NONE)
 public class Heartbeat {
 
+    public static final @NotNull String ENGINE_JDK = "jdk";
+    public static final @NotNull String ENGINE_NIO = "nio";
+
     private static final int DEFAULT_PORT = 9090;
+    private static final long DEFAULT_STATE_POLL_INTERVAL = 1000;
+    private static final long DEFAULT_STATE_POLL_JITTER = 100;
+    private static final int DEFAULT_DETAIL_MAX_AGE = 0;
+    private static final long DEFAULT_METRICS_MAX_AGE = 1000;
 
     private static final @NotNull String DEFAULT_BIND_ADDRESS = "0.0.0.0";
     private static final @NotNull String DEFAULT_SERVLET_PATH = "/heartbeat";
+    private static final @NotNull String DEFAULT_LIVENESS_PATH = "/liveness";
+    private static final @NotNull String DEFAULT_READINESS_PATH = "/readiness";
+    private static final @NotNull String DEFAULT_STARTUP_PATH = "/startup";
+    private static final @NotNull String DEFAULT_PROBERS_PATH = "/probers";
+    private static final @NotNull String DEFAULT_WATCH_PATH = "/watch";
+    private static final @NotNull String DEFAULT_ENGINE = ENGINE_JDK;
 
-    @XmlElement(name = "port", defaultValue = "" + DEFAULT_PORT)
     private int port = DEFAULT_PORT;
-
-    @XmlElement(name = "bind-address", defaultValue = DEFAULT_BIND_ADDRESS)
     private @NotNull String bindAddress = DEFAULT_BIND_ADDRESS;
-
-    @XmlElement(name = "path", defaultValue = DEFAULT_SERVLET_PATH)
+    private @NotNull List<Listener> listeners = new ArrayList<>();
     private @NotNull String path = DEFAULT_SERVLET_PATH;
+    private @NotNull String livenessPath = DEFAULT_LIVENESS_PATH;
+    private @NotNull String readinessPath = DEFAULT_READINESS_PATH;
+    private @NotNull String startupPath = DEFAULT_STARTUP_PATH;
+    private @NotNull String detailPath = "";
+    private int detailMaxAge = DEFAULT_DETAIL_MAX_AGE;
+    private @NotNull String metricsPath = "";
+    private long metricsMaxAge = DEFAULT_METRICS_MAX_AGE;
+    private @NotNull String probersPath = DEFAULT_PROBERS_PATH;
+    private @NotNull String watchPath = DEFAULT_WATCH_PATH;
+    private long statePollInterval = DEFAULT_STATE_POLL_INTERVAL;
+    private long statePollJitter = DEFAULT_STATE_POLL_JITTER;
+    private @NotNull String engine = DEFAULT_ENGINE;
+    private @NotNull HandlerExecutor executor = new HandlerExecutor();
+    private @NotNull Connections connections = new Connections();
+    private @NotNull SocketOptions socketOptions = new SocketOptions();
+    private @NotNull RateLimit rateLimit = new RateLimit();
+    private @NotNull Tls tls = new Tls();
+    private @NotNull AccessLog accessLog = new AccessLog();
+    private @NotNull ProberStatistics proberStatistics = new ProberStatistics();
+    private @NotNull Watch watch = new Watch();
+    private @NotNull Layer4 layer4 = new Layer4();
+    private @NotNull GrpcHealth grpcHealth = new GrpcHealth();
+    private @NotNull StatusPublish statusPublish = new StatusPublish();
+    private @NotNull Drain drain = new Drain();
+    private @NotNull HealthChecks healthChecks = new HealthChecks();
 
     /**
-     * Default constructor for JAXB deserialization.
+     * Default constructor, used by the configuration parser.
      * <p>
      * Initializes all fields with their default values.
      */
@@ -94,6 +169,24 @@ public class Heartbeat {
         return bindAddress;
     }
 
+    /**
+     * Sets the network address to which the HTTP server should be bound.
+     *
+     * @param bindAddress the bind address
+     */
+    public void setBindAddress(final @NotNull String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Returns the configured listeners.
+     *
+     * @return the mutable list of listeners, empty if only the port and bind address of this configuration are used
+     */
+    public @NotNull List<Listener> getListeners() {
+        return listeners;
+    }
+
     /**
      * Returns the URL path for the heartbeat endpoint.
      *
@@ -103,8 +196,419 @@ public class Heartbeat {
         return path;
     }
 
+    /**
+     * Sets the URL path for the heartbeat endpoint.
+     *
+     * @param path the path (e.g., "/heartbeat")
+     */
+    public void setPath(final @NotNull String path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the URL path for the liveness endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getLivenessPath() {
+        return livenessPath;
+    }
+
+    /**
+     * Sets the URL path for the liveness endpoint.
+     *
+     * @param livenessPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setLivenessPath(final @NotNull String livenessPath) {
+        this.livenessPath = livenessPath;
+    }
+
+    /**
+     * Returns the URL path for the readiness endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getReadinessPath() {
+        return readinessPath;
+    }
+
+    /**
+     * Sets the URL path for the readiness endpoint.
+     *
+     * @param readinessPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setReadinessPath(final @NotNull String readinessPath) {
+        this.readinessPath = readinessPath;
+    }
+
+    /**
+     * Returns the URL path for the startup endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getStartupPath() {
+        return startupPath;
+    }
+
+    /**
+     * Sets the URL path for the startup endpoint.
+     *
+     * @param startupPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setStartupPath(final @NotNull String startupPath) {
+        this.startupPath = startupPath;
+    }
+
+    /**
+     * Returns the URL path for the JSON health detail endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getDetailPath() {
+        return detailPath;
+    }
+
+    /**
+     * Sets the URL path for the JSON health detail endpoint.
+     *
+     * @param detailPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setDetailPath(final @NotNull String detailPath) {
+        this.detailPath = detailPath;
+    }
+
+    /**
+     * Returns the max-age of the {@code Cache-Control} header of the health detail endpoint.
+     *
+     * @return the max-age in seconds
+     */
+    public int getDetailMaxAge() {
+        return detailMaxAge;
+    }
+
+    /**
+     * Sets the max-age of the {@code Cache-Control} header of the health detail endpoint.
+     *
+     * @param detailMaxAge the max-age in seconds (must not be negative)
+     */
+    public void setDetailMaxAge(final int detailMaxAge) {
+        this.detailMaxAge = detailMaxAge;
+    }
+
+    /**
+     * Returns the URL path for the Prometheus metrics endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getMetricsPath() {
+        return metricsPath;
+    }
+
+    /**
+     * Sets the URL path for the Prometheus metrics endpoint.
+     *
+     * @param metricsPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setMetricsPath(final @NotNull String metricsPath) {
+        this.metricsPath = metricsPath;
+    }
+
+    /**
+     * Returns the time a rendered metrics exposition is reused for further scrapes.
+     *
+     * @return the max-age in milliseconds
+     */
+    public long getMetricsMaxAge() {
+        return metricsMaxAge;
+    }
+
+    /**
+     * Sets the time a rendered metrics exposition is reused for further scrapes.
+     *
+     * @param metricsMaxAge the max-age in milliseconds, {@code 0} to render every scrape (must not be negative)
+     */
+    public void setMetricsMaxAge(final long metricsMaxAge) {
+        this.metricsMaxAge = metricsMaxAge;
+    }
+
+    /**
+     * Returns the URL path for the prober statistics endpoint.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getProbersPath() {
+        return probersPath;
+    }
+
+    /**
+     * Sets the URL path for the prober statistics endpoint.
+     *
+     * @param probersPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setProbersPath(final @NotNull String probersPath) {
+        this.probersPath = probersPath;
+    }
+
+    /**
+     * Returns the URL path for the Server-Sent Events endpoint of the readiness state.
+     *
+     * @return the path or an empty string if the endpoint is disabled
+     */
+    public @NotNull String getWatchPath() {
+        return watchPath;
+    }
+
+    /**
+     * Sets the URL path for the Server-Sent Events endpoint of the readiness state.
+     *
+     * @param watchPath the path starting with a slash, or an empty string to disable the endpoint
+     */
+    public void setWatchPath(final @NotNull String watchPath) {
+        this.watchPath = watchPath;
+    }
+
+    /**
+     * Returns the interval in which the HiveMQ lifecycle stage is sampled.
+     *
+     * @return the poll interval in milliseconds
+     */
+    public long getStatePollInterval() {
+        return statePollInterval;
+    }
+
+    /**
+     * Sets the interval in which the HiveMQ lifecycle stage is sampled.
+     *
+     * @param statePollInterval the poll interval in milliseconds (must be greater than 0)
+     */
+    public void setStatePollInterval(final long statePollInterval) {
+        this.statePollInterval = statePollInterval;
+    }
+
+    /**
+     * Returns the maximum random delay that is added to each poll interval.
+     *
+     * @return the poll jitter in milliseconds
+     */
+    public long getStatePollJitter() {
+        return statePollJitter;
+    }
+
+    /**
+     * Sets the maximum random delay that is added to each poll interval.
+     *
+     * @param statePollJitter the poll jitter in milliseconds (must not be negative)
+     */
+    public void setStatePollJitter(final long statePollJitter) {
+        this.statePollJitter = statePollJitter;
+    }
+
+    /**
+     * Returns the serving engine.
+     *
+     * @return one of {@value ENGINE_JDK} or {@value ENGINE_NIO}
+     */
+    public @NotNull String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the serving engine.
+     *
+     * @param engine one of {@value ENGINE_JDK} or {@value ENGINE_NIO}
+     */
+    public void setEngine(final @NotNull String engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the configuration of the executor that runs the heartbeat handler.
+     *
+     * @return the executor configuration
+     */
+    public @NotNull HandlerExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the keep-alive, limits and timeouts of the listener connections.
+     *
+     * @return the connections configuration
+     */
+    public @NotNull Connections getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the accept backlog and the socket options of the listeners.
+     *
+     * @return the socket options configuration
+     */
+    public @NotNull SocketOptions getSocketOptions() {
+        return socketOptions;
+    }
+
+    /**
+     * Returns the per client rate limit of the requests.
+     *
+     * @return the rate limit configuration
+     */
+    public @NotNull RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Returns the keystore and session settings to serve HTTPS.
+     *
+     * @return the TLS configuration
+     */
+    public @NotNull Tls getTls() {
+        return tls;
+    }
+
+    /**
+     * Returns the asynchronous access log of the requests.
+     *
+     * @return the access log configuration
+     */
+    public @NotNull AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    /**
+     * Returns the per remote address statistics of the probing clients.
+     *
+     * @return the prober statistics configuration
+     */
+    public @NotNull ProberStatistics getProberStatistics() {
+        return proberStatistics;
+    }
+
+    /**
+     * Returns the Server-Sent Events endpoint that pushes changes of the readiness state.
+     *
+     * @return the watch configuration
+     */
+    public @NotNull Watch getWatch() {
+        return watch;
+    }
+
+    /**
+     * Returns the raw TCP and UDP responders for load balancers without HTTP checks.
+     *
+     * @return the layer 4 configuration
+     */
+    public @NotNull Layer4 getLayer4() {
+        return layer4;
+    }
+
+    /**
+     * Returns the gRPC health checking service over cleartext HTTP/2.
+     *
+     * @return the gRPC health configuration
+     */
+    public @NotNull GrpcHealth getGrpcHealth() {
+        return grpcHealth;
+    }
+
+    /**
+     * Returns the retained MQTT message with the readiness of the node.
+     *
+     * @return the status publish configuration
+     */
+    public @NotNull StatusPublish getStatusPublish() {
+        return statusPublish;
+    }
+
+    /**
+     * Returns the drain phase before the listeners are closed on shutdown.
+     *
+     * @return the drain configuration
+     */
+    public @NotNull Drain getDrain() {
+        return drain;
+    }
+
+    /**
+     * Returns the background health checks that contribute to the readiness.
+     *
+     * @return the health checks configuration
+     */
+    public @NotNull HealthChecks getHealthChecks() {
+        return healthChecks;
+    }
+
     @Override
     public @NotNull String toString() {
-        return "Heartbeat{" + "port=" + port + ", bindAddress='" + bindAddress + '\'' + ", path='" + path + '\'' + '}';
+        return "Heartbeat{" +
+                "port=" +
+                port +
+                ", bindAddress='" +
+                bindAddress +
+                '\'' +
+                ", listeners=" +
+                listeners +
+                ", path='" +
+                path +
+                '\'' +
+                ", livenessPath='" +
+                livenessPath +
+                '\'' +
+                ", readinessPath='" +
+                readinessPath +
+                '\'' +
+                ", startupPath='" +
+                startupPath +
+                '\'' +
+                ", detailPath='" +
+                detailPath +
+                '\'' +
+                ", detailMaxAge=" +
+                detailMaxAge +
+                ", metricsPath='" +
+                metricsPath +
+                '\'' +
+                ", metricsMaxAge=" +
+                metricsMaxAge +
+                ", probersPath='" +
+                probersPath +
+                '\'' +
+                ", watchPath='" +
+                watchPath +
+                '\'' +
+                ", statePollInterval=" +
+                statePollInterval +
+                ", statePollJitter=" +
+                statePollJitter +
+                ", engine='" +
+                engine +
+                '\'' +
+                ", executor=" +
+                executor +
+                ", connections=" +
+                connections +
+                ", socketOptions=" +
+                socketOptions +
+                ", rateLimit=" +
+                rateLimit +
+                ", tls=" +
+                tls +
+                ", accessLog=" +
+                accessLog +
+                ", proberStatistics=" +
+                proberStatistics +
+                ", watch=" +
+                watch +
+                ", layer4=" +
+                layer4 +
+                ", grpcHealth=" +
+                grpcHealth +
+                ", statusPublish=" +
+                statusPublish +
+                ", drain=" +
+                drain +
+                ", healthChecks=" +
+                healthChecks +
+                '}';
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the raw layer 4 responders for load balancers that only check TCP connects or UDP
+ * datagrams.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>bind-address</b>: The network address the responders bind to (default: the bind address of the
+ * {@link Heartbeat})</li>
+ * <li><b>tcp-port</b>: The port on which connections are accepted and closed while HiveMQ is ready and reset
+ * otherwise, {@code 0} to disable the TCP responder (default: {@value DEFAULT_TCP_PORT})</li>
+ * <li><b>udp-port</b>: The port on which every datagram is answered with a status byte, {@code 0} to disable the UDP
+ * responder (default: {@value DEFAULT_UDP_PORT})</li>
+ * </ul>
+ * Both responders follow the readiness of the heartbeat endpoint.
+ *
+ * @since  1.2.0
+ */
+public class Layer4 {
+
+    private static final int DEFAULT_TCP_PORT = 0;
+    private static final int DEFAULT_UDP_PORT = 0;
+
+    private @Nullable String bindAddress;
+    private int tcpPort = DEFAULT_TCP_PORT;
+    private int udpPort = DEFAULT_UDP_PORT;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so both responders are disabled.
+     */
+    public Layer4() {
+    }
+
+    /**
+     * Returns the network address the responders bind to.
+     *
+     * @return the bind address or {@code null} if it is inherited from the heartbeat
+     */
+    public @Nullable String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * Sets the network address the responders bind to.
+     *
+     * @param bindAddress the bind address or {@code null} to inherit it
+     */
+    public void setBindAddress(final @Nullable String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Returns the port of the TCP responder.
+     *
+     * @return the TCP port or {@code 0} if the TCP responder is disabled
+     */
+    public int getTcpPort() {
+        return tcpPort;
+    }
+
+    /**
+     * Sets the port of the TCP responder.
+     *
+     * @param tcpPort the TCP port or {@code 0} to disable the TCP responder
+     */
+    public void setTcpPort(final int tcpPort) {
+        this.tcpPort = tcpPort;
+    }
+
+    /**
+     * Returns the port of the UDP responder.
+     *
+     * @return the UDP port or {@code 0} if the UDP responder is disabled
+     */
+    public int getUdpPort() {
+        return udpPort;
+    }
+
+    /**
+     * Sets the port of the UDP responder.
+     *
+     * @param udpPort the UDP port or {@code 0} to disable the UDP responder
+     */
+    public void setUdpPort(final int udpPort) {
+        this.udpPort = udpPort;
+    }
+
+    /**
+     * Returns whether at least one of the responders is enabled.
+     *
+     * @return {@code true} if a TCP or UDP port is configured
+     */
+    public boolean isEnabled() {
+        return tcpPort > 0 || udpPort > 0;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (Layer4) o;
+        return tcpPort == that.tcpPort &&
+                udpPort == that.udpPort &&
+                Objects.equals(bindAddress, that.bindAddress);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bindAddress, tcpPort, udpPort);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Layer4{" +
+                "bindAddress='" +
+                bindAddress +
+                '\'' +
+                ", tcpPort=" +
+                tcpPort +
+                ", udpPort=" +
+                udpPort +
+                '}';
+    }
+}
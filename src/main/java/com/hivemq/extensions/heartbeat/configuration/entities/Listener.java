@@ -0,0 +1,279 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Configuration entity representing an additional listener of the heartbeat endpoints.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>port</b>: The port number where the listener accepts connections (required)</li>
+ * <li><b>bind-address</b>: The network address to bind to, e.g. {@code ::} for both IPv6 and IPv4 on a dual stack host
+ * (default: the bind address of the {@link Heartbeat})</li>
+ * <li><b>path</b>, <b>liveness-path</b>, <b>readiness-path</b>, <b>startup-path</b>, <b>detail-path</b>,
+ * <b>metrics-path</b>, <b>probers-path</b> and <b>watch-path</b>: The URL paths of the endpoints served on this
+ * listener, empty to disable an endpoint (default: the paths of the {@link Heartbeat})</li>
+ * </ul>
+ * A {@code null} value means that the setting is inherited from the {@link Heartbeat}.
+ *
+ * @since  1.2.0
+ */
+public class Listener {
+
+    private int port;
+    private @Nullable String bindAddress;
+    private @Nullable String path;
+    private @Nullable String livenessPath;
+    private @Nullable String readinessPath;
+    private @Nullable String startupPath;
+    private @Nullable String detailPath;
+    private @Nullable String metricsPath;
+    private @Nullable String probersPath;
+    private @Nullable String watchPath;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes the port with {@code 0}, which is invalid, and inherits all other settings.
+     */
+    public Listener() {
+    }
+
+    /**
+     * Creates a listener that inherits all settings except the bind address and the port.
+     *
+     * @param bindAddress the bind address or {@code null} to inherit it
+     * @param port        the port number
+     */
+    public Listener(final @Nullable String bindAddress, final int port) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+    }
+
+    /**
+     * Returns the port number where the listener accepts connections.
+     *
+     * @return the port number
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port number where the listener accepts connections.
+     *
+     * @param port the port number (must be greater than 0)
+     */
+    public void setPort(final int port) {
+        this.port = port;
+    }
+
+    /**
+     * Returns the network address to which the listener is bound.
+     *
+     * @return the bind address or {@code null} if it is inherited
+     */
+    public @Nullable String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * Sets the network address to which the listener is bound.
+     *
+     * @param bindAddress the bind address or {@code null} to inherit it
+     */
+    public void setBindAddress(final @Nullable String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Returns the URL path for the heartbeat endpoint of this listener.
+     *
+     * @return the path or {@code null} if it is inherited
+     */
+    public @Nullable String getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the URL path for the heartbeat endpoint of this listener.
+     *
+     * @param path the path or {@code null} to inherit it
+     */
+    public void setPath(final @Nullable String path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the URL path for the liveness endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getLivenessPath() {
+        return livenessPath;
+    }
+
+    /**
+     * Sets the URL path for the liveness endpoint of this listener.
+     *
+     * @param livenessPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setLivenessPath(final @Nullable String livenessPath) {
+        this.livenessPath = livenessPath;
+    }
+
+    /**
+     * Returns the URL path for the readiness endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getReadinessPath() {
+        return readinessPath;
+    }
+
+    /**
+     * Sets the URL path for the readiness endpoint of this listener.
+     *
+     * @param readinessPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setReadinessPath(final @Nullable String readinessPath) {
+        this.readinessPath = readinessPath;
+    }
+
+    /**
+     * Returns the URL path for the startup endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getStartupPath() {
+        return startupPath;
+    }
+
+    /**
+     * Sets the URL path for the startup endpoint of this listener.
+     *
+     * @param startupPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setStartupPath(final @Nullable String startupPath) {
+        this.startupPath = startupPath;
+    }
+
+    /**
+     * Returns the URL path for the JSON health detail endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getDetailPath() {
+        return detailPath;
+    }
+
+    /**
+     * Sets the URL path for the JSON health detail endpoint of this listener.
+     *
+     * @param detailPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setDetailPath(final @Nullable String detailPath) {
+        this.detailPath = detailPath;
+    }
+
+    /**
+     * Returns the URL path for the Prometheus metrics endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getMetricsPath() {
+        return metricsPath;
+    }
+
+    /**
+     * Sets the URL path for the Prometheus metrics endpoint of this listener.
+     *
+     * @param metricsPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setMetricsPath(final @Nullable String metricsPath) {
+        this.metricsPath = metricsPath;
+    }
+
+    /**
+     * Returns the URL path for the prober statistics endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getProbersPath() {
+        return probersPath;
+    }
+
+    /**
+     * Sets the URL path for the prober statistics endpoint of this listener.
+     *
+     * @param probersPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setProbersPath(final @Nullable String probersPath) {
+        this.probersPath = probersPath;
+    }
+
+    /**
+     * Returns the URL path for the Server-Sent Events endpoint of this listener.
+     *
+     * @return the path, an empty string if the endpoint is disabled or {@code null} if it is inherited
+     */
+    public @Nullable String getWatchPath() {
+        return watchPath;
+    }
+
+    /**
+     * Sets the URL path for the Server-Sent Events endpoint of this listener.
+     *
+     * @param watchPath the path, an empty string to disable the endpoint or {@code null} to inherit it
+     */
+    public void setWatchPath(final @Nullable String watchPath) {
+        this.watchPath = watchPath;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Listener{" +
+                "port=" +
+                port +
+                ", bindAddress=" +
+                quoted(bindAddress) +
+                ", path=" +
+                quoted(path) +
+                ", livenessPath=" +
+                quoted(livenessPath) +
+                ", readinessPath=" +
+                quoted(readinessPath) +
+                ", startupPath=" +
+                quoted(startupPath) +
+                ", detailPath=" +
+                quoted(detailPath) +
+                ", metricsPath=" +
+                quoted(metricsPath) +
+                ", probersPath=" +
+                quoted(probersPath) +
+                ", watchPath=" +
+                quoted(watchPath) +
+                '}';
+    }
+
+    private static @NotNull String quoted(final @Nullable String value) {
+        return value == null ? "inherited" : "'" + value + "'";
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration entity representing a threshold of the overload health check on a metric of the HiveMQ metric registry.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>metric</b>: The name of the metric, e.g. {@code com.hivemq.networking.connections.current} (required)</li>
+ * <li><b>max</b>: The maximum value of a gauge or counter, or the maximum rate per second of a meter or timer
+ * (required)</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class MetricThreshold {
+
+    private @NotNull String metric = "";
+    private double max;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes the metric with an empty name, which is invalid.
+     */
+    public MetricThreshold() {
+    }
+
+    /**
+     * Creates a threshold on the given metric.
+     *
+     * @param metric the name of the metric
+     * @param max    the maximum value or rate per second
+     */
+    public MetricThreshold(final @NotNull String metric, final double max) {
+        this.metric = metric;
+        this.max = max;
+    }
+
+    /**
+     * Returns the name of the metric.
+     *
+     * @return the metric name
+     */
+    public @NotNull String getMetric() {
+        return metric;
+    }
+
+    /**
+     * Sets the name of the metric.
+     *
+     * @param metric the metric name (must not be blank)
+     */
+    public void setMetric(final @NotNull String metric) {
+        this.metric = metric;
+    }
+
+    /**
+     * Returns the maximum value of a gauge or counter, or the maximum rate per second of a meter or timer.
+     *
+     * @return the maximum
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Sets the maximum value of a gauge or counter, or the maximum rate per second of a meter or timer.
+     *
+     * @param max the maximum (must not be negative)
+     */
+    public void setMax(final double max) {
+        this.max = max;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "MetricThreshold{" +
+                "metric='" +
+                metric +
+                '\'' +
+                ", max=" +
+                max +
+                '}';
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration entity representing the schedule and thresholds of the overload health check.
+ * <p>
+ * In addition to the parameters of {@link CheckSchedule}, whose interval defaults to {@value DEFAULT_INTERVAL} ms so
+ * the load follows the metrics closely, this class defines the following configuration parameters:
+ * <ul>
+ * <li><b>status-code</b>: The status code of the heartbeat and readiness endpoints while HiveMQ is overloaded, 503 or
+ * 429 (default: {@value DEFAULT_STATUS_CODE})</li>
+ * <li><b>recover-percent</b>: The share of a threshold in percent below which an exceeded metric counts as recovered
+ * (default: {@value DEFAULT_RECOVER_PERCENT})</li>
+ * <li><b>thresholds</b>: The {@link MetricThreshold thresholds} on the metrics of HiveMQ (default: empty)</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class OverloadCheck extends CheckSchedule {
+
+    public static final int STATUS_CODE_SERVICE_UNAVAILABLE = 503;
+    public static final int STATUS_CODE_TOO_MANY_REQUESTS = 429;
+
+    private static final long DEFAULT_INTERVAL = 1_000;
+    private static final int DEFAULT_STATUS_CODE = STATUS_CODE_SERVICE_UNAVAILABLE;
+    private static final int DEFAULT_RECOVER_PERCENT = 90;
+
+    private int statusCode = DEFAULT_STATUS_CODE;
+    private int recoverPercent = DEFAULT_RECOVER_PERCENT;
+    private @NotNull List<MetricThreshold> thresholds = new ArrayList<>();
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public OverloadCheck() {
+        setInterval(DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates an overload check with the default schedule and without thresholds.
+     *
+     * @param enabled whether the check is enabled
+     */
+    public OverloadCheck(final boolean enabled) {
+        super(enabled);
+        setInterval(DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Returns the status code of the heartbeat and readiness endpoints while HiveMQ is overloaded.
+     *
+     * @return {@value STATUS_CODE_SERVICE_UNAVAILABLE} or {@value STATUS_CODE_TOO_MANY_REQUESTS}
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Sets the status code of the heartbeat and readiness endpoints while HiveMQ is overloaded.
+     *
+     * @param statusCode {@value STATUS_CODE_SERVICE_UNAVAILABLE} or {@value STATUS_CODE_TOO_MANY_REQUESTS}
+     */
+    public void setStatusCode(final int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the share of a threshold below which an exceeded metric counts as recovered.
+     *
+     * @return the recover share in percent
+     */
+    public int getRecoverPercent() {
+        return recoverPercent;
+    }
+
+    /**
+     * Sets the share of a threshold below which an exceeded metric counts as recovered.
+     *
+     * @param recoverPercent the recover share in percent (must be between 1 and 100)
+     */
+    public void setRecoverPercent(final int recoverPercent) {
+        this.recoverPercent = recoverPercent;
+    }
+
+    /**
+     * Returns the thresholds on the metrics of HiveMQ.
+     *
+     * @return the mutable list of thresholds
+     */
+    public @NotNull List<MetricThreshold> getThresholds() {
+        return thresholds;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "OverloadCheck{" +
+                "enabled=" +
+                isEnabled() +
+                ", interval=" +
+                getInterval() +
+                ", deadline=" +
+                getDeadline() +
+                ", statusCode=" +
+                statusCode +
+                ", recoverPercent=" +
+                recoverPercent +
+                ", thresholds=" +
+                thresholds +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the per remote address statistics of the clients that probe the heartbeat
+ * endpoints.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>enabled</b>: Whether the request count, the inter-arrival times and the last request of every remote address
+ * are tracked (default: {@value DEFAULT_ENABLED})</li>
+ * <li><b>max-probers</b>: The number of remote addresses that are tracked, the least recently seen addresses are
+ * evicted first (default: {@value DEFAULT_MAX_PROBERS})</li>
+ * <li><b>top</b>: The number of remote addresses with the most requests that are listed by the probers endpoint
+ * (default: {@value DEFAULT_TOP})</li>
+ * </ul>
+ * The path of the probers endpoint is configured by the {@link Heartbeat} and its {@link Listener}s.
+ *
+ * @since  1.2.0
+ */
+public class ProberStatistics {
+
+    private static final boolean DEFAULT_ENABLED = false;
+    private static final int DEFAULT_MAX_PROBERS = 1024;
+    private static final int DEFAULT_TOP = 20;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int maxProbers = DEFAULT_MAX_PROBERS;
+    private int top = DEFAULT_TOP;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the statistics are disabled.
+     */
+    public ProberStatistics() {
+    }
+
+    /**
+     * Returns whether the statistics of the probing remote addresses are tracked.
+     *
+     * @return {@code true} if the statistics are tracked
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the statistics of the probing remote addresses are tracked.
+     *
+     * @param enabled {@code true} to track the statistics
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the number of remote addresses that are tracked.
+     *
+     * @return the maximum number of tracked probers
+     */
+    public int getMaxProbers() {
+        return maxProbers;
+    }
+
+    /**
+     * Sets the number of remote addresses that are tracked.
+     *
+     * @param maxProbers the maximum number of tracked probers (must be greater than 0)
+     */
+    public void setMaxProbers(final int maxProbers) {
+        this.maxProbers = maxProbers;
+    }
+
+    /**
+     * Returns the number of remote addresses that are listed by the probers endpoint.
+     *
+     * @return the number of listed probers
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Sets the number of remote addresses that are listed by the probers endpoint.
+     *
+     * @param top the number of listed probers (must be greater than 0)
+     */
+    public void setTop(final int top) {
+        this.top = top;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (ProberStatistics) o;
+        return enabled == that.enabled &&
+                maxProbers == that.maxProbers &&
+                top == that.top;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, maxProbers, top);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ProberStatistics{" +
+                "enabled=" +
+                enabled +
+                ", maxProbers=" +
+                maxProbers +
+                ", top=" +
+                top +
+                '}';
+    }
+}
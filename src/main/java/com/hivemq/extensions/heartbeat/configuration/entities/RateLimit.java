@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the per client rate limit of the heartbeat endpoints.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>requests-per-second</b>: The sustained number of requests per second a single remote address may send, 0 to
+ * disable the rate limit (default: {@value DEFAULT_REQUESTS_PER_SECOND})</li>
+ * <li><b>burst</b>: The number of requests a remote address may send at once before the sustained rate applies
+ * (default: {@value DEFAULT_BURST})</li>
+ * <li><b>max-clients</b>: The number of remote addresses that are tracked, the least recently seen addresses are
+ * evicted first (default: {@value DEFAULT_MAX_CLIENTS})</li>
+ * <li><b>action</b>: How requests over the limit are answered, {@value ACTION_REJECT} answers with HTTP 429,
+ * {@value ACTION_DROP} closes the connection without a response (default: {@value DEFAULT_ACTION})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class RateLimit {
+
+    public static final @NotNull String ACTION_REJECT = "reject";
+    public static final @NotNull String ACTION_DROP = "drop";
+
+    private static final int DEFAULT_REQUESTS_PER_SECOND = 0;
+    private static final int DEFAULT_BURST = 10;
+    private static final int DEFAULT_MAX_CLIENTS = 4096;
+    private static final @NotNull String DEFAULT_ACTION = ACTION_REJECT;
+
+    private int requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+    private int burst = DEFAULT_BURST;
+    private int maxClients = DEFAULT_MAX_CLIENTS;
+    private @NotNull String action = DEFAULT_ACTION;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the rate limit is disabled.
+     */
+    public RateLimit() {
+    }
+
+    /**
+     * Returns whether requests are rate limited.
+     *
+     * @return {@code true} if the requests per second are greater than 0
+     */
+    public boolean isEnabled() {
+        return requestsPerSecond > 0;
+    }
+
+    /**
+     * Returns the sustained number of requests per second of a single remote address.
+     *
+     * @return the requests per second, 0 if the rate limit is disabled
+     */
+    public int getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Sets the sustained number of requests per second of a single remote address.
+     *
+     * @param requestsPerSecond the requests per second (must not be negative, 0 disables the rate limit)
+     */
+    public void setRequestsPerSecond(final int requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Returns the number of requests a remote address may send at once.
+     *
+     * @return the burst size
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Sets the number of requests a remote address may send at once.
+     *
+     * @param burst the burst size (must be greater than 0)
+     */
+    public void setBurst(final int burst) {
+        this.burst = burst;
+    }
+
+    /**
+     * Returns the number of remote addresses that are tracked.
+     *
+     * @return the maximum number of tracked clients
+     */
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    /**
+     * Sets the number of remote addresses that are tracked.
+     *
+     * @param maxClients the maximum number of tracked clients (must be greater than 0)
+     */
+    public void setMaxClients(final int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Returns how requests over the limit are answered.
+     *
+     * @return {@value ACTION_REJECT} or {@value ACTION_DROP}
+     */
+    public @NotNull String getAction() {
+        return action;
+    }
+
+    /**
+     * Sets how requests over the limit are answered.
+     *
+     * @param action {@value ACTION_REJECT} or {@value ACTION_DROP}
+     */
+    public void setAction(final @NotNull String action) {
+        this.action = action;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (RateLimit) o;
+        return requestsPerSecond == that.requestsPerSecond &&
+                burst == that.burst &&
+                maxClients == that.maxClients &&
+                action.equals(that.action);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(requestsPerSecond, burst, maxClients, action);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "RateLimit{" +
+                "requestsPerSecond=" +
+                requestsPerSecond +
+                ", burst=" +
+                burst +
+                ", maxClients=" +
+                maxClients +
+                ", action='" +
+                action +
+                '\'' +
+                '}';
+    }
+}
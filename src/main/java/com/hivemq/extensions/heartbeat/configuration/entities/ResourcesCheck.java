@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configuration entity representing the schedule and thresholds of the resources health check.
+ * <p>
+ * In addition to the parameters of {@link CheckSchedule}, this class defines the following configuration parameters:
+ * <ul>
+ * <li><b>min-free-heap-percent</b>: The minimum free share of the maximum heap size in percent (default:
+ * {@value DEFAULT_MIN_FREE_HEAP_PERCENT})</li>
+ * <li><b>min-free-disk-mb</b>: The minimum usable space in megabytes of the disk holding the HiveMQ data folder
+ * (default: {@value DEFAULT_MIN_FREE_DISK})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class ResourcesCheck extends CheckSchedule {
+
+    private static final int DEFAULT_MIN_FREE_HEAP_PERCENT = 5;
+    private static final long DEFAULT_MIN_FREE_DISK = 100;
+
+    private int minFreeHeapPercent = DEFAULT_MIN_FREE_HEAP_PERCENT;
+    private long minFreeDisk = DEFAULT_MIN_FREE_DISK;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public ResourcesCheck() {
+    }
+
+    /**
+     * Creates a resources check with the default schedule and thresholds.
+     *
+     * @param enabled whether the check is enabled
+     */
+    public ResourcesCheck(final boolean enabled) {
+        super(enabled);
+    }
+
+    /**
+     * Returns the minimum free share of the maximum heap size.
+     *
+     * @return the minimum free heap in percent
+     */
+    public int getMinFreeHeapPercent() {
+        return minFreeHeapPercent;
+    }
+
+    /**
+     * Sets the minimum free share of the maximum heap size.
+     *
+     * @param minFreeHeapPercent the minimum free heap in percent (must be between 0 and 99)
+     */
+    public void setMinFreeHeapPercent(final int minFreeHeapPercent) {
+        this.minFreeHeapPercent = minFreeHeapPercent;
+    }
+
+    /**
+     * Returns the minimum usable space of the disk holding the HiveMQ data folder.
+     *
+     * @return the minimum free disk space in megabytes
+     */
+    public long getMinFreeDisk() {
+        return minFreeDisk;
+    }
+
+    /**
+     * Sets the minimum usable space of the disk holding the HiveMQ data folder.
+     *
+     * @param minFreeDisk the minimum free disk space in megabytes (must not be negative)
+     */
+    public void setMinFreeDisk(final long minFreeDisk) {
+        this.minFreeDisk = minFreeDisk;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ResourcesCheck{" +
+                "enabled=" +
+                isEnabled() +
+                ", interval=" +
+                getInterval() +
+                ", deadline=" +
+                getDeadline() +
+                ", minFreeHeapPercent=" +
+                minFreeHeapPercent +
+                ", minFreeDisk=" +
+                minFreeDisk +
+                '}';
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the socket options of the heartbeat listeners.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>backlog</b>: The maximum number of connections that wait in the accept queue of a listener, capped by the
+ * operating system, e.g. {@code net.core.somaxconn} on Linux (default: {@value DEFAULT_BACKLOG})</li>
+ * <li><b>reuse-address</b>: Whether SO_REUSEADDR is set, so a listener can bind while connections of a previous
+ * listener on the port are in TIME_WAIT (default: {@value DEFAULT_REUSE_ADDRESS})</li>
+ * <li><b>reuse-port</b>: Whether several sockets can bind the same address with SO_REUSEPORT and the operating
+ * system distributes the incoming connections between their accept queues. The nio engine sets SO_REUSEPORT where
+ * supported regardless, so a rebind can overlap with the current listeners (default: {@value DEFAULT_REUSE_PORT})</li>
+ * <li><b>acceptors</b>: The number of sockets that are bound to the address of every listener, requires reuse-port
+ * (default: {@value DEFAULT_ACCEPTORS})</li>
+ * <li><b>tcp-no-delay</b>: Whether TCP_NODELAY is set on accepted connections, so responses are not delayed by
+ * Nagle's algorithm (default: {@value DEFAULT_TCP_NO_DELAY})</li>
+ * <li><b>send-buffer-size</b>: The SO_SNDBUF size in bytes of accepted connections, 0 for the system default
+ * (default: {@value DEFAULT_SEND_BUFFER_SIZE})</li>
+ * <li><b>receive-buffer-size</b>: The SO_RCVBUF size in bytes of accepted connections, 0 for the system default
+ * (default: {@value DEFAULT_RECEIVE_BUFFER_SIZE})</li>
+ * </ul>
+ * The {@value Heartbeat#ENGINE_JDK} engine only applies the backlog.
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class SocketOptions {
+
+    private static final int DEFAULT_BACKLOG = 1024;
+    private static final boolean DEFAULT_REUSE_ADDRESS = true;
+    private static final boolean DEFAULT_REUSE_PORT = false;
+    private static final int DEFAULT_ACCEPTORS = 1;
+    private static final boolean DEFAULT_TCP_NO_DELAY = true;
+    private static final int DEFAULT_SEND_BUFFER_SIZE = 0;
+    private static final int DEFAULT_RECEIVE_BUFFER_SIZE = 0;
+
+    private int backlog = DEFAULT_BACKLOG;
+    private boolean reuseAddress = DEFAULT_REUSE_ADDRESS;
+    private boolean reusePort = DEFAULT_REUSE_PORT;
+    private int acceptors = DEFAULT_ACCEPTORS;
+    private boolean tcpNoDelay = DEFAULT_TCP_NO_DELAY;
+    private int sendBufferSize = DEFAULT_SEND_BUFFER_SIZE;
+    private int receiveBufferSize = DEFAULT_RECEIVE_BUFFER_SIZE;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values.
+     */
+    public SocketOptions() {
+    }
+
+    /**
+     * Returns the maximum number of connections that wait in the accept queue of a listener.
+     *
+     * @return the accept backlog
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Sets the maximum number of connections that wait in the accept queue of a listener.
+     *
+     * @param backlog the accept backlog (must be greater than 0)
+     */
+    public void setBacklog(final int backlog) {
+        this.backlog = backlog;
+    }
+
+    /**
+     * Returns whether SO_REUSEADDR is set on the listeners.
+     *
+     * @return {@code true} if the address is reused
+     */
+    public boolean isReuseAddress() {
+        return reuseAddress;
+    }
+
+    /**
+     * Sets whether SO_REUSEADDR is set on the listeners.
+     *
+     * @param reuseAddress {@code true} to reuse the address
+     */
+    public void setReuseAddress(final boolean reuseAddress) {
+        this.reuseAddress = reuseAddress;
+    }
+
+    /**
+     * Returns whether several sockets can bind the address of a listener with SO_REUSEPORT.
+     *
+     * @return {@code true} if the port is reused
+     */
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * Sets whether several sockets can bind the address of a listener with SO_REUSEPORT.
+     *
+     * @param reusePort {@code true} to reuse the port
+     */
+    public void setReusePort(final boolean reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    /**
+     * Returns the number of sockets that are bound to the address of every listener.
+     *
+     * @return the number of acceptors
+     */
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    /**
+     * Sets the number of sockets that are bound to the address of every listener.
+     *
+     * @param acceptors the number of acceptors (must be greater than 0, more than 1 requires reuse-port)
+     */
+    public void setAcceptors(final int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * Returns whether TCP_NODELAY is set on accepted connections.
+     *
+     * @return {@code true} if Nagle's algorithm is disabled
+     */
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    /**
+     * Sets whether TCP_NODELAY is set on accepted connections.
+     *
+     * @param tcpNoDelay {@code true} to disable Nagle's algorithm
+     */
+    public void setTcpNoDelay(final boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    /**
+     * Returns the SO_SNDBUF size of accepted connections.
+     *
+     * @return the send buffer size in bytes, 0 for the system default
+     */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    /**
+     * Sets the SO_SNDBUF size of accepted connections.
+     *
+     * @param sendBufferSize the send buffer size in bytes (must not be negative, 0 for the system default)
+     */
+    public void setSendBufferSize(final int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    /**
+     * Returns the SO_RCVBUF size of accepted connections.
+     *
+     * @return the receive buffer size in bytes, 0 for the system default
+     */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    /**
+     * Sets the SO_RCVBUF size of accepted connections.
+     *
+     * @param receiveBufferSize the receive buffer size in bytes (must not be negative, 0 for the system default)
+     */
+    public void setReceiveBufferSize(final int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (SocketOptions) o;
+        return backlog == that.backlog &&
+                reuseAddress == that.reuseAddress &&
+                reusePort == that.reusePort &&
+                acceptors == that.acceptors &&
+                tcpNoDelay == that.tcpNoDelay &&
+                sendBufferSize == that.sendBufferSize &&
+                receiveBufferSize == that.receiveBufferSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(backlog,
+                reuseAddress,
+                reusePort,
+                acceptors,
+                tcpNoDelay,
+                sendBufferSize,
+                receiveBufferSize);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "SocketOptions{" +
+                "backlog=" +
+                backlog +
+                ", reuseAddress=" +
+                reuseAddress +
+                ", reusePort=" +
+                reusePort +
+                ", acceptors=" +
+                acceptors +
+                ", tcpNoDelay=" +
+                tcpNoDelay +
+                ", sendBufferSize=" +
+                sendBufferSize +
+                ", receiveBufferSize=" +
+                receiveBufferSize +
+                '}';
+    }
+}
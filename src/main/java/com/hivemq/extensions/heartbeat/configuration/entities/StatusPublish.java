@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the retained MQTT message that publishes the readiness of the node.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>enabled</b>: Whether the readiness is published (default: {@value DEFAULT_ENABLED})</li>
+ * <li><b>topic</b>: The topic of the retained message, {@value NODE_PLACEHOLDER} is replaced with the host name of
+ * the node (default: {@value DEFAULT_TOPIC})</li>
+ * <li><b>qos</b>: The quality of service of the message (default: {@value DEFAULT_QOS})</li>
+ * <li><b>min-interval-ms</b>: The minimum time in milliseconds between two messages, changes within the interval are
+ * coalesced into the latest state (default: {@value DEFAULT_MIN_INTERVAL})</li>
+ * <li><b>refresh-interval-ms</b>: The interval in milliseconds in which the state is published again without a
+ * change, 0 to disable (default: {@value DEFAULT_REFRESH_INTERVAL})</li>
+ * <li><b>message-expiry-seconds</b>: The message expiry interval of the message, so the retained state of a node
+ * that stopped publishing is removed, 0 to never expire (default: {@value DEFAULT_MESSAGE_EXPIRY})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+public class StatusPublish {
+
+    public static final @NotNull String NODE_PLACEHOLDER = "{node}";
+
+    private static final boolean DEFAULT_ENABLED = false;
+    private static final @NotNull String DEFAULT_TOPIC = "hivemq/heartbeat/" + NODE_PLACEHOLDER;
+    private static final int DEFAULT_QOS = 1;
+    private static final long DEFAULT_MIN_INTERVAL = 1000;
+    private static final long DEFAULT_REFRESH_INTERVAL = 60000;
+    private static final long DEFAULT_MESSAGE_EXPIRY = 0;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private @NotNull String topic = DEFAULT_TOPIC;
+    private int qos = DEFAULT_QOS;
+    private long minInterval = DEFAULT_MIN_INTERVAL;
+    private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private long messageExpiry = DEFAULT_MESSAGE_EXPIRY;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the readiness is not published.
+     */
+    public StatusPublish() {
+    }
+
+    /**
+     * Returns whether the readiness is published.
+     *
+     * @return {@code true} if the readiness is published
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the readiness is published.
+     *
+     * @param enabled {@code true} to publish the readiness
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the topic of the retained message.
+     *
+     * @return the topic, which may contain {@value NODE_PLACEHOLDER}
+     */
+    public @NotNull String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Sets the topic of the retained message.
+     *
+     * @param topic the topic (must not be empty or contain wildcards)
+     */
+    public void setTopic(final @NotNull String topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * Returns the quality of service of the message.
+     *
+     * @return the QoS level
+     */
+    public int getQos() {
+        return qos;
+    }
+
+    /**
+     * Sets the quality of service of the message.
+     *
+     * @param qos the QoS level (must be 0, 1 or 2)
+     */
+    public void setQos(final int qos) {
+        this.qos = qos;
+    }
+
+    /**
+     * Returns the minimum time between two messages.
+     *
+     * @return the minimum interval in milliseconds
+     */
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    /**
+     * Sets the minimum time between two messages.
+     *
+     * @param minInterval the minimum interval in milliseconds (must not be negative)
+     */
+    public void setMinInterval(final long minInterval) {
+        this.minInterval = minInterval;
+    }
+
+    /**
+     * Returns the interval in which the state is published again without a change.
+     *
+     * @return the refresh interval in milliseconds, {@code 0} if disabled
+     */
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Sets the interval in which the state is published again without a change.
+     *
+     * @param refreshInterval the refresh interval in milliseconds, {@code 0} to disable (must not be negative)
+     */
+    public void setRefreshInterval(final long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Returns the message expiry interval of the message.
+     *
+     * @return the message expiry in seconds, {@code 0} if the message does not expire
+     */
+    public long getMessageExpiry() {
+        return messageExpiry;
+    }
+
+    /**
+     * Sets the message expiry interval of the message.
+     *
+     * @param messageExpiry the message expiry in seconds, {@code 0} to never expire (must not be negative)
+     */
+    public void setMessageExpiry(final long messageExpiry) {
+        this.messageExpiry = messageExpiry;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (StatusPublish) o;
+        return enabled == that.enabled &&
+                qos == that.qos &&
+                minInterval == that.minInterval &&
+                refreshInterval == that.refreshInterval &&
+                messageExpiry == that.messageExpiry &&
+                topic.equals(that.topic);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, topic, qos, minInterval, refreshInterval, messageExpiry);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "StatusPublish{" +
+                "enabled=" +
+                enabled +
+                ", topic='" +
+                topic +
+                '\'' +
+                ", qos=" +
+                qos +
+                ", minInterval=" +
+                minInterval +
+                ", refreshInterval=" +
+                refreshInterval +
+                ", messageExpiry=" +
+                messageExpiry +
+                '}';
+    }
+}
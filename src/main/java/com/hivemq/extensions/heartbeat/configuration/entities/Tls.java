@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the TLS settings of the heartbeat listeners.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>keystore-path</b>: The keystore with the private key and certificate chain of the listeners, relative paths
+ * are resolved against the extension folder, empty to serve plain HTTP (default: empty)</li>
+ * <li><b>keystore-password</b>: The password of the keystore (default: empty)</li>
+ * <li><b>keystore-type</b>: The type of the keystore (default: {@value DEFAULT_KEYSTORE_TYPE})</li>
+ * <li><b>private-key-password</b>: The password of the private key, empty if it equals the keystore password
+ * (default: empty)</li>
+ * <li><b>protocols</b>: The comma separated TLS protocols that are enabled, empty for the defaults of the JDK
+ * (default: empty)</li>
+ * <li><b>session-cache-size</b>: The number of TLS sessions that are cached for resumption (default:
+ * {@value DEFAULT_SESSION_CACHE_SIZE})</li>
+ * <li><b>session-timeout-seconds</b>: The time in seconds a TLS session can be resumed after it was created (default:
+ * {@value DEFAULT_SESSION_TIMEOUT})</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@SuppressWarnings("FieldMayBeFinal")
+public class Tls {
+
+    private static final @NotNull String DEFAULT_KEYSTORE_TYPE = "PKCS12";
+    private static final int DEFAULT_SESSION_CACHE_SIZE = 1024;
+    private static final int DEFAULT_SESSION_TIMEOUT = 3600;
+
+    private @NotNull String keystorePath = "";
+    private @NotNull String keystorePassword = "";
+    private @NotNull String keystoreType = DEFAULT_KEYSTORE_TYPE;
+    private @NotNull String privateKeyPassword = "";
+    private @NotNull String protocols = "";
+    private int sessionCacheSize = DEFAULT_SESSION_CACHE_SIZE;
+    private int sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so TLS is disabled.
+     */
+    public Tls() {
+    }
+
+    /**
+     * Returns whether the listeners serve HTTPS.
+     *
+     * @return {@code true} if a keystore is configured
+     */
+    public boolean isEnabled() {
+        return !keystorePath.isEmpty();
+    }
+
+    /**
+     * Returns the path of the keystore.
+     *
+     * @return the keystore path, empty if TLS is disabled
+     */
+    public @NotNull String getKeystorePath() {
+        return keystorePath;
+    }
+
+    /**
+     * Sets the path of the keystore.
+     *
+     * @param keystorePath the keystore path, empty to disable TLS
+     */
+    public void setKeystorePath(final @NotNull String keystorePath) {
+        this.keystorePath = keystorePath;
+    }
+
+    /**
+     * Returns the password of the keystore.
+     *
+     * @return the keystore password
+     */
+    public @NotNull String getKeystorePassword() {
+        return keystorePassword;
+    }
+
+    /**
+     * Sets the password of the keystore.
+     *
+     * @param keystorePassword the keystore password
+     */
+    public void setKeystorePassword(final @NotNull String keystorePassword) {
+        this.keystorePassword = keystorePassword;
+    }
+
+    /**
+     * Returns the type of the keystore.
+     *
+     * @return the keystore type, e.g. {@code PKCS12} or {@code JKS}
+     */
+    public @NotNull String getKeystoreType() {
+        return keystoreType;
+    }
+
+    /**
+     * Sets the type of the keystore.
+     *
+     * @param keystoreType the keystore type, e.g. {@code PKCS12} or {@code JKS}
+     */
+    public void setKeystoreType(final @NotNull String keystoreType) {
+        this.keystoreType = keystoreType;
+    }
+
+    /**
+     * Returns the password of the private key.
+     *
+     * @return the private key password, empty if it equals the keystore password
+     */
+    public @NotNull String getPrivateKeyPassword() {
+        return privateKeyPassword;
+    }
+
+    /**
+     * Sets the password of the private key.
+     *
+     * @param privateKeyPassword the private key password, empty if it equals the keystore password
+     */
+    public void setPrivateKeyPassword(final @NotNull String privateKeyPassword) {
+        this.privateKeyPassword = privateKeyPassword;
+    }
+
+    /**
+     * Returns the enabled TLS protocols.
+     *
+     * @return the comma separated protocols, empty for the defaults of the JDK
+     */
+    public @NotNull String getProtocols() {
+        return protocols;
+    }
+
+    /**
+     * Sets the enabled TLS protocols.
+     *
+     * @param protocols the comma separated protocols, empty for the defaults of the JDK
+     */
+    public void setProtocols(final @NotNull String protocols) {
+        this.protocols = protocols;
+    }
+
+    /**
+     * Returns the number of TLS sessions that are cached for resumption.
+     *
+     * @return the session cache size
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Sets the number of TLS sessions that are cached for resumption.
+     *
+     * @param sessionCacheSize the session cache size (must be greater than 0)
+     */
+    public void setSessionCacheSize(final int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    /**
+     * Returns the time a TLS session can be resumed after it was created.
+     *
+     * @return the session timeout in seconds
+     */
+    public int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    /**
+     * Sets the time a TLS session can be resumed after it was created.
+     *
+     * @param sessionTimeout the session timeout in seconds (must be greater than 0)
+     */
+    public void setSessionTimeout(final int sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (Tls) o;
+        return sessionCacheSize == that.sessionCacheSize &&
+                sessionTimeout == that.sessionTimeout &&
+                keystorePath.equals(that.keystorePath) &&
+                keystorePassword.equals(that.keystorePassword) &&
+                keystoreType.equals(that.keystoreType) &&
+                privateKeyPassword.equals(that.privateKeyPassword) &&
+                protocols.equals(that.protocols);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keystorePath,
+                keystorePassword,
+                keystoreType,
+                privateKeyPassword,
+                protocols,
+                sessionCacheSize,
+                sessionTimeout);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        // the passwords are never logged
+        return "Tls{" +
+                "keystorePath='" +
+                keystorePath +
+                '\'' +
+                ", keystoreType='" +
+                keystoreType +
+                '\'' +
+                ", protocols='" +
+                protocols +
+                '\'' +
+                ", sessionCacheSize=" +
+                sessionCacheSize +
+                ", sessionTimeout=" +
+                sessionTimeout +
+                '}';
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration.entities;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Configuration entity representing the Server-Sent Events endpoint that pushes changes of the readiness state.
+ * <p>
+ * This class defines the following configuration parameters:
+ * <ul>
+ * <li><b>enabled</b>: Whether the watch endpoint is served (default: {@value DEFAULT_ENABLED})</li>
+ * <li><b>max-streams</b>: The number of event streams that are open at the same time, further requests are answered
+ * with HTTP 503 (default: {@value DEFAULT_MAX_STREAMS})</li>
+ * <li><b>keep-alive-interval-ms</b>: The time in milliseconds after which a comment is sent on an idle event stream,
+ * so intermediaries do not close it (default: {@value DEFAULT_KEEP_ALIVE_INTERVAL})</li>
+ * </ul>
+ * The path of the watch endpoint is configured by the {@link Heartbeat} and its {@link Listener}s.
+ *
+ * @since  1.2.0
+ */
+public class Watch {
+
+    private static final boolean DEFAULT_ENABLED = false;
+    private static final int DEFAULT_MAX_STREAMS = 100;
+    private static final long DEFAULT_KEEP_ALIVE_INTERVAL = 15000;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int maxStreams = DEFAULT_MAX_STREAMS;
+    private long keepAliveInterval = DEFAULT_KEEP_ALIVE_INTERVAL;
+
+    /**
+     * Default constructor, used by the configuration parser.
+     * <p>
+     * Initializes all fields with their default values, so the watch endpoint is disabled.
+     */
+    public Watch() {
+    }
+
+    /**
+     * Returns whether the watch endpoint is served.
+     *
+     * @return {@code true} if the endpoint is served
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the watch endpoint is served.
+     *
+     * @param enabled {@code true} to serve the endpoint
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the number of event streams that are open at the same time.
+     *
+     * @return the maximum number of event streams
+     */
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    /**
+     * Sets the number of event streams that are open at the same time.
+     *
+     * @param maxStreams the maximum number of event streams (must be greater than 0)
+     */
+    public void setMaxStreams(final int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Returns the time after which a comment is sent on an idle event stream.
+     *
+     * @return the keep-alive interval in milliseconds
+     */
+    public long getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    /**
+     * Sets the time after which a comment is sent on an idle event stream.
+     *
+     * @param keepAliveInterval the keep-alive interval in milliseconds (must be greater than 0)
+     */
+    public void setKeepAliveInterval(final long keepAliveInterval) {
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (Watch) o;
+        return enabled == that.enabled &&
+                maxStreams == that.maxStreams &&
+                keepAliveInterval == that.keepAliveInterval;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, maxStreams, keepAliveInterval);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Watch{" +
+                "enabled=" +
+                enabled +
+                ", maxStreams=" +
+                maxStreams +
+                ", keepAliveInterval=" +
+                keepAliveInterval +
+                '}';
+    }
+}
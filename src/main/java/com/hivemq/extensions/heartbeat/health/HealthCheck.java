@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A named check that contributes to the readiness of HiveMQ.
+ * <p>
+ * Checks are evaluated in the background by a {@link ScheduledHealthCheck}, each with its own interval and deadline,
+ * so heartbeat requests only read the last aggregated result and an expensive check never increases the latency of a
+ * probe.
+ * <p>
+ * Custom checks are discovered via {@link java.util.ServiceLoader} from the class loader of the extension. They need a
+ * public no-argument constructor and are listed in
+ * {@code META-INF/services/com.hivemq.extensions.heartbeat.health.HealthCheck}. A custom check is scheduled with
+ * the interval and deadline of the {@code <custom>} configuration unless it returns its own.
+ *
+ * @since  1.2.0
+ */
+public interface HealthCheck {
+
+    /**
+     * Returns the unique name of the check.
+     *
+     * @return the name of the check
+     */
+    @NotNull String getName();
+
+    /**
+     * Returns the delay in milliseconds between two evaluations of the check.
+     *
+     * @return the interval in milliseconds, or 0 to use the interval of the {@code <custom>} configuration
+     */
+    default long getIntervalMillis() {
+        return 0;
+    }
+
+    /**
+     * Returns the time in milliseconds an evaluation of the check may take before its result is marked as stale.
+     *
+     * @return the deadline in milliseconds, or 0 to use the deadline of the {@code <custom>} configuration
+     */
+    default long getDeadlineMillis() {
+        return 0;
+    }
+
+    /**
+     * Starts an evaluation of the check.
+     * <p>
+     * This method is called on the scheduler thread and must not block. Blocking work has to be run asynchronously,
+     * e.g. via {@link CompletableFuture#supplyAsync(java.util.function.Supplier, java.util.concurrent.Executor)}. An
+     * exceptionally completed evaluation is treated as an unhealthy result.
+     *
+     * @return the stage that is completed with the result of the evaluation
+     */
+    @NotNull CompletionStage<HealthCheckResult> check();
+}
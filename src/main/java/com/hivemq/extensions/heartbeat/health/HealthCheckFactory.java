@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.HealthChecks;
+import com.hivemq.extensions.heartbeat.configuration.entities.OverloadCheck;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Creates the scheduled health checks that are enabled in the {@link HealthChecks} configuration.
+ *
+ * @since  1.2.0
+ */
+public final class HealthCheckFactory {
+
+    /**
+     * The name of the check that is derived from the HiveMQ lifecycle stage. The stage is sampled by the readiness
+     * monitor itself, so this name cannot be taken by another check.
+     */
+    public static final @NotNull String LIFECYCLE_CHECK = "lifecycle";
+
+    /**
+     * The name of the check that fails while the heartbeat endpoints are drained before shutdown. It is published by
+     * the readiness monitor itself, so this name cannot be taken by another check.
+     */
+    public static final @NotNull String DRAIN_CHECK = "drain";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(HealthCheckFactory.class);
+
+    private HealthCheckFactory() {
+    }
+
+    /**
+     * Creates the enabled built-in checks and the custom checks discovered via {@link ServiceLoader}.
+     *
+     * @param  healthChecks     the health checks configuration
+     * @param  scheduler        the scheduler that runs the evaluations and the blocking work of the built-in checks
+     * @param  listenerSupplier the supplier of the HiveMQ listener addresses
+     * @param  dataFolder       the supplier of the HiveMQ data folder
+     * @param  metricRegistry   the registry of the HiveMQ metrics that are compared by the overload check
+     * @param  classLoader      the class loader in which custom checks are discovered
+     * @return                  the scheduled health checks, not started yet
+     */
+    public static @NotNull List<ScheduledHealthCheck> create(
+            final @NotNull HealthChecks healthChecks,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull Supplier<Collection<InetSocketAddress>> listenerSupplier,
+            final @NotNull Supplier<File> dataFolder,
+            final @NotNull MetricRegistry metricRegistry,
+            final @NotNull ClassLoader classLoader) {
+        final var checks = new ArrayList<ScheduledHealthCheck>();
+        final var listeners = healthChecks.getListeners();
+        if (listeners.isEnabled()) {
+            checks.add(new ScheduledHealthCheck(new ListenersHealthCheck(listenerSupplier,
+                    scheduler,
+                    (int) Math.min(listeners.getDeadline(), Integer.MAX_VALUE)),
+                    scheduler,
+                    listeners.getInterval(),
+                    listeners.getDeadline()));
+        }
+        final var resources = healthChecks.getResources();
+        if (resources.isEnabled()) {
+            checks.add(new ScheduledHealthCheck(new ResourcesHealthCheck(dataFolder,
+                    resources.getMinFreeHeapPercent(),
+                    resources.getMinFreeDisk()), scheduler, resources.getInterval(), resources.getDeadline()));
+        }
+        final var overload = healthChecks.getOverload();
+        if (overload.isEnabled()) {
+            checks.add(new ScheduledHealthCheck(new OverloadHealthCheck(metricRegistry,
+                    overload.getThresholds(),
+                    overload.getStatusCode() == OverloadCheck.STATUS_CODE_TOO_MANY_REQUESTS,
+                    overload.getRecoverPercent()), scheduler, overload.getInterval(), overload.getDeadline()));
+        }
+        final var custom = healthChecks.getCustom();
+        if (custom.isEnabled()) {
+            final var names = new HashSet<String>();
+            names.add(LIFECYCLE_CHECK);
+            names.add(DRAIN_CHECK);
+            checks.forEach(check -> names.add(check.getName()));
+            try {
+                for (final var check : ServiceLoader.load(HealthCheck.class, classLoader)) {
+                    if (!names.add(check.getName())) {
+                        LOG.warn("Ignoring custom health check {}, the name '{}' is already taken",
+                                check.getClass().getName(),
+                                check.getName());
+                        continue;
+                    }
+                    // a check without its own schedule uses the schedule of the custom configuration
+                    final var interval = check.getIntervalMillis();
+                    final var deadline = check.getDeadlineMillis();
+                    final var scheduledCheck = new ScheduledHealthCheck(check,
+                            scheduler,
+                            interval > 0 ? interval : custom.getInterval(),
+                            deadline > 0 ? deadline : custom.getDeadline());
+                    LOG.info("Registered custom health check '{}' with an interval of {} ms and a deadline of {} ms",
+                            check.getName(),
+                            scheduledCheck.getIntervalMillis(),
+                            scheduledCheck.getDeadlineMillis());
+                    checks.add(scheduledCheck);
+                }
+            } catch (final ServiceConfigurationError e) {
+                LOG.warn("Could not load custom health checks, reason: {}", e.getMessage());
+                LOG.debug("Original exception", e);
+            }
+        }
+        return checks;
+    }
+}
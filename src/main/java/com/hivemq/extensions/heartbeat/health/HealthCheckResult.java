@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.hivemq.extension.sdk.api.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable result of a single {@link HealthCheck} evaluation.
+ *
+ * @since  1.2.0
+ */
+@Immutable
+public final class HealthCheckResult {
+
+    private static final @NotNull HealthCheckResult HEALTHY = new HealthCheckResult(true, false, null);
+
+    private final boolean healthy;
+    private final boolean overloaded;
+    private final @Nullable String message;
+
+    private HealthCheckResult(final boolean healthy, final boolean overloaded, final @Nullable String message) {
+        this.healthy = healthy;
+        this.overloaded = overloaded;
+        this.message = message;
+    }
+
+    /**
+     * Returns a healthy result without a message.
+     *
+     * @return the healthy result
+     */
+    public static @NotNull HealthCheckResult healthy() {
+        return HEALTHY;
+    }
+
+    /**
+     * Creates a healthy result.
+     *
+     * @param  message the message describing the checked state
+     * @return         the healthy result
+     */
+    public static @NotNull HealthCheckResult healthy(final @NotNull String message) {
+        return new HealthCheckResult(true, false, message);
+    }
+
+    /**
+     * Creates an unhealthy result.
+     *
+     * @param  message the message describing why the check failed
+     * @return         the unhealthy result
+     */
+    public static @NotNull HealthCheckResult unhealthy(final @NotNull String message) {
+        return new HealthCheckResult(false, false, message);
+    }
+
+    /**
+     * Creates an unhealthy result that only asks clients to back off, because HiveMQ is working but overloaded.
+     * <p>
+     * If all failing checks are overloaded, the heartbeat and readiness endpoints answer with HTTP 429 instead of
+     * HTTP 503.
+     *
+     * @param  message the message describing the exceeded load
+     * @return         the overloaded result
+     */
+    public static @NotNull HealthCheckResult overloaded(final @NotNull String message) {
+        return new HealthCheckResult(false, true, message);
+    }
+
+    /**
+     * Returns whether the check passed.
+     *
+     * @return {@code true} if the check passed
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Returns whether the check failed only because HiveMQ is overloaded.
+     *
+     * @return {@code true} if the result was created by {@link #overloaded(String)}
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    /**
+     * Returns the message describing the checked state.
+     *
+     * @return the message or {@code null} if the check did not provide one
+     */
+    public @Nullable String getMessage() {
+        return message;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "HealthCheckResult{" +
+                "healthy=" +
+                healthy +
+                ", overloaded=" +
+                overloaded +
+                ", message='" +
+                message +
+                '\'' +
+                '}';
+    }
+}
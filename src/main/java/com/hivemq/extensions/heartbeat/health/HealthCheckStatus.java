@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.hivemq.extension.sdk.api.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Immutable view of the last known result of a named health check.
+ * <p>
+ * A status is stale if the latest evaluation of the check overran its deadline. A stale status keeps the last known
+ * result until an evaluation completes again.
+ *
+ * @since  1.2.0
+ */
+@Immutable
+public final class HealthCheckStatus {
+
+    private static final @NotNull HealthCheckResult PENDING = HealthCheckResult.unhealthy("Not evaluated yet");
+
+    private final @NotNull String name;
+    private final @NotNull HealthCheckResult result;
+    private final long timestampNanos;
+    private final boolean stale;
+
+    private HealthCheckStatus(
+            final @NotNull String name,
+            final @NotNull HealthCheckResult result,
+            final long timestampNanos,
+            final boolean stale) {
+        this.name = name;
+        this.result = result;
+        this.timestampNanos = timestampNanos;
+        this.stale = stale;
+    }
+
+    /**
+     * Creates the status of a check that has not completed an evaluation yet. The status is unhealthy, so HiveMQ is not
+     * reported as ready before all checks have passed once.
+     *
+     * @param  name           the name of the check
+     * @param  timestampNanos the {@link System#nanoTime()} at which the check was registered
+     * @return                the pending status
+     */
+    public static @NotNull HealthCheckStatus pending(final @NotNull String name, final long timestampNanos) {
+        return new HealthCheckStatus(name, PENDING, timestampNanos, false);
+    }
+
+    /**
+     * Creates the status for a completed evaluation.
+     *
+     * @param  name           the name of the check
+     * @param  result         the result of the evaluation
+     * @param  timestampNanos the {@link System#nanoTime()} at which the evaluation completed
+     * @return                the status with the given result
+     */
+    public static @NotNull HealthCheckStatus of(
+            final @NotNull String name,
+            final @NotNull HealthCheckResult result,
+            final long timestampNanos) {
+        return new HealthCheckStatus(name, result, timestampNanos, false);
+    }
+
+    /**
+     * Returns a copy of this status that is marked as stale.
+     *
+     * @return the stale status with the same result and timestamp
+     */
+    public @NotNull HealthCheckStatus asStale() {
+        return stale ? this : new HealthCheckStatus(name, result, timestampNanos, true);
+    }
+
+    /**
+     * Returns the name of the check.
+     *
+     * @return the name of the check
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the last known result of the check.
+     *
+     * @return the last known result
+     */
+    public @NotNull HealthCheckResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the last known result was produced.
+     *
+     * @return the result timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Returns whether the latest evaluation of the check overran its deadline.
+     *
+     * @return {@code true} if the last known result is stale
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns whether the last known result of the check is healthy.
+     *
+     * @return {@code true} if the last known result is healthy
+     */
+    public boolean isHealthy() {
+        return result.isHealthy();
+    }
+
+    /**
+     * Returns whether the other status has the same name, result and staleness, ignoring the timestamps.
+     *
+     * @param  other the status to compare with
+     * @return       {@code true} if both statuses describe the same state
+     */
+    public boolean hasSameState(final @NotNull HealthCheckStatus other) {
+        return stale == other.stale &&
+                name.equals(other.name) &&
+                result.isHealthy() == other.result.isHealthy() &&
+                result.isOverloaded() == other.result.isOverloaded() &&
+                Objects.equals(result.getMessage(), other.result.getMessage());
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "HealthCheckStatus{" +
+                "name='" +
+                name +
+                '\'' +
+                ", result=" +
+                result +
+                ", timestampNanos=" +
+                timestampNanos +
+                ", stale=" +
+                stale +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Checks that every HiveMQ listener accepts TCP connections.
+ * <p>
+ * The listeners are connected one after another on the given executor, since connecting blocks. Listeners bound to the
+ * wildcard address are connected via the loopback address.
+ *
+ * @since  1.2.0
+ */
+public class ListenersHealthCheck implements HealthCheck {
+
+    public static final @NotNull String NAME = "listeners";
+
+    private final @NotNull Supplier<Collection<InetSocketAddress>> addressSupplier;
+    private final @NotNull Executor executor;
+    private final int connectTimeoutMillis;
+
+    /**
+     * Creates a new listeners check.
+     *
+     * @param addressSupplier      the supplier of the listener addresses, called on every evaluation
+     * @param executor             the executor that runs the blocking connects
+     * @param connectTimeoutMillis the timeout in milliseconds for a single connect
+     */
+    public ListenersHealthCheck(
+            final @NotNull Supplier<Collection<InetSocketAddress>> addressSupplier,
+            final @NotNull Executor executor,
+            final int connectTimeoutMillis) {
+        this.addressSupplier = addressSupplier;
+        this.executor = executor;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull CompletionStage<HealthCheckResult> check() {
+        return CompletableFuture.supplyAsync(this::connectAll, executor);
+    }
+
+    private @NotNull HealthCheckResult connectAll() {
+        final var addresses = addressSupplier.get();
+        if (addresses.isEmpty()) {
+            return HealthCheckResult.unhealthy("No listeners");
+        }
+        for (final var address : addresses) {
+            final var target = address.getAddress() != null && address.getAddress().isAnyLocalAddress() ?
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), address.getPort()) :
+                    address;
+            try (final var socket = new Socket()) {
+                socket.connect(target, connectTimeoutMillis);
+            } catch (final IOException e) {
+                return HealthCheckResult.unhealthy("Listener " + address + " not reachable: " + e.getMessage());
+            }
+        }
+        return HealthCheckResult.healthy(addresses.size() + " listeners reachable");
+    }
+}
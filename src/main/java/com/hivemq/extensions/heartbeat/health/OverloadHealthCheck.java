@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.NotThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.MetricThreshold;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Checks that metrics of the HiveMQ metric registry, e.g. the connection count, the inbound publish rate or the
+ * number of queued messages, are below their thresholds, so an overloaded node sheds new load to other nodes while its
+ * connected clients are not affected.
+ * <p>
+ * Gauges and counters are compared by their current value, meters, timers and histograms by the rate per second of
+ * their count since the previous evaluation. A metric that exceeded its threshold only counts as recovered once it
+ * drops below the recover share of the threshold, so a node close to the threshold does not flap between in and out
+ * of rotation. A metric that is not registered does not fail the check.
+ * <p>
+ * All values are read from the registry without blocking, so the check completes synchronously. The evaluations of a
+ * {@link ScheduledHealthCheck} never overlap, so the samples of the previous evaluation are kept without
+ * synchronization.
+ *
+ * @since  1.2.0
+ */
+@NotThreadSafe
+public class OverloadHealthCheck implements HealthCheck {
+
+    public static final @NotNull String NAME = "overload";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(OverloadHealthCheck.class);
+
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull MetricThreshold @NotNull [] thresholds;
+    private final boolean tooManyRequests;
+    private final double recoverShare;
+
+    private final boolean @NotNull [] exceeded;
+    private final boolean @NotNull [] missing;
+    private final long @NotNull [] previousCounts;
+    private final long @NotNull [] previousNanos;
+
+    /**
+     * Creates a new overload check.
+     *
+     * @param metricRegistry  the registry of the HiveMQ metrics
+     * @param thresholds      the thresholds on the metrics
+     * @param tooManyRequests whether an exceeded threshold is reported as
+     *                        {@link HealthCheckResult#overloaded(String) overloaded} instead of unhealthy
+     * @param recoverPercent  the share of a threshold in percent below which an exceeded metric counts as recovered
+     */
+    public OverloadHealthCheck(
+            final @NotNull MetricRegistry metricRegistry,
+            final @NotNull List<MetricThreshold> thresholds,
+            final boolean tooManyRequests,
+            final int recoverPercent) {
+        this.metricRegistry = metricRegistry;
+        this.thresholds = thresholds.toArray(new MetricThreshold[0]);
+        this.tooManyRequests = tooManyRequests;
+        this.recoverShare = recoverPercent / 100.0;
+        this.exceeded = new boolean[this.thresholds.length];
+        this.missing = new boolean[this.thresholds.length];
+        this.previousCounts = new long[this.thresholds.length];
+        this.previousNanos = new long[this.thresholds.length];
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull CompletionStage<HealthCheckResult> check() {
+        final var nowNanos = System.nanoTime();
+        final var message = new StringBuilder();
+        var overloaded = false;
+        for (var i = 0; i < thresholds.length; i++) {
+            final var threshold = thresholds[i];
+            final var value = sample(i, nowNanos);
+            if (Double.isNaN(value)) {
+                exceeded[i] = false;
+                continue;
+            }
+            final var limit = exceeded[i] ? threshold.getMax() * recoverShare : threshold.getMax();
+            exceeded[i] = value > limit;
+            // an unhealthy result only lists the exceeded metrics
+            if (exceeded[i] && !overloaded) {
+                overloaded = true;
+                message.setLength(0);
+            }
+            if (exceeded[i] || !overloaded) {
+                if (message.length() > 0) {
+                    message.append(", ");
+                }
+                message.append(threshold.getMetric())
+                        .append(' ')
+                        .append(format(value))
+                        .append(exceeded[i] ? " above " : " of ")
+                        .append(format(exceeded[i] ? limit : threshold.getMax()));
+            }
+        }
+        if (!overloaded) {
+            return CompletableFuture.completedFuture(HealthCheckResult.healthy(message.toString()));
+        }
+        return CompletableFuture.completedFuture(tooManyRequests ?
+                HealthCheckResult.overloaded(message.toString()) :
+                HealthCheckResult.unhealthy(message.toString()));
+    }
+
+    /**
+     * Samples the metric of a threshold.
+     *
+     * @param  index    the index of the threshold
+     * @param  nowNanos the {@link System#nanoTime()} of the evaluation
+     * @return          the value of the metric or its rate per second, {@link Double#NaN} if the metric is not
+     *                  registered, not numeric or its rate is not known yet
+     */
+    private double sample(final int index, final long nowNanos) {
+        final var name = thresholds[index].getMetric();
+        final var metric = metricRegistry.getMetrics().get(name);
+        if (metric == null) {
+            if (!missing[index]) {
+                missing[index] = true;
+                LOG.warn("Metric {} of the overload health check is not registered, ignoring its threshold", name);
+            }
+            previousNanos[index] = 0;
+            return Double.NaN;
+        }
+        missing[index] = false;
+        if (metric instanceof Gauge) {
+            final var value = ((Gauge<?>) metric).getValue();
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+        }
+        if (metric instanceof Counter) {
+            return ((Counter) metric).getCount();
+        }
+        if (metric instanceof Counting) {
+            final var count = ((Counting) metric).getCount();
+            final var previousCount = previousCounts[index];
+            final var elapsedNanos = nowNanos - previousNanos[index];
+            final var known = previousNanos[index] != 0 && elapsedNanos > 0 && count >= previousCount;
+            previousCounts[index] = count;
+            previousNanos[index] = nowNanos;
+            // the first sample of a metric only takes its count, a replaced metric starts over
+            return known ? (count - previousCount) * 1_000_000_000.0 / elapsedNanos : Double.NaN;
+        }
+        return Double.NaN;
+    }
+
+    private static @NotNull String format(final double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
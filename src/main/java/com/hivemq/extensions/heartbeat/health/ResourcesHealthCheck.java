@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the free heap and the usable space of the disk holding the HiveMQ data folder are above their
+ * thresholds.
+ * <p>
+ * The used heap is taken from the heap memory pools after their last garbage collection, so garbage that was not
+ * collected yet does not count as used and the check does not flap with the allocation rate. Both values are read from
+ * the JVM without blocking, so the check completes synchronously.
+ *
+ * @since  1.2.0
+ */
+public class ResourcesHealthCheck implements HealthCheck {
+
+    public static final @NotNull String NAME = "resources";
+
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final @NotNull Supplier<File> dataFolderSupplier;
+    private final @NotNull LongSupplier usedHeapSupplier;
+    private final @NotNull LongSupplier maxHeapSupplier;
+    private final int minFreeHeapPercent;
+    private final long minFreeDiskMegabytes;
+
+    /**
+     * Creates a new resources check.
+     *
+     * @param dataFolderSupplier   the supplier of the HiveMQ data folder
+     * @param minFreeHeapPercent   the minimum free share of the maximum heap size in percent
+     * @param minFreeDiskMegabytes the minimum usable space of the data folder disk in megabytes
+     */
+    public ResourcesHealthCheck(
+            final @NotNull Supplier<File> dataFolderSupplier,
+            final int minFreeHeapPercent,
+            final long minFreeDiskMegabytes) {
+        this(dataFolderSupplier,
+                minFreeHeapPercent,
+                minFreeDiskMegabytes,
+                usedHeapAfterCollection(ManagementFactory.getMemoryPoolMXBeans()),
+                Runtime.getRuntime()::maxMemory);
+    }
+
+    /**
+     * Creates a new resources check that reads the heap usage from the given suppliers.
+     *
+     * @param dataFolderSupplier   the supplier of the HiveMQ data folder
+     * @param minFreeHeapPercent   the minimum free share of the maximum heap size in percent
+     * @param minFreeDiskMegabytes the minimum usable space of the data folder disk in megabytes
+     * @param usedHeapSupplier     the supplier of the used heap in bytes
+     * @param maxHeapSupplier      the supplier of the maximum heap size in bytes
+     */
+    ResourcesHealthCheck(
+            final @NotNull Supplier<File> dataFolderSupplier,
+            final int minFreeHeapPercent,
+            final long minFreeDiskMegabytes,
+            final @NotNull LongSupplier usedHeapSupplier,
+            final @NotNull LongSupplier maxHeapSupplier) {
+        this.dataFolderSupplier = dataFolderSupplier;
+        this.minFreeHeapPercent = minFreeHeapPercent;
+        this.minFreeDiskMegabytes = minFreeDiskMegabytes;
+        this.usedHeapSupplier = usedHeapSupplier;
+        this.maxHeapSupplier = maxHeapSupplier;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull CompletionStage<HealthCheckResult> check() {
+        final var maxHeap = maxHeapSupplier.getAsLong();
+        final var freeHeap = Math.max(0, maxHeap - usedHeapSupplier.getAsLong());
+        final var freeHeapPercent = maxHeap > 0 ? freeHeap * 100 / maxHeap : 100;
+        if (freeHeapPercent < minFreeHeapPercent) {
+            return CompletableFuture.completedFuture(HealthCheckResult.unhealthy("Free heap " +
+                    freeHeapPercent +
+                    "% below " +
+                    minFreeHeapPercent +
+                    "%"));
+        }
+        final var freeDiskMegabytes = dataFolderSupplier.get().getUsableSpace() / BYTES_PER_MEGABYTE;
+        if (freeDiskMegabytes < minFreeDiskMegabytes) {
+            return CompletableFuture.completedFuture(HealthCheckResult.unhealthy("Free disk " +
+                    freeDiskMegabytes +
+                    " MB below " +
+                    minFreeDiskMegabytes +
+                    " MB"));
+        }
+        return CompletableFuture.completedFuture(HealthCheckResult.healthy("Free heap " +
+                freeHeapPercent +
+                "%, free disk " +
+                freeDiskMegabytes +
+                " MB"));
+    }
+
+    /**
+     * Returns the supplier of the used heap after the last garbage collection of the heap memory pools.
+     * <p>
+     * A pool that does not support the collection usage is counted with its current usage.
+     *
+     * @param  memoryPools the memory pools of the JVM
+     * @return             the supplier of the used heap in bytes
+     */
+    static @NotNull LongSupplier usedHeapAfterCollection(final @NotNull List<MemoryPoolMXBean> memoryPools) {
+        // the pools of a JVM are fixed, only their usage changes
+        final var heapPools = memoryPools.stream()
+                .filter(memoryPool -> memoryPool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toUnmodifiableList());
+        return () -> {
+            var used = 0L;
+            for (final var heapPool : heapPools) {
+                if (!heapPool.isValid()) {
+                    continue;
+                }
+                final var collectionUsage = heapPool.getCollectionUsage();
+                used += collectionUsage != null ? collectionUsage.getUsed() : heapPool.getUsage().getUsed();
+            }
+            return used;
+        };
+    }
+}
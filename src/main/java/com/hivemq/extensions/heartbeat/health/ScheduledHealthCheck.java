@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a {@link HealthCheck} in the background and caches its last known result as a {@link HealthCheckStatus}.
+ * <p>
+ * The check is evaluated every interval. An evaluation that does not complete within the deadline keeps the last known
+ * result and marks it as stale. No further evaluation is started while an overrunning evaluation is still in flight,
+ * so a hanging check cannot pile up evaluations. A late result is still taken over once it arrives.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class ScheduledHealthCheck {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ScheduledHealthCheck.class);
+
+    private final @NotNull HealthCheck check;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+    private final long deadlineMillis;
+
+    private volatile @NotNull HealthCheckStatus status;
+    private volatile @NotNull Runnable listener = () -> {
+    };
+    private volatile @Nullable CompletableFuture<HealthCheckResult> evaluation;
+    private volatile @Nullable ScheduledFuture<?> evaluationFuture;
+
+    // only accessed while holding the monitor of this instance
+    private boolean completed;
+
+    /**
+     * Creates a new scheduled health check.
+     *
+     * @param check          the check to evaluate
+     * @param scheduler      the scheduler that runs the evaluations and enforces the deadline
+     * @param intervalMillis the delay in milliseconds between two evaluations
+     * @param deadlineMillis the time in milliseconds an evaluation may take before the result is marked as stale
+     */
+    public ScheduledHealthCheck(
+            final @NotNull HealthCheck check,
+            final @NotNull ScheduledExecutorService scheduler,
+            final long intervalMillis,
+            final long deadlineMillis) {
+        this.check = check;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.status = HealthCheckStatus.pending(check.getName(), System.nanoTime());
+    }
+
+    /**
+     * Schedules the evaluations of the check, starting immediately.
+     *
+     * @param listener called after every change of the status, on the thread that changed it
+     */
+    public void start(final @NotNull Runnable listener) {
+        this.listener = listener;
+        try {
+            evaluationFuture =
+                    scheduler.scheduleWithFixedDelay(this::evaluate, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the scheduler is shut down together with HiveMQ
+            LOG.debug("Could not schedule health check '{}', the scheduler is shut down", check.getName());
+        }
+    }
+
+    /**
+     * Cancels further evaluations of the check. An evaluation in flight is not interrupted.
+     */
+    public void stop() {
+        final var future = evaluationFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the name of the check.
+     *
+     * @return the name of the check
+     */
+    public @NotNull String getName() {
+        return check.getName();
+    }
+
+    /**
+     * Returns the delay in milliseconds between two evaluations.
+     *
+     * @return the interval in milliseconds
+     */
+    long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Returns the time in milliseconds an evaluation may take before the result is marked as stale.
+     *
+     * @return the deadline in milliseconds
+     */
+    long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * Returns the last known status of the check.
+     *
+     * @return the last known status, never blocks
+     */
+    public @NotNull HealthCheckStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Starts an evaluation of the check unless the previous evaluation is still in flight.
+     */
+    void evaluate() {
+        final var previous = evaluation;
+        if (previous != null && !previous.isDone()) {
+            return;
+        }
+        final var current = startEvaluation();
+        evaluation = current;
+        final ScheduledFuture<?> deadline;
+        try {
+            deadline = scheduler.schedule(() -> expire(current), deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            LOG.debug("Could not schedule deadline of health check '{}', the scheduler is shut down", getName());
+            return;
+        }
+        current.whenComplete((result, throwable) -> {
+            deadline.cancel(false);
+            complete(result, throwable);
+        });
+    }
+
+    private @NotNull CompletableFuture<HealthCheckResult> startEvaluation() {
+        try {
+            return check.check().toCompletableFuture();
+        } catch (final Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void complete(final @Nullable HealthCheckResult result, final @Nullable Throwable throwable) {
+        final HealthCheckResult newResult;
+        if (throwable != null) {
+            final var cause =
+                    throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() :
+                            throwable;
+            LOG.debug("Health check '{}' failed", getName(), cause);
+            newResult = HealthCheckResult.unhealthy(String.valueOf(cause.getMessage()));
+        } else if (result == null) {
+            newResult = HealthCheckResult.unhealthy("No result");
+        } else {
+            newResult = result;
+        }
+        final boolean changed;
+        synchronized (this) {
+            changed = !completed || status.isHealthy() != newResult.isHealthy();
+            completed = true;
+            status = HealthCheckStatus.of(getName(), newResult, System.nanoTime());
+        }
+        if (changed) {
+            if (newResult.isHealthy()) {
+                LOG.info("Health check '{}' is healthy", getName());
+            } else {
+                LOG.warn("Health check '{}' is unhealthy, reason: {}", getName(), newResult.getMessage());
+            }
+        }
+        listener.run();
+    }
+
+    private void expire(final @NotNull CompletableFuture<HealthCheckResult> expired) {
+        synchronized (this) {
+            if (expired.isDone()) {
+                return;
+            }
+            status = status.asStale();
+        }
+        LOG.warn("Health check '{}' did not complete within its deadline of {} ms, keeping its last result",
+                getName(),
+                deadlineMillis);
+        listener.run();
+    }
+}
@@ -16,47 +16,82 @@
 
 package com.hivemq.extensions.heartbeat.http;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.http.accesslog.AccessLogger;
+import com.hivemq.extensions.heartbeat.http.grpc.GrpcHealthServer;
+import com.hivemq.extensions.heartbeat.http.layer4.Layer4Responder;
+import com.hivemq.extensions.heartbeat.http.nio.NioHeartbeatServer;
+import com.hivemq.extensions.heartbeat.http.tls.TlsContexts;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
 import com.sun.net.httpserver.HttpServer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manages the HTTP server that provides the heartbeat endpoint for load balancer health checks.
  * <p>
- * This service creates and manages a lightweight HTTP server using Java's built-in {@link HttpServer}. The server
- * listens on a configured address and port, and delegates all requests to the provided {@link HiveMQHeartbeatHandler}.
+ * This service creates and manages a lightweight {@link HeartbeatServer}. Depending on the configured engine this is
+ * either Java's built-in {@link HttpServer}, which delegates all requests to the {@link HiveMQHeartbeatHandler}, or the
+ * {@link NioHeartbeatServer}, which answers requests directly from a non-blocking selector loop. The server listens on
+ * a configured address and port, or on every configured {@link ListenerEndpoints listener}. If configured, the
+ * {@link Layer4Responder} answers TCP connects and UDP datagrams and the {@link GrpcHealthServer} serves the gRPC
+ * health checking protocol next to the HTTP server.
  * <p>
- * The service ensures proper lifecycle management, allowing graceful startup and shutdown of the HTTP server.
+ * The service ensures proper lifecycle management, allowing graceful startup and shutdown of the HTTP server. Before
+ * shutdown, the server can be {@link #drain() drained}. A changed configuration is applied with
+ * {@link #reload(Heartbeat)}.
  *
  * @author David Sondermann
  * @since  1.0.11
  */
 public class HTTPService {
 
+    public static final @NotNull String DRAINING_GAUGE = "http-heartbeat-draining";
+    public static final @NotNull String DRAIN_TIMER = "http-heartbeat-drain-timer";
+
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(HTTPService.class);
 
-    private final @NotNull AtomicReference<HttpServer> serverRef = new AtomicReference<>();
+    private final @NotNull AtomicReference<HeartbeatServer> serverRef = new AtomicReference<>();
+
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull HeartbeatMetrics heartbeatMetrics;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @Nullable AccessLogger accessLogger;
+    private final @Nullable ProberTracker proberTracker;
+    private final @NotNull Gauge<Integer> drainingGauge = () -> this.draining ? 1 : 0;
 
-    private final @NotNull Heartbeat heartbeat;
-    private final @NotNull HiveMQHeartbeatHandler hiveMQHeartbeatHandler;
+    private @NotNull Heartbeat heartbeat;
+    private @Nullable Layer4Responder layer4Responder;
+    private @Nullable GrpcHealthServer grpcHealthServer;
+    private volatile boolean draining;
 
     /**
-     * Creates a new HTTP service with the specified configuration and handler.
+     * Creates a new HTTP service with the specified configuration.
      *
-     * @param heartbeat              the heartbeat configuration containing bind address, port, and path
-     * @param hiveMQHeartbeatHandler the handler that processes heartbeat requests
+     * @param heartbeat        the heartbeat configuration containing engine, bind address, port, path, and executor
+     * @param readinessMonitor the monitor providing the readiness state that is served
+     * @param heartbeatMetrics the metrics in which the handled heartbeat requests are recorded
+     * @param metricRegistry   the registry for the HTTP service metrics
      */
     public HTTPService(
             final @NotNull Heartbeat heartbeat,
-            final @NotNull HiveMQHeartbeatHandler hiveMQHeartbeatHandler) {
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull HeartbeatMetrics heartbeatMetrics,
+            final @NotNull MetricRegistry metricRegistry) {
         this.heartbeat = heartbeat;
-        this.hiveMQHeartbeatHandler = hiveMQHeartbeatHandler;
+        this.readinessMonitor = readinessMonitor;
+        this.heartbeatMetrics = heartbeatMetrics;
+        this.metricRegistry = metricRegistry;
+        this.accessLogger = AccessLogger.create(heartbeat.getAccessLog(), metricRegistry);
+        this.proberTracker = ProberTracker.create(heartbeat.getProberStatistics(), metricRegistry);
     }
 
     /**
@@ -64,47 +99,323 @@ public class HTTPService {
      * <p>
      * The server is configured to:
      * <ul>
-     * <li>Listen on the bind address and port specified in the heartbeat configuration</li>
-     * <li>Handle requests at the configured path using the heartbeat handler</li>
-     * <li>Use the default executor (JDK-managed thread pool)</li>
+     * <li>Use the configured engine ({@value Heartbeat#ENGINE_JDK} or {@value Heartbeat#ENGINE_NIO})</li>
+     * <li>Listen on the bind address and port specified in the heartbeat configuration, or on the configured
+     * listeners</li>
+     * <li>Handle requests at the configured paths of each listener</li>
      * </ul>
      *
      * @throws RuntimeException if the server cannot be started due to an I/O error
      */
-    public void startHttpServer() {
+    public synchronized void startHttpServer() {
         LOG.info("Initializing Heartbeat HTTP service");
+        if (accessLogger != null) {
+            accessLogger.start();
+            LOG.info("Heartbeat access log is written to '{}'", heartbeat.getAccessLog().getFile());
+        }
         try {
-            final var address = new InetSocketAddress(heartbeat.getBindAddress(), heartbeat.getPort());
-            final var server = HttpServer.create(address, 0);
-            server.createContext(heartbeat.getPath(), hiveMQHeartbeatHandler);
-            // use the default executor (JDK-managed thread pool) for handling HTTP requests
-            server.setExecutor(null);
+            final var server = createServer(heartbeat);
             server.start();
             serverRef.set(server);
+            startLayer4(heartbeat);
+            startGrpcHealth(heartbeat);
+            metricRegistry.remove(DRAINING_GAUGE);
+            metricRegistry.register(DRAINING_GAUGE, drainingGauge);
 
-            LOG.info("Heartbeat HTTP service started on address '{}' and port '{}' for path '{}'",
-                    heartbeat.getBindAddress(),
-                    heartbeat.getPort(),
-                    heartbeat.getPath());
+            logListeners("started", heartbeat);
+            final var tls = heartbeat.getTls();
+            if (tls.isEnabled()) {
+                LOG.info("Heartbeat HTTPS caches {} TLS sessions for {} s, session tickets are {}",
+                        tls.getSessionCacheSize(),
+                        tls.getSessionTimeout(),
+                        TlsContexts.isSessionTicketEnabled() ? "enabled" : "disabled");
+            }
         } catch (final IOException e) {
+            stopLayer4();
+            final var server = serverRef.getAndSet(null);
+            if (server != null) {
+                server.stop();
+            }
+            if (accessLogger != null) {
+                accessLogger.stop();
+            }
             LOG.error("Could not start Heartbeat HTTP server", e);
             throw new RuntimeException("Could not start Heartbeat HTTP server", e);
         }
     }
 
+    /**
+     * Drains the HTTP server before it is stopped.
+     * <p>
+     * The readiness probe fails immediately, while the listeners keep serving for the configured drain window, so the
+     * load balancer takes HiveMQ out of rotation by its regular health checks. Blocks the calling thread for the drain
+     * window, unless the thread is interrupted. The drain is exposed by the {@value DRAINING_GAUGE} gauge, which is 1
+     * during the window, and its duration by the {@value DRAIN_TIMER} timer. If draining is disabled or the server is
+     * not running, this method does nothing.
+     */
+    public void drain() {
+        final long window;
+        synchronized (this) {
+            window = heartbeat.getDrain().getWindow();
+        }
+        if (window <= 0 || serverRef.get() == null) {
+            return;
+        }
+        LOG.info("Draining Heartbeat HTTP service for {} ms, the readiness probe fails from now on", window);
+        final var startNanos = System.nanoTime();
+        draining = true;
+        readinessMonitor.drain();
+        try {
+            TimeUnit.MILLISECONDS.sleep(window);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.info("Draining Heartbeat HTTP service was interrupted");
+        }
+        final var drainNanos = System.nanoTime() - startNanos;
+        metricRegistry.timer(DRAIN_TIMER).update(drainNanos, TimeUnit.NANOSECONDS);
+        draining = false;
+        LOG.info("Drained Heartbeat HTTP service after {} ms", TimeUnit.NANOSECONDS.toMillis(drainNanos));
+    }
+
     /**
      * Gracefully stops the HTTP server.
      * <p>
-     * The server is stopped with a delay of 1 seconds, meaning it will stop immediately but any in-progress requests
-     * will be allowed to complete. If the server is already stopped or was never started, this method does nothing.
+     * The server stops accepting new connections immediately, in-progress requests are allowed to complete. If the
+     * server is already stopped or was never started, this method does nothing.
      */
-    public final void stopHTTPServer() {
+    public final synchronized void stopHTTPServer() {
+        stopLayer4();
+        stopGrpcHealth();
         final var server = serverRef.getAndSet(null);
         if (server != null) {
-            server.stop(1);
+            server.stop();
+            metricRegistry.remove(DRAINING_GAUGE);
             LOG.info("Stopped Heartbeat HTTP server");
         } else {
             LOG.info("Heartbeat HTTP server is not running");
         }
+        // the listeners are stopped, so the writer can drain the remaining records
+        if (accessLogger != null) {
+            accessLogger.stop();
+        }
+    }
+
+    /**
+     * Applies a changed configuration to the running HTTP server.
+     * <p>
+     * If the engine, the addresses of the listeners, the executor, the connection settings, the socket options, the
+     * rate limit or the TLS settings changed, a new server is started before the current server is stopped, so the
+     * endpoints stay reachable during the rebind. The nio engine binds its listeners with SO_REUSEPORT where supported,
+     * so a new nio server can bind the addresses of a current nio server. If the new server still cannot be bound
+     * because the current server holds the address, e.g. with the jdk engine, the current server is stopped first.
+     * If only the endpoint paths, the detail, the metrics or the number of listed probers changed, they are replaced
+     * without touching the listeners. Changed layer 4 ports restart the {@link Layer4Responder} and a changed gRPC
+     * health configuration or changed connection settings restart the {@link GrpcHealthServer}, which ends its open
+     * Watch calls. The drain window is applied to the next {@link #drain()}.
+     * <p>
+     * The state polling, the health checks, the access log and the tracking of the probers are not reconfigured,
+     * changes of them are applied on the next start.
+     *
+     * @param newHeartbeat the validated new heartbeat configuration
+     */
+    public synchronized void reload(final @NotNull Heartbeat newHeartbeat) {
+        final var server = serverRef.get();
+        if (server == null) {
+            LOG.debug("Heartbeat HTTP server is not running, ignoring the changed configuration");
+            return;
+        }
+        if (!hasSameLayer4(heartbeat, newHeartbeat)) {
+            stopLayer4();
+            try {
+                startLayer4(newHeartbeat);
+            } catch (final IOException e) {
+                LOG.error("Could not restart Heartbeat layer 4 responders, they stay stopped", e);
+            }
+        }
+        if (!hasSameGrpcHealth(heartbeat, newHeartbeat)) {
+            stopGrpcHealth();
+            try {
+                startGrpcHealth(newHeartbeat);
+            } catch (final IOException e) {
+                LOG.error("Could not restart Heartbeat gRPC health server, it stays stopped", e);
+            }
+        }
+        if (!hasSameListener(heartbeat, newHeartbeat)) {
+            if (rebind(server, newHeartbeat)) {
+                heartbeat = newHeartbeat;
+            }
+        } else if (!hasSameEndpoints(heartbeat, newHeartbeat)) {
+            server.updateEndpoints(newHeartbeat);
+            heartbeat = newHeartbeat;
+            for (final var listener : ListenerEndpoints.of(newHeartbeat)) {
+                LOG.info("Updated Heartbeat HTTP endpoints on address '{}' and port '{}' to paths {}",
+                        listener.getBindAddress(),
+                        listener.getPort(),
+                        listener.getProbePaths().keySet());
+            }
+        } else {
+            // settings that are read on demand, e.g. the drain window, are applied without touching the server
+            heartbeat = newHeartbeat;
+            LOG.debug("Heartbeat HTTP listeners and endpoints are unchanged");
+        }
+    }
+
+    private boolean rebind(final @NotNull HeartbeatServer oldServer, final @NotNull Heartbeat newHeartbeat) {
+        final var newServer = createServer(newHeartbeat);
+        var oldStopped = false;
+        try {
+            newServer.start();
+        } catch (final IOException e) {
+            if (!hasOverlappingPort(heartbeat, newHeartbeat)) {
+                LOG.error("Could not rebind Heartbeat HTTP server, keeping the current server", e);
+                return false;
+            }
+            // an address overlaps with a listener that cannot share it, so there is no way around a short gap
+            LOG.debug("Heartbeat HTTP server could not bind while the current server is running, reason: {}",
+                    e.getMessage());
+            oldServer.stop();
+            oldStopped = true;
+            try {
+                newServer.start();
+            } catch (final IOException retryException) {
+                LOG.error("Could not rebind Heartbeat HTTP server, restarting the current server", retryException);
+                restart();
+                return false;
+            }
+        }
+        serverRef.set(newServer);
+        if (!oldStopped) {
+            oldServer.stop();
+        }
+        logListeners("rebound", newHeartbeat);
+        return true;
+    }
+
+    private void startLayer4(final @NotNull Heartbeat config) throws IOException {
+        final var layer4 = config.getLayer4();
+        if (!layer4.isEnabled()) {
+            return;
+        }
+        final var responder = new Layer4Responder(config, readinessMonitor, metricRegistry);
+        responder.start();
+        layer4Responder = responder;
+        LOG.info("Heartbeat layer 4 responders started on address '{}' with TCP port '{}' and UDP port '{}'",
+                layer4.getBindAddress() != null ? layer4.getBindAddress() : config.getBindAddress(),
+                layer4.getTcpPort(),
+                layer4.getUdpPort());
+    }
+
+    private void stopLayer4() {
+        if (layer4Responder != null) {
+            layer4Responder.stop();
+            layer4Responder = null;
+        }
+    }
+
+    private void startGrpcHealth(final @NotNull Heartbeat config) throws IOException {
+        final var grpcHealth = config.getGrpcHealth();
+        if (!grpcHealth.isEnabled()) {
+            return;
+        }
+        final var server = new GrpcHealthServer(config, readinessMonitor, metricRegistry);
+        server.start();
+        grpcHealthServer = server;
+        LOG.info("Heartbeat gRPC health server started on address '{}' and port '{}'",
+                grpcHealth.getBindAddress() != null ? grpcHealth.getBindAddress() : config.getBindAddress(),
+                grpcHealth.getPort());
+    }
+
+    private void stopGrpcHealth() {
+        if (grpcHealthServer != null) {
+            grpcHealthServer.stop();
+            grpcHealthServer = null;
+        }
+    }
+
+    private static void logListeners(final @NotNull String action, final @NotNull Heartbeat config) {
+        for (final var listener : ListenerEndpoints.of(config)) {
+            LOG.info("Heartbeat HTTP service {} on address '{}' and port '{}' for paths {} with engine '{}'{}",
+                    action,
+                    listener.getBindAddress(),
+                    listener.getPort(),
+                    listener.getProbePaths().keySet(),
+                    config.getEngine(),
+                    config.getTls().isEnabled() ? " over HTTPS" : "");
+        }
+    }
+
+    private void restart() {
+        final var server = createServer(heartbeat);
+        try {
+            server.start();
+            serverRef.set(server);
+        } catch (final IOException e) {
+            serverRef.set(null);
+            LOG.error("Could not restart Heartbeat HTTP server", e);
+        }
+    }
+
+    private @NotNull HeartbeatServer createServer(final @NotNull Heartbeat config) {
+        if (Heartbeat.ENGINE_NIO.equals(config.getEngine())) {
+            return new NioHeartbeatServer(config, readinessMonitor, heartbeatMetrics, metricRegistry, accessLogger,
+                    proberTracker);
+        }
+        return new JdkHeartbeatServer(config, readinessMonitor, heartbeatMetrics, metricRegistry, accessLogger,
+                proberTracker);
+    }
+
+    private static boolean hasSameListener(final @NotNull Heartbeat current, final @NotNull Heartbeat changed) {
+        if (!current.getEngine().equals(changed.getEngine()) ||
+                !current.getExecutor().equals(changed.getExecutor()) ||
+                !current.getConnections().equals(changed.getConnections()) ||
+                !current.getSocketOptions().equals(changed.getSocketOptions()) ||
+                !current.getRateLimit().equals(changed.getRateLimit()) ||
+                !current.getTls().equals(changed.getTls()) ||
+                !current.getWatch().equals(changed.getWatch())) {
+            return false;
+        }
+        final var currentListeners = ListenerEndpoints.of(current);
+        final var changedListeners = ListenerEndpoints.of(changed);
+        if (currentListeners.size() != changedListeners.size()) {
+            return false;
+        }
+        for (var i = 0; i < currentListeners.size(); i++) {
+            if (!currentListeners.get(i).hasSameAddress(changedListeners.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasSameLayer4(final @NotNull Heartbeat current, final @NotNull Heartbeat changed) {
+        // the responders inherit the bind address of the heartbeat unless they have their own
+        return current.getLayer4().equals(changed.getLayer4()) &&
+                (current.getLayer4().getBindAddress() != null ||
+                        current.getBindAddress().equals(changed.getBindAddress()));
+    }
+
+    private static boolean hasSameGrpcHealth(final @NotNull Heartbeat current, final @NotNull Heartbeat changed) {
+        return current.getGrpcHealth().equals(changed.getGrpcHealth()) &&
+                current.getConnections().equals(changed.getConnections()) &&
+                (current.getGrpcHealth().getBindAddress() != null ||
+                        current.getBindAddress().equals(changed.getBindAddress()));
+    }
+
+    private static boolean hasSameEndpoints(final @NotNull Heartbeat current, final @NotNull Heartbeat changed) {
+        return ListenerEndpoints.of(current).equals(ListenerEndpoints.of(changed)) &&
+                current.getDetailMaxAge() == changed.getDetailMaxAge() &&
+                current.getMetricsMaxAge() == changed.getMetricsMaxAge() &&
+                current.getProberStatistics().getTop() == changed.getProberStatistics().getTop();
+    }
+
+    private static boolean hasOverlappingPort(final @NotNull Heartbeat current, final @NotNull Heartbeat changed) {
+        for (final var currentListener : ListenerEndpoints.of(current)) {
+            for (final var changedListener : ListenerEndpoints.of(changed)) {
+                if (currentListener.getPort() == changedListener.getPort()) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 }
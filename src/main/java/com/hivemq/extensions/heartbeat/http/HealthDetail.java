@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.annotations.Immutable;
+import com.hivemq.extensions.heartbeat.state.ReadinessSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * The JSON health detail of a {@link ReadinessSnapshot}, serialized once together with its entity tag.
+ * <p>
+ * The document contains the readiness, whether HiveMQ has started successfully, the lifecycle stage, the start time of
+ * the HiveMQ process from which the uptime is derived, and the last known result of every health check:
+ * <pre>{@code
+ * {"ready":true,"started":true,"stage":"STARTED_SUCCESSFULLY","start-time":"2026-01-01T00:00:00Z",
+ *  "checks":[{"name":"lifecycle","healthy":true,"stale":false,"message":"STARTED_SUCCESSFULLY"}]}
+ * }</pre>
+ * The uptime is not part of the document, so the document and its entity tag only change with the readiness state.
+ *
+ * @since  1.2.0
+ */
+@Immutable
+public final class HealthDetail {
+
+    public static final @NotNull String CONTENT_TYPE = "application/json";
+
+    private final long version;
+    private final int statusCode;
+    private final byte @NotNull [] body;
+    private final @NotNull String entityTag;
+    private final @NotNull String cacheControl;
+
+    private HealthDetail(
+            final long version,
+            final int statusCode,
+            final byte @NotNull [] body,
+            final @NotNull String entityTag,
+            final @NotNull String cacheControl) {
+        this.version = version;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.entityTag = entityTag;
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Serializes the health detail of the given snapshot.
+     *
+     * @param  snapshot        the readiness snapshot
+     * @param  startTimeMillis the start time of the HiveMQ process in milliseconds since the epoch
+     * @param  maxAgeSeconds   the max-age of the {@code Cache-Control} header, {@code 0} to require revalidation
+     * @return                 the serialized health detail
+     */
+    public static @NotNull HealthDetail of(
+            final @NotNull ReadinessSnapshot snapshot,
+            final long startTimeMillis,
+            final int maxAgeSeconds) {
+        final var json = new StringBuilder(256).append("{\"ready\":")
+                .append(snapshot.isReady())
+                .append(",\"started\":")
+                .append(snapshot.hasStarted())
+                .append(",\"stage\":");
+        appendString(json, snapshot.getStage().name());
+        json.append(",\"start-time\":");
+        appendString(json, Instant.ofEpochMilli(startTimeMillis).toString());
+        json.append(",\"checks\":[");
+        var first = true;
+        for (final var check : snapshot.getChecks()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"name\":");
+            appendString(json, check.getName());
+            json.append(",\"healthy\":").append(check.isHealthy()).append(",\"stale\":").append(check.isStale());
+            final var message = check.getResult().getMessage();
+            if (message != null) {
+                json.append(",\"message\":");
+                appendString(json, message);
+            }
+            json.append('}');
+        }
+        json.append("]}");
+        final var body = json.toString().getBytes(StandardCharsets.UTF_8);
+        final var crc = new CRC32();
+        crc.update(body);
+        return new HealthDetail(snapshot.getVersion(),
+                snapshot.getStatusCode(),
+                body,
+                "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"",
+                maxAgeSeconds > 0 ? "max-age=" + maxAgeSeconds : "no-cache");
+    }
+
+    /**
+     * Returns the version of the readiness snapshot this detail was serialized from.
+     *
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the HTTP status code of the detail response, which follows the readiness.
+     *
+     * @return HTTP 200 if HiveMQ is ready, HTTP 429 if HiveMQ is only overloaded, HTTP 503 otherwise
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the UTF-8 encoded JSON document. The array is shared and must not be modified.
+     *
+     * @return the JSON document
+     */
+    public byte @NotNull [] getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the quoted entity tag of the document.
+     *
+     * @return the entity tag
+     */
+    public @NotNull String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Returns the value of the {@code Cache-Control} header.
+     *
+     * @return the cache control directive
+     */
+    public @NotNull String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns whether the value of an {@code If-None-Match} header matches the entity tag of this document.
+     *
+     * @param  ifNoneMatch the header value, may contain multiple or weak entity tags
+     * @return             {@code true} if a bodyless HTTP 304 can be sent
+     */
+    public boolean isNotModified(final @Nullable String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(entityTag);
+    }
+
+    /**
+     * Appends the value as an escaped JSON string.
+     *
+     * @param json  the JSON that is built
+     * @param value the string value to append
+     */
+    public static void appendString(final @NotNull StringBuilder json, final @NotNull String value) {
+        json.append('"');
+        for (var i = 0; i < value.length(); i++) {
+            final var c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
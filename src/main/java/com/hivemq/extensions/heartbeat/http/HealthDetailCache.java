@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Caches the {@link HealthDetail} of the latest readiness snapshot.
+ * <p>
+ * The detail is serialized lazily by the first request after a state change of the {@link ReadinessMonitor}, all
+ * further requests reuse the cached document until the snapshot version changes again.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class HealthDetailCache {
+
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final int maxAgeSeconds;
+    private final long startTimeMillis;
+
+    private volatile @Nullable HealthDetail detail;
+
+    /**
+     * Creates a new health detail cache.
+     *
+     * @param readinessMonitor the monitor providing the latest readiness snapshot
+     * @param maxAgeSeconds    the max-age of the {@code Cache-Control} header, {@code 0} to require revalidation
+     */
+    public HealthDetailCache(final @NotNull ReadinessMonitor readinessMonitor, final int maxAgeSeconds) {
+        this.readinessMonitor = readinessMonitor;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.startTimeMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Returns the health detail of the latest readiness snapshot.
+     *
+     * @return the cached health detail, only serialized if the readiness state changed
+     */
+    public @NotNull HealthDetail get() {
+        final var snapshot = readinessMonitor.getSnapshot();
+        final var cached = detail;
+        if (cached != null && cached.getVersion() == snapshot.getVersion()) {
+            return cached;
+        }
+        // concurrent requests may serialize the same version, which is cheaper than coordinating them
+        final var serialized = HealthDetail.of(snapshot, startTimeMillis, maxAgeSeconds);
+        detail = serialized;
+        return serialized;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * HTTP handler that responds with the cached JSON {@link HealthDetail}.
+ * <p>
+ * Every response carries the entity tag and the {@code Cache-Control} header of the detail. Requests with a matching
+ * {@code If-None-Match} header are answered with a bodyless HTTP 304, all other GET requests with the JSON document and
+ * the readiness status code. Detail requests are not recorded as heartbeats.
+ *
+ * @since  1.2.0
+ */
+public class HealthDetailHandler implements HttpHandler {
+
+    private final @NotNull HealthDetailCache healthDetailCache;
+    private final boolean keepAlive;
+
+    /**
+     * Creates a new health detail handler.
+     *
+     * @param healthDetailCache the cache providing the serialized health detail
+     * @param keepAlive         whether connections may be kept open for subsequent requests
+     */
+    public HealthDetailHandler(final @NotNull HealthDetailCache healthDetailCache, final boolean keepAlive) {
+        this.healthDetailCache = healthDetailCache;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public void handle(final @NotNull HttpExchange exchange) throws IOException {
+        try {
+            final var responseHeaders = exchange.getResponseHeaders();
+            if (!keepAlive) {
+                responseHeaders.set("Connection", "close");
+            }
+            if (HeartbeatExecutor.isSaturated()) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                return;
+            }
+            final var detail = healthDetailCache.get();
+            responseHeaders.set("ETag", detail.getEntityTag());
+            responseHeaders.set("Cache-Control", detail.getCacheControl());
+            if (detail.isNotModified(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+                return;
+            }
+            responseHeaders.set("Content-Type", HealthDetail.CONTENT_TYPE);
+            final var body = detail.getBody();
+            exchange.sendResponseHeaders(detail.getStatusCode(), body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
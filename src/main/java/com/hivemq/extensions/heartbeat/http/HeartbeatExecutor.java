@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.HandlerExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Executor} for the heartbeat HTTP server that applies the configured {@link HandlerExecutor} strategy.
+ * <p>
+ * When the bounded pool is saturated and the rejection policy is
+ * {@value HandlerExecutor#POLICY_SERVICE_UNAVAILABLE}, the request is handed back to the dispatcher thread with a
+ * marker, so the {@link HiveMQHeartbeatHandler} answers it with HTTP 503 right away instead of letting the client time
+ * out. Each saturated request is counted by the {@value EXECUTOR_REJECTED_METER} metric.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class HeartbeatExecutor implements Executor {
+
+    public static final @NotNull String EXECUTOR_REJECTED_METER = "http-heartbeat-executor-rejected-meter";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(HeartbeatExecutor.class);
+    private static final @NotNull ThreadLocal<Boolean> SATURATED = new ThreadLocal<>();
+
+    private final @Nullable ExecutorService delegate;
+    private final boolean serviceUnavailableOnSaturation;
+    private final @NotNull Meter rejectedMeter;
+
+    private HeartbeatExecutor(
+            final @Nullable ExecutorService delegate,
+            final boolean serviceUnavailableOnSaturation,
+            final @NotNull Meter rejectedMeter) {
+        this.delegate = delegate;
+        this.serviceUnavailableOnSaturation = serviceUnavailableOnSaturation;
+        this.rejectedMeter = rejectedMeter;
+    }
+
+    /**
+     * Creates the executor for the given configuration.
+     * <p>
+     * If virtual threads are configured but not supported by the running JVM, a bounded pool is used instead.
+     *
+     * @param  config         the executor configuration
+     * @param  metricRegistry the registry in which the rejection meter is created
+     * @return                the executor
+     */
+    public static @NotNull HeartbeatExecutor create(
+            final @NotNull HandlerExecutor config,
+            final @NotNull MetricRegistry metricRegistry) {
+        final var rejectedMeter = metricRegistry.meter(EXECUTOR_REJECTED_METER);
+        final var serviceUnavailable = HandlerExecutor.POLICY_SERVICE_UNAVAILABLE.equals(config.getRejectionPolicy());
+        switch (config.getType()) {
+            case HandlerExecutor.TYPE_VIRTUAL:
+                final var virtualExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor("heartbeat-http-");
+                if (virtualExecutor != null) {
+                    LOG.debug("Handling heartbeat requests on virtual threads");
+                    return new HeartbeatExecutor(virtualExecutor, serviceUnavailable, rejectedMeter);
+                }
+                LOG.warn("Virtual threads require Java 21 or later, using a bounded executor with {} threads instead",
+                        config.getThreads());
+                return new HeartbeatExecutor(newBoundedExecutor(config), serviceUnavailable, rejectedMeter);
+            case HandlerExecutor.TYPE_BOUNDED:
+                LOG.debug("Handling heartbeat requests on {} threads with a queue size of {}",
+                        config.getThreads(),
+                        config.getQueueSize());
+                return new HeartbeatExecutor(newBoundedExecutor(config), serviceUnavailable, rejectedMeter);
+            default:
+                return new HeartbeatExecutor(null, serviceUnavailable, rejectedMeter);
+        }
+    }
+
+    /**
+     * Returns whether the current request was rejected by a saturated executor and should be answered with HTTP 503.
+     *
+     * @return {@code true} if the request is handled on the dispatcher thread due to saturation
+     */
+    static boolean isSaturated() {
+        return SATURATED.get() != null;
+    }
+
+    @Override
+    public void execute(final @NotNull Runnable command) {
+        final var executor = delegate;
+        if (executor == null) {
+            command.run();
+            return;
+        }
+        try {
+            executor.execute(command);
+        } catch (final RejectedExecutionException e) {
+            rejectedMeter.mark();
+            if (serviceUnavailableOnSaturation) {
+                SATURATED.set(Boolean.TRUE);
+                try {
+                    command.run();
+                } finally {
+                    SATURATED.remove();
+                }
+            } else {
+                command.run();
+            }
+        }
+    }
+
+    /**
+     * Shuts down the underlying thread pool, if any.
+     */
+    public void shutdown() {
+        if (delegate != null) {
+            delegate.shutdown();
+        }
+    }
+
+    private static @NotNull ExecutorService newBoundedExecutor(final @NotNull HandlerExecutor config) {
+        final var executor = new ThreadPoolExecutor(config.getThreads(),
+                config.getThreads(),
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueSize()),
+                new HeartbeatThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class HeartbeatThreadFactory implements ThreadFactory {
+
+        private final @NotNull AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public @NotNull Thread newThread(final @NotNull Runnable runnable) {
+            final var thread = new Thread(runnable, "heartbeat-http-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the heartbeat metrics of all engines without contention on the request path.
+ * <p>
+ * Requests only increment {@link LongAdder}s and the buckets of a {@link LatencyHistogram}. The accumulated values are
+ * folded into the metric handles, which are resolved once from the {@link MetricRegistry}, every
+ * {@value FOLD_INTERVAL_MILLIS} ms by a background task and once more when the metrics are stopped. So the metrics in
+ * the registry lag behind by at most one fold interval, and the recorded latencies are represented by the midpoint of
+ * their histogram bucket. The latency timer is a {@link LatencyTimer} that takes the buckets directly.
+ * <p>
+ * The following metrics are maintained:
+ * <ul>
+ * <li>{@value HiveMQHeartbeatHandler#HTTP_HEARTBEAT_METER}: heartbeat requests answered with the readiness state</li>
+ * <li>{@value LATENCY_TIMER}: time to handle a heartbeat request</li>
+ * <li>{@value OK_COUNTER}, {@value SERVICE_UNAVAILABLE_COUNTER}, {@value TOO_MANY_REQUESTS_COUNTER} and
+ * {@value METHOD_NOT_ALLOWED_COUNTER}: heartbeat requests per response status</li>
+ * <li>{@value RATE_LIMITED_COUNTER}: requests that were rejected or dropped by the {@link RateLimiter}</li>
+ * </ul>
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class HeartbeatMetrics {
+
+    public static final @NotNull String LATENCY_TIMER = "http-heartbeat-latency-timer";
+    public static final @NotNull String OK_COUNTER = "http-heartbeat-200-counter";
+    public static final @NotNull String SERVICE_UNAVAILABLE_COUNTER = "http-heartbeat-503-counter";
+    public static final @NotNull String TOO_MANY_REQUESTS_COUNTER = "http-heartbeat-429-counter";
+    public static final @NotNull String METHOD_NOT_ALLOWED_COUNTER = "http-heartbeat-405-counter";
+    public static final @NotNull String RATE_LIMITED_COUNTER = "http-heartbeat-rate-limited-counter";
+
+    static final long FOLD_INTERVAL_MILLIS = 1000;
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(HeartbeatMetrics.class);
+
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull Meter heartbeatMeter;
+    private final @NotNull LatencyTimer latencyTimer = new LatencyTimer();
+    private final @NotNull Counter okCounter;
+    private final @NotNull Counter serviceUnavailableCounter;
+    private final @NotNull Counter tooManyRequestsCounter;
+    private final @NotNull Counter methodNotAllowedCounter;
+    private final @NotNull Counter rateLimitedCounter;
+
+    private final @NotNull LongAdder ok = new LongAdder();
+    private final @NotNull LongAdder serviceUnavailable = new LongAdder();
+    private final @NotNull LongAdder tooManyRequests = new LongAdder();
+    private final @NotNull LongAdder methodNotAllowed = new LongAdder();
+    private final @NotNull LongAdder rateLimited = new LongAdder();
+    private final @NotNull LatencyHistogram latencies = new LatencyHistogram();
+
+    // only accessed while holding the monitor of this instance
+    private long foldedOk;
+    private long foldedServiceUnavailable;
+    private long foldedTooManyRequests;
+    private long foldedMethodNotAllowed;
+    private long foldedRateLimited;
+    private final long @NotNull [] foldedLatencies = new long[LatencyHistogram.BUCKETS];
+    private final long @NotNull [] newLatencies = new long[LatencyHistogram.BUCKETS];
+
+    private volatile @Nullable ScheduledFuture<?> foldFuture;
+
+    /**
+     * Creates new heartbeat metrics and resolves the metric handles.
+     *
+     * @param scheduler      the scheduler that runs the background fold
+     * @param metricRegistry the registry in which the heartbeat metrics are created
+     */
+    public HeartbeatMetrics(
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull MetricRegistry metricRegistry) {
+        this.scheduler = scheduler;
+        this.heartbeatMeter = metricRegistry.meter(HiveMQHeartbeatHandler.HTTP_HEARTBEAT_METER);
+        // a timer of a previous start is replaced, as its class may have been loaded by another extension class loader
+        metricRegistry.remove(LATENCY_TIMER);
+        metricRegistry.register(LATENCY_TIMER, latencyTimer);
+        this.okCounter = metricRegistry.counter(OK_COUNTER);
+        this.serviceUnavailableCounter = metricRegistry.counter(SERVICE_UNAVAILABLE_COUNTER);
+        this.tooManyRequestsCounter = metricRegistry.counter(TOO_MANY_REQUESTS_COUNTER);
+        this.methodNotAllowedCounter = metricRegistry.counter(METHOD_NOT_ALLOWED_COUNTER);
+        this.rateLimitedCounter = metricRegistry.counter(RATE_LIMITED_COUNTER);
+    }
+
+    /**
+     * Schedules the background fold into the metric registry.
+     */
+    public void start() {
+        try {
+            foldFuture = scheduler.scheduleWithFixedDelay(this::fold,
+                    FOLD_INTERVAL_MILLIS,
+                    FOLD_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the scheduler is shut down together with HiveMQ
+            LOG.debug("Could not schedule heartbeat metrics fold, the scheduler is shut down");
+        }
+    }
+
+    /**
+     * Cancels the background fold and folds the remaining values into the metric registry.
+     */
+    public void stop() {
+        final var future = foldFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+        fold();
+    }
+
+    /**
+     * Records a handled heartbeat request. Never blocks.
+     *
+     * @param statusCode   the status code of the response
+     * @param latencyNanos the time in nanoseconds it took to handle the request
+     */
+    public void record(final int statusCode, final long latencyNanos) {
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                ok.increment();
+                break;
+            case HttpURLConnection.HTTP_UNAVAILABLE:
+                serviceUnavailable.increment();
+                break;
+            case RateLimiter.HTTP_TOO_MANY_REQUESTS:
+                tooManyRequests.increment();
+                break;
+            case HttpURLConnection.HTTP_BAD_METHOD:
+                methodNotAllowed.increment();
+                break;
+            default:
+                // other responses are not heartbeat requests, e.g. unknown paths of the NIO engine
+                return;
+        }
+        latencies.record(latencyNanos);
+    }
+
+    /**
+     * Records a request that was rejected or dropped by the {@link RateLimiter}. Never blocks.
+     */
+    public void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * Folds the values recorded since the last fold into the metric registry.
+     */
+    public synchronized void fold() {
+        final var newOk = ok.sum();
+        final var newServiceUnavailable = serviceUnavailable.sum();
+        final var newTooManyRequests = tooManyRequests.sum();
+        final var newMethodNotAllowed = methodNotAllowed.sum();
+        final var newRateLimited = rateLimited.sum();
+        okCounter.inc(newOk - foldedOk);
+        serviceUnavailableCounter.inc(newServiceUnavailable - foldedServiceUnavailable);
+        tooManyRequestsCounter.inc(newTooManyRequests - foldedTooManyRequests);
+        methodNotAllowedCounter.inc(newMethodNotAllowed - foldedMethodNotAllowed);
+        rateLimitedCounter.inc(newRateLimited - foldedRateLimited);
+        // requests with a wrong method are not counted as heartbeats
+        heartbeatMeter.mark(newOk -
+                foldedOk +
+                newServiceUnavailable -
+                foldedServiceUnavailable +
+                newTooManyRequests -
+                foldedTooManyRequests);
+        foldedOk = newOk;
+        foldedServiceUnavailable = newServiceUnavailable;
+        foldedTooManyRequests = newTooManyRequests;
+        foldedMethodNotAllowed = newMethodNotAllowed;
+        foldedRateLimited = newRateLimited;
+
+        // the buckets are folded as a whole, so a fold does not depend on the number of recorded requests
+        for (var bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            final var count = latencies.count(bucket);
+            newLatencies[bucket] = count - foldedLatencies[bucket];
+            foldedLatencies[bucket] = count;
+        }
+        latencyTimer.fold(newLatencies);
+    }
+}
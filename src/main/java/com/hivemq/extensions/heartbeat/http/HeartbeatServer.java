@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A serving engine for the heartbeat endpoint.
+ * <p>
+ * The {@link HTTPService} selects the engine based on the configuration and drives its lifecycle.
+ *
+ * @since  1.2.0
+ */
+public interface HeartbeatServer {
+
+    /**
+     * Binds the listener and starts serving heartbeat requests.
+     *
+     * @throws IOException if the listener cannot be bound
+     */
+    void start() throws IOException;
+
+    /**
+     * Replaces the served endpoints with the probe paths and the detail settings of the given configuration without
+     * rebinding the listener. Listener and connection settings of the given configuration are ignored.
+     *
+     * @param heartbeat the heartbeat configuration containing the new endpoint settings
+     */
+    void updateEndpoints(@NotNull Heartbeat heartbeat);
+
+    /**
+     * Stops serving heartbeat requests and releases the listener.
+     */
+    void stop();
+}
@@ -16,8 +16,8 @@
 
 package com.hivemq.extensions.heartbeat.http;
 
-import com.hivemq.extension.sdk.api.services.Services;
-import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.state.Probe;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.jetbrains.annotations.NotNull;
@@ -30,54 +30,103 @@ import java.net.HttpURLConnection;
 /**
  * HTTP handler that responds to heartbeat GET requests from load balancers.
  * <p>
- * This handler checks the HiveMQ lifecycle stage and returns:
+ * This handler reads the precomputed status code of its {@link Probe} from the {@link ReadinessMonitor} and returns:
  * <ul>
- * <li>HTTP 200 (OK) if HiveMQ has started successfully</li>
- * <li>HTTP 503 (SERVICE_UNAVAILABLE) if HiveMQ is not yet fully started</li>
+ * <li>HTTP 200 (OK) if the probe passes, e.g. HiveMQ has started successfully for the readiness probe</li>
+ * <li>HTTP 503 (SERVICE_UNAVAILABLE) if the probe fails or the {@link HeartbeatExecutor} is saturated, except for the
+ * liveness probe, since a saturated executor is still responsive</li>
+ * <li>HTTP 429 (TOO_MANY_REQUESTS) if the readiness probe only fails because HiveMQ is overloaded and the overload
+ * check is configured to shed load with HTTP 429</li>
  * <li>HTTP 405 (METHOD_NOT_ALLOWED) for non-GET requests</li>
  * </ul>
  * <p>
- * Each valid heartbeat request is tracked via a metric counter ({@value HTTP_HEARTBEAT_METER}).
+ * Each heartbeat request is tracked via a metric counter ({@value HTTP_HEARTBEAT_METER}), the per-status counters
+ * and the latency timer of the {@link HeartbeatMetrics}. If keep-alive is disabled, every response asks the client to
+ * close the connection.
  *
  * @author David Sondermann
  * @since  1.0.11
  */
 public class HiveMQHeartbeatHandler implements HttpHandler {
 
-    private static final @NotNull String HTTP_HEARTBEAT_METER = "http-heartbeat-meter";
+    public static final @NotNull String HTTP_HEARTBEAT_METER = "http-heartbeat-meter";
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(HiveMQHeartbeatHandler.class);
 
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull Probe probe;
+    private final @NotNull HeartbeatMetrics heartbeatMetrics;
+    private final boolean keepAlive;
+
+    /**
+     * Creates a new heartbeat handler that answers the readiness probe.
+     *
+     * @param readinessMonitor the monitor providing the latest readiness snapshot
+     * @param heartbeatMetrics the metrics in which the handled requests are recorded
+     * @param keepAlive        whether connections may be kept open for subsequent requests
+     */
+    public HiveMQHeartbeatHandler(
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull HeartbeatMetrics heartbeatMetrics,
+            final boolean keepAlive) {
+        this(readinessMonitor, Probe.READINESS, heartbeatMetrics, keepAlive);
+    }
+
+    /**
+     * Creates a new heartbeat handler.
+     *
+     * @param readinessMonitor the monitor providing the precomputed status codes
+     * @param probe            the probe that is answered by this handler
+     * @param heartbeatMetrics the metrics in which the handled requests are recorded
+     * @param keepAlive        whether connections may be kept open for subsequent requests
+     */
+    public HiveMQHeartbeatHandler(
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull Probe probe,
+            final @NotNull HeartbeatMetrics heartbeatMetrics,
+            final boolean keepAlive) {
+        this.readinessMonitor = readinessMonitor;
+        this.probe = probe;
+        this.heartbeatMetrics = heartbeatMetrics;
+        this.keepAlive = keepAlive;
+    }
+
     /**
      * Handles incoming HTTP requests for the heartbeat endpoint.
      * <p>
-     * This method validates that the request uses the GET method, checks the HiveMQ lifecycle stage, and responds with
-     * the appropriate HTTP status code. All requests are logged at debug level and tracked via metrics.
+     * This method validates that the request uses the GET method and responds with the precomputed HTTP status code
+     * of the probe. All requests are logged at debug level and tracked via metrics.
      *
      * @param  exchange    the HTTP exchange containing request and response information
      * @throws IOException if an I/O error occurs during request handling
      */
     @Override
     public void handle(final @NotNull HttpExchange exchange) throws IOException {
+        final var startNanos = System.nanoTime();
+        var status = HttpURLConnection.HTTP_UNAVAILABLE;
         try {
+            if (!keepAlive) {
+                exchange.getResponseHeaders().set("Connection", "close");
+            }
+            if (probe != Probe.LIVENESS && HeartbeatExecutor.isSaturated()) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
             if (!"GET".equals(exchange.getRequestMethod())) {
-                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                status = HttpURLConnection.HTTP_BAD_METHOD;
+                exchange.sendResponseHeaders(status, -1);
                 return;
             }
 
-            // create and mark metric for heartbeat
-            Services.metricRegistry().meter(HTTP_HEARTBEAT_METER).mark();
-
-            final var status = (Services.adminService().getCurrentStage() == LifecycleStage.STARTED_SUCCESSFULLY) ?
-                    HttpURLConnection.HTTP_OK :
-                    HttpURLConnection.HTTP_UNAVAILABLE;
+            status = readinessMonitor.getStatusCode(probe);
             exchange.sendResponseHeaders(status, -1);
 
             if (LOG.isDebugEnabled()) {
                 final var remoteAddress = exchange.getRemoteAddress();
                 final var localAddress = exchange.getLocalAddress();
                 LOG.debug(
-                        "Heartbeat request from IP {} (port {}) received on listener {}:{} and URI {}, with status {}",
+                        "{} request from IP {} (port {}) received on listener {}:{} and URI {}, with status {}",
+                        probe,
                         remoteAddress.getAddress().getHostAddress(),
                         remoteAddress.getPort(),
                         localAddress.getAddress().getHostAddress(),
@@ -87,6 +136,7 @@ public class HiveMQHeartbeatHandler implements HttpHandler {
             }
         } finally {
             exchange.close();
+            heartbeatMetrics.record(status, System.nanoTime() - startNanos);
         }
     }
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.http.accesslog.AccessLogger;
+import com.hivemq.extensions.heartbeat.http.tls.TlsContexts;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heartbeat engine based on the JDK built-in {@link HttpServer}.
+ * <p>
+ * Requests at the configured probe paths are handled by a {@link HiveMQHeartbeatHandler} per path, and requests at
+ * the detail path by a {@link HealthDetailHandler}, at the metrics path by a {@link PrometheusHandler} and at the
+ * probers path by a {@link ProbersHandler}, on the configured {@link HeartbeatExecutor}. Of the
+ * {@link com.hivemq.extensions.heartbeat.configuration.entities.Connections} settings only keep-alive is applied,
+ * connection limits and timeouts are managed by the JDK server itself. Requests of clients over the
+ * {@link RateLimiter rate limit} are answered with HTTP 429 or closed before a handler is invoked. If configured, every
+ * request is recorded in the {@link AccessLogger} after it was handled, and its remote address in the
+ * {@link ProberTracker} before it is handled.
+ * <p>
+ * Every listener is served by its own {@link HttpServer}, all of them share one executor. If TLS is enabled, the
+ * listeners are {@link HttpsServer}s that share one {@link SSLContext} and therefore one session cache. The contexts
+ * dispatch to the handler of their path in an immutable map per listener, so the endpoints can be replaced without
+ * restarting the servers.
+ *
+ * @since  1.2.0
+ */
+class JdkHeartbeatServer implements HeartbeatServer {
+
+    private final @NotNull Heartbeat heartbeat;
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull HeartbeatMetrics heartbeatMetrics;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @Nullable RateLimiter rateLimiter;
+    private final @Nullable AccessLogger accessLogger;
+    private final @Nullable ProberTracker proberTracker;
+
+    // indexed like the listeners of the configuration
+    private volatile @NotNull List<Map<String, HttpHandler>> handlers = List.of();
+    private @NotNull List<HttpServer> servers = List.of();
+    private @Nullable HeartbeatExecutor executor;
+
+    JdkHeartbeatServer(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull HeartbeatMetrics heartbeatMetrics,
+            final @NotNull MetricRegistry metricRegistry,
+            final @Nullable AccessLogger accessLogger,
+            final @Nullable ProberTracker proberTracker) {
+        this.heartbeat = heartbeat;
+        this.readinessMonitor = readinessMonitor;
+        this.heartbeatMetrics = heartbeatMetrics;
+        this.metricRegistry = metricRegistry;
+        this.rateLimiter = RateLimiter.create(heartbeat.getRateLimit());
+        this.accessLogger = accessLogger;
+        this.proberTracker = proberTracker;
+    }
+
+    @Override
+    public void start() throws IOException {
+        final var listeners = ListenerEndpoints.of(heartbeat);
+        final var tls = heartbeat.getTls();
+        final var sslContext = tls.isEnabled() ? TlsContexts.create(tls, metricRegistry) : null;
+        handlers = createHandlers(heartbeat);
+        final var heartbeatExecutor = HeartbeatExecutor.create(heartbeat.getExecutor(), metricRegistry);
+        final var newServers = new ArrayList<HttpServer>(listeners.size());
+        try {
+            for (var i = 0; i < listeners.size(); i++) {
+                final var httpServer = createServer(listeners.get(i).getAddress(), sslContext);
+                for (final var path : handlers.get(i).keySet()) {
+                    createContext(httpServer, i, path);
+                }
+                httpServer.setExecutor(heartbeatExecutor);
+                // a bound server only releases its port after it was started
+                httpServer.start();
+                newServers.add(httpServer);
+            }
+        } catch (final IOException e) {
+            for (final var httpServer : newServers) {
+                httpServer.stop(0);
+            }
+            heartbeatExecutor.shutdown();
+            throw e;
+        }
+        servers = List.copyOf(newServers);
+        executor = heartbeatExecutor;
+    }
+
+    /**
+     * Creates the contexts of new paths after the new handlers are published and removes the contexts of obsolete
+     * paths afterward, so every path that is served before and after the update is served without a gap.
+     * <p>
+     * The listeners of the new endpoints must bind to the same addresses as the listeners the server was started with.
+     */
+    @Override
+    public void updateEndpoints(final @NotNull Heartbeat heartbeat) {
+        final var currentServers = servers;
+        if (currentServers.isEmpty()) {
+            return;
+        }
+        final var oldHandlers = handlers;
+        final var newHandlers = createHandlers(heartbeat);
+        handlers = newHandlers;
+        for (var i = 0; i < currentServers.size(); i++) {
+            final var httpServer = currentServers.get(i);
+            for (final var path : newHandlers.get(i).keySet()) {
+                if (!oldHandlers.get(i).containsKey(path)) {
+                    createContext(httpServer, i, path);
+                }
+            }
+            for (final var path : oldHandlers.get(i).keySet()) {
+                if (!newHandlers.get(i).containsKey(path)) {
+                    httpServer.removeContext(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the HTTP servers with a delay of 1 second, so in-progress requests are allowed to complete, and shuts down
+     * the executor afterward.
+     */
+    @Override
+    public void stop() {
+        for (final var httpServer : servers) {
+            httpServer.stop(1);
+        }
+        servers = List.of();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private @NotNull HttpServer createServer(
+            final @NotNull InetSocketAddress address,
+            final @Nullable SSLContext sslContext) throws IOException {
+        if (sslContext == null) {
+            return HttpServer.create(address, heartbeat.getSocketOptions().getBacklog());
+        }
+        final var httpsServer = HttpsServer.create(address, heartbeat.getSocketOptions().getBacklog());
+        final var sslParameters = TlsContexts.parameters(sslContext, heartbeat.getTls());
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+            @Override
+            public void configure(final @NotNull HttpsParameters params) {
+                params.setSSLParameters(sslParameters);
+            }
+        });
+        return httpsServer;
+    }
+
+    private @NotNull List<Map<String, HttpHandler>> createHandlers(final @NotNull Heartbeat endpoints) {
+        // keep-alive is a connection setting, so it is always taken from the configuration the server was started with
+        final var keepAlive = heartbeat.getConnections().isKeepAlive();
+        // the listeners share one cache, so the detail is serialized once per state change and the metrics once per
+        // max-age
+        final var healthDetailCache = new HealthDetailCache(readinessMonitor, endpoints.getDetailMaxAge());
+        final var prometheusExposition = new PrometheusExposition(metricRegistry, endpoints.getMetricsMaxAge());
+        final var newHandlers = new ArrayList<Map<String, HttpHandler>>();
+        for (final var listener : ListenerEndpoints.of(endpoints)) {
+            final var listenerHandlers = new HashMap<String, HttpHandler>();
+            for (final var path : listener.getProbePaths().entrySet()) {
+                listenerHandlers.put(path.getKey(),
+                        new HiveMQHeartbeatHandler(readinessMonitor, path.getValue(), heartbeatMetrics, keepAlive));
+            }
+            if (!listener.getDetailPath().isEmpty()) {
+                listenerHandlers.put(listener.getDetailPath(), new HealthDetailHandler(healthDetailCache, keepAlive));
+            }
+            if (!listener.getMetricsPath().isEmpty()) {
+                listenerHandlers.put(listener.getMetricsPath(), new PrometheusHandler(prometheusExposition, keepAlive));
+            }
+            if (proberTracker != null && !listener.getProbersPath().isEmpty()) {
+                listenerHandlers.put(listener.getProbersPath(),
+                        new ProbersHandler(proberTracker, endpoints.getProberStatistics().getTop(), keepAlive));
+            }
+            newHandlers.add(Map.copyOf(listenerHandlers));
+        }
+        return List.copyOf(newHandlers);
+    }
+
+    private void createContext(final @NotNull HttpServer httpServer, final int listener, final @NotNull String path) {
+        httpServer.createContext(path, exchange -> dispatch(listener, exchange));
+    }
+
+    private void dispatch(final int listener, final @NotNull HttpExchange exchange) throws IOException {
+        if (accessLogger == null) {
+            serve(listener, exchange);
+            return;
+        }
+        final var startNanos = System.nanoTime();
+        final var remoteAddress = exchange.getRemoteAddress();
+        final var localAddress = exchange.getLocalAddress();
+        try {
+            serve(listener, exchange);
+        } finally {
+            // the response code is not set if the exchange was closed without a response
+            accessLogger.record(remoteAddress.getAddress(),
+                    remoteAddress.getPort(),
+                    localAddress.getPort(),
+                    exchange.getRequestURI().getRawPath(),
+                    Math.max(0, exchange.getResponseCode()),
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    private void serve(final int listener, final @NotNull HttpExchange exchange) throws IOException {
+        if (proberTracker != null) {
+            proberTracker.record(exchange.getRemoteAddress().getAddress(), System.nanoTime());
+        }
+        if (rateLimiter != null &&
+                !rateLimiter.tryAcquire(exchange.getRemoteAddress().getAddress(), System.nanoTime())) {
+            heartbeatMetrics.recordRateLimited();
+            if (!rateLimiter.isDrop()) {
+                if (!heartbeat.getConnections().isKeepAlive()) {
+                    exchange.getResponseHeaders().set("Connection", "close");
+                }
+                exchange.sendResponseHeaders(RateLimiter.HTTP_TOO_MANY_REQUESTS, -1);
+            }
+            // closing the exchange without a response closes the connection
+            exchange.close();
+            return;
+        }
+        final var handler = handlers.get(listener).get(exchange.getHttpContext().getPath());
+        if (handler != null) {
+            handler.handle(exchange);
+        } else {
+            // the context of a removed path may still receive a request while the endpoints are updated
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention-free latency histogram with log-linear buckets.
+ * <p>
+ * Each power of two is split into {@value SUB_BUCKETS} linear sub-buckets, so a recorded value is represented by the
+ * midpoint of its bucket with a relative error of at most 1/16. Every bucket is a {@link LongAdder}, so concurrent
+ * recordings do not contend on a shared lock or CAS loop.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final @NotNull LongAdder @NotNull [] counts = new LongAdder[BUCKETS];
+
+    LatencyHistogram() {
+        for (var i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    void record(final long value) {
+        counts[bucketOf(Math.max(0, value))].increment();
+    }
+
+    /**
+     * Returns the number of values recorded in the bucket since the creation of the histogram.
+     *
+     * @param  bucket the bucket index
+     * @return        the number of recorded values
+     */
+    long count(final int bucket) {
+        return counts[bucket].sum();
+    }
+
+    /**
+     * Returns the bucket of the value.
+     *
+     * @param  value the non-negative value
+     * @return       the bucket index
+     */
+    static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the value that represents all values of the bucket.
+     *
+     * @param  bucket the bucket index
+     * @return        the midpoint of the bucket
+     */
+    static long valueOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final var shift = bucket / SUB_BUCKETS - 1;
+        final var lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + ((1L << shift) >>> 1);
+    }
+}
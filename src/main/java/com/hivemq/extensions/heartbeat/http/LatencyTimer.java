@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.WeightedSnapshot;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timer that is backed by the bucket counts of a {@link LatencyHistogram} instead of a reservoir of single values.
+ * <p>
+ * A fold adds the new count of every bucket at once, so its cost depends on the number of buckets and not on the
+ * number of recorded requests. Like the exponentially decaying reservoir of a default timer, the weight of older values
+ * decays exponentially at a rate of {@value ALPHA} per second, so the snapshot is biased towards the last five
+ * minutes. The count and the rates are taken from a {@link Meter} that is marked with the number of folded values.
+ * <p>
+ * Every recording method of the timer records into the buckets, except {@link #time()}, which is rejected.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+final class LatencyTimer extends Timer {
+
+    private static final double ALPHA = 0.015;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final @NotNull Meter meter = new Meter();
+
+    // only accessed while holding the monitor of this instance
+    private final double @NotNull [] weights = new double[LatencyHistogram.BUCKETS];
+    private long lastDecayNanos = System.nanoTime();
+
+    /**
+     * Adds the values that were recorded in the buckets since the previous fold.
+     *
+     * @param counts the number of new values per bucket, indexed like the buckets of the {@link LatencyHistogram}
+     */
+    synchronized void fold(final long @NotNull [] counts) {
+        decay();
+        var total = 0L;
+        for (var bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            weights[bucket] += counts[bucket];
+            total += counts[bucket];
+        }
+        meter.mark(total);
+    }
+
+    @Override
+    public synchronized void update(final long duration, final @NotNull TimeUnit unit) {
+        if (duration < 0) {
+            return;
+        }
+        decay();
+        weights[LatencyHistogram.bucketOf(unit.toNanos(duration))]++;
+        meter.mark();
+    }
+
+    @Override
+    public void update(final @NotNull Duration duration) {
+        update(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public <T> T time(final @NotNull Callable<T> event) throws Exception {
+        final var startNanos = System.nanoTime();
+        try {
+            return event.call();
+        } finally {
+            update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public <T> T timeSupplier(final @NotNull Supplier<T> event) {
+        final var startNanos = System.nanoTime();
+        try {
+            return event.get();
+        } finally {
+            update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void time(final @NotNull Runnable event) {
+        final var startNanos = System.nanoTime();
+        try {
+            event.run();
+        } finally {
+            update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Not supported, as a {@link Context} can only be created by the default timer and would record into its
+     * reservoir instead of the buckets of this timer.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public @NotNull Context time() {
+        throw new UnsupportedOperationException("The heartbeat latency timer only records durations via update()");
+    }
+
+    @Override
+    public long getCount() {
+        return meter.getCount();
+    }
+
+    @Override
+    public double getMeanRate() {
+        return meter.getMeanRate();
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        return meter.getOneMinuteRate();
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        return meter.getFiveMinuteRate();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        return meter.getFifteenMinuteRate();
+    }
+
+    /**
+     * Returns a snapshot of the buckets, every bucket is represented by its midpoint weighted by its decayed count.
+     *
+     * @return the weighted snapshot of the latencies
+     */
+    @Override
+    public @NotNull Snapshot getSnapshot() {
+        final var samples = new ArrayList<WeightedSnapshot.WeightedSample>();
+        synchronized (this) {
+            for (var bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+                if (weights[bucket] > 0) {
+                    samples.add(new WeightedSnapshot.WeightedSample(LatencyHistogram.valueOf(bucket), weights[bucket]));
+                }
+            }
+        }
+        return new WeightedSnapshot(samples);
+    }
+
+    private void decay() {
+        final var now = System.nanoTime();
+        final var factor = Math.exp(-ALPHA * (now - lastDecayNanos) / NANOS_PER_SECOND);
+        lastDecayNanos = now;
+        for (var bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            weights[bucket] *= factor;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.annotations.Immutable;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.Probe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The resolved address and endpoint paths of one listener of the heartbeat engine.
+ * <p>
+ * Settings that a {@link com.hivemq.extensions.heartbeat.configuration.entities.Listener} does not override are
+ * inherited from the {@link Heartbeat}. Without configured listeners the heartbeat itself describes the only listener.
+ *
+ * @since  1.2.0
+ */
+@Immutable
+public final class ListenerEndpoints {
+
+    private final @NotNull String bindAddress;
+    private final int port;
+    private final @NotNull Map<String, Probe> probePaths;
+    private final @NotNull String detailPath;
+    private final @NotNull String metricsPath;
+    private final @NotNull String probersPath;
+    private final @NotNull String watchPath;
+
+    private ListenerEndpoints(
+            final @NotNull String bindAddress,
+            final int port,
+            final @NotNull Map<String, Probe> probePaths,
+            final @NotNull String detailPath,
+            final @NotNull String metricsPath,
+            final @NotNull String probersPath,
+            final @NotNull String watchPath) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.probePaths = probePaths;
+        this.detailPath = detailPath;
+        this.metricsPath = metricsPath;
+        this.probersPath = probersPath;
+        this.watchPath = watchPath;
+    }
+
+    /**
+     * Resolves the listeners of the given heartbeat configuration in their configured order.
+     *
+     * @param  heartbeat the heartbeat configuration
+     * @return           the listeners, at least one
+     */
+    public static @NotNull List<ListenerEndpoints> of(final @NotNull Heartbeat heartbeat) {
+        final var listeners = heartbeat.getListeners();
+        if (listeners.isEmpty()) {
+            return List.of(create(heartbeat.getBindAddress(),
+                    heartbeat.getPort(),
+                    heartbeat.getPath(),
+                    heartbeat.getLivenessPath(),
+                    heartbeat.getReadinessPath(),
+                    heartbeat.getStartupPath(),
+                    heartbeat.getDetailPath(),
+                    heartbeat.getMetricsPath(),
+                    heartbeat.getProbersPath(),
+                    heartbeat.getWatchPath()));
+        }
+        final var resolved = new ArrayList<ListenerEndpoints>(listeners.size());
+        for (final var listener : listeners) {
+            resolved.add(create(inherit(listener.getBindAddress(), heartbeat.getBindAddress()),
+                    listener.getPort(),
+                    inherit(listener.getPath(), heartbeat.getPath()),
+                    inherit(listener.getLivenessPath(), heartbeat.getLivenessPath()),
+                    inherit(listener.getReadinessPath(), heartbeat.getReadinessPath()),
+                    inherit(listener.getStartupPath(), heartbeat.getStartupPath()),
+                    inherit(listener.getDetailPath(), heartbeat.getDetailPath()),
+                    inherit(listener.getMetricsPath(), heartbeat.getMetricsPath()),
+                    inherit(listener.getProbersPath(), heartbeat.getProbersPath()),
+                    inherit(listener.getWatchPath(), heartbeat.getWatchPath())));
+        }
+        return List.copyOf(resolved);
+    }
+
+    /**
+     * @return the network address the listener binds to
+     */
+    public @NotNull String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * @return the port the listener binds to, {@code 0} for an ephemeral port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the socket address the listener binds to
+     */
+    public @NotNull InetSocketAddress getAddress() {
+        return new InetSocketAddress(bindAddress, port);
+    }
+
+    /**
+     * @return the enabled probe paths of the listener, ordered from the longest to the shortest path
+     */
+    public @NotNull Map<String, Probe> getProbePaths() {
+        return probePaths;
+    }
+
+    /**
+     * @return the path of the health detail endpoint or an empty string if it is disabled on the listener
+     */
+    public @NotNull String getDetailPath() {
+        return detailPath;
+    }
+
+    /**
+     * @return the path of the Prometheus metrics endpoint or an empty string if it is disabled on the listener
+     */
+    public @NotNull String getMetricsPath() {
+        return metricsPath;
+    }
+
+    /**
+     * @return the path of the prober statistics endpoint or an empty string if it is disabled on the listener
+     */
+    public @NotNull String getProbersPath() {
+        return probersPath;
+    }
+
+    /**
+     * @return the path of the readiness watch endpoint or an empty string if it is disabled on the listener
+     */
+    public @NotNull String getWatchPath() {
+        return watchPath;
+    }
+
+    /**
+     * Checks whether this listener binds to the same address as the other listener.
+     *
+     * @param  other the other listener
+     * @return       {@code true} if bind address and port are equal
+     */
+    public boolean hasSameAddress(final @NotNull ListenerEndpoints other) {
+        return port == other.port && bindAddress.equals(other.bindAddress);
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (ListenerEndpoints) o;
+        return port == that.port &&
+                bindAddress.equals(that.bindAddress) &&
+                probePaths.equals(that.probePaths) &&
+                detailPath.equals(that.detailPath) &&
+                metricsPath.equals(that.metricsPath) &&
+                probersPath.equals(that.probersPath) &&
+                watchPath.equals(that.watchPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bindAddress, port, probePaths, detailPath, metricsPath, probersPath, watchPath);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return bindAddress + ":" + port;
+    }
+
+    private static @NotNull ListenerEndpoints create(
+            final @NotNull String bindAddress,
+            final int port,
+            final @NotNull String path,
+            final @NotNull String livenessPath,
+            final @NotNull String readinessPath,
+            final @NotNull String startupPath,
+            final @NotNull String detailPath,
+            final @NotNull String metricsPath,
+            final @NotNull String probersPath,
+            final @NotNull String watchPath) {
+        final var probePaths = ProbePaths.of(path, livenessPath, readinessPath, startupPath);
+        final var resolvedDetailPath = ProbePaths.detailPath(detailPath, probePaths);
+        final var resolvedMetricsPath = ProbePaths.metricsPath(metricsPath, probePaths, resolvedDetailPath);
+        final var resolvedProbersPath =
+                ProbePaths.probersPath(probersPath, probePaths, resolvedDetailPath, resolvedMetricsPath);
+        return new ListenerEndpoints(bindAddress,
+                port,
+                Collections.unmodifiableMap(probePaths),
+                resolvedDetailPath,
+                resolvedMetricsPath,
+                resolvedProbersPath,
+                ProbePaths.watchPath(watchPath,
+                        probePaths,
+                        resolvedDetailPath,
+                        resolvedMetricsPath,
+                        resolvedProbersPath));
+    }
+
+    private static @NotNull String inherit(final @Nullable String value, final @NotNull String inherited) {
+        return value != null ? value : inherited;
+    }
+}
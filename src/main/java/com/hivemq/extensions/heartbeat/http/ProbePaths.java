@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extensions.heartbeat.state.Probe;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps the configured endpoint paths of a listener to the {@link Probe} they answer and resolves the paths of the
+ * health detail, metrics, probers and watch endpoints.
+ *
+ * @since  1.2.0
+ */
+public final class ProbePaths {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ProbePaths.class);
+
+    private ProbePaths() {
+    }
+
+    /**
+     * Returns the enabled endpoint paths with their probes.
+     * <p>
+     * The heartbeat path answers like the readiness path. Disabled endpoints with an empty path are skipped, and if
+     * two endpoints share a path, the first one wins. The paths are ordered from the longest to the shortest, so
+     * matching the request target against them in order selects the most specific path like the JDK HTTP server.
+     *
+     * @param  path          the heartbeat path
+     * @param  livenessPath  the liveness path
+     * @param  readinessPath the readiness path
+     * @param  startupPath   the startup path
+     * @return               the ordered map from path to probe
+     */
+    public static @NotNull Map<String, Probe> of(
+            final @NotNull String path,
+            final @NotNull String livenessPath,
+            final @NotNull String readinessPath,
+            final @NotNull String startupPath) {
+        final var paths = new LinkedHashMap<String, Probe>();
+        add(paths, path, Probe.READINESS);
+        add(paths, livenessPath, Probe.LIVENESS);
+        add(paths, readinessPath, Probe.READINESS);
+        add(paths, startupPath, Probe.STARTUP);
+        final var entries = new ArrayList<>(paths.entrySet());
+        entries.sort(Comparator.comparingInt((Map.Entry<String, Probe> entry) -> entry.getKey().length()).reversed());
+        final var ordered = new LinkedHashMap<String, Probe>();
+        for (final var entry : entries) {
+            ordered.put(entry.getKey(), entry.getValue());
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns the path of the JSON health detail endpoint if it is enabled and not used by a probe endpoint.
+     *
+     * @param  path       the configured detail path
+     * @param  probePaths the enabled endpoint paths of the same listener
+     * @return            the detail path or an empty string if the endpoint is disabled
+     */
+    public static @NotNull String detailPath(final @NotNull String path, final @NotNull Map<String, Probe> probePaths) {
+        if (path.isEmpty()) {
+            return path;
+        }
+        final var existing = probePaths.get(path);
+        if (existing != null) {
+            LOG.warn("Path '{}' is already used by the {} endpoint, the detail endpoint is disabled",
+                    path,
+                    existing.name().toLowerCase());
+            return "";
+        }
+        return path;
+    }
+
+    /**
+     * Returns the path of the Prometheus metrics endpoint if it is enabled and not used by another endpoint.
+     *
+     * @param  path       the configured metrics path
+     * @param  probePaths the enabled endpoint paths of the same listener
+     * @param  detailPath the resolved detail path of the same listener
+     * @return            the metrics path or an empty string if the endpoint is disabled
+     */
+    public static @NotNull String metricsPath(
+            final @NotNull String path,
+            final @NotNull Map<String, Probe> probePaths,
+            final @NotNull String detailPath) {
+        return endpointPath("metrics", path, probePaths, detailPath, "", "");
+    }
+
+    /**
+     * Returns the path of the prober statistics endpoint if it is enabled and not used by another endpoint.
+     *
+     * @param  path        the configured probers path
+     * @param  probePaths  the enabled endpoint paths of the same listener
+     * @param  detailPath  the resolved detail path of the same listener
+     * @param  metricsPath the resolved metrics path of the same listener
+     * @return             the probers path or an empty string if the endpoint is disabled
+     */
+    public static @NotNull String probersPath(
+            final @NotNull String path,
+            final @NotNull Map<String, Probe> probePaths,
+            final @NotNull String detailPath,
+            final @NotNull String metricsPath) {
+        return endpointPath("probers", path, probePaths, detailPath, metricsPath, "");
+    }
+
+    /**
+     * Returns the path of the readiness watch endpoint if it is enabled and not used by another endpoint.
+     *
+     * @param  path        the configured watch path
+     * @param  probePaths  the enabled endpoint paths of the same listener
+     * @param  detailPath  the resolved detail path of the same listener
+     * @param  metricsPath the resolved metrics path of the same listener
+     * @param  probersPath the resolved probers path of the same listener
+     * @return             the watch path or an empty string if the endpoint is disabled
+     */
+    public static @NotNull String watchPath(
+            final @NotNull String path,
+            final @NotNull Map<String, Probe> probePaths,
+            final @NotNull String detailPath,
+            final @NotNull String metricsPath,
+            final @NotNull String probersPath) {
+        return endpointPath("watch", path, probePaths, detailPath, metricsPath, probersPath);
+    }
+
+    private static @NotNull String endpointPath(
+            final @NotNull String endpoint,
+            final @NotNull String path,
+            final @NotNull Map<String, Probe> probePaths,
+            final @NotNull String detailPath,
+            final @NotNull String metricsPath,
+            final @NotNull String probersPath) {
+        if (path.isEmpty()) {
+            return path;
+        }
+        final var probe = probePaths.get(path);
+        final String existing;
+        if (probe != null) {
+            existing = probe.name().toLowerCase();
+        } else if (path.equals(detailPath)) {
+            existing = "detail";
+        } else if (path.equals(metricsPath)) {
+            existing = "metrics";
+        } else if (path.equals(probersPath)) {
+            existing = "probers";
+        } else {
+            return path;
+        }
+        LOG.warn("Path '{}' is already used by the {} endpoint, the {} endpoint is disabled", path, existing, endpoint);
+        return "";
+    }
+
+    private static void add(
+            final @NotNull Map<String, Probe> paths,
+            final @NotNull String path,
+            final @NotNull Probe probe) {
+        if (path.isEmpty()) {
+            return;
+        }
+        final var existing = paths.putIfAbsent(path, probe);
+        if (existing != null && existing != probe) {
+            LOG.warn("Path '{}' is already used by the {} endpoint, the {} endpoint is disabled",
+                    path,
+                    existing.name().toLowerCase(),
+                    probe.name().toLowerCase());
+        }
+    }
+}
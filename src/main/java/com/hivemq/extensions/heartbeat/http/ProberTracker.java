@@ -0,0 +1,314 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.ProberStatistics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per remote address statistics of the clients that probe the heartbeat endpoints.
+ * <p>
+ * For every remote address the number of requests, the time of the first and the last request, the shortest time
+ * between two requests and a histogram of the inter-arrival times are tracked. The statistics are kept in preallocated
+ * primitive arrays that are split into stripes of {@value STRIPE_SIZE} slots, each stripe guarded by its own lock. An
+ * address is hashed to its stripe and takes a free slot of the stripe. If the stripe is full, the least recently seen
+ * address of the stripe is evicted, so the table never grows and recording a request of an IPv4 address does not
+ * allocate.
+ * <p>
+ * The histogram has {@value BUCKETS} buckets with power of two bounds in milliseconds. Bucket {@code i} counts the
+ * intervals from {@code 2^(i-1)} inclusive to {@code 2^i} milliseconds exclusive, the first bucket counts the intervals
+ * below 1 millisecond and the last bucket all longer intervals.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public final class ProberTracker {
+
+    public static final @NotNull String EVICTED_PROBERS_COUNTER = "http-heartbeat-evicted-probers-counter";
+
+    static final int STRIPE_SIZE = 8;
+    static final int BUCKETS = 20;
+    private static final int MAX_STRIPES = 1 << 20;
+    // the low half of an IPv4-mapped IPv6 address without the IPv4 address
+    private static final long IPV4_MAPPED = 0xFFFF_0000_0000L;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int stripeMask;
+    private final @NotNull Object @NotNull [] locks;
+    // the address of a slot as IPv6 address, IPv4 addresses are stored as IPv4-mapped addresses
+    private final long @NotNull [] keyHigh;
+    private final long @NotNull [] keyLow;
+    // 0 for a free slot
+    private final long @NotNull [] requests;
+    private final long @NotNull [] firstSeenNanos;
+    private final long @NotNull [] lastSeenNanos;
+    private final long @NotNull [] minIntervalNanos;
+    // BUCKETS consecutive counts per slot
+    private final long @NotNull [] histogram;
+    private final @NotNull Counter evictedCounter;
+
+    ProberTracker(final @NotNull ProberStatistics proberStatistics, final @NotNull MetricRegistry metricRegistry) {
+        final var requiredStripes = Math.min(MAX_STRIPES, (proberStatistics.getMaxProbers() - 1) / STRIPE_SIZE + 1);
+        var stripes = Integer.highestOneBit(requiredStripes);
+        if (stripes < requiredStripes) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.locks = new Object[stripes];
+        for (var i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+        final var capacity = stripes * STRIPE_SIZE;
+        this.keyHigh = new long[capacity];
+        this.keyLow = new long[capacity];
+        this.requests = new long[capacity];
+        this.firstSeenNanos = new long[capacity];
+        this.lastSeenNanos = new long[capacity];
+        this.minIntervalNanos = new long[capacity];
+        this.histogram = new long[capacity * BUCKETS];
+        this.evictedCounter = metricRegistry.counter(EVICTED_PROBERS_COUNTER);
+    }
+
+    /**
+     * Creates the prober tracker of the given configuration.
+     *
+     * @param  proberStatistics the prober statistics configuration
+     * @param  metricRegistry   the registry in which the eviction counter is created
+     * @return                  the prober tracker or {@code null} if the statistics are disabled
+     */
+    public static @Nullable ProberTracker create(
+            final @NotNull ProberStatistics proberStatistics,
+            final @NotNull MetricRegistry metricRegistry) {
+        return proberStatistics.isEnabled() ? new ProberTracker(proberStatistics, metricRegistry) : null;
+    }
+
+    /**
+     * Records a request of the remote address.
+     *
+     * @param address  the remote address of the client
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    public void record(final @NotNull InetAddress address, final long nowNanos) {
+        final long high;
+        final long low;
+        if (address instanceof Inet4Address) {
+            // the hash code of an IPv4 address is the address itself, so it is read without copying the bytes
+            high = 0;
+            low = IPV4_MAPPED | (address.hashCode() & 0xFFFF_FFFFL);
+        } else {
+            final var bytes = address.getAddress();
+            high = toLong(bytes, 0);
+            low = toLong(bytes, 8);
+        }
+        final var stripe = spread(Long.hashCode(high * 31 + low)) & stripeMask;
+        final var start = stripe * STRIPE_SIZE;
+        synchronized (locks[stripe]) {
+            var eldest = start;
+            for (var slot = start; slot < start + STRIPE_SIZE; slot++) {
+                if (requests[slot] == 0) {
+                    claim(slot, high, low, nowNanos);
+                    return;
+                }
+                if (keyHigh[slot] == high && keyLow[slot] == low) {
+                    update(slot, nowNanos);
+                    return;
+                }
+                if (lastSeenNanos[eldest] - lastSeenNanos[slot] > 0) {
+                    eldest = slot;
+                }
+            }
+            claim(eldest, high, low, nowNanos);
+        }
+        evictedCounter.inc();
+    }
+
+    /**
+     * Serializes the statistics of the remote addresses with the most requests to JSON, for example:
+     * <pre>{@code
+     * {"tracked":1,"probers":[{"address":"10.0.0.1","requests":3,"first-seen":"2026-01-01T00:00:00Z",
+     *  "last-seen":"2026-01-01T00:00:10Z","min-interval-ms":4999.8,"mean-interval-ms":5000.1,
+     *  "intervals":[{"from-ms":4096,"count":2}]}]}
+     * }</pre>
+     * The intervals only list the non-empty buckets of the histogram by their lower bound.
+     *
+     * @param  top the maximum number of listed remote addresses
+     * @return     the UTF-8 encoded JSON document, ordered by the number of requests
+     */
+    public byte @NotNull [] toJson(final int top) {
+        final var nowNanos = System.nanoTime();
+        final var nowMillis = System.currentTimeMillis();
+        final var probers = new ArrayList<Prober>();
+        for (var stripe = 0; stripe < locks.length; stripe++) {
+            synchronized (locks[stripe]) {
+                for (var slot = stripe * STRIPE_SIZE; slot < (stripe + 1) * STRIPE_SIZE; slot++) {
+                    if (requests[slot] > 0) {
+                        probers.add(new Prober(slot));
+                    }
+                }
+            }
+        }
+        probers.sort(Comparator.comparingLong((Prober prober) -> prober.requests).reversed());
+        final var json = new StringBuilder(256).append("{\"tracked\":").append(probers.size()).append(",\"probers\":[");
+        for (var i = 0; i < Math.min(top, probers.size()); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            probers.get(i).appendTo(json, nowNanos, nowMillis);
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of remote addresses the table can hold.
+     *
+     * @return the capacity, the configured max probers rounded up to a power of two of at least {@value STRIPE_SIZE}
+     */
+    int capacity() {
+        return requests.length;
+    }
+
+    /**
+     * Returns the histogram bucket of an inter-arrival time.
+     *
+     * @param  intervalNanos the time between two requests in nanoseconds
+     * @return               the bucket index
+     */
+    static int bucket(final long intervalNanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(intervalNanos / NANOS_PER_MILLI));
+    }
+
+    private void claim(final int slot, final long high, final long low, final long nowNanos) {
+        keyHigh[slot] = high;
+        keyLow[slot] = low;
+        requests[slot] = 1;
+        firstSeenNanos[slot] = nowNanos;
+        lastSeenNanos[slot] = nowNanos;
+        minIntervalNanos[slot] = Long.MAX_VALUE;
+        Arrays.fill(histogram, slot * BUCKETS, (slot + 1) * BUCKETS, 0);
+    }
+
+    private void update(final int slot, final long nowNanos) {
+        // requests of the same address on different threads may be recorded out of order
+        final var interval = Math.max(0, nowNanos - lastSeenNanos[slot]);
+        requests[slot]++;
+        lastSeenNanos[slot] += interval;
+        minIntervalNanos[slot] = Math.min(minIntervalNanos[slot], interval);
+        histogram[slot * BUCKETS + bucket(interval)]++;
+    }
+
+    private static long toLong(final byte @NotNull [] bytes, final int offset) {
+        var value = 0L;
+        for (var i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int spread(final int hashCode) {
+        final var hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A copy of the statistics of one slot, taken under the lock of its stripe.
+     */
+    private final class Prober {
+
+        private final long high;
+        private final long low;
+        private final long requests;
+        private final long firstSeenNanos;
+        private final long lastSeenNanos;
+        private final long minIntervalNanos;
+        private final long @NotNull [] buckets;
+
+        private Prober(final int slot) {
+            this.high = keyHigh[slot];
+            this.low = keyLow[slot];
+            this.requests = ProberTracker.this.requests[slot];
+            this.firstSeenNanos = ProberTracker.this.firstSeenNanos[slot];
+            this.lastSeenNanos = ProberTracker.this.lastSeenNanos[slot];
+            this.minIntervalNanos = ProberTracker.this.minIntervalNanos[slot];
+            this.buckets = Arrays.copyOfRange(histogram, slot * BUCKETS, (slot + 1) * BUCKETS);
+        }
+
+        private void appendTo(final @NotNull StringBuilder json, final long nowNanos, final long nowMillis) {
+            json.append("{\"address\":\"")
+                    .append(address())
+                    .append("\",\"requests\":")
+                    .append(requests)
+                    .append(",\"first-seen\":\"")
+                    .append(Instant.ofEpochMilli(nowMillis - (nowNanos - firstSeenNanos) / NANOS_PER_MILLI))
+                    .append("\",\"last-seen\":\"")
+                    .append(Instant.ofEpochMilli(nowMillis - (nowNanos - lastSeenNanos) / NANOS_PER_MILLI))
+                    .append("\",\"min-interval-ms\":");
+            if (requests > 1) {
+                json.append(millis(minIntervalNanos))
+                        .append(",\"mean-interval-ms\":")
+                        .append(millis((lastSeenNanos - firstSeenNanos) / (requests - 1)));
+            } else {
+                json.append("null,\"mean-interval-ms\":null");
+            }
+            json.append(",\"intervals\":[");
+            var first = true;
+            for (var i = 0; i < BUCKETS; i++) {
+                if (buckets[i] == 0) {
+                    continue;
+                }
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append("{\"from-ms\":").append(i == 0 ? 0 : 1L << (i - 1)).append(",\"count\":").append(buckets[i])
+                        .append('}');
+            }
+            json.append("]}");
+        }
+
+        private @NotNull String address() {
+            final var bytes = new byte[16];
+            for (var i = 0; i < 8; i++) {
+                bytes[i] = (byte) (high >>> (56 - 8 * i));
+                bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+            }
+            try {
+                // IPv4-mapped addresses are returned as IPv4 addresses
+                return InetAddress.getByAddress(bytes).getHostAddress();
+            } catch (final UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private double millis(final long nanos) {
+            return Math.round((double) nanos / (NANOS_PER_MILLI / 10)) / 10.0;
+        }
+    }
+}
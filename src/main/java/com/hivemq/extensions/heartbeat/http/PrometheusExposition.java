@@ -0,0 +1,450 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the metrics of a {@link MetricRegistry} in the Prometheus text exposition format version 0.0.4.
+ * <p>
+ * Every metric is kept as a family between scrapes, with its sanitized name, its HELP and TYPE lines and its sample
+ * names encoded once. A scrape only looks up added or removed metrics in the registry and formats the current values
+ * into a reused buffer. The rendered document is shared by all scrapes within the max-age, so several Prometheus
+ * replicas scraping the same node cause one rendering per window, and concurrent scrapes of an outdated document wait
+ * for a single rendering.
+ * <p>
+ * The metrics are mapped like the Dropwizard exporter of the Prometheus client:
+ * <ul>
+ * <li>Gauges with a numeric or boolean value and counters are exposed as gauges</li>
+ * <li>Meters are exposed as counters with the suffix {@code _total}</li>
+ * <li>Histograms and timers are exposed as summaries with quantiles and a {@code _count}, timers in seconds</li>
+ * </ul>
+ * The Dropwizard names are sanitized to the characters {@code [a-zA-Z0-9_:]}. If the samples of two metrics would share
+ * a name, only the metric with the lexicographically smaller Dropwizard name is exposed.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class PrometheusExposition {
+
+    public static final @NotNull String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    public static final @NotNull String RENDER_TIMER = "http-heartbeat-prometheus-render-timer";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(PrometheusExposition.class);
+
+    private static final double @NotNull [] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+    private static final double SECONDS_PER_NANO = 1.0 / TimeUnit.SECONDS.toNanos(1);
+
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull Timer renderTimer;
+    private final long maxAgeNanos;
+
+    // guarded by this, ordered by the Dropwizard name
+    private final @NotNull TreeMap<String, Family> families = new TreeMap<>();
+    private final @NotNull Output output = new Output();
+    private @NotNull Family @NotNull [] exposed = new Family[0];
+    private long generation;
+
+    private volatile @Nullable Rendered rendered;
+
+    /**
+     * Creates a new Prometheus exposition.
+     *
+     * @param metricRegistry the registry of the exposed metrics, in which the render timer is created
+     * @param maxAgeMillis   the time in milliseconds a rendered document is reused, {@code 0} to render every scrape
+     */
+    public PrometheusExposition(final @NotNull MetricRegistry metricRegistry, final long maxAgeMillis) {
+        this.metricRegistry = metricRegistry;
+        this.renderTimer = metricRegistry.timer(RENDER_TIMER);
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+    }
+
+    /**
+     * Returns the current metrics in the Prometheus text format.
+     * <p>
+     * The returned array is shared by all scrapes within the max-age and must not be modified.
+     *
+     * @return the UTF-8 encoded document, only rendered if the cached document is older than the max-age
+     */
+    public byte @NotNull [] get() {
+        final var cached = getIfFresh();
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            final var startNanos = System.nanoTime();
+            final var latest = rendered;
+            if (latest != null && startNanos - latest.nanos < maxAgeNanos) {
+                // rendered by a concurrent scrape while this scrape waited
+                return latest.body;
+            }
+            update();
+            output.reset();
+            for (final var family : exposed) {
+                family.write(output);
+            }
+            final var body = output.toByteArray();
+            rendered = new Rendered(body, startNanos);
+            renderTimer.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return body;
+        }
+    }
+
+    /**
+     * Returns the cached document if it is younger than the max-age. Never renders and never blocks, so a caller that
+     * must not wait for a rendering can fall back to {@link #get()} on another thread.
+     * <p>
+     * The returned array is shared by all scrapes within the max-age and must not be modified.
+     *
+     * @return the UTF-8 encoded document or {@code null} if it has to be rendered
+     */
+    public byte @Nullable [] getIfFresh() {
+        final var cached = rendered;
+        if (cached != null && System.nanoTime() - cached.nanos < maxAgeNanos) {
+            return cached.body;
+        }
+        return null;
+    }
+
+    /**
+     * Sanitizes a Dropwizard metric name to a valid Prometheus metric name.
+     *
+     * @param  name the Dropwizard metric name
+     * @return      the name with all characters except {@code [a-zA-Z0-9_:]} replaced by underscores, prefixed with an
+     *              underscore if it starts with a digit
+     */
+    static @NotNull String sanitize(final @NotNull String name) {
+        final var sanitized = new StringBuilder(name.length() + 1);
+        if (name.isEmpty() || isDigit(name.charAt(0))) {
+            sanitized.append('_');
+        }
+        for (var i = 0; i < name.length(); i++) {
+            final var c = name.charAt(i);
+            final var valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == ':';
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Synchronizes the families with the registry. Families are only created for added or replaced metrics, and the
+     * exposed families are only resolved again if a metric was added, replaced or removed.
+     */
+    private void update() {
+        final var current = ++generation;
+        var seen = 0;
+        var changed = false;
+        for (final var entry : metricRegistry.getMetrics().entrySet()) {
+            seen++;
+            var family = families.get(entry.getKey());
+            if (family == null || family.metric != entry.getValue()) {
+                family = Family.of(entry.getKey(), entry.getValue());
+                families.put(entry.getKey(), family);
+                changed = true;
+            }
+            family.generation = current;
+        }
+        if (families.size() != seen) {
+            families.values().removeIf(family -> family.generation != current);
+            changed = true;
+        }
+        if (!changed) {
+            return;
+        }
+        final var sampleNames = new HashSet<String>();
+        final var newExposed = new ArrayList<Family>(families.size());
+        for (final var family : families.values()) {
+            if (family.sampleNames.isEmpty()) {
+                continue;
+            }
+            if (family.sampleNames.stream().anyMatch(sampleNames::contains)) {
+                if (!family.conflictLogged) {
+                    LOG.warn("Metric '{}' is not exposed to Prometheus, its name '{}' is used by another metric",
+                            family.dropwizardName,
+                            family.name);
+                    family.conflictLogged = true;
+                }
+                continue;
+            }
+            sampleNames.addAll(family.sampleNames);
+            newExposed.add(family);
+        }
+        exposed = newExposed.toArray(new Family[0]);
+    }
+
+    /**
+     * A rendered document and the time its values were read.
+     */
+    private static final class Rendered {
+
+        private final byte @NotNull [] body;
+        private final long nanos;
+
+        private Rendered(final byte @NotNull [] body, final long nanos) {
+            this.body = body;
+            this.nanos = nanos;
+        }
+    }
+
+    private enum Kind {
+        GAUGE,
+        COUNTER,
+        METER,
+        HISTOGRAM,
+        TIMER,
+        UNSUPPORTED
+    }
+
+    /**
+     * The pre-encoded lines of one exposed metric.
+     */
+    private static final class Family {
+
+        private final @NotNull String dropwizardName;
+        private final @NotNull String name;
+        private final @NotNull Metric metric;
+        private final @NotNull Kind kind;
+        private final @NotNull List<String> sampleNames;
+        private final byte @NotNull [] header;
+        // the samples followed by a space, for summaries one per quantile followed by the count
+        private final byte @NotNull [] @NotNull [] samples;
+        private long generation;
+        private boolean conflictLogged;
+
+        private Family(
+                final @NotNull String dropwizardName,
+                final @NotNull String name,
+                final @NotNull Metric metric,
+                final @NotNull Kind kind,
+                final @NotNull String type,
+                final @NotNull List<String> samples) {
+            this.dropwizardName = dropwizardName;
+            this.name = name;
+            this.metric = metric;
+            this.kind = kind;
+            this.header = ("# HELP " +
+                    name +
+                    " " +
+                    dropwizardName.replace("\\", "\\\\").replace("\n", "\\n") +
+                    "\n# TYPE " +
+                    name +
+                    " " +
+                    type +
+                    "\n").getBytes(StandardCharsets.UTF_8);
+            this.samples = new byte[samples.size()][];
+            final var names = new ArrayList<String>(samples.size());
+            for (var i = 0; i < samples.size(); i++) {
+                final var sample = samples.get(i);
+                this.samples[i] = (sample + " ").getBytes(StandardCharsets.UTF_8);
+                final var labels = sample.indexOf('{');
+                names.add(labels < 0 ? sample : sample.substring(0, labels));
+            }
+            this.sampleNames = List.copyOf(new HashSet<>(names));
+        }
+
+        private static @NotNull Family of(final @NotNull String dropwizardName, final @NotNull Metric metric) {
+            final var name = sanitize(dropwizardName);
+            if (metric instanceof Gauge) {
+                return new Family(dropwizardName, name, metric, Kind.GAUGE, "gauge", List.of(name));
+            } else if (metric instanceof Counter) {
+                // Dropwizard counters can be decremented
+                return new Family(dropwizardName, name, metric, Kind.COUNTER, "gauge", List.of(name));
+            } else if (metric instanceof Meter) {
+                final var total = name + "_total";
+                return new Family(dropwizardName, total, metric, Kind.METER, "counter", List.of(total));
+            } else if (metric instanceof Histogram || metric instanceof Timer) {
+                final var samples = new ArrayList<String>(QUANTILES.length + 1);
+                for (final var quantile : QUANTILES) {
+                    samples.add(name + "{quantile=\"" + quantile + "\"}");
+                }
+                samples.add(name + "_count");
+                final var kind = metric instanceof Timer ? Kind.TIMER : Kind.HISTOGRAM;
+                return new Family(dropwizardName, name, metric, kind, "summary", samples);
+            }
+            return new Family(dropwizardName, name, metric, Kind.UNSUPPORTED, "untyped", List.of());
+        }
+
+        private void write(final @NotNull Output output) {
+            switch (kind) {
+                case GAUGE:
+                    writeGauge(output);
+                    break;
+                case COUNTER:
+                    writeCount(output, ((Counter) metric).getCount());
+                    break;
+                case METER:
+                    writeCount(output, ((Meter) metric).getCount());
+                    break;
+                case HISTOGRAM:
+                    final var histogram = (Histogram) metric;
+                    writeSummary(output, histogram.getSnapshot(), 1, histogram.getCount());
+                    break;
+                case TIMER:
+                    final var timer = (Timer) metric;
+                    writeSummary(output, timer.getSnapshot(), SECONDS_PER_NANO, timer.getCount());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void writeGauge(final @NotNull Output output) {
+            final Object value;
+            try {
+                value = ((Gauge<?>) metric).getValue();
+            } catch (final RuntimeException e) {
+                LOG.trace("Could not read gauge '{}': {}", dropwizardName, e.getMessage());
+                return;
+            }
+            // gauges without a numeric value are skipped in this scrape
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                writeCount(output, ((Number) value).longValue());
+            } else if (value instanceof Number) {
+                output.write(header);
+                output.write(samples[0]);
+                output.writeDouble(((Number) value).doubleValue());
+                output.writeNewline();
+            } else if (value instanceof Boolean) {
+                writeCount(output, (Boolean) value ? 1 : 0);
+            }
+        }
+
+        private void writeCount(final @NotNull Output output, final long count) {
+            output.write(header);
+            output.write(samples[0]);
+            output.writeLong(count);
+            output.writeNewline();
+        }
+
+        private void writeSummary(
+                final @NotNull Output output,
+                final @NotNull Snapshot snapshot,
+                final double factor,
+                final long count) {
+            output.write(header);
+            for (var i = 0; i < QUANTILES.length; i++) {
+                output.write(samples[i]);
+                output.writeDouble(snapshot.getValue(QUANTILES[i]) * factor);
+                output.writeNewline();
+            }
+            output.write(samples[QUANTILES.length]);
+            output.writeLong(count);
+            output.writeNewline();
+        }
+    }
+
+    /**
+     * A growable byte buffer that is reused by all renderings and formats numbers without allocating.
+     */
+    private static final class Output {
+
+        private static final byte @NotNull [] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+        private static final byte @NotNull [] POSITIVE_INFINITY = "+Inf".getBytes(StandardCharsets.US_ASCII);
+        private static final byte @NotNull [] NEGATIVE_INFINITY = "-Inf".getBytes(StandardCharsets.US_ASCII);
+        // doubles up to this magnitude are exactly representable as long
+        private static final double MAX_EXACT_LONG = 1L << 53;
+
+        private byte @NotNull [] bytes = new byte[8192];
+        private int size;
+
+        private void reset() {
+            size = 0;
+        }
+
+        private void write(final byte @NotNull [] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        private void writeNewline() {
+            ensureCapacity(1);
+            bytes[size++] = '\n';
+        }
+
+        private void writeLong(final long value) {
+            if (value == Long.MIN_VALUE) {
+                write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            ensureCapacity(20);
+            var remaining = value;
+            if (remaining < 0) {
+                bytes[size++] = '-';
+                remaining = -remaining;
+            }
+            final var start = size;
+            do {
+                bytes[size++] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                final var digit = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = digit;
+            }
+        }
+
+        private void writeDouble(final double value) {
+            if (Double.isNaN(value)) {
+                write(NAN);
+            } else if (value == Double.POSITIVE_INFINITY) {
+                write(POSITIVE_INFINITY);
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                write(NEGATIVE_INFINITY);
+            } else if (value == Math.rint(value) && Math.abs(value) <= MAX_EXACT_LONG) {
+                writeLong((long) value);
+            } else {
+                write(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        private byte @NotNull [] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(final int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
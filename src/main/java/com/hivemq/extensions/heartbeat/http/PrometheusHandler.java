@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * HTTP handler that responds with the metrics of the {@link PrometheusExposition} in the Prometheus text format.
+ * <p>
+ * GET requests are answered with HTTP 200 and the cached document, regardless of the readiness, so a node that is not
+ * ready can still be scraped. Metrics requests are not recorded as heartbeats.
+ *
+ * @since  1.2.0
+ */
+public class PrometheusHandler implements HttpHandler {
+
+    private final @NotNull PrometheusExposition prometheusExposition;
+    private final boolean keepAlive;
+
+    /**
+     * Creates a new Prometheus metrics handler.
+     *
+     * @param prometheusExposition the exposition providing the rendered metrics
+     * @param keepAlive            whether connections may be kept open for subsequent requests
+     */
+    public PrometheusHandler(final @NotNull PrometheusExposition prometheusExposition, final boolean keepAlive) {
+        this.prometheusExposition = prometheusExposition;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public void handle(final @NotNull HttpExchange exchange) throws IOException {
+        try {
+            final var responseHeaders = exchange.getResponseHeaders();
+            if (!keepAlive) {
+                responseHeaders.set("Connection", "close");
+            }
+            if (HeartbeatExecutor.isSaturated()) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                return;
+            }
+            final var body = prometheusExposition.get();
+            responseHeaders.set("Content-Type", PrometheusExposition.CONTENT_TYPE);
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
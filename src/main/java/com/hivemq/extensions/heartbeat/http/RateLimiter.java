@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free per client rate limit of the heartbeat requests.
+ * <p>
+ * Every remote address is limited by the generic cell rate algorithm, a token bucket that is represented by the
+ * theoretical arrival time of the next request in a single {@link AtomicLong}, so a request only costs one CAS. The
+ * clients are kept in a fixed table that is split into stripes of {@value STRIPE_SIZE} slots. An address is hashed to
+ * its stripe and takes a free slot of the stripe. If the stripe is full, the least recently seen client of the stripe
+ * is evicted, so the table never grows and an evicted client starts with a full burst again.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public final class RateLimiter {
+
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    static final int STRIPE_SIZE = 8;
+    private static final int MAX_STRIPES = 1 << 20;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final boolean drop;
+    private final int stripeMask;
+    private final @NotNull AtomicReferenceArray<Client> clients;
+
+    RateLimiter(final @NotNull RateLimit rateLimit) {
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rateLimit.getRequestsPerSecond();
+        this.burstToleranceNanos = emissionIntervalNanos * (rateLimit.getBurst() - 1);
+        this.drop = RateLimit.ACTION_DROP.equals(rateLimit.getAction());
+        final var requiredStripes = Math.min(MAX_STRIPES, (rateLimit.getMaxClients() - 1) / STRIPE_SIZE + 1);
+        var stripes = Integer.highestOneBit(requiredStripes);
+        if (stripes < requiredStripes) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.clients = new AtomicReferenceArray<>(stripes * STRIPE_SIZE);
+    }
+
+    /**
+     * Creates the rate limiter of the given configuration.
+     *
+     * @param  rateLimit the rate limit configuration
+     * @return           the rate limiter or {@code null} if the rate limit is disabled
+     */
+    public static @Nullable RateLimiter create(final @NotNull RateLimit rateLimit) {
+        return rateLimit.isEnabled() ? new RateLimiter(rateLimit) : null;
+    }
+
+    /**
+     * Takes a request of the remote address from its bucket.
+     *
+     * @param  address  the remote address of the client
+     * @param  nowNanos the current {@link System#nanoTime()}
+     * @return          {@code true} if the request is allowed, {@code false} if the client exceeded the limit
+     */
+    public boolean tryAcquire(final @NotNull InetAddress address, final long nowNanos) {
+        final var arrival = client(address, nowNanos).theoreticalArrivalNanos;
+        while (true) {
+            final var theoreticalArrival = arrival.get();
+            final var earliest = theoreticalArrival - nowNanos > 0 ? theoreticalArrival : nowNanos;
+            if (earliest - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (arrival.compareAndSet(theoreticalArrival, earliest + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the connection of a client over the limit is closed without a response.
+     *
+     * @return {@code true} to drop the connection, {@code false} to answer with HTTP 429
+     */
+    public boolean isDrop() {
+        return drop;
+    }
+
+    /**
+     * Returns the number of clients the table can hold.
+     *
+     * @return the capacity, the configured max clients rounded up to a power of two of at least {@value STRIPE_SIZE}
+     */
+    int capacity() {
+        return clients.length();
+    }
+
+    private @NotNull Client client(final @NotNull InetAddress address, final long nowNanos) {
+        final var start = (spread(address.hashCode()) & stripeMask) * STRIPE_SIZE;
+        var eldestSlot = start;
+        Client eldest = null;
+        for (var slot = start; slot < start + STRIPE_SIZE; slot++) {
+            var client = clients.get(slot);
+            if (client == null) {
+                final var created = new Client(address, nowNanos);
+                if (clients.compareAndSet(slot, null, created)) {
+                    return created;
+                }
+                // a slot is never emptied again, so the slot now holds the client of a concurrent request
+                client = clients.get(slot);
+            }
+            if (client.address.equals(address)) {
+                client.lastSeenNanos = nowNanos;
+                return client;
+            }
+            if (eldest == null || eldest.lastSeenNanos - client.lastSeenNanos > 0) {
+                eldest = client;
+                eldestSlot = slot;
+            }
+        }
+        // the stripe is full, if a concurrent request replaces the eldest client first, this client is not tracked
+        final var created = new Client(address, nowNanos);
+        clients.compareAndSet(eldestSlot, eldest, created);
+        return created;
+    }
+
+    private static int spread(final int hashCode) {
+        final var hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Client {
+
+        private final @NotNull InetAddress address;
+        private final @NotNull AtomicLong theoreticalArrivalNanos;
+        private volatile long lastSeenNanos;
+
+        private Client(final @NotNull InetAddress address, final long nowNanos) {
+            this.address = address;
+            this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+            this.lastSeenNanos = nowNanos;
+        }
+    }
+}
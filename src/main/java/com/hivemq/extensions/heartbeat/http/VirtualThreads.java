@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads.
+ * <p>
+ * This is the Java 11 variant which does not support virtual threads. The extension jar is a multi-release jar that
+ * contains a Java 21 variant of this class in {@code META-INF/versions/21}.
+ *
+ * @since  1.2.0
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @param  namePrefix the name prefix of the virtual threads
+     * @return            the executor or {@code null} if virtual threads are not supported
+     */
+    static @Nullable ExecutorService newVirtualThreadPerTaskExecutor(final @NotNull String namePrefix) {
+        return null;
+    }
+}
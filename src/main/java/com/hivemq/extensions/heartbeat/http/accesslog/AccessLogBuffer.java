@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer of access log records.
+ * <p>
+ * The fields of the records are kept in preallocated arrays, one per field, so recording a request neither allocates
+ * nor formats. Every slot has a sequence number that tells producers and consumers whether the slot is free for the
+ * lap of their position, so any number of threads can offer and poll records concurrently without locks. A producer
+ * that finds the buffer full fails immediately instead of waiting for the consumer.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+final class AccessLogBuffer {
+
+    static final int MAX_CAPACITY = 1 << 20;
+
+    private final int mask;
+    private final @NotNull AtomicLongArray sequences;
+    private final long @NotNull [] timestamps;
+    private final @Nullable InetAddress @NotNull [] remoteAddresses;
+    private final int @NotNull [] remotePorts;
+    private final int @NotNull [] localPorts;
+    private final @Nullable String @NotNull [] paths;
+    private final int @NotNull [] statusCodes;
+    private final long @NotNull [] latencies;
+
+    private final @NotNull AtomicLong head = new AtomicLong();
+    private final @NotNull AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param capacity the minimum number of records, rounded up to a power of two of at most {@value MAX_CAPACITY}
+     */
+    AccessLogBuffer(final int capacity) {
+        final var size = Integer.highestOneBit(Math.max(1, Math.min(capacity, MAX_CAPACITY) - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (var i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[size];
+        this.remoteAddresses = new InetAddress[size];
+        this.remotePorts = new int[size];
+        this.localPorts = new int[size];
+        this.paths = new String[size];
+        this.statusCodes = new int[size];
+        this.latencies = new long[size];
+    }
+
+    /**
+     * Adds a record if the buffer is not full. Never blocks.
+     *
+     * @return {@code true} if the record was added, {@code false} if the buffer is full
+     */
+    boolean offer(
+            final long timestamp,
+            final @NotNull InetAddress remoteAddress,
+            final int remotePort,
+            final int localPort,
+            final @Nullable String path,
+            final int statusCode,
+            final long latencyNanos) {
+        long position;
+        int slot;
+        while (true) {
+            position = head.get();
+            slot = (int) position & mask;
+            final var lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // the slot still holds the record of the previous lap
+                return false;
+            }
+        }
+        timestamps[slot] = timestamp;
+        remoteAddresses[slot] = remoteAddress;
+        remotePorts[slot] = remotePort;
+        localPorts[slot] = localPort;
+        paths[slot] = path;
+        statusCodes[slot] = statusCode;
+        latencies[slot] = latencyNanos;
+        // publishes the fields to the consumer of this position
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest record and copies its fields into the given record.
+     *
+     * @param  record the record to fill, or {@code null} to discard the oldest record
+     * @return        {@code true} if a record was removed, {@code false} if the buffer is empty
+     */
+    boolean poll(final @Nullable AccessLogRecord record) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) position & mask;
+            final var lag = sequences.get(slot) - (position + 1);
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // the slot was not yet published by its producer
+                return false;
+            }
+        }
+        if (record != null) {
+            record.set(timestamps[slot],
+                    remoteAddresses[slot],
+                    remotePorts[slot],
+                    localPorts[slot],
+                    paths[slot],
+                    statusCodes[slot],
+                    latencies[slot]);
+        }
+        // the references are released, so the buffer does not keep addresses alive
+        remoteAddresses[slot] = null;
+        paths[slot] = null;
+        sequences.lazySet(slot, position + mask + 1);
+        return true;
+    }
+
+    /**
+     * Returns the number of records the buffer can hold.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
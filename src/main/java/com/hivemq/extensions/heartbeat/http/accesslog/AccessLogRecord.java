@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import com.hivemq.extension.sdk.api.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A mutable access log record that is filled from the {@link AccessLogBuffer} and formatted by the writer thread.
+ * <p>
+ * A record is formatted as one line of space separated fields:
+ * {@code <timestamp> <remote address> <remote port> <local port> <path> <status> <latency in microseconds>}. The
+ * status is {@code -} if the request was dropped without a response.
+ *
+ * @since  1.2.0
+ */
+@NotThreadSafe
+final class AccessLogRecord {
+
+    private long timestamp;
+    private @Nullable InetAddress remoteAddress;
+    private int remotePort;
+    private int localPort;
+    private @Nullable String path;
+    private int statusCode;
+    private long latencyNanos;
+
+    void set(
+            final long timestamp,
+            final @Nullable InetAddress remoteAddress,
+            final int remotePort,
+            final int localPort,
+            final @Nullable String path,
+            final int statusCode,
+            final long latencyNanos) {
+        this.timestamp = timestamp;
+        this.remoteAddress = remoteAddress;
+        this.remotePort = remotePort;
+        this.localPort = localPort;
+        this.path = path;
+        this.statusCode = statusCode;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * Appends the record as one line including the line separator.
+     *
+     * @param line the builder to append to
+     */
+    void appendTo(final @NotNull StringBuilder line) {
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(timestamp), line);
+        line.append(' ').append(remoteAddress != null ? remoteAddress.getHostAddress() : "-");
+        line.append(' ').append(remotePort);
+        line.append(' ').append(localPort);
+        line.append(' ').append(path != null ? path : "-");
+        line.append(' ');
+        if (statusCode > 0) {
+            line.append(statusCode);
+        } else {
+            line.append('-');
+        }
+        line.append(' ').append(latencyNanos / 1000);
+        line.append('\n');
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.AccessLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous access log of the heartbeat requests.
+ * <p>
+ * The request threads only copy the fields of a request into the preallocated {@link AccessLogBuffer}, which neither
+ * blocks nor allocates. A background writer thread takes the records in batches of up to {@value BATCH_SIZE}, formats
+ * them and appends every batch with a single write to a {@link RollingFile}. While the buffer is empty the writer
+ * sleeps for the configured flush interval.
+ * <p>
+ * If the writer falls behind and the buffer is full, either the new record or the oldest buffered record is dropped,
+ * so logging never delays a probe. Dropped records, including records of batches that could not be written, are counted
+ * in {@value DROPPED_COUNTER}.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public final class AccessLogger {
+
+    public static final @NotNull String DROPPED_COUNTER = "http-heartbeat-access-log-dropped-counter";
+
+    static final int BATCH_SIZE = 512;
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(AccessLogger.class);
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    private final @NotNull AccessLogBuffer buffer;
+    private final @NotNull RollingFile file;
+    private final boolean dropOldest;
+    private final long flushIntervalNanos;
+    private final @NotNull Counter droppedCounter;
+    private final @NotNull LongAdder dropped = new LongAdder();
+
+    // only accessed by the writer thread
+    private final @NotNull AccessLogRecord record = new AccessLogRecord();
+    private final @NotNull StringBuilder batch = new StringBuilder();
+    private long foldedDropped;
+
+    private volatile boolean running;
+    private @Nullable Thread writerThread;
+
+    private AccessLogger(final @NotNull AccessLog accessLog, final @NotNull MetricRegistry metricRegistry) {
+        this.buffer = new AccessLogBuffer(accessLog.getBufferSize());
+        this.file = new RollingFile(Path.of(accessLog.getFile()),
+                accessLog.getMaxFileSize() * 1024L * 1024L,
+                accessLog.getMaxFiles());
+        this.dropOldest = AccessLog.OVERFLOW_DROP_OLDEST.equals(accessLog.getOverflow());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(accessLog.getFlushInterval());
+        this.droppedCounter = metricRegistry.counter(DROPPED_COUNTER);
+    }
+
+    /**
+     * Creates the access logger of the given configuration.
+     *
+     * @param  accessLog      the access log configuration
+     * @param  metricRegistry the registry in which the dropped records are counted
+     * @return                the access logger, or {@code null} if the access log is disabled
+     */
+    public static @Nullable AccessLogger create(
+            final @NotNull AccessLog accessLog,
+            final @NotNull MetricRegistry metricRegistry) {
+        if (!accessLog.isEnabled()) {
+            return null;
+        }
+        return new AccessLogger(accessLog, metricRegistry);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        running = true;
+        final var thread = new Thread(this::runWriter, "heartbeat-access-log");
+        thread.setDaemon(true);
+        thread.start();
+        writerThread = thread;
+    }
+
+    /**
+     * Stops the writer thread after it has written the buffered records. Waits up to 1 second for the writer thread to
+     * terminate.
+     */
+    public synchronized void stop() {
+        final var thread = writerThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    /**
+     * Records a handled request. Never blocks.
+     *
+     * @param remoteAddress the address of the client
+     * @param remotePort    the port of the client
+     * @param localPort     the port of the listener that received the request
+     * @param path          the requested path, or {@code null} if the request was not routed
+     * @param statusCode    the status code of the response, or {@code 0} if the request was dropped without a response
+     * @param latencyNanos  the time in nanoseconds it took to handle the request
+     */
+    public void record(
+            final @NotNull InetAddress remoteAddress,
+            final int remotePort,
+            final int localPort,
+            final @Nullable String path,
+            final int statusCode,
+            final long latencyNanos) {
+        final var timestamp = System.currentTimeMillis();
+        if (buffer.offer(timestamp, remoteAddress, remotePort, localPort, path, statusCode, latencyNanos)) {
+            return;
+        }
+        // the buffer is full, so one record is lost in any case
+        dropped.increment();
+        if (dropOldest &&
+                buffer.poll(null) &&
+                !buffer.offer(timestamp, remoteAddress, remotePort, localPort, path, statusCode, latencyNanos)) {
+            // another request took the slot of the dropped oldest record
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Returns the number of records the buffer can hold.
+     *
+     * @return the buffer capacity
+     */
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    private void runWriter() {
+        while (running) {
+            if (writeBatch() == 0) {
+                foldDropped();
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        // the listeners are stopped before the writer, so these are the last records
+        var written = writeBatch();
+        while (written > 0) {
+            written = writeBatch();
+        }
+        foldDropped();
+        try {
+            file.close();
+        } catch (final IOException e) {
+            LOG.debug("Could not close heartbeat access log: {}", e.getMessage());
+        }
+    }
+
+    private int writeBatch() {
+        batch.setLength(0);
+        var count = 0;
+        while (count < BATCH_SIZE && buffer.poll(record)) {
+            record.appendTo(batch);
+            count++;
+        }
+        if (count > 0) {
+            // the records hold references to the addresses and paths until they are overwritten
+            record.set(0, null, 0, 0, null, 0, 0);
+            try {
+                file.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (final IOException e) {
+                LOG.warn("Could not write {} records to heartbeat access log, reason: {}", count, e.getMessage());
+                dropped.add(count);
+            }
+        }
+        return count;
+    }
+
+    private void foldDropped() {
+        final var newDropped = dropped.sum();
+        droppedCounter.inc(newDropped - foldedDropped);
+        foldedDropped = newDropped;
+    }
+}
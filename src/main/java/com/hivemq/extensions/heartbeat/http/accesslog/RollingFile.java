@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import com.hivemq.extension.sdk.api.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file that is rolled once it reaches its maximum size.
+ * <p>
+ * Rolling renames the file to {@code <file>.1}, shifts the previously rolled files by one and deletes the file beyond
+ * the maximum number of rolled files. The file is opened on the first write and reopened after a failed write.
+ *
+ * @since  1.2.0
+ */
+@NotThreadSafe
+final class RollingFile implements Closeable {
+
+    private final @NotNull Path file;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    private @Nullable FileChannel channel;
+    private long size;
+
+    /**
+     * Creates a new rolling file.
+     *
+     * @param file        the current file
+     * @param maxFileSize the size in bytes at which the file is rolled
+     * @param maxFiles    the number of rolled files that are kept besides the current file
+     */
+    RollingFile(final @NotNull Path file, final long maxFileSize, final int maxFiles) {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Appends the given bytes, rolling the file before if they would exceed the maximum size.
+     *
+     * @param  bytes       the bytes to append
+     * @throws IOException if the file could not be opened, rolled or written
+     */
+    void write(final byte @NotNull [] bytes) throws IOException {
+        var currentChannel = open();
+        if (size > 0 && size + bytes.length > maxFileSize) {
+            close();
+            roll();
+            currentChannel = open();
+        }
+        try {
+            final var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                size += currentChannel.write(buffer);
+            }
+        } catch (final IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final var currentChannel = channel;
+        channel = null;
+        if (currentChannel != null) {
+            currentChannel.close();
+        }
+    }
+
+    private @NotNull FileChannel open() throws IOException {
+        var currentChannel = channel;
+        if (currentChannel == null) {
+            final var parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            currentChannel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            size = currentChannel.size();
+            channel = currentChannel;
+        }
+        return currentChannel;
+    }
+
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(maxFiles));
+        for (var i = maxFiles - 1; i > 0; i--) {
+            final var source = rolled(i);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private @NotNull Path rolled(final int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
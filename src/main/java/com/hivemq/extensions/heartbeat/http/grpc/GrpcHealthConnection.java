@@ -0,0 +1,850 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cleartext HTTP/2 connection (h2c with prior knowledge, see RFC 9113 section 3.3) that serves the gRPC health
+ * checking protocol.
+ * <p>
+ * Only what gRPC health clients need is implemented: the request headers are decoded with {@link HpackDecoder}, the
+ * responses use static pre-encoded header blocks, the request window is replenished right away and the send windows
+ * of the client are respected. A Watch stream that is blocked by flow control only keeps its latest status, so
+ * intermediate states are skipped as the protocol allows.
+ * <p>
+ * A connection is only accessed by the selector thread of the {@link GrpcHealthServer}.
+ *
+ * @since  1.2.0
+ */
+final class GrpcHealthConnection {
+
+    static final @NotNull String CHECK_PATH = "/grpc.health.v1.Health/Check";
+    static final @NotNull String WATCH_PATH = "/grpc.health.v1.Health/Watch";
+
+    // grpc.health.v1.HealthCheckResponse.ServingStatus
+    static final int SERVING = 1;
+    static final int NOT_SERVING = 2;
+    static final int SERVICE_UNKNOWN = 3;
+
+    // gRPC status codes
+    static final int OK = 0;
+    static final int NOT_FOUND = 5;
+    static final int RESOURCE_EXHAUSTED = 8;
+    static final int UNIMPLEMENTED = 12;
+    static final int INTERNAL = 13;
+
+    // RFC 9113 section 3.4
+    static final byte @NotNull [] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    static final int FRAME_HEADER_LENGTH = 9;
+
+    static final int DATA = 0x0;
+    static final int HEADERS = 0x1;
+    static final int RST_STREAM = 0x3;
+    static final int SETTINGS = 0x4;
+    static final int PUSH_PROMISE = 0x5;
+    static final int PING = 0x6;
+    static final int GOAWAY = 0x7;
+    static final int WINDOW_UPDATE = 0x8;
+    static final int CONTINUATION = 0x9;
+
+    static final int FLAG_END_STREAM = 0x1;
+    static final int FLAG_ACK = 0x1;
+    static final int FLAG_END_HEADERS = 0x4;
+    static final int FLAG_PADDED = 0x8;
+    static final int FLAG_PRIORITY = 0x20;
+
+    static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+
+    private static final int NO_ERROR = 0x0;
+    private static final int REFUSED_STREAM = 0x7;
+    private static final int ENHANCE_YOUR_CALM = 0xB;
+
+    // the default SETTINGS_MAX_FRAME_SIZE, which is never changed
+    private static final int MAX_FRAME_SIZE = 16384;
+    private static final int DEFAULT_WINDOW_SIZE = 65535;
+    private static final int MAX_HEADER_BLOCK_SIZE = 16384;
+    // a HealthCheckRequest only contains the service name
+    private static final int MAX_MESSAGE_SIZE = 1024;
+    private static final int MESSAGE_PREFIX_LENGTH = 5;
+    // the message prefix and the serving status as field 1 of a HealthCheckResponse
+    private static final int RESPONSE_MESSAGE_LENGTH = MESSAGE_PREFIX_LENGTH + 2;
+    private static final int OUTPUT_BUFFER_SIZE = 65536;
+
+    // ":status: 200" from the static table and "content-type: application/grpc" without indexing
+    private static final byte @NotNull [] RESPONSE_HEADERS = concat(new byte[]{(byte) 0x88},
+            literal(new byte[]{0x0F, 0x10}, "application/grpc"));
+    private static final byte @NotNull [] TRAILERS_OK = grpcStatus(OK);
+
+    private final @NotNull SocketChannel channel;
+    private final @NotNull SelectionKey key;
+    private final @NotNull GrpcHealthServer server;
+    private final int maxStreams;
+    private final @NotNull HpackDecoder decoder = new HpackDecoder();
+    private final @NotNull HpackDecoder.HeaderConsumer headerConsumer = this::onHeader;
+    private final @NotNull Map<Integer, Stream> streams = new HashMap<>();
+    private final @NotNull ByteBuffer in = ByteBuffer.allocate(FRAME_HEADER_LENGTH + MAX_FRAME_SIZE);
+    private final @NotNull ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+
+    private boolean prefaceReceived;
+    private int lastStreamId;
+    private int connectionSendWindow = DEFAULT_WINDOW_SIZE;
+    private int initialSendWindow = DEFAULT_WINDOW_SIZE;
+
+    // the header block that is received in a HEADERS frame and its CONTINUATION frames
+    private byte @NotNull [] headerBlock = new byte[1024];
+    private int headerBlockLength;
+    private int headerStreamId;
+    private boolean headerEndStream;
+    private int continuationStreamId;
+    private @Nullable String method;
+    private @Nullable String path;
+    private @Nullable String contentType;
+
+    // set by the server, the connection is closed unless it makes progress until the deadline
+    private long deadlineNanos;
+    private boolean idleDeadline;
+
+    GrpcHealthConnection(
+            final @NotNull SocketChannel channel,
+            final @NotNull SelectionKey key,
+            final @NotNull GrpcHealthServer server,
+            final int maxStreams) {
+        this.channel = channel;
+        this.key = key;
+        this.server = server;
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Sends the SETTINGS frame of the server, which is the first frame of the connection.
+     *
+     * @throws IOException if the frame cannot be sent
+     */
+    void start() throws IOException {
+        final var settings = new byte[6];
+        settings[1] = SETTINGS_MAX_CONCURRENT_STREAMS;
+        putInt(settings, 2, maxStreams);
+        writeFrame(SETTINGS, 0, 0, settings, 0, settings.length);
+        flush();
+    }
+
+    /**
+     * Reads and handles the available frames.
+     *
+     * @return {@code false} if the client closed the connection, either with a GOAWAY frame or at the TCP level
+     * @throws Http2Exception if the client violated the protocol
+     * @throws IOException    if the channel failed
+     */
+    boolean read() throws IOException {
+        if (channel.read(in) < 0) {
+            return false;
+        }
+        in.flip();
+        try {
+            if (!prefaceReceived) {
+                if (in.remaining() < PREFACE.length) {
+                    return true;
+                }
+                for (final var b : PREFACE) {
+                    if (in.get() != b) {
+                        throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid connection preface");
+                    }
+                }
+                prefaceReceived = true;
+            }
+            while (in.remaining() >= FRAME_HEADER_LENGTH) {
+                final var position = in.position();
+                final var length = (in.getShort(position) & 0xFFFF) << 8 | (in.get(position + 2) & 0xFF);
+                if (length > MAX_FRAME_SIZE) {
+                    throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Frame exceeds the maximum size");
+                }
+                if (in.remaining() < FRAME_HEADER_LENGTH + length) {
+                    break;
+                }
+                final var type = in.get(position + 3) & 0xFF;
+                final var flags = in.get(position + 4) & 0xFF;
+                final var streamId = in.getInt(position + 5) & 0x7FFFFFFF;
+                in.position(position + FRAME_HEADER_LENGTH + length);
+                if (!handleFrame(type, flags, streamId, position + FRAME_HEADER_LENGTH, length)) {
+                    return false;
+                }
+            }
+        } finally {
+            in.compact();
+        }
+        flush();
+        return true;
+    }
+
+    /**
+     * Sends the latest status on every Watch stream whose status changed since it was last sent.
+     *
+     * @throws IOException if the statuses cannot be sent
+     */
+    void updateWatchers() throws IOException {
+        var updated = false;
+        for (final var stream : streams.values()) {
+            if (stream.watchedService == null) {
+                continue;
+            }
+            final var status = server.servingStatus(stream.watchedService);
+            if (status != stream.latestStatus) {
+                stream.latestStatus = status;
+                stream.pendingStatus = status;
+                sendPendingStatus(stream);
+                updated = true;
+            }
+        }
+        if (updated) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered frames to the channel. Frames that cannot be written without blocking are written once the
+     * channel is writable again.
+     *
+     * @throws IOException if the channel failed
+     */
+    void flush() throws IOException {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            channel.write(out);
+        } finally {
+            out.compact();
+        }
+        if (key.isValid()) {
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Returns whether the connection waits for the next call, without a call in progress or a partially received
+     * frame.
+     *
+     * @return {@code true} if the connection is idle
+     */
+    boolean isIdle() {
+        return prefaceReceived && streams.isEmpty() && in.position() == 0 && continuationStreamId == 0;
+    }
+
+    /**
+     * Returns whether the connection has an open Watch call.
+     *
+     * @return {@code true} if a Watch stream is open
+     */
+    boolean isWatching() {
+        for (final var stream : streams.values()) {
+            if (stream.watchedService != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    boolean hasIdleDeadline() {
+        return idleDeadline;
+    }
+
+    void setDeadline(final long deadlineNanos, final boolean idleDeadline) {
+        this.deadlineNanos = deadlineNanos;
+        this.idleDeadline = idleDeadline;
+    }
+
+    /**
+     * Closes the connection, after trying to send a GOAWAY frame with the error code.
+     *
+     * @param errorCode the HTTP/2 error code of the GOAWAY frame
+     */
+    void close(final int errorCode) {
+        for (final var stream : streams.values()) {
+            if (stream.watchedService != null) {
+                server.watchEnded();
+            }
+        }
+        streams.clear();
+        try {
+            final var payload = new byte[8];
+            putInt(payload, 0, lastStreamId);
+            putInt(payload, 4, errorCode);
+            writeFrame(GOAWAY, 0, 0, payload, 0, payload.length);
+            flush();
+        } catch (final IOException ignored) {
+            // the connection is closed regardless
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Closes the connection without an error.
+     */
+    void close() {
+        close(NO_ERROR);
+    }
+
+    private boolean handleFrame(
+            final int type,
+            final int flags,
+            final int streamId,
+            final int offset,
+            final int length) throws IOException {
+        if (continuationStreamId != 0 && type != CONTINUATION) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Expected a CONTINUATION frame");
+        }
+        final var payload = in.array();
+        switch (type) {
+            case DATA:
+                handleData(flags, streamId, payload, offset, length);
+                break;
+            case HEADERS:
+                handleHeaders(flags, streamId, payload, offset, length);
+                break;
+            case RST_STREAM:
+                requireLength(length, 4);
+                removeStream(streamId);
+                break;
+            case SETTINGS:
+                handleSettings(flags, streamId, payload, offset, length);
+                break;
+            case PUSH_PROMISE:
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Clients must not push");
+            case PING:
+                requireLength(length, 8);
+                if ((flags & FLAG_ACK) == 0) {
+                    writeFrame(PING, FLAG_ACK, 0, payload, offset, length);
+                }
+                break;
+            case GOAWAY:
+                return false;
+            case WINDOW_UPDATE:
+                handleWindowUpdate(streamId, payload, offset, length);
+                break;
+            case CONTINUATION:
+                if (streamId != continuationStreamId) {
+                    throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Unexpected CONTINUATION frame");
+                }
+                appendHeaderBlock(payload, offset, length);
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    continuationStreamId = 0;
+                    endHeaders();
+                }
+                break;
+            default:
+                // PRIORITY frames and unknown frame types are ignored
+        }
+        return true;
+    }
+
+    private void handleHeaders(
+            final int flags,
+            final int streamId,
+            final byte @NotNull [] payload,
+            final int offset,
+            final int length) throws IOException {
+        if (streamId == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "HEADERS frame without a stream");
+        }
+        var fragmentOffset = offset;
+        var fragmentLength = length;
+        if ((flags & FLAG_PADDED) != 0) {
+            requireMinimumLength(length, 1);
+            fragmentOffset++;
+            fragmentLength -= 1 + (payload[offset] & 0xFF);
+        }
+        if ((flags & FLAG_PRIORITY) != 0) {
+            fragmentOffset += 5;
+            fragmentLength -= 5;
+        }
+        if (fragmentLength < 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid padding of a HEADERS frame");
+        }
+        headerBlockLength = 0;
+        headerStreamId = streamId;
+        headerEndStream = (flags & FLAG_END_STREAM) != 0;
+        appendHeaderBlock(payload, fragmentOffset, fragmentLength);
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            endHeaders();
+        } else {
+            continuationStreamId = streamId;
+        }
+    }
+
+    private void appendHeaderBlock(final byte @NotNull [] payload, final int offset, final int length)
+            throws Http2Exception {
+        final var newLength = headerBlockLength + length;
+        if (newLength > MAX_HEADER_BLOCK_SIZE) {
+            throw new Http2Exception(ENHANCE_YOUR_CALM, "Header block exceeds the maximum size");
+        }
+        if (newLength > headerBlock.length) {
+            final var newHeaderBlock = new byte[MAX_HEADER_BLOCK_SIZE];
+            System.arraycopy(headerBlock, 0, newHeaderBlock, 0, headerBlockLength);
+            headerBlock = newHeaderBlock;
+        }
+        System.arraycopy(payload, offset, headerBlock, headerBlockLength, length);
+        headerBlockLength = newLength;
+    }
+
+    private void endHeaders() throws IOException {
+        method = null;
+        path = null;
+        contentType = null;
+        // the block is decoded even if the stream is refused to keep the dynamic table in sync
+        decoder.decode(headerBlock, 0, headerBlockLength, headerConsumer);
+        final var existing = streams.get(headerStreamId);
+        if (existing != null) {
+            // trailers of a request, which are ignored except for the end of the stream
+            if (headerEndStream && !existing.requestComplete) {
+                handleRequest(existing);
+            }
+            return;
+        }
+        if (headerStreamId <= lastStreamId || (headerStreamId & 1) == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid stream identifier " + headerStreamId);
+        }
+        lastStreamId = headerStreamId;
+        if (streams.size() >= maxStreams) {
+            writeRstStream(headerStreamId, REFUSED_STREAM);
+            return;
+        }
+        final var stream = new Stream(headerStreamId, initialSendWindow, method, path, contentType);
+        streams.put(headerStreamId, stream);
+        if (headerEndStream) {
+            handleRequest(stream);
+        }
+    }
+
+    private void onHeader(final @NotNull String name, final @NotNull String value) {
+        switch (name) {
+            case ":method":
+                method = value;
+                break;
+            case ":path":
+                path = value;
+                break;
+            case "content-type":
+                contentType = value;
+                break;
+            default:
+                // other headers, e.g. the timeout or the user agent, are not needed
+        }
+    }
+
+    private void handleData(
+            final int flags,
+            final int streamId,
+            final byte @NotNull [] payload,
+            final int offset,
+            final int length) throws IOException {
+        if (streamId == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "DATA frame without a stream");
+        }
+        var dataOffset = offset;
+        var dataLength = length;
+        if ((flags & FLAG_PADDED) != 0) {
+            requireMinimumLength(length, 1);
+            dataOffset++;
+            dataLength -= 1 + (payload[offset] & 0xFF);
+            if (dataLength < 0) {
+                throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid padding of a DATA frame");
+            }
+        }
+        if (length > 0) {
+            // the whole frame counts against the connection window, which is replenished right away
+            final var increment = new byte[4];
+            putInt(increment, 0, length);
+            writeFrame(WINDOW_UPDATE, 0, 0, increment, 0, increment.length);
+        }
+        final var stream = streams.get(streamId);
+        if (stream == null || stream.requestComplete) {
+            return;
+        }
+        if (stream.bodyLength + dataLength > stream.body.length) {
+            // the request is answered right away, the client stops sending once the stream is reset
+            stream.requestComplete = true;
+            writeTrailersOnly(stream.id, RESOURCE_EXHAUSTED);
+            writeRstStream(stream.id, NO_ERROR);
+            streams.remove(stream.id);
+            return;
+        }
+        System.arraycopy(payload, dataOffset, stream.body, stream.bodyLength, dataLength);
+        stream.bodyLength += dataLength;
+        if ((flags & FLAG_END_STREAM) != 0) {
+            handleRequest(stream);
+        }
+    }
+
+    private void handleSettings(
+            final int flags,
+            final int streamId,
+            final byte @NotNull [] payload,
+            final int offset,
+            final int length) throws IOException {
+        if (streamId != 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "SETTINGS frame with a stream");
+        }
+        if ((flags & FLAG_ACK) != 0) {
+            requireLength(length, 0);
+            return;
+        }
+        if (length % 6 != 0) {
+            throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid length of a SETTINGS frame");
+        }
+        for (var i = offset; i < offset + length; i += 6) {
+            final var identifier = (payload[i] & 0xFF) << 8 | (payload[i + 1] & 0xFF);
+            final var value = getInt(payload, i + 2);
+            if (identifier == SETTINGS_INITIAL_WINDOW_SIZE) {
+                if (value < 0) {
+                    throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Initial window size too large");
+                }
+                final var delta = value - initialSendWindow;
+                initialSendWindow = value;
+                for (final var stream : streams.values()) {
+                    stream.sendWindow = addWindow(stream.sendWindow, delta);
+                }
+            }
+            // the other settings do not affect the static responses of the server
+        }
+        writeFrame(SETTINGS, FLAG_ACK, 0, payload, offset, 0);
+        sendPendingStatuses();
+    }
+
+    private void handleWindowUpdate(
+            final int streamId,
+            final byte @NotNull [] payload,
+            final int offset,
+            final int length) throws IOException {
+        requireLength(length, 4);
+        final var increment = getInt(payload, offset) & 0x7FFFFFFF;
+        if (increment == 0) {
+            throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "WINDOW_UPDATE without an increment");
+        }
+        if (streamId == 0) {
+            connectionSendWindow = addWindow(connectionSendWindow, increment);
+            sendPendingStatuses();
+            return;
+        }
+        final var stream = streams.get(streamId);
+        if (stream != null) {
+            stream.sendWindow = addWindow(stream.sendWindow, increment);
+            sendPendingStatus(stream);
+        }
+    }
+
+    private void handleRequest(final @NotNull Stream stream) throws IOException {
+        stream.requestComplete = true;
+        if (!"POST".equals(stream.method)) {
+            writeHttpError(stream.id, "405");
+            streams.remove(stream.id);
+            return;
+        }
+        if (stream.contentType == null || !stream.contentType.startsWith("application/grpc")) {
+            writeHttpError(stream.id, "415");
+            streams.remove(stream.id);
+            return;
+        }
+        final var watch = WATCH_PATH.equals(stream.path);
+        if (!watch && !CHECK_PATH.equals(stream.path)) {
+            writeTrailersOnly(stream.id, UNIMPLEMENTED);
+            streams.remove(stream.id);
+            return;
+        }
+        if (stream.bodyLength > 0 && stream.body[0] != 0) {
+            // compression is not supported, as the server does not announce any message encoding
+            writeTrailersOnly(stream.id, UNIMPLEMENTED);
+            streams.remove(stream.id);
+            return;
+        }
+        final var service = parseService(stream.body, stream.bodyLength);
+        if (service == null) {
+            writeTrailersOnly(stream.id, INTERNAL);
+            streams.remove(stream.id);
+            return;
+        }
+        server.callReceived(watch);
+        final var status = server.servingStatus(service);
+        if (!watch && status == SERVICE_UNKNOWN) {
+            writeTrailersOnly(stream.id, NOT_FOUND);
+            streams.remove(stream.id);
+            return;
+        }
+        writeHeaders(stream.id, 0, RESPONSE_HEADERS);
+        stream.latestStatus = status;
+        stream.pendingStatus = status;
+        if (watch) {
+            stream.watchedService = service;
+            server.watchStarted();
+        }
+        sendPendingStatus(stream);
+    }
+
+    private void sendPendingStatuses() throws IOException {
+        for (final var stream : streams.values().toArray(new Stream[0])) {
+            sendPendingStatus(stream);
+        }
+    }
+
+    private void sendPendingStatus(final @NotNull Stream stream) throws IOException {
+        if (stream.pendingStatus == 0 ||
+                connectionSendWindow < RESPONSE_MESSAGE_LENGTH ||
+                stream.sendWindow < RESPONSE_MESSAGE_LENGTH) {
+            return;
+        }
+        final var message = new byte[]{0, 0, 0, 0, 2, 0x08, (byte) stream.pendingStatus};
+        writeFrame(DATA, 0, stream.id, message, 0, message.length);
+        connectionSendWindow -= RESPONSE_MESSAGE_LENGTH;
+        stream.sendWindow -= RESPONSE_MESSAGE_LENGTH;
+        stream.pendingStatus = 0;
+        if (stream.watchedService == null) {
+            // a Check call is complete with its only message
+            writeHeaders(stream.id, FLAG_END_STREAM, TRAILERS_OK);
+            streams.remove(stream.id);
+        }
+    }
+
+    private void removeStream(final int streamId) {
+        final var stream = streams.remove(streamId);
+        if (stream != null && stream.watchedService != null) {
+            server.watchEnded();
+        }
+    }
+
+    private void writeHttpError(final int streamId, final @NotNull String status) throws IOException {
+        // ":status" is the name with index 8 of the static table
+        writeHeaders(streamId, FLAG_END_STREAM, literal(new byte[]{0x08}, status));
+    }
+
+    private void writeTrailersOnly(final int streamId, final int grpcStatus) throws IOException {
+        writeHeaders(streamId, FLAG_END_STREAM, concat(RESPONSE_HEADERS, grpcStatus(grpcStatus)));
+    }
+
+    private void writeHeaders(final int streamId, final int flags, final byte @NotNull [] block) throws IOException {
+        writeFrame(HEADERS, flags | FLAG_END_HEADERS, streamId, block, 0, block.length);
+    }
+
+    private void writeRstStream(final int streamId, final int errorCode) throws IOException {
+        final var payload = new byte[4];
+        putInt(payload, 0, errorCode);
+        writeFrame(RST_STREAM, 0, streamId, payload, 0, payload.length);
+    }
+
+    private void writeFrame(
+            final int type,
+            final int flags,
+            final int streamId,
+            final byte @NotNull [] payload,
+            final int offset,
+            final int length) throws IOException {
+        if (out.remaining() < FRAME_HEADER_LENGTH + length) {
+            throw new IOException("The client does not read the responses");
+        }
+        out.put((byte) (length >>> 16)).putShort((short) length);
+        out.put((byte) type).put((byte) flags).putInt(streamId);
+        out.put(payload, offset, length);
+    }
+
+    /**
+     * Parses the service name of a length prefixed {@code grpc.health.v1.HealthCheckRequest} message. A missing
+     * message is treated like an empty message.
+     *
+     * @return the service name or {@code null} if the message is malformed
+     */
+    static @Nullable String parseService(final byte @NotNull [] body, final int length) {
+        if (length == 0) {
+            return "";
+        }
+        if (length < MESSAGE_PREFIX_LENGTH || getInt(body, 1) != length - MESSAGE_PREFIX_LENGTH) {
+            return null;
+        }
+        var service = "";
+        var position = MESSAGE_PREFIX_LENGTH;
+        while (position < length) {
+            final var tag = readVarint(body, position, length);
+            if (tag < 0) {
+                return null;
+            }
+            position = (int) (tag >>> 32);
+            final var wireType = (int) tag & 0x7;
+            final long size;
+            switch (wireType) {
+                case 0:
+                    final var varint = readVarint(body, position, length);
+                    if (varint < 0) {
+                        return null;
+                    }
+                    position = (int) (varint >>> 32);
+                    continue;
+                case 1:
+                    size = 8;
+                    break;
+                case 2:
+                    final var prefix = readVarint(body, position, length);
+                    if (prefix < 0) {
+                        return null;
+                    }
+                    position = (int) (prefix >>> 32);
+                    size = prefix & 0xFFFFFFFFL;
+                    break;
+                case 5:
+                    size = 4;
+                    break;
+                default:
+                    return null;
+            }
+            if (size > length - position) {
+                return null;
+            }
+            if (((int) tag >>> 3) == 1 && wireType == 2) {
+                service = new String(body, position, (int) size, StandardCharsets.UTF_8);
+            }
+            position += (int) size;
+        }
+        return service;
+    }
+
+    /**
+     * Reads a varint of at most 32 bits.
+     *
+     * @return the position after the varint in the upper and the value in the lower 32 bits, or -1 if the varint is
+     *         truncated or too large
+     */
+    private static long readVarint(final byte @NotNull [] buffer, final int offset, final int limit) {
+        var value = 0L;
+        var position = offset;
+        for (var shift = 0; shift < 35; shift += 7) {
+            if (position >= limit) {
+                return -1;
+            }
+            final var b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value > 0xFFFFFFFFL ? -1 : (long) position << 32 | value;
+            }
+        }
+        return -1;
+    }
+
+    private static int addWindow(final int window, final int increment) throws Http2Exception {
+        final var sum = (long) window + increment;
+        if (sum > Integer.MAX_VALUE) {
+            throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Flow control window exceeds the maximum");
+        }
+        return (int) sum;
+    }
+
+    private static void requireLength(final int length, final int expected) throws Http2Exception {
+        if (length != expected) {
+            throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid frame length " + length);
+        }
+    }
+
+    private static void requireMinimumLength(final int length, final int minimum) throws Http2Exception {
+        if (length < minimum) {
+            throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid frame length " + length);
+        }
+    }
+
+    private static int getInt(final byte @NotNull [] buffer, final int offset) {
+        return (buffer[offset] & 0xFF) << 24 |
+                (buffer[offset + 1] & 0xFF) << 16 |
+                (buffer[offset + 2] & 0xFF) << 8 |
+                (buffer[offset + 3] & 0xFF);
+    }
+
+    private static void putInt(final byte @NotNull [] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Encodes the "grpc-status" trailer as a literal header field without indexing and with a new name.
+     */
+    private static byte @NotNull [] grpcStatus(final int status) {
+        final var name = "grpc-status".getBytes(StandardCharsets.US_ASCII);
+        return literal(concat(new byte[]{0x00, (byte) name.length}, name), Integer.toString(status));
+    }
+
+    /**
+     * Encodes a literal header field, the name is already encoded, the value is appended without Huffman coding.
+     */
+    private static byte @NotNull [] literal(final byte @NotNull [] name, final @NotNull String value) {
+        final var encodedValue = value.getBytes(StandardCharsets.US_ASCII);
+        return concat(concat(name, new byte[]{(byte) encodedValue.length}), encodedValue);
+    }
+
+    private static byte @NotNull [] concat(final byte @NotNull [] first, final byte @NotNull [] second) {
+        final var result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static final class Stream {
+
+        private final int id;
+        private final @Nullable String method;
+        private final @Nullable String path;
+        private final @Nullable String contentType;
+        private final byte @NotNull [] body = new byte[MESSAGE_PREFIX_LENGTH + MAX_MESSAGE_SIZE];
+        private int bodyLength;
+        private int sendWindow;
+        private boolean requestComplete;
+        // the service of a Watch call, null for a Check call
+        private @Nullable String watchedService;
+        // the status that was last determined and the status that still has to be sent, 0 if none
+        private int latestStatus;
+        private int pendingStatus;
+
+        private Stream(
+                final int id,
+                final int sendWindow,
+                final @Nullable String method,
+                final @Nullable String path,
+                final @Nullable String contentType) {
+            this.id = id;
+            this.sendWindow = sendWindow;
+            this.method = method;
+            this.path = path;
+            this.contentType = contentType;
+        }
+    }
+}
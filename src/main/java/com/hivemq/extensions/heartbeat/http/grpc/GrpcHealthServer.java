@@ -0,0 +1,421 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.Probe;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A server for the <a href="https://github.com/grpc/grpc/blob/master/doc/health-checking.md">gRPC health checking
+ * protocol</a>, for load balancers and orchestrators that probe gRPC instead of HTTP.
+ * <p>
+ * Both methods of {@code grpc.health.v1.Health} are served over cleartext HTTP/2 by a single selector thread:
+ * <ul>
+ * <li>{@code Check} answers with the current status of the requested service.</li>
+ * <li>{@code Watch} answers with the current status and keeps the stream open. Every change is pushed as soon as the
+ * {@link ReadinessMonitor} publishes a changed snapshot. The statuses are also compared every state poll interval,
+ * so a failing liveness is pushed even though no new snapshot is published.</li>
+ * </ul>
+ * The services map to the probes of the heartbeat endpoints: the empty service and {@code readiness} to
+ * {@link Probe#READINESS}, {@code liveness} to {@link Probe#LIVENESS} and {@code startup} to {@link Probe#STARTUP}.
+ * A probe with status 200 is {@code SERVING}, any other status is {@code NOT_SERVING}. Other services are unknown.
+ * <p>
+ * The connections follow the max connections, idle timeout and request timeout of the heartbeat connections. Further
+ * clients wait in the accept backlog while the maximum is reached. A connection has to send the preface and every call
+ * within the request timeout and may wait for its next call up to the idle timeout, connections with an open Watch
+ * call are not closed. If a connection cannot be accepted, e.g. at the file descriptor limit, accepting is paused for
+ * 100 milliseconds or until a connection is closed.
+ *
+ * @since  1.2.0
+ */
+public class GrpcHealthServer {
+
+    public static final @NotNull String CHECK_COUNTER = "http-heartbeat-grpc-check-counter";
+    public static final @NotNull String WATCH_COUNTER = "http-heartbeat-grpc-watch-counter";
+    public static final @NotNull String WATCHERS_GAUGE = "http-heartbeat-grpc-watchers";
+    public static final @NotNull String REAPED_CONNECTIONS_METER = "http-heartbeat-grpc-reaped-connections-meter";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(GrpcHealthServer.class);
+
+    private static final long MIN_REAPER_INTERVAL_MILLIS = 10;
+    private static final long MAX_REAPER_INTERVAL_MILLIS = 1000;
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull InetSocketAddress address;
+    private final int maxStreams;
+    private final long checkIntervalMillis;
+    private final int maxConnections;
+    private final long idleTimeoutNanos;
+    private final long requestTimeoutNanos;
+    private final long reaperIntervalMillis;
+    private final @NotNull Counter checkCounter;
+    private final @NotNull Counter watchCounter;
+    private final @NotNull Meter reapedMeter;
+    private final @NotNull AtomicInteger watchers = new AtomicInteger();
+    private final @NotNull Gauge<Integer> watchersGauge = watchers::get;
+    private final @NotNull Runnable readinessListener = this::wakeup;
+    private final @NotNull Consumer<SelectionKey> keyHandler = this::handleKey;
+
+    // only accessed by the selector thread after the start
+    private final @NotNull Set<GrpcHealthConnection> connections = new HashSet<>();
+    private @Nullable ServerSocketChannel serverChannel;
+    private @Nullable SelectionKey serverKey;
+    private boolean acceptPaused;
+    // set while accepting is paused after a failed accept
+    private boolean acceptBackingOff;
+    private long acceptResumeNanos;
+
+    private volatile @Nullable Selector selector;
+    private volatile boolean running;
+    private @Nullable Thread selectorThread;
+
+    /**
+     * Creates a new gRPC health server.
+     *
+     * @param heartbeat        the heartbeat configuration containing the gRPC health port, the connection limits and
+     *                         the state poll interval
+     * @param readinessMonitor the monitor providing the statuses of the probes
+     * @param metricRegistry   the registry in which the call counters, the watchers gauge and the reaped connections
+     *                         meter are created
+     */
+    public GrpcHealthServer(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull MetricRegistry metricRegistry) {
+        final var grpcHealth = heartbeat.getGrpcHealth();
+        final var bindAddress =
+                grpcHealth.getBindAddress() != null ? grpcHealth.getBindAddress() : heartbeat.getBindAddress();
+        this.readinessMonitor = readinessMonitor;
+        this.metricRegistry = metricRegistry;
+        this.address = new InetSocketAddress(bindAddress, grpcHealth.getPort());
+        this.maxStreams = grpcHealth.getMaxStreams();
+        this.checkIntervalMillis = heartbeat.getStatePollInterval();
+        final var connections = heartbeat.getConnections();
+        this.maxConnections = connections.getMaxConnections();
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connections.getIdleTimeout());
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connections.getRequestTimeout());
+        this.reaperIntervalMillis = Math.max(MIN_REAPER_INTERVAL_MILLIS,
+                Math.min(MAX_REAPER_INTERVAL_MILLIS,
+                        Math.min(connections.getIdleTimeout(), connections.getRequestTimeout())));
+        this.checkCounter = metricRegistry.counter(CHECK_COUNTER);
+        this.watchCounter = metricRegistry.counter(WATCH_COUNTER);
+        this.reapedMeter = metricRegistry.meter(REAPED_CONNECTIONS_METER);
+    }
+
+    /**
+     * Binds the configured port and starts the selector thread.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public void start() throws IOException {
+        final var newSelector = Selector.open();
+        final var newServerChannel = ServerSocketChannel.open();
+        try {
+            newServerChannel.configureBlocking(false);
+            newServerChannel.bind(address);
+            serverKey = newServerChannel.register(newSelector, SelectionKey.OP_ACCEPT);
+        } catch (final IOException e) {
+            newServerChannel.close();
+            newSelector.close();
+            throw e;
+        }
+        serverChannel = newServerChannel;
+        selector = newSelector;
+        running = true;
+        metricRegistry.remove(WATCHERS_GAUGE);
+        metricRegistry.register(WATCHERS_GAUGE, watchersGauge);
+        readinessMonitor.addListener(readinessListener);
+        final var thread = new Thread(this::runSelectorLoop, "heartbeat-grpc");
+        thread.setDaemon(true);
+        thread.start();
+        selectorThread = thread;
+    }
+
+    /**
+     * Stops the selector thread and closes the port and all connections, open Watch calls end with a GOAWAY frame.
+     * Waits up to 1 second for the selector thread to terminate.
+     */
+    public void stop() {
+        running = false;
+        readinessMonitor.removeListener(readinessListener);
+        wakeup();
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(1000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+        metricRegistry.remove(WATCHERS_GAUGE);
+    }
+
+    /**
+     * Returns the local port of the server, e.g. if the server was bound to an ephemeral port.
+     *
+     * @return the local port or -1 if the server is not started
+     */
+    public int getLocalPort() {
+        final var channel = serverChannel;
+        return channel != null ? channel.socket().getLocalPort() : -1;
+    }
+
+    /**
+     * Returns the serving status of a service.
+     *
+     * @param service the name of the service as requested by the client
+     * @return {@code SERVING}, {@code NOT_SERVING} or {@code SERVICE_UNKNOWN} as defined by
+     *         {@code grpc.health.v1.HealthCheckResponse.ServingStatus}
+     */
+    int servingStatus(final @NotNull String service) {
+        final Probe probe;
+        switch (service) {
+            case "":
+            case "readiness":
+                probe = Probe.READINESS;
+                break;
+            case "liveness":
+                probe = Probe.LIVENESS;
+                break;
+            case "startup":
+                probe = Probe.STARTUP;
+                break;
+            default:
+                return GrpcHealthConnection.SERVICE_UNKNOWN;
+        }
+        return readinessMonitor.getStatusCode(probe) == HttpURLConnection.HTTP_OK ?
+                GrpcHealthConnection.SERVING :
+                GrpcHealthConnection.NOT_SERVING;
+    }
+
+    void callReceived(final boolean watch) {
+        (watch ? watchCounter : checkCounter).inc();
+    }
+
+    void watchStarted() {
+        watchers.incrementAndGet();
+    }
+
+    void watchEnded() {
+        watchers.decrementAndGet();
+    }
+
+    private void wakeup() {
+        final var currentSelector = selector;
+        if (currentSelector != null) {
+            currentSelector.wakeup();
+        }
+    }
+
+    private void runSelectorLoop() {
+        final var selector = this.selector;
+        if (selector == null) {
+            return;
+        }
+        final var reaperIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reaperIntervalMillis);
+        final var selectTimeoutMillis = Math.min(checkIntervalMillis, reaperIntervalMillis);
+        var lastReapNanos = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(keyHandler,
+                        acceptBackingOff ? Math.min(ACCEPT_BACKOFF_MILLIS, selectTimeoutMillis) : selectTimeoutMillis);
+                for (final var connection : connections.toArray(new GrpcHealthConnection[0])) {
+                    try {
+                        connection.updateWatchers();
+                    } catch (final IOException e) {
+                        close(connection, e);
+                    }
+                }
+                final var now = System.nanoTime();
+                if (acceptBackingOff && now - acceptResumeNanos >= 0) {
+                    resumeAccept();
+                }
+                if (now - lastReapNanos >= reaperIntervalNanos) {
+                    reap(now);
+                    lastReapNanos = now;
+                }
+            }
+        } catch (final IOException e) {
+            LOG.error("Heartbeat gRPC health selector loop failed", e);
+        } finally {
+            for (final var connection : connections) {
+                connection.close();
+            }
+            connections.clear();
+            try {
+                if (serverChannel != null) {
+                    serverChannel.close();
+                }
+                selector.close();
+            } catch (final IOException e) {
+                LOG.trace("Could not close heartbeat gRPC health channel: {}", e.getMessage());
+            }
+            serverChannel = null;
+            serverKey = null;
+            this.selector = null;
+        }
+    }
+
+    private void handleKey(final @NotNull SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept(key);
+            return;
+        }
+        final var connection = (GrpcHealthConnection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                connection.flush();
+            }
+            if (key.isReadable()) {
+                if (connection.read()) {
+                    updateDeadline(connection);
+                } else {
+                    close(connection);
+                }
+            }
+        } catch (final IOException e) {
+            close(connection, e);
+        }
+    }
+
+    private void accept(final @NotNull SelectionKey key) {
+        final var server = (ServerSocketChannel) key.channel();
+        while (connections.size() < maxConnections) {
+            final SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (final IOException e) {
+                // e.g. the file descriptor limit is reached, the port itself stays open and stays readable, so
+                // accepting is paused until a connection is closed or the back-off elapsed instead of spinning
+                LOG.debug("Could not accept heartbeat gRPC health connection: {}", e.getMessage());
+                pauseAccept();
+                acceptBackingOff = true;
+                acceptResumeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            final GrpcHealthConnection connection;
+            try {
+                channel.configureBlocking(false);
+                final var channelKey = channel.register(key.selector(), SelectionKey.OP_READ);
+                connection = new GrpcHealthConnection(channel, channelKey, this, maxStreams);
+                channelKey.attach(connection);
+            } catch (final IOException e) {
+                LOG.trace("Could not accept heartbeat gRPC health connection: {}", e.getMessage());
+                try {
+                    channel.close();
+                } catch (final IOException closeException) {
+                    LOG.trace("Could not close heartbeat gRPC health channel: {}", closeException.getMessage());
+                }
+                continue;
+            }
+            // the preface and the first call have to be received within the request timeout
+            connection.setDeadline(System.nanoTime() + requestTimeoutNanos, false);
+            connections.add(connection);
+            try {
+                connection.start();
+            } catch (final IOException e) {
+                close(connection, e);
+            }
+        }
+        // further clients wait in the accept backlog until a connection is closed
+        pauseAccept();
+    }
+
+    private void pauseAccept() {
+        if (serverKey != null && serverKey.isValid()) {
+            serverKey.interestOps(0);
+        }
+        acceptPaused = true;
+    }
+
+    private void resumeAccept() {
+        acceptBackingOff = false;
+        if (!acceptPaused || !running) {
+            return;
+        }
+        if (serverKey != null && serverKey.isValid()) {
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+        acceptPaused = false;
+    }
+
+    private void updateDeadline(final @NotNull GrpcHealthConnection connection) {
+        if (connection.isIdle()) {
+            connection.setDeadline(System.nanoTime() + idleTimeoutNanos, true);
+        } else if (connection.hasIdleDeadline()) {
+            // the deadline of a call is not extended while it is received, so slow clients cannot keep it open
+            connection.setDeadline(System.nanoTime() + requestTimeoutNanos, false);
+        }
+    }
+
+    private void reap(final long now) {
+        for (final var connection : connections.toArray(new GrpcHealthConnection[0])) {
+            if (now - connection.getDeadlineNanos() >= 0 && !connection.isWatching()) {
+                reapedMeter.mark();
+                close(connection);
+            }
+        }
+    }
+
+    private void close(final @NotNull GrpcHealthConnection connection) {
+        connections.remove(connection);
+        connection.close();
+        resumeAccept();
+    }
+
+    private void close(final @NotNull GrpcHealthConnection connection, final @NotNull IOException e) {
+        connections.remove(connection);
+        if (e instanceof Http2Exception) {
+            LOG.debug("Closing heartbeat gRPC health connection, reason: {}", e.getMessage());
+            connection.close(((Http2Exception) e).getErrorCode());
+        } else {
+            LOG.trace("Closing heartbeat gRPC health connection, reason: {}", e.getMessage());
+            connection.close();
+        }
+        resumeAccept();
+    }
+}
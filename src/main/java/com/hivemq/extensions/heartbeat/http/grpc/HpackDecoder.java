@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder of HPACK header blocks, see RFC 7541.
+ * <p>
+ * A decoder belongs to exactly one HTTP/2 connection, as the dynamic table is shared by all header blocks of the
+ * connection. Every block has to be decoded in order, even if its headers are not needed, to keep the dynamic table
+ * in sync with the encoder of the client.
+ *
+ * @since  1.2.0
+ */
+final class HpackDecoder {
+
+    /**
+     * Receives the decoded headers of a header block.
+     */
+    @FunctionalInterface
+    interface HeaderConsumer {
+
+        void accept(@NotNull String name, @NotNull String value);
+    }
+
+    /**
+     * The maximum size of the dynamic table, the default of SETTINGS_HEADER_TABLE_SIZE that is never changed.
+     */
+    static final int MAX_TABLE_SIZE = 4096;
+
+    // the size of an entry is the length of its name and value plus 32 octets, see RFC 7541 section 4.1
+    private static final int ENTRY_OVERHEAD = 32;
+
+    // RFC 7541 Appendix A, the index is one based
+    private static final @NotNull String @NotNull [][] STATIC_TABLE = {
+            {":authority", ""},
+            {":method", "GET"},
+            {":method", "POST"},
+            {":path", "/"},
+            {":path", "/index.html"},
+            {":scheme", "http"},
+            {":scheme", "https"},
+            {":status", "200"},
+            {":status", "204"},
+            {":status", "206"},
+            {":status", "304"},
+            {":status", "400"},
+            {":status", "404"},
+            {":status", "500"},
+            {"accept-charset", ""},
+            {"accept-encoding", "gzip, deflate"},
+            {"accept-language", ""},
+            {"accept-ranges", ""},
+            {"accept", ""},
+            {"access-control-allow-origin", ""},
+            {"age", ""},
+            {"allow", ""},
+            {"authorization", ""},
+            {"cache-control", ""},
+            {"content-disposition", ""},
+            {"content-encoding", ""},
+            {"content-language", ""},
+            {"content-length", ""},
+            {"content-location", ""},
+            {"content-range", ""},
+            {"content-type", ""},
+            {"cookie", ""},
+            {"date", ""},
+            {"etag", ""},
+            {"expect", ""},
+            {"expires", ""},
+            {"from", ""},
+            {"host", ""},
+            {"if-match", ""},
+            {"if-modified-since", ""},
+            {"if-none-match", ""},
+            {"if-range", ""},
+            {"if-unmodified-since", ""},
+            {"last-modified", ""},
+            {"link", ""},
+            {"location", ""},
+            {"max-forwards", ""},
+            {"proxy-authenticate", ""},
+            {"proxy-authorization", ""},
+            {"range", ""},
+            {"referer", ""},
+            {"refresh", ""},
+            {"retry-after", ""},
+            {"server", ""},
+            {"set-cookie", ""},
+            {"strict-transport-security", ""},
+            {"transfer-encoding", ""},
+            {"user-agent", ""},
+            {"vary", ""},
+            {"via", ""},
+            {"www-authenticate", ""}};
+
+    // the dynamic table, the newest entry is the last one
+    private final @NotNull List<String[]> dynamicTable = new ArrayList<>();
+    private int dynamicTableSize;
+    private int maxDynamicTableSize = MAX_TABLE_SIZE;
+
+    private byte @NotNull [] block = new byte[0];
+    private int position;
+    private int limit;
+
+    /**
+     * Decodes a complete header block, i.e. the fragments of a HEADERS frame and its CONTINUATION frames.
+     *
+     * @param block    the buffer holding the header block
+     * @param offset   the offset of the header block
+     * @param length   the length of the header block
+     * @param consumer receives the decoded headers in order
+     * @throws Http2Exception if the header block is malformed
+     */
+    void decode(
+            final byte @NotNull [] block,
+            final int offset,
+            final int length,
+            final @NotNull HeaderConsumer consumer) throws Http2Exception {
+        this.block = block;
+        position = offset;
+        limit = offset + length;
+        var headerSeen = false;
+        while (position < limit) {
+            final var first = block[position] & 0xFF;
+            if ((first & 0x80) != 0) {
+                // indexed header field
+                final var entry = entry(readInteger(7));
+                consumer.accept(entry[0], entry[1]);
+                headerSeen = true;
+            } else if ((first & 0xC0) == 0x40) {
+                // literal header field with incremental indexing
+                final var name = readName(6);
+                final var value = readString();
+                add(name, value);
+                consumer.accept(name, value);
+                headerSeen = true;
+            } else if ((first & 0xE0) == 0x20) {
+                // dynamic table size update, only allowed at the beginning of a header block
+                if (headerSeen) {
+                    throw compressionError("Dynamic table size update after a header field");
+                }
+                final var size = readInteger(5);
+                if (size > MAX_TABLE_SIZE) {
+                    throw compressionError("Dynamic table size update above the maximum");
+                }
+                maxDynamicTableSize = size;
+                evict(0);
+            } else {
+                // literal header field without indexing or never indexed
+                final var name = readName(4);
+                consumer.accept(name, readString());
+                headerSeen = true;
+            }
+        }
+    }
+
+    private @NotNull String readName(final int prefixBits) throws Http2Exception {
+        final var index = readInteger(prefixBits);
+        return index == 0 ? readString() : entry(index)[0];
+    }
+
+    private @NotNull String readString() throws Http2Exception {
+        if (position >= limit) {
+            throw compressionError("Truncated string literal");
+        }
+        final var huffman = (block[position] & 0x80) != 0;
+        final var length = readInteger(7);
+        if (length > limit - position) {
+            throw compressionError("Truncated string literal");
+        }
+        final var offset = position;
+        position += length;
+        if (huffman) {
+            return Huffman.decode(block, offset, length);
+        }
+        return new String(block, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    // RFC 7541 section 5.1
+    private int readInteger(final int prefixBits) throws Http2Exception {
+        final var mask = (1 << prefixBits) - 1;
+        var value = block[position++] & mask;
+        if (value < mask) {
+            return value;
+        }
+        var shift = 0;
+        int next;
+        do {
+            if (position >= limit) {
+                throw compressionError("Truncated integer");
+            }
+            if (shift > 21) {
+                throw compressionError("Integer overflow");
+            }
+            next = block[position++] & 0xFF;
+            value += (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    private @NotNull String @NotNull [] entry(final int index) throws Http2Exception {
+        if (index < 1) {
+            throw compressionError("Invalid index " + index);
+        }
+        if (index <= STATIC_TABLE.length) {
+            return STATIC_TABLE[index - 1];
+        }
+        final var dynamicIndex = index - STATIC_TABLE.length;
+        if (dynamicIndex > dynamicTable.size()) {
+            throw compressionError("Invalid index " + index);
+        }
+        return dynamicTable.get(dynamicTable.size() - dynamicIndex);
+    }
+
+    // RFC 7541 section 4.4
+    private void add(final @NotNull String name, final @NotNull String value) {
+        final var size = name.length() + value.length() + ENTRY_OVERHEAD;
+        if (size > maxDynamicTableSize) {
+            dynamicTable.clear();
+            dynamicTableSize = 0;
+            return;
+        }
+        evict(size);
+        dynamicTable.add(new String[]{name, value});
+        dynamicTableSize += size;
+    }
+
+    private void evict(final int required) {
+        while (dynamicTableSize + required > maxDynamicTableSize) {
+            final var evicted = dynamicTable.remove(0);
+            dynamicTableSize -= evicted[0].length() + evicted[1].length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static @NotNull Http2Exception compressionError(final @NotNull String message) {
+        return new Http2Exception(Http2Exception.COMPRESSION_ERROR, message);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A connection error of HTTP/2, see RFC 9113 section 5.4.1. The connection is closed with a GOAWAY frame that carries
+ * the error code.
+ *
+ * @since  1.2.0
+ */
+final class Http2Exception extends IOException {
+
+    static final int PROTOCOL_ERROR = 0x1;
+    static final int FLOW_CONTROL_ERROR = 0x3;
+    static final int FRAME_SIZE_ERROR = 0x6;
+    static final int COMPRESSION_ERROR = 0x9;
+
+    private final int errorCode;
+
+    Http2Exception(final int errorCode, final @NotNull String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    int getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.layer4;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.Probe;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Raw TCP and UDP responders for load balancers that only check whether a port accepts connections or answers
+ * datagrams.
+ * <p>
+ * Both responders follow the readiness of the {@link ReadinessMonitor}, like the heartbeat endpoint, and are served by
+ * a single selector thread:
+ * <ul>
+ * <li>The TCP responder accepts connections and closes them immediately while HiveMQ is ready. While it is not ready,
+ * the TCP port is closed, so connection attempts are refused, and connections that were already queued are reset.
+ * The readiness is checked every state poll interval. If a connection cannot be accepted, e.g. at the file descriptor
+ * limit, accepting is paused for 100 milliseconds.</li>
+ * <li>The UDP responder answers every datagram with a single status byte, {@value STATUS_READY} while HiveMQ is ready
+ * and {@value STATUS_UNAVAILABLE} otherwise. The response is never larger than the request.</li>
+ * </ul>
+ * The selector keys are handled without a selected key set and the responses are preallocated, so the responders only
+ * allocate what the JDK allocates for an accepted connection or the sender of a datagram.
+ *
+ * @since  1.2.0
+ */
+public class Layer4Responder {
+
+    public static final @NotNull String READY_COUNTER = "http-heartbeat-layer4-ready-counter";
+    public static final @NotNull String UNAVAILABLE_COUNTER = "http-heartbeat-layer4-unavailable-counter";
+
+    static final char STATUS_READY = '1';
+    static final char STATUS_UNAVAILABLE = '0';
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(Layer4Responder.class);
+
+    private static final int RECEIVE_BUFFER_SIZE = 512;
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @Nullable InetSocketAddress tcpAddress;
+    private final @Nullable InetSocketAddress udpAddress;
+    private final long checkIntervalMillis;
+    private final @NotNull Counter readyCounter;
+    private final @NotNull Counter unavailableCounter;
+    private final @NotNull Consumer<SelectionKey> keyHandler = this::handleKey;
+
+    // only accessed by the selector thread after the start
+    private final @NotNull ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(RECEIVE_BUFFER_SIZE);
+    private final @NotNull ByteBuffer readyResponse = status(STATUS_READY);
+    private final @NotNull ByteBuffer unavailableResponse = status(STATUS_UNAVAILABLE);
+    private @Nullable ServerSocketChannel serverChannel;
+    private @Nullable DatagramChannel datagramChannel;
+    // set while accepting is paused after a failed accept
+    private boolean acceptBackingOff;
+    private long acceptResumeNanos;
+
+    private volatile @Nullable Selector selector;
+    private volatile boolean running;
+    private @Nullable Thread selectorThread;
+
+    /**
+     * Creates new layer 4 responders.
+     *
+     * @param heartbeat        the heartbeat configuration containing the layer 4 ports and the state poll interval
+     * @param readinessMonitor the monitor providing the readiness state that is followed
+     * @param metricRegistry   the registry in which the response counters are created
+     */
+    public Layer4Responder(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull MetricRegistry metricRegistry) {
+        final var layer4 = heartbeat.getLayer4();
+        final var bindAddress = layer4.getBindAddress() != null ? layer4.getBindAddress() : heartbeat.getBindAddress();
+        this.readinessMonitor = readinessMonitor;
+        this.tcpAddress = layer4.getTcpPort() > 0 ? new InetSocketAddress(bindAddress, layer4.getTcpPort()) : null;
+        this.udpAddress = layer4.getUdpPort() > 0 ? new InetSocketAddress(bindAddress, layer4.getUdpPort()) : null;
+        this.checkIntervalMillis = heartbeat.getStatePollInterval();
+        this.readyCounter = metricRegistry.counter(READY_COUNTER);
+        this.unavailableCounter = metricRegistry.counter(UNAVAILABLE_COUNTER);
+    }
+
+    /**
+     * Binds the configured ports and starts the selector thread.
+     * <p>
+     * The TCP port is bound regardless of the readiness, so a port that is already in use fails the start.
+     *
+     * @throws IOException if a port cannot be bound
+     */
+    public void start() throws IOException {
+        final var newSelector = Selector.open();
+        try {
+            if (tcpAddress != null) {
+                serverChannel = openServerChannel(newSelector, tcpAddress);
+            }
+            if (udpAddress != null) {
+                final var newDatagramChannel = DatagramChannel.open();
+                datagramChannel = newDatagramChannel;
+                newDatagramChannel.configureBlocking(false);
+                newDatagramChannel.bind(udpAddress);
+                newDatagramChannel.register(newSelector, SelectionKey.OP_READ);
+            }
+        } catch (final IOException e) {
+            closeQuietly(serverChannel);
+            closeQuietly(datagramChannel);
+            serverChannel = null;
+            datagramChannel = null;
+            newSelector.close();
+            throw e;
+        }
+        selector = newSelector;
+        running = true;
+        final var thread = new Thread(this::runSelectorLoop, "heartbeat-layer4");
+        thread.setDaemon(true);
+        thread.start();
+        selectorThread = thread;
+    }
+
+    /**
+     * Stops the selector thread and closes the ports. Waits up to 1 second for the selector thread to terminate.
+     */
+    public void stop() {
+        running = false;
+        final var currentSelector = selector;
+        if (currentSelector != null) {
+            currentSelector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(1000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+    }
+
+    private void runSelectorLoop() {
+        final var selector = this.selector;
+        if (selector == null) {
+            return;
+        }
+        try {
+            while (running) {
+                selector.select(keyHandler,
+                        acceptBackingOff ? Math.min(ACCEPT_BACKOFF_MILLIS, checkIntervalMillis) : checkIntervalMillis);
+                if (acceptBackingOff && System.nanoTime() - acceptResumeNanos >= 0) {
+                    resumeAccept(selector);
+                }
+                if (tcpAddress != null) {
+                    updateServerChannel(selector, tcpAddress);
+                }
+            }
+        } catch (final IOException e) {
+            LOG.error("Heartbeat layer 4 selector loop failed", e);
+        } finally {
+            closeQuietly(serverChannel);
+            closeQuietly(datagramChannel);
+            closeQuietly(selector);
+            serverChannel = null;
+            datagramChannel = null;
+            this.selector = null;
+        }
+    }
+
+    private void handleKey(final @NotNull SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isAcceptable()) {
+                accept(key);
+            } else if (key.isReadable()) {
+                receive((DatagramChannel) key.channel());
+            }
+        } catch (final IOException e) {
+            LOG.trace("Could not answer heartbeat layer 4 probe: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the TCP port while HiveMQ is not ready and opens it again once it is ready.
+     */
+    private void updateServerChannel(final @NotNull Selector selector, final @NotNull InetSocketAddress address) {
+        final var ready = isReady();
+        if (ready && serverChannel == null) {
+            try {
+                serverChannel = openServerChannel(selector, address);
+                LOG.debug("Heartbeat layer 4 TCP port {} accepts connections again", address.getPort());
+            } catch (final IOException e) {
+                // retried with the next check
+                LOG.warn("Could not bind heartbeat layer 4 TCP port {}, reason: {}", address.getPort(), e.getMessage());
+            }
+        } else if (!ready && serverChannel != null) {
+            closeQuietly(serverChannel);
+            serverChannel = null;
+            LOG.debug("Heartbeat layer 4 TCP port {} refuses connections", address.getPort());
+        }
+    }
+
+    private void accept(final @NotNull SelectionKey key) throws IOException {
+        final var server = (ServerSocketChannel) key.channel();
+        while (true) {
+            final SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (final IOException e) {
+                // e.g. the file descriptor limit is reached, the port stays readable, so accepting is paused for the
+                // back-off instead of spinning
+                LOG.debug("Could not accept heartbeat layer 4 connection: {}", e.getMessage());
+                key.interestOps(0);
+                acceptBackingOff = true;
+                acceptResumeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            try {
+                if (isReady()) {
+                    readyCounter.inc();
+                } else {
+                    // a zero linger time resets the connection instead of closing it gracefully
+                    channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+                    unavailableCounter.inc();
+                }
+            } finally {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void resumeAccept(final @NotNull Selector selector) {
+        acceptBackingOff = false;
+        // a port that was closed in the meantime is registered for accepting again when it is opened
+        final var key = serverChannel != null ? serverChannel.keyFor(selector) : null;
+        if (key != null && key.isValid()) {
+            key.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    private void receive(final @NotNull DatagramChannel channel) throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            final var sender = channel.receive(receiveBuffer);
+            if (sender == null) {
+                return;
+            }
+            final ByteBuffer response;
+            if (isReady()) {
+                response = readyResponse;
+                readyCounter.inc();
+            } else {
+                response = unavailableResponse;
+                unavailableCounter.inc();
+            }
+            response.clear();
+            try {
+                channel.send(response, sender);
+            } catch (final IOException e) {
+                // e.g. the sender is unreachable, the next datagram is answered regardless
+                LOG.trace("Could not answer heartbeat layer 4 datagram: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean isReady() {
+        return readinessMonitor.getStatusCode(Probe.READINESS) == HttpURLConnection.HTTP_OK;
+    }
+
+    private static @NotNull ServerSocketChannel openServerChannel(
+            final @NotNull Selector selector,
+            final @NotNull InetSocketAddress address) throws IOException {
+        final var channel = ServerSocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(address);
+            channel.register(selector, SelectionKey.OP_ACCEPT);
+            return channel;
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static @NotNull ByteBuffer status(final char status) {
+        final var buffer = ByteBuffer.allocateDirect(1);
+        buffer.put((byte) status).flip();
+        return buffer;
+    }
+
+    private static void closeQuietly(final @Nullable Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (final IOException e) {
+            LOG.trace("Could not close heartbeat layer 4 channel: {}", e.getMessage());
+        }
+    }
+}
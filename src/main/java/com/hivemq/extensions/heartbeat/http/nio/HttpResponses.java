@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.nio;
+
+import com.hivemq.extensions.heartbeat.http.HealthDetail;
+import com.hivemq.extensions.heartbeat.http.PrometheusExposition;
+import com.hivemq.extensions.heartbeat.http.RateLimiter;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-encoded HTTP responses of the {@link NioHeartbeatServer}.
+ * <p>
+ * All responses are encoded once into direct buffers. The buffers are only used by the selector thread, which sets the
+ * position for each write, so answering a request does not allocate. Health detail responses are encoded once per
+ * {@link HealthDetail} and metrics responses once per document rendered by the {@link PrometheusExposition}.
+ * <p>
+ * The readiness watch endpoint answers with a chunked {@code text/event-stream}, every event and keep-alive comment is
+ * a pre-encoded chunk that is shared by all watching connections.
+ *
+ * @since  1.2.0
+ */
+final class HttpResponses {
+
+    private static final @NotNull ByteBuffer @NotNull [] OK = encode(HttpURLConnection.HTTP_OK, "OK");
+    private static final @NotNull ByteBuffer @NotNull [] BAD_REQUEST =
+            encode(HttpURLConnection.HTTP_BAD_REQUEST, "Bad Request");
+    private static final @NotNull ByteBuffer @NotNull [] NOT_FOUND =
+            encode(HttpURLConnection.HTTP_NOT_FOUND, "Not Found");
+    private static final @NotNull ByteBuffer @NotNull [] METHOD_NOT_ALLOWED =
+            encode(HttpURLConnection.HTTP_BAD_METHOD, "Method Not Allowed");
+    private static final @NotNull ByteBuffer @NotNull [] TOO_MANY_REQUESTS =
+            encode(RateLimiter.HTTP_TOO_MANY_REQUESTS, "Too Many Requests");
+    private static final @NotNull ByteBuffer @NotNull [] SERVICE_UNAVAILABLE =
+            encode(HttpURLConnection.HTTP_UNAVAILABLE, "Service Unavailable");
+    private static final @NotNull ByteBuffer KEEP_ALIVE_EVENT = chunk(": keep-alive\n\n");
+    private static final byte @NotNull [] EVENT_STREAM_HEAD = ("HTTP/1.1 200 OK\r\n" +
+            "Content-Type: text/event-stream\r\n" +
+            "Cache-Control: no-cache\r\n" +
+            "Transfer-Encoding: chunked\r\n" +
+            "X-Accel-Buffering: no\r\n" +
+            "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    private HttpResponses() {
+    }
+
+    /**
+     * Returns the pre-encoded response for the given status code.
+     *
+     * @param  statusCode one of HTTP 200, 400, 404, 405, 429 or 503, all other status codes are answered with HTTP 503
+     * @param  keepAlive  whether the response announces that the connection is kept open
+     * @return            the pre-encoded response
+     */
+    static @NotNull ByteBuffer get(final int statusCode, final boolean keepAlive) {
+        final var variants = variants(statusCode);
+        return keepAlive ? variants[1] : variants[0];
+    }
+
+    /**
+     * Encodes the responses of the health detail endpoint.
+     *
+     * @param  detail the serialized health detail
+     * @return        the full responses with close and keep-alive, followed by the HTTP 304 responses with close and
+     *                keep-alive
+     */
+    static @NotNull ByteBuffer @NotNull [] encode(final @NotNull HealthDetail detail) {
+        return new ByteBuffer[]{
+                encode(detail, false, false),
+                encode(detail, false, true),
+                encode(detail, true, false),
+                encode(detail, true, true)};
+    }
+
+    /**
+     * Encodes the responses of the metrics endpoint.
+     * <p>
+     * The responses are heap buffers, as they are replaced with every rendering of the metrics.
+     *
+     * @param  body the rendered metrics in the Prometheus text format
+     * @return      the responses with close and keep-alive
+     */
+    static @NotNull ByteBuffer @NotNull [] encodeMetrics(final byte @NotNull [] body) {
+        return new ByteBuffer[]{
+                encode(PrometheusExposition.CONTENT_TYPE, body, false),
+                encode(PrometheusExposition.CONTENT_TYPE, body, true)};
+    }
+
+    /**
+     * Encodes a HTTP 200 response with the given body into a heap buffer.
+     *
+     * @param  contentType the content type of the body
+     * @param  body        the encoded body
+     * @param  keepAlive   whether the connection is kept open after the response
+     * @return             the full response
+     */
+    static @NotNull ByteBuffer encode(
+            final @NotNull String contentType,
+            final byte @NotNull [] body,
+            final boolean keepAlive) {
+        final var headBytes = ("HTTP/1.1 200 OK\r\n" +
+                "Content-Type: " +
+                contentType +
+                "\r\n" +
+                "Content-Length: " +
+                body.length +
+                "\r\n" +
+                (keepAlive ? "Connection: keep-alive\r\n" : "Connection: close\r\n") +
+                "\r\n").getBytes(StandardCharsets.US_ASCII);
+        final var buffer = ByteBuffer.allocate(headBytes.length + body.length);
+        buffer.put(headBytes).put(body).flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the readiness event of the watch endpoint.
+     * <p>
+     * The event carries the snapshot version as its id and the health detail document, which is serialized on a
+     * single line, as its data.
+     *
+     * @param  detail the serialized health detail
+     * @return        the event stream head followed by the event for a new watcher, and the event alone for the
+     *                existing watchers
+     */
+    static @NotNull ByteBuffer @NotNull [] encodeEvent(final @NotNull HealthDetail detail) {
+        final var prefix = ("id: " + detail.getVersion() + "\nevent: readiness\ndata: ")
+                .getBytes(StandardCharsets.US_ASCII);
+        final var body = detail.getBody();
+        final var dataLength = prefix.length + body.length + 2;
+        final var size = (Integer.toHexString(dataLength) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        final var event = ByteBuffer.allocateDirect(size.length + dataLength + 2);
+        event.put(size).put(prefix).put(body).put((byte) '\n').put((byte) '\n').put((byte) '\r').put((byte) '\n');
+        event.flip();
+        final var first = ByteBuffer.allocateDirect(EVENT_STREAM_HEAD.length + event.remaining());
+        first.put(EVENT_STREAM_HEAD).put(event.duplicate()).flip();
+        return new ByteBuffer[]{first, event};
+    }
+
+    /**
+     * Returns the pre-encoded keep-alive comment of the watch endpoint, which keeps proxies from closing idle
+     * streams.
+     *
+     * @return the keep-alive chunk
+     */
+    static @NotNull ByteBuffer keepAliveEvent() {
+        return KEEP_ALIVE_EVENT;
+    }
+
+    private static @NotNull ByteBuffer chunk(final @NotNull String data) {
+        final var bytes = (Integer.toHexString(data.length()) + "\r\n" + data + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        final var buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    private static @NotNull ByteBuffer @NotNull [] variants(final int statusCode) {
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                return OK;
+            case HttpURLConnection.HTTP_BAD_REQUEST:
+                return BAD_REQUEST;
+            case HttpURLConnection.HTTP_NOT_FOUND:
+                return NOT_FOUND;
+            case HttpURLConnection.HTTP_BAD_METHOD:
+                return METHOD_NOT_ALLOWED;
+            case RateLimiter.HTTP_TOO_MANY_REQUESTS:
+                return TOO_MANY_REQUESTS;
+            default:
+                return SERVICE_UNAVAILABLE;
+        }
+    }
+
+    private static @NotNull String statusLine(final int statusCode) {
+        switch (statusCode) {
+            case HttpURLConnection.HTTP_OK:
+                return "HTTP/1.1 200 OK\r\n";
+            case RateLimiter.HTTP_TOO_MANY_REQUESTS:
+                return "HTTP/1.1 429 Too Many Requests\r\n";
+            default:
+                return "HTTP/1.1 503 Service Unavailable\r\n";
+        }
+    }
+
+    private static @NotNull ByteBuffer @NotNull [] encode(final int statusCode, final @NotNull String reasonPhrase) {
+        return new ByteBuffer[]{encode(statusCode, reasonPhrase, false), encode(statusCode, reasonPhrase, true)};
+    }
+
+    private static @NotNull ByteBuffer encode(
+            final int statusCode,
+            final @NotNull String reasonPhrase,
+            final boolean keepAlive) {
+        final var response = "HTTP/1.1 " +
+                statusCode +
+                " " +
+                reasonPhrase +
+                "\r\n" +
+                "Content-Length: 0\r\n" +
+                (keepAlive ? "Connection: keep-alive\r\n" : "Connection: close\r\n") +
+                "\r\n";
+        final var bytes = response.getBytes(StandardCharsets.US_ASCII);
+        final var buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    private static @NotNull ByteBuffer encode(
+            final @NotNull HealthDetail detail,
+            final boolean notModified,
+            final boolean keepAlive) {
+        final byte[] body;
+        final String head;
+        if (notModified) {
+            body = new byte[0];
+            head = "HTTP/1.1 304 Not Modified\r\n";
+        } else {
+            body = detail.getBody();
+            head = statusLine(detail.getStatusCode()) +
+                    "Content-Type: " +
+                    HealthDetail.CONTENT_TYPE +
+                    "\r\n" +
+                    "Content-Length: " +
+                    body.length +
+                    "\r\n";
+        }
+        final var headBytes = (head +
+                "ETag: " +
+                detail.getEntityTag() +
+                "\r\n" +
+                "Cache-Control: " +
+                detail.getCacheControl() +
+                "\r\n" +
+                (keepAlive ? "Connection: keep-alive\r\n" : "Connection: close\r\n") +
+                "\r\n").getBytes(StandardCharsets.US_ASCII);
+        final var buffer = ByteBuffer.allocateDirect(headBytes.length + body.length);
+        buffer.put(headBytes).put(body).flip();
+        return buffer;
+    }
+}
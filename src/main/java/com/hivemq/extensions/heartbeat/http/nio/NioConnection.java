@@ -0,0 +1,567 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.nio;
+
+import com.hivemq.extension.sdk.api.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Per-connection state of the {@link NioHeartbeatServer}.
+ * <p>
+ * Only the request line and the beginning of each header line are retained. The header lines are scanned for the
+ * {@code Connection}, {@code If-None-Match}, {@code Content-Length} and {@code Transfer-Encoding} headers and for the
+ * empty line that ends the request head. A request body is never read, so a connection is not kept alive after a
+ * request that announced one. Instances are reused for subsequent requests and connections, so the steady state does
+ * not allocate.
+ * <p>
+ * A connection that requested the watch endpoint stays watching until it is closed. It no longer consumes requests and
+ * remembers the version of the last readiness event it was sent. A connection whose response is rendered off the
+ * selector thread neither reads nor writes until the response is handed back.
+ *
+ * @since  1.2.0
+ */
+@NotThreadSafe
+final class NioConnection {
+
+    static final int PARSE_INCOMPLETE = 0;
+    static final int PARSE_COMPLETE = 1;
+    static final int PARSE_ERROR = 2;
+
+    static final int MAX_REQUEST_LINE_LENGTH = 2048;
+    static final int MAX_REQUEST_HEAD_LENGTH = 8192;
+
+    private static final int MAX_HEADER_PREFIX_LENGTH = 64;
+    private static final byte @NotNull [] CONNECTION_HEADER = "connection:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] IF_NONE_MATCH_HEADER =
+            "if-none-match:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] CONTENT_LENGTH_HEADER =
+            "content-length:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] TRANSFER_ENCODING_HEADER =
+            "transfer-encoding:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] CLOSE = "close".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] KEEP_ALIVE = "keep-alive".getBytes(StandardCharsets.US_ASCII);
+    private static final byte @NotNull [] HTTP_1_0 = "HTTP/1.0".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte @NotNull [] requestLine = new byte[MAX_REQUEST_LINE_LENGTH];
+    private final byte @NotNull [] headerPrefix = new byte[MAX_HEADER_PREFIX_LENGTH];
+    private int requestLineLength;
+    private boolean requestLineComplete;
+    private int lineLength;
+    private int headLength;
+    private boolean connectionClose;
+    private boolean connectionKeepAlive;
+    private boolean body;
+    private final byte @NotNull [] ifNoneMatch = new byte[MAX_HEADER_PREFIX_LENGTH];
+    private int ifNoneMatchLength;
+
+    private @Nullable ByteBuffer response;
+    private int responseOffset;
+    private boolean closeAfterResponse;
+    private long deadlineNanos;
+    private int listener;
+    private @Nullable InetSocketAddress remoteAddress;
+    private boolean watching;
+    private long eventVersion;
+    private boolean rendering;
+    // allocated on the first partial write that has pipelined requests behind it, reused afterwards
+    private @Nullable ByteBuffer pipelined;
+
+    /**
+     * Consumes the readable bytes of the buffer until the end of the request head.
+     * <p>
+     * Bytes after the end of the request head are left in the buffer. The buffer of the server is overwritten by the
+     * next read, so they are {@linkplain #retainPipelined(ByteBuffer) retained} if the response cannot be written
+     * completely and consumed once it was written.
+     *
+     * @param  buffer the buffer with the bytes read from the socket
+     * @return        {@link #PARSE_COMPLETE} if the request head is complete, {@link #PARSE_ERROR} if the request is
+     *                malformed or too large, {@link #PARSE_INCOMPLETE} if more bytes are needed
+     */
+    int consume(final @NotNull ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            final var b = buffer.get();
+            if (++headLength > MAX_REQUEST_HEAD_LENGTH) {
+                return PARSE_ERROR;
+            }
+            if (!requestLineComplete) {
+                if (b == '\n') {
+                    if (requestLineLength > 0 && requestLine[requestLineLength - 1] == '\r') {
+                        requestLineLength--;
+                    }
+                    if (requestLineLength == 0) {
+                        // RFC 9112 allows to ignore empty lines before the request line
+                        continue;
+                    }
+                    requestLineComplete = true;
+                    lineLength = 0;
+                } else if (requestLineLength == MAX_REQUEST_LINE_LENGTH) {
+                    return PARSE_ERROR;
+                } else {
+                    requestLine[requestLineLength++] = b;
+                }
+            } else if (b == '\n') {
+                if (lineLength == 0) {
+                    return PARSE_COMPLETE;
+                }
+                headerLineComplete();
+                lineLength = 0;
+            } else if (b != '\r') {
+                if (lineLength < MAX_HEADER_PREFIX_LENGTH) {
+                    headerPrefix[lineLength] = b;
+                }
+                lineLength++;
+            }
+        }
+        return PARSE_INCOMPLETE;
+    }
+
+    /**
+     * Returns whether bytes of the current request were consumed.
+     *
+     * @return {@code true} if a request is partially received
+     */
+    boolean hasPartialRequest() {
+        return headLength > 0;
+    }
+
+    /**
+     * Returns whether the request line starts with the given method.
+     *
+     * @param  method the ASCII encoded method
+     * @return        {@code true} if the request has the given method
+     */
+    boolean hasMethod(final byte @NotNull [] method) {
+        if (requestLineLength <= method.length || requestLine[method.length] != ' ') {
+            return false;
+        }
+        for (var i = 0; i < method.length; i++) {
+            if (requestLine[i] != method[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the request target matches the given path.
+     * <p>
+     * Like the contexts of the JDK HTTP server, the path matches the target itself, the target with a query and all
+     * targets below the path.
+     *
+     * @param  path the ASCII encoded path
+     * @return      {@code true} if the request target matches the path
+     */
+    boolean matchesPath(final byte @NotNull [] path) {
+        var start = 0;
+        while (start < requestLineLength && requestLine[start] != ' ') {
+            start++;
+        }
+        start++;
+        if (start + path.length > requestLineLength) {
+            return false;
+        }
+        for (var i = 0; i < path.length; i++) {
+            if (requestLine[start + i] != path[i]) {
+                return false;
+            }
+        }
+        final var end = start + path.length;
+        if (end == requestLineLength || path.length > 0 && path[path.length - 1] == '/') {
+            return true;
+        }
+        final var next = requestLine[end];
+        return next == ' ' || next == '?' || next == '/';
+    }
+
+    /**
+     * Returns whether the client allows to keep the connection open after the response.
+     * <p>
+     * HTTP/1.1 connections are persistent unless the client sends {@code Connection: close}, HTTP/1.0 connections are
+     * only persistent if the client sends {@code Connection: keep-alive}.
+     *
+     * @return {@code true} if the connection may be kept open
+     */
+    boolean isKeepAliveRequested() {
+        if (connectionClose) {
+            return false;
+        }
+        return !endsWith(requestLine, requestLineLength, HTTP_1_0) || connectionKeepAlive;
+    }
+
+    /**
+     * Returns whether the request announced a body with a non-zero {@code Content-Length} or a
+     * {@code Transfer-Encoding}. The body is not consumed, so its bytes would be parsed as the next request if the
+     * connection was kept alive.
+     *
+     * @return {@code true} if the request has a body
+     */
+    boolean hasBody() {
+        return body;
+    }
+
+    /**
+     * Returns whether the {@code If-None-Match} header of the request matches the given entity tag.
+     * <p>
+     * Only the beginning of the header value is retained, so an entity tag after a long list of other tags is not
+     * matched and the full response is sent instead.
+     *
+     * @param  entityTag the ASCII encoded quoted entity tag
+     * @return           {@code true} if the header contains the entity tag or is a wildcard
+     */
+    boolean isNotModified(final byte @NotNull [] entityTag) {
+        var start = 0;
+        while (start < ifNoneMatchLength && ifNoneMatch[start] == ' ') {
+            start++;
+        }
+        if (start < ifNoneMatchLength && ifNoneMatch[start] == '*') {
+            return true;
+        }
+        for (var i = start; i <= ifNoneMatchLength - entityTag.length; i++) {
+            var matches = true;
+            for (var j = 0; j < entityTag.length && matches; j++) {
+                matches = ifNoneMatch[i + j] == entityTag[j];
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the pre-encoded response that is written to the connection.
+     *
+     * @param response           the shared response buffer
+     * @param closeAfterResponse whether the connection is closed after the response was written
+     */
+    void setResponse(final @NotNull ByteBuffer response, final boolean closeAfterResponse) {
+        this.response = response;
+        this.responseOffset = 0;
+        this.closeAfterResponse = closeAfterResponse;
+    }
+
+    /**
+     * Returns the pre-encoded response that is written to the connection.
+     *
+     * @return the shared response buffer or {@code null} if no response is pending
+     */
+    @Nullable ByteBuffer getResponse() {
+        return response;
+    }
+
+    /**
+     * Returns whether the connection is closed after the response was written.
+     *
+     * @return {@code true} if the connection is not kept alive
+     */
+    boolean isCloseAfterResponse() {
+        return closeAfterResponse;
+    }
+
+    /**
+     * Returns the number of response bytes that were already written.
+     *
+     * @return the write offset into the response
+     */
+    int getResponseOffset() {
+        return responseOffset;
+    }
+
+    /**
+     * Sets the number of response bytes that were already written.
+     *
+     * @param responseOffset the write offset into the response
+     */
+    void setResponseOffset(final int responseOffset) {
+        this.responseOffset = responseOffset;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} after which the connection is closed by the reaper.
+     *
+     * @return the deadline in nanoseconds
+     */
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Sets the {@link System#nanoTime()} after which the connection is closed by the reaper.
+     *
+     * @param deadlineNanos the deadline in nanoseconds
+     */
+    void setDeadlineNanos(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns the index of the listener that accepted the connection.
+     *
+     * @return the listener index
+     */
+    int getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the index of the listener that accepted the connection.
+     *
+     * @param listener the listener index
+     */
+    void setListener(final int listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the remote address of the client, which is only resolved if requests are rate limited or logged.
+     *
+     * @return the remote address or {@code null} if it was not resolved
+     */
+    @Nullable InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * Sets the remote address of the client.
+     *
+     * @param remoteAddress the remote address
+     */
+    void setRemoteAddress(final @Nullable InetSocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * Returns whether the connection streams readiness events of the watch endpoint.
+     *
+     * @return {@code true} if the connection is watching
+     */
+    boolean isWatching() {
+        return watching;
+    }
+
+    /**
+     * Sets whether the connection streams readiness events of the watch endpoint.
+     *
+     * @param watching whether the connection is watching
+     */
+    void setWatching(final boolean watching) {
+        this.watching = watching;
+    }
+
+    /**
+     * Returns the snapshot version of the last readiness event that was queued for the connection.
+     *
+     * @return the event version
+     */
+    long getEventVersion() {
+        return eventVersion;
+    }
+
+    /**
+     * Sets the snapshot version of the last readiness event that was queued for the connection.
+     *
+     * @param eventVersion the event version
+     */
+    void setEventVersion(final long eventVersion) {
+        this.eventVersion = eventVersion;
+    }
+
+    /**
+     * Returns whether the response to the current request is rendered off the selector thread.
+     *
+     * @return {@code true} if the connection waits for its response
+     */
+    boolean isRendering() {
+        return rendering;
+    }
+
+    /**
+     * Sets whether the response to the current request is rendered off the selector thread.
+     *
+     * @param rendering whether the connection waits for its response
+     */
+    void setRendering(final boolean rendering) {
+        this.rendering = rendering;
+    }
+
+    /**
+     * Copies the readable bytes of the buffer, which belong to requests that were pipelined behind a response that is
+     * still being written. They are consumed from {@link #getPipelined()} once the response was written.
+     *
+     * @param buffer the buffer with the bytes after the end of the current request head
+     */
+    void retainPipelined(final @NotNull ByteBuffer buffer) {
+        if (buffer == pipelined) {
+            // the retained bytes are consumed in place
+            return;
+        }
+        var retained = pipelined;
+        if (retained == null || retained.capacity() < buffer.remaining()) {
+            retained = ByteBuffer.allocate(buffer.remaining());
+            pipelined = retained;
+        }
+        retained.clear();
+        retained.put(buffer);
+        retained.flip();
+    }
+
+    /**
+     * Returns the retained bytes of pipelined requests.
+     *
+     * @return the buffer with the retained bytes or {@code null} if no bytes are retained
+     */
+    @Nullable ByteBuffer getPipelined() {
+        final var retained = pipelined;
+        return retained != null && retained.hasRemaining() ? retained : null;
+    }
+
+    /**
+     * Clears the response after it was written completely, which keeps the request state of a watching connection.
+     */
+    void clearResponse() {
+        response = null;
+        responseOffset = 0;
+    }
+
+    /**
+     * Resets the request state, so the next request on a kept-alive connection can be consumed.
+     */
+    void resetRequest() {
+        requestLineLength = 0;
+        requestLineComplete = false;
+        lineLength = 0;
+        headLength = 0;
+        connectionClose = false;
+        connectionKeepAlive = false;
+        body = false;
+        ifNoneMatchLength = 0;
+        response = null;
+        responseOffset = 0;
+        closeAfterResponse = false;
+    }
+
+    /**
+     * Resets the connection state, so the instance can be reused for another connection.
+     */
+    void reset() {
+        resetRequest();
+        deadlineNanos = 0;
+        listener = 0;
+        remoteAddress = null;
+        watching = false;
+        eventVersion = 0;
+        rendering = false;
+        if (pipelined != null) {
+            pipelined.clear().limit(0);
+        }
+    }
+
+    private void headerLineComplete() {
+        final var prefixLength = Math.min(lineLength, MAX_HEADER_PREFIX_LENGTH);
+        if (startsWithIgnoreCase(headerPrefix, prefixLength, IF_NONE_MATCH_HEADER)) {
+            ifNoneMatchLength = prefixLength - IF_NONE_MATCH_HEADER.length;
+            System.arraycopy(headerPrefix, IF_NONE_MATCH_HEADER.length, ifNoneMatch, 0, ifNoneMatchLength);
+            return;
+        }
+        if (startsWithIgnoreCase(headerPrefix, prefixLength, TRANSFER_ENCODING_HEADER)) {
+            body = true;
+            return;
+        }
+        if (startsWithIgnoreCase(headerPrefix, prefixLength, CONTENT_LENGTH_HEADER)) {
+            // any value but a single 0 announces a body, including a malformed value
+            body |= !isZero(headerPrefix, CONTENT_LENGTH_HEADER.length, prefixLength);
+            return;
+        }
+        if (!startsWithIgnoreCase(headerPrefix, prefixLength, CONNECTION_HEADER)) {
+            return;
+        }
+        if (containsIgnoreCase(headerPrefix, CONNECTION_HEADER.length, prefixLength, CLOSE)) {
+            connectionClose = true;
+        } else if (containsIgnoreCase(headerPrefix, CONNECTION_HEADER.length, prefixLength, KEEP_ALIVE)) {
+            connectionKeepAlive = true;
+        }
+    }
+
+    private static boolean isZero(final byte @NotNull [] bytes, final int from, final int to) {
+        var zero = false;
+        for (var i = from; i < to; i++) {
+            if (bytes[i] == '0' && !zero) {
+                zero = true;
+            } else if (bytes[i] != ' ' && bytes[i] != '\t') {
+                return false;
+            }
+        }
+        return zero;
+    }
+
+    private static boolean startsWithIgnoreCase(
+            final byte @NotNull [] bytes,
+            final int length,
+            final byte @NotNull [] lowerCasePrefix) {
+        if (length < lowerCasePrefix.length) {
+            return false;
+        }
+        return regionMatchesIgnoreCase(bytes, 0, lowerCasePrefix);
+    }
+
+    private static boolean containsIgnoreCase(
+            final byte @NotNull [] bytes,
+            final int from,
+            final int to,
+            final byte @NotNull [] lowerCaseToken) {
+        for (var i = from; i <= to - lowerCaseToken.length; i++) {
+            if (regionMatchesIgnoreCase(bytes, i, lowerCaseToken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatchesIgnoreCase(
+            final byte @NotNull [] bytes,
+            final int offset,
+            final byte @NotNull [] lowerCaseToken) {
+        for (var i = 0; i < lowerCaseToken.length; i++) {
+            var b = bytes[offset + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != lowerCaseToken[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWith(final byte @NotNull [] bytes, final int length, final byte @NotNull [] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        final var offset = length - suffix.length;
+        for (var i = 0; i < suffix.length; i++) {
+            if (bytes[offset + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,1170 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.nio;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.Connections;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.SocketOptions;
+import com.hivemq.extensions.heartbeat.http.HealthDetail;
+import com.hivemq.extensions.heartbeat.http.HealthDetailCache;
+import com.hivemq.extensions.heartbeat.http.HeartbeatMetrics;
+import com.hivemq.extensions.heartbeat.http.HeartbeatServer;
+import com.hivemq.extensions.heartbeat.http.HiveMQHeartbeatHandler;
+import com.hivemq.extensions.heartbeat.http.ListenerEndpoints;
+import com.hivemq.extensions.heartbeat.http.PrometheusExposition;
+import com.hivemq.extensions.heartbeat.http.ProberTracker;
+import com.hivemq.extensions.heartbeat.http.RateLimiter;
+import com.hivemq.extensions.heartbeat.http.accesslog.AccessLogger;
+import com.hivemq.extensions.heartbeat.state.Probe;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat engine based on a single non-blocking NIO selector loop.
+ * <p>
+ * The engine only parses the request head, matches the configured probe paths and writes a pre-encoded response from a
+ * direct buffer, see {@link HttpResponses}. Connection state objects are pooled, so the steady state of the selector
+ * loop does not allocate per request. All listeners are served by the same selector loop, every connection routes its
+ * requests with the endpoint paths of the listener that accepted it.
+ * <p>
+ * Connections are kept open for subsequent requests if configured and requested by the client. The number of open
+ * connections of all listeners is limited by pausing the accept of new connections, and connections exceeding the idle
+ * or request timeout are closed by the selector thread, see {@link Connections}. Requests of clients over the
+ * {@link RateLimiter rate limit} are answered with a pre-encoded HTTP 429 or closed before their path is matched.
+ * <p>
+ * The listeners are bound with the configured {@link SocketOptions}. Where supported, SO_REUSEPORT is always set, so
+ * the replacement server of a rebind can bind the same addresses before the current server releases them. If
+ * configured, several server sockets are bound to the address of every listener, so the operating system spreads a
+ * burst of connections over several accept queues. Connections that waited in an accept queue and pauses of the
+ * accept are counted, so a filling accept queue is visible before connections are dropped.
+ * <p>
+ * The served status is read from the same {@link ReadinessMonitor} that drives the {@link HiveMQHeartbeatHandler} and
+ * every heartbeat is recorded in the same {@link HeartbeatMetrics}. The selector thread answers the metrics endpoint
+ * with the document of the {@link PrometheusExposition} while it is younger than the max-age. An outdated document is
+ * rendered on a separate thread, the connection neither reads nor writes until the selector thread is handed the
+ * rendered document, so a large registry does not delay the probes of other connections. The prober statistics are
+ * scanned and encoded on the same thread for every request. If configured, every request is also recorded in the
+ * {@link AccessLogger} with the path of its route, and its remote address in the {@link ProberTracker}.
+ * <p>
+ * If the watch endpoint is enabled, a request to its path turns the connection into a stream of Server-Sent Events.
+ * Every state change of the readiness monitor wakes up the selector thread, which encodes the new event once and writes
+ * it to all watching connections. A connection that is still writing the previous event is sent the latest event
+ * afterwards, and a connection that is still writing at its next keep-alive is closed, so slow clients do not hold
+ * buffers or block the other watchers.
+ *
+ * @since  1.2.0
+ */
+public class NioHeartbeatServer implements HeartbeatServer {
+
+    public static final @NotNull String OPEN_CONNECTIONS_GAUGE = "http-heartbeat-open-connections";
+    public static final @NotNull String REAPED_CONNECTIONS_METER = "http-heartbeat-reaped-connections-meter";
+    public static final @NotNull String ACCEPT_QUEUED_COUNTER = "http-heartbeat-accept-queued-counter";
+    public static final @NotNull String ACCEPT_PAUSED_COUNTER = "http-heartbeat-accept-paused-counter";
+    public static final @NotNull String WATCHERS_GAUGE = "http-heartbeat-watchers";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(NioHeartbeatServer.class);
+
+    private static final byte @NotNull [] GET = "GET".getBytes(StandardCharsets.US_ASCII);
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_POOLED_CONNECTIONS = 256;
+    private static final long MIN_REAPER_INTERVAL_MILLIS = 10;
+    private static final long MAX_REAPER_INTERVAL_MILLIS = 1000;
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final @NotNull Heartbeat heartbeat;
+    private final @NotNull Connections connections;
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull HeartbeatMetrics heartbeatMetrics;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull SocketOptions socketOptions;
+    private final @NotNull Meter reapedMeter;
+    private final @NotNull Counter acceptQueuedCounter;
+    private final @NotNull Counter acceptPausedCounter;
+    private final @Nullable RateLimiter rateLimiter;
+    private final @Nullable AccessLogger accessLogger;
+    private final @Nullable ProberTracker proberTracker;
+    private final @NotNull Gauge<Integer> openConnectionsGauge = this::getOpenConnections;
+    private final @NotNull Gauge<Integer> watchersGauge = this::getWatchers;
+    private final @NotNull Runnable readinessListener = this::onReadinessChange;
+    private final long idleTimeoutNanos;
+    private final long requestTimeoutNanos;
+    private final long reaperIntervalMillis;
+    private final int maxWatchers;
+    private final long keepAliveIntervalNanos;
+
+    private final @NotNull ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final @NotNull ArrayDeque<NioConnection> connectionPool = new ArrayDeque<>();
+    // the thread is only started by the first response that is rendered off the selector thread
+    private final @NotNull ExecutorService renderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "heartbeat-nio-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // rendered responses that are handed back to the selector thread
+    private final @NotNull Queue<Rendering> renderings = new ConcurrentLinkedQueue<>();
+
+    private volatile @Nullable Selector selector;
+    private volatile @NotNull List<ServerSocketChannel> serverChannels = List.of();
+    private @Nullable Thread selectorThread;
+    private volatile boolean running;
+    // only written by the selector thread
+    private volatile int openConnections;
+    // only written by the selector thread
+    private volatile int watchers;
+    // set by the readiness monitor, cleared by the selector thread before it publishes the event
+    private volatile boolean readinessChanged;
+    // indexed like the listeners of the configuration
+    private volatile @NotNull Routes @NotNull [] routes;
+    private @NotNull List<SelectionKey> serverKeys = List.of();
+    // indexed like the listeners of the configuration, set before the selector thread is started
+    private int @NotNull [] localPorts = new int[0];
+    private boolean acceptPaused;
+    // only accessed by the selector thread, set while accepting is paused after a failed accept
+    private boolean acceptBackingOff;
+    private long acceptResumeNanos;
+    // only accessed by the selector thread
+    private @Nullable HealthDetail encodedDetail;
+    private byte @NotNull [] encodedEntityTag = new byte[0];
+    private @NotNull ByteBuffer @NotNull [] detailResponses = new ByteBuffer[0];
+    private byte @Nullable [] encodedMetrics;
+    private @NotNull ByteBuffer @NotNull [] metricsResponses = new ByteBuffer[0];
+    private @Nullable Rendering pendingRendering;
+    private @Nullable HealthDetail eventDetail;
+    private @NotNull ByteBuffer @NotNull [] eventResponses = new ByteBuffer[0];
+    private @Nullable String respondedPath;
+    private int respondedStatus;
+
+    /**
+     * Creates a new NIO heartbeat engine.
+     *
+     * @param heartbeat        the heartbeat configuration containing bind address, port, path, and connection handling
+     * @param readinessMonitor the monitor providing the readiness state that is served
+     * @param heartbeatMetrics the metrics in which the handled heartbeat requests are recorded
+     * @param metricRegistry   the registry in which the connection metrics are created
+     * @param accessLogger     the access log of the requests, or {@code null} if requests are not logged
+     * @param proberTracker    the statistics of the remote addresses, or {@code null} if they are not tracked
+     */
+    public NioHeartbeatServer(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull HeartbeatMetrics heartbeatMetrics,
+            final @NotNull MetricRegistry metricRegistry,
+            final @Nullable AccessLogger accessLogger,
+            final @Nullable ProberTracker proberTracker) {
+        this.heartbeat = heartbeat;
+        this.connections = heartbeat.getConnections();
+        this.readinessMonitor = readinessMonitor;
+        this.heartbeatMetrics = heartbeatMetrics;
+        this.metricRegistry = metricRegistry;
+        this.socketOptions = heartbeat.getSocketOptions();
+        this.reapedMeter = metricRegistry.meter(REAPED_CONNECTIONS_METER);
+        this.acceptQueuedCounter = metricRegistry.counter(ACCEPT_QUEUED_COUNTER);
+        this.acceptPausedCounter = metricRegistry.counter(ACCEPT_PAUSED_COUNTER);
+        this.rateLimiter = RateLimiter.create(heartbeat.getRateLimit());
+        this.accessLogger = accessLogger;
+        this.proberTracker = proberTracker;
+        this.routes = Routes.of(heartbeat, readinessMonitor, metricRegistry, proberTracker);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connections.getIdleTimeout());
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connections.getRequestTimeout());
+        final var shortestTimeout = Math.min(connections.getIdleTimeout(), connections.getRequestTimeout());
+        this.reaperIntervalMillis =
+                Math.max(MIN_REAPER_INTERVAL_MILLIS, Math.min(MAX_REAPER_INTERVAL_MILLIS, shortestTimeout));
+        this.maxWatchers = heartbeat.getWatch().getMaxStreams();
+        this.keepAliveIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeat.getWatch().getKeepAliveInterval());
+    }
+
+    @Override
+    public void start() throws IOException {
+        final var listeners = ListenerEndpoints.of(heartbeat);
+        final var newSelector = Selector.open();
+        final var reusePort = isReusePortSupported();
+        final var acceptors = acceptorsPerListener(reusePort);
+        // the first acceptor of every listener, indexed like the listeners of the configuration
+        final var newServerChannels = new ArrayList<ServerSocketChannel>(listeners.size());
+        final var openedChannels = new ArrayList<ServerSocketChannel>(listeners.size() * acceptors);
+        final var newServerKeys = new ArrayList<SelectionKey>(listeners.size() * acceptors);
+        try {
+            for (var i = 0; i < listeners.size(); i++) {
+                final var newServerChannel = openServerChannel(openedChannels, reusePort);
+                newServerChannels.add(newServerChannel);
+                newServerChannel.bind(listeners.get(i).getAddress(), socketOptions.getBacklog());
+                // the attachment of a server key is the index of its listener
+                newServerKeys.add(newServerChannel.register(newSelector, SelectionKey.OP_ACCEPT, i));
+                for (var acceptor = 1; acceptor < acceptors; acceptor++) {
+                    final var acceptorChannel = openServerChannel(openedChannels, true);
+                    // the resolved address, so an ephemeral port is shared by all acceptors of the listener
+                    acceptorChannel.bind(newServerChannel.getLocalAddress(), socketOptions.getBacklog());
+                    newServerKeys.add(acceptorChannel.register(newSelector, SelectionKey.OP_ACCEPT, i));
+                }
+            }
+        } catch (final IOException e) {
+            for (final var openedChannel : openedChannels) {
+                openedChannel.close();
+            }
+            newSelector.close();
+            throw e;
+        }
+        selector = newSelector;
+        serverChannels = List.copyOf(newServerChannels);
+        serverKeys = List.copyOf(newServerKeys);
+        localPorts = new int[newServerChannels.size()];
+        for (var i = 0; i < localPorts.length; i++) {
+            localPorts[i] = newServerChannels.get(i).socket().getLocalPort();
+        }
+        running = true;
+        // a server that is replaced by a rebind is still running at this point, the new server takes over the gauge
+        metricRegistry.remove(OPEN_CONNECTIONS_GAUGE);
+        metricRegistry.register(OPEN_CONNECTIONS_GAUGE, openConnectionsGauge);
+        if (heartbeat.getWatch().isEnabled()) {
+            metricRegistry.remove(WATCHERS_GAUGE);
+            metricRegistry.register(WATCHERS_GAUGE, watchersGauge);
+            readinessMonitor.addListener(readinessListener);
+        }
+        final var thread = new Thread(this::runSelectorLoop, "heartbeat-nio");
+        thread.setDaemon(true);
+        thread.start();
+        selectorThread = thread;
+    }
+
+    /**
+     * Publishes the new routes to the selector thread, which uses them starting with the next request.
+     * <p>
+     * The listeners of the new endpoints must bind to the same addresses as the listeners the server was started with.
+     */
+    @Override
+    public void updateEndpoints(final @NotNull Heartbeat heartbeat) {
+        routes = Routes.of(heartbeat, readinessMonitor, metricRegistry, proberTracker);
+    }
+
+    /**
+     * Stops the selector loop and closes the listeners and all open connections. Waits up to 1 second for the selector
+     * thread to terminate.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        readinessMonitor.removeListener(readinessListener);
+        final var currentSelector = selector;
+        if (currentSelector != null) {
+            currentSelector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(1000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+        renderExecutor.shutdownNow();
+        metricRegistry.removeMatching((name, metric) -> metric == openConnectionsGauge || metric == watchersGauge);
+    }
+
+    /**
+     * Returns the port the first listener is bound to.
+     *
+     * @return the local port or {@code -1} if the server is not running
+     */
+    public int getLocalPort() {
+        return getLocalPort(0);
+    }
+
+    /**
+     * Returns the port the listener with the given index is bound to.
+     *
+     * @param  listener the index of the listener in the configuration
+     * @return          the local port or {@code -1} if the server is not running or has no such listener
+     */
+    public int getLocalPort(final int listener) {
+        final var channels = serverChannels;
+        if (listener < 0 || listener >= channels.size()) {
+            return -1;
+        }
+        final var channel = channels.get(listener);
+        try {
+            final var address = channel.getLocalAddress();
+            return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getPort() : -1;
+        } catch (final IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of currently open connections.
+     *
+     * @return the number of open connections
+     */
+    public int getOpenConnections() {
+        return openConnections;
+    }
+
+    /**
+     * Returns the number of connections that currently watch the readiness.
+     *
+     * @return the number of watching connections
+     */
+    public int getWatchers() {
+        return watchers;
+    }
+
+    private void onReadinessChange() {
+        readinessChanged = true;
+        final var currentSelector = selector;
+        if (currentSelector != null) {
+            currentSelector.wakeup();
+        }
+    }
+
+    private void runSelectorLoop() {
+        final var selector = this.selector;
+        if (selector == null) {
+            return;
+        }
+        final var reaperIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reaperIntervalMillis);
+        var lastReapNanos = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(acceptBackingOff ?
+                        Math.min(ACCEPT_BACKOFF_MILLIS, reaperIntervalMillis) :
+                        reaperIntervalMillis);
+                final var selectedKeys = selector.selectedKeys();
+                for (final var key : selectedKeys) {
+                    handleKey(key);
+                }
+                selectedKeys.clear();
+                if (readinessChanged) {
+                    readinessChanged = false;
+                    publishEvent(selector);
+                }
+                completeRenderings();
+                final var now = System.nanoTime();
+                if (acceptBackingOff && now - acceptResumeNanos >= 0) {
+                    resumeAccept();
+                }
+                if (now - lastReapNanos >= reaperIntervalNanos) {
+                    reap(selector, now);
+                    lastReapNanos = now;
+                }
+            }
+        } catch (final IOException e) {
+            LOG.error("Heartbeat NIO selector loop failed", e);
+        } finally {
+            closeAll(selector);
+        }
+    }
+
+    private void handleKey(final @NotNull SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isAcceptable()) {
+                accept(key);
+            } else if (key.isReadable()) {
+                read(key);
+            } else if (key.isWritable() && write(key)) {
+                final var connection = (NioConnection) key.attachment();
+                final var pipelined = connection.getPipelined();
+                if (pipelined != null) {
+                    handleRequests(key, connection, pipelined);
+                }
+            }
+        } catch (final IOException e) {
+            LOG.trace("Closing heartbeat connection due to I/O error: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    private void accept(final @NotNull SelectionKey key) {
+        final var server = (ServerSocketChannel) key.channel();
+        // every connection after the first one of a wakeup waited in the accept queue of the listener
+        var accepted = 0;
+        while (openConnections < connections.getMaxConnections()) {
+            final SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (final IOException e) {
+                // e.g. the file descriptor limit is reached, the listener itself stays open and stays readable, so
+                // accepting is paused until a connection is closed or the back-off elapsed instead of spinning
+                LOG.debug("Could not accept heartbeat connection: {}", e.getMessage());
+                countQueued(accepted);
+                pauseAccept();
+                acceptBackingOff = true;
+                acceptResumeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+                return;
+            }
+            if (channel == null) {
+                countQueued(accepted);
+                return;
+            }
+            accepted++;
+            try {
+                channel.configureBlocking(false);
+                if (socketOptions.isTcpNoDelay()) {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+                if (socketOptions.getSendBufferSize() > 0) {
+                    channel.setOption(StandardSocketOptions.SO_SNDBUF, socketOptions.getSendBufferSize());
+                }
+                var connection = connectionPool.poll();
+                if (connection == null) {
+                    connection = new NioConnection();
+                }
+                connection.setDeadlineNanos(System.nanoTime() + requestTimeoutNanos);
+                connection.setListener((Integer) key.attachment());
+                if (rateLimiter != null || accessLogger != null || proberTracker != null) {
+                    connection.setRemoteAddress((InetSocketAddress) channel.getRemoteAddress());
+                }
+                channel.register(key.selector(), SelectionKey.OP_READ, connection);
+                openConnections++;
+            } catch (final IOException e) {
+                LOG.trace("Could not accept heartbeat connection: {}", e.getMessage());
+                closeQuietly(channel);
+            }
+        }
+        countQueued(accepted);
+        // further clients wait in the accept backlog of the listeners until a connection is closed
+        pauseAccept();
+        acceptPausedCounter.inc();
+    }
+
+    private void pauseAccept() {
+        for (final var serverKey : serverKeys) {
+            if (serverKey.isValid()) {
+                serverKey.interestOps(0);
+            }
+        }
+        acceptPaused = true;
+    }
+
+    private void countQueued(final int accepted) {
+        if (accepted > 1) {
+            acceptQueuedCounter.inc(accepted - 1);
+        }
+    }
+
+    /**
+     * Returns whether SO_REUSEPORT is supported on this platform.
+     *
+     * @return {@code true} if the server sockets can share their address
+     * @throws IOException if the supported socket options cannot be determined
+     */
+    private static boolean isReusePortSupported() throws IOException {
+        try (final var channel = ServerSocketChannel.open()) {
+            return channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+    }
+
+    /**
+     * Returns the number of server sockets that are bound to the address of every listener. Several acceptors require
+     * SO_REUSEPORT, which is not supported on every platform.
+     *
+     * @param  reusePort whether SO_REUSEPORT is supported
+     * @return           the number of acceptors per listener
+     */
+    private int acceptorsPerListener(final boolean reusePort) {
+        if (!socketOptions.isReusePort()) {
+            return 1;
+        }
+        if (reusePort) {
+            return socketOptions.getAcceptors();
+        }
+        LOG.warn("SO_REUSEPORT is not supported on this platform, using a single acceptor per heartbeat listener");
+        return 1;
+    }
+
+    private @NotNull ServerSocketChannel openServerChannel(
+            final @NotNull List<ServerSocketChannel> openedChannels,
+            final boolean reusePort) throws IOException {
+        final var channel = ServerSocketChannel.open();
+        openedChannels.add(channel);
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, socketOptions.isReuseAddress());
+        if (reusePort) {
+            channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+        }
+        if (socketOptions.getReceiveBufferSize() > 0) {
+            // inherited by the accepted connections, as the window scale of a connection is fixed by its handshake
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, socketOptions.getReceiveBufferSize());
+        }
+        return channel;
+    }
+
+    private void read(final @NotNull SelectionKey key) throws IOException {
+        final var channel = (SocketChannel) key.channel();
+        final var connection = (NioConnection) key.attachment();
+        readBuffer.clear();
+        final var read = channel.read(readBuffer);
+        if (read < 0) {
+            close(key);
+            return;
+        }
+        if (connection.isWatching()) {
+            // the stream is only closed by the client, anything it sends is discarded
+            return;
+        }
+        readBuffer.flip();
+        handleRequests(key, connection, readBuffer);
+    }
+
+    /**
+     * Answers the requests in the buffer. Pipelined requests are only answered once the previous response is written
+     * completely, until then the connection retains the remaining bytes of the buffer.
+     *
+     * @param key        the selection key of the connection
+     * @param connection the connection the bytes were read from
+     * @param buffer     the shared read buffer or the bytes retained by the connection
+     * @throws IOException if a response could not be written
+     */
+    private void handleRequests(
+            final @NotNull SelectionKey key,
+            final @NotNull NioConnection connection,
+            final @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (!connection.hasPartialRequest()) {
+                connection.setDeadlineNanos(System.nanoTime() + requestTimeoutNanos);
+            }
+            final var result = connection.consume(buffer);
+            if (result == NioConnection.PARSE_INCOMPLETE) {
+                return;
+            }
+            final var startNanos = System.nanoTime();
+            // a connection that is closed by the write is reset, so the fields for the access log are taken before
+            final var remoteAddress = connection.getRemoteAddress();
+            final var listener = connection.getListener();
+            respondedPath = null;
+            if (proberTracker != null && remoteAddress != null) {
+                proberTracker.record(remoteAddress.getAddress(), startNanos);
+            }
+            final int statusCode;
+            if (result == NioConnection.PARSE_ERROR) {
+                statusCode = HttpURLConnection.HTTP_BAD_REQUEST;
+                respondedStatus = statusCode;
+                connection.setResponse(HttpResponses.get(statusCode, false), true);
+            } else if (isRateLimited(connection, startNanos)) {
+                heartbeatMetrics.recordRateLimited();
+                if (rateLimiter.isDrop()) {
+                    respondedStatus = 0;
+                    logAccess(remoteAddress, listener, startNanos);
+                    close(key);
+                    return;
+                }
+                respondedStatus = RateLimiter.HTTP_TOO_MANY_REQUESTS;
+                final var keepAlive = isKeepAlive(connection);
+                connection.setResponse(HttpResponses.get(respondedStatus, keepAlive), !keepAlive);
+                // counted as rate limited, not as a heartbeat answered with HTTP 429
+                statusCode = 0;
+            } else {
+                statusCode = respond(connection);
+            }
+            final var rendering = pendingRendering;
+            if (rendering != null) {
+                pendingRendering = null;
+                render(key, connection, buffer, rendering.forRequest(key, remoteAddress, listener, startNanos));
+                return;
+            }
+            // recorded before the write closes the connection, so a client that saw the response also sees the metrics
+            heartbeatMetrics.record(statusCode, System.nanoTime() - startNanos);
+            final var written = write(key);
+            logAccess(remoteAddress, listener, startNanos);
+            if (!written) {
+                // a closed or watching connection discards the pipelined requests
+                if (key.isValid() && !connection.isWatching() && connection.getResponse() != null) {
+                    connection.retainPipelined(buffer);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the connection is kept open after the response to the current request. Only GET requests without
+     * a body are kept alive, as the body of any other request is not consumed and would be parsed as the next request.
+     *
+     * @param  connection the connection with the parsed request head
+     * @return            {@code true} if the connection waits for the next request after the response
+     */
+    private boolean isKeepAlive(final @NotNull NioConnection connection) {
+        return connections.isKeepAlive() &&
+                connection.isKeepAliveRequested() &&
+                connection.hasMethod(GET) &&
+                !connection.hasBody();
+    }
+
+    private boolean isRateLimited(final @NotNull NioConnection connection, final long nowNanos) {
+        final var remoteAddress = connection.getRemoteAddress();
+        return rateLimiter != null &&
+                remoteAddress != null &&
+                !rateLimiter.tryAcquire(remoteAddress.getAddress(), nowNanos);
+    }
+
+    private void logAccess(final @Nullable InetSocketAddress remoteAddress, final int listener, final long startNanos) {
+        if (accessLogger != null && remoteAddress != null) {
+            accessLogger.record(remoteAddress.getAddress(),
+                    remoteAddress.getPort(),
+                    localPorts[listener],
+                    respondedPath,
+                    respondedStatus,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Sets the response for a completely received request, and the path and status of the response for the access
+     * log.
+     *
+     * @param  connection the connection with the parsed request head
+     * @return            the status code to record, or {@code 0} if the request was not a heartbeat
+     */
+    private int respond(final @NotNull NioConnection connection) {
+        final var keepAlive = isKeepAlive(connection);
+        final var currentRoutes = routes[connection.getListener()];
+        final var route = currentRoutes.route(connection);
+        final int statusCode;
+        if (route < 0) {
+            statusCode = HttpURLConnection.HTTP_NOT_FOUND;
+        } else {
+            respondedPath = currentRoutes.names[route];
+            if (!connection.hasMethod(GET)) {
+                statusCode = HttpURLConnection.HTTP_BAD_METHOD;
+            } else if (route == currentRoutes.metricsRoute) {
+                respondedStatus = respondMetrics(currentRoutes.prometheusExposition, connection, keepAlive);
+                return 0;
+            } else if (route == currentRoutes.probersRoute) {
+                respondedStatus = respondProbers(currentRoutes, keepAlive);
+                return 0;
+            } else if (route == currentRoutes.watchRoute) {
+                respondedStatus = respondWatch(currentRoutes.healthDetailCache, connection);
+                return 0;
+            } else if (currentRoutes.probes[route] == null) {
+                respondedStatus = respondDetail(currentRoutes.healthDetailCache, connection, keepAlive);
+                return 0;
+            } else {
+                statusCode = readinessMonitor.getStatusCode(currentRoutes.probes[route]);
+            }
+        }
+        respondedStatus = statusCode;
+        connection.setResponse(HttpResponses.get(statusCode, keepAlive), !keepAlive);
+        return statusCode;
+    }
+
+    private int respondDetail(
+            final @NotNull HealthDetailCache healthDetailCache,
+            final @NotNull NioConnection connection,
+            final boolean keepAlive) {
+        final var detail = healthDetailCache.get();
+        if (detail != encodedDetail) {
+            // encoded once per state change of the readiness monitor
+            detailResponses = HttpResponses.encode(detail);
+            encodedEntityTag = detail.getEntityTag().getBytes(StandardCharsets.US_ASCII);
+            encodedDetail = detail;
+        }
+        final var notModified = connection.isNotModified(encodedEntityTag);
+        final var variant = (notModified ? 2 : 0) + (keepAlive ? 1 : 0);
+        connection.setResponse(detailResponses[variant], !keepAlive);
+        return notModified ? HttpURLConnection.HTTP_NOT_MODIFIED : HttpURLConnection.HTTP_OK;
+    }
+
+    private int respondMetrics(
+            final @NotNull PrometheusExposition prometheusExposition,
+            final @NotNull NioConnection connection,
+            final boolean keepAlive) {
+        final var body = prometheusExposition.getIfFresh();
+        if (body == null) {
+            pendingRendering = new Rendering(prometheusExposition::get,
+                    PrometheusExposition.CONTENT_TYPE,
+                    keepAlive,
+                    respondedPath);
+        } else {
+            connection.setResponse(metricsResponse(body, keepAlive), !keepAlive);
+        }
+        return HttpURLConnection.HTTP_OK;
+    }
+
+    private @NotNull ByteBuffer metricsResponse(final byte @NotNull [] body, final boolean keepAlive) {
+        if (body != encodedMetrics) {
+            // encoded once per rendering of the exposition, which is reused within its max-age
+            metricsResponses = HttpResponses.encodeMetrics(body);
+            encodedMetrics = body;
+        }
+        return metricsResponses[keepAlive ? 1 : 0];
+    }
+
+    /**
+     * Hands the rendering of a response to the render thread. The connection neither reads nor writes until the
+     * response is handed back, the bytes of pipelined requests are retained until then.
+     *
+     * @param key        the selection key of the connection
+     * @param connection the connection that waits for the response
+     * @param buffer     the buffer with the bytes after the end of the current request head
+     * @param rendering  the rendering of the response
+     */
+    private void render(
+            final @NotNull SelectionKey key,
+            final @NotNull NioConnection connection,
+            final @NotNull ByteBuffer buffer,
+            final @NotNull Rendering rendering) {
+        connection.setRendering(true);
+        if (buffer.hasRemaining()) {
+            connection.retainPipelined(buffer);
+        }
+        key.interestOps(0);
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    final var body = rendering.renderer.get();
+                    if (!isMetrics(rendering)) {
+                        // the shared metrics responses are encoded by the selector thread, once per rendering
+                        rendering.response = HttpResponses.encode(rendering.contentType, body, rendering.keepAlive);
+                    }
+                    rendering.body = body;
+                } catch (final RuntimeException e) {
+                    LOG.error("Could not render heartbeat response for path '{}'", rendering.path, e);
+                }
+                renderings.add(rendering);
+                final var currentSelector = selector;
+                if (currentSelector != null) {
+                    currentSelector.wakeup();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // the server is stopping
+            close(key);
+        }
+    }
+
+    private static boolean isMetrics(final @NotNull Rendering rendering) {
+        return PrometheusExposition.CONTENT_TYPE.equals(rendering.contentType);
+    }
+
+    /**
+     * Writes the responses that were rendered off the selector thread and answers the requests that were pipelined
+     * behind them.
+     */
+    private void completeRenderings() {
+        Rendering rendering;
+        while ((rendering = renderings.poll()) != null) {
+            final var key = rendering.key;
+            if (key == null || !key.isValid()) {
+                // closed while rendering, e.g. by the reaper
+                continue;
+            }
+            final var connection = (NioConnection) key.attachment();
+            connection.setRendering(false);
+            final var body = rendering.body;
+            respondedPath = rendering.path;
+            if (body == null) {
+                respondedStatus = HttpURLConnection.HTTP_UNAVAILABLE;
+                connection.setResponse(HttpResponses.get(respondedStatus, false), true);
+            } else {
+                respondedStatus = HttpURLConnection.HTTP_OK;
+                final var response = rendering.response;
+                connection.setResponse(response != null ? response : metricsResponse(body, rendering.keepAlive),
+                        !rendering.keepAlive);
+            }
+            try {
+                final var written = write(key);
+                logAccess(rendering.remoteAddress, rendering.listener, rendering.startNanos);
+                // a connection that was closed by the write is already reused
+                final var pipelined = written ? connection.getPipelined() : null;
+                if (pipelined != null) {
+                    handleRequests(key, connection, pipelined);
+                }
+            } catch (final IOException e) {
+                LOG.trace("Closing heartbeat connection due to I/O error: {}", e.getMessage());
+                close(key);
+            }
+        }
+    }
+
+    private int respondProbers(final @NotNull Routes currentRoutes, final boolean keepAlive) {
+        // the statistics change with every request, so they are scanned and encoded per request off the selector thread
+        final var proberTracker = currentRoutes.proberTracker;
+        final var top = currentRoutes.top;
+        pendingRendering = new Rendering(() -> proberTracker.toJson(top),
+                HealthDetail.CONTENT_TYPE,
+                keepAlive,
+                respondedPath);
+        return HttpURLConnection.HTTP_OK;
+    }
+
+    private int respondWatch(
+            final @NotNull HealthDetailCache healthDetailCache,
+            final @NotNull NioConnection connection) {
+        if (watchers >= maxWatchers) {
+            connection.setResponse(HttpResponses.get(HttpURLConnection.HTTP_UNAVAILABLE, false), true);
+            return HttpURLConnection.HTTP_UNAVAILABLE;
+        }
+        final var detail = encodeEvent(healthDetailCache);
+        connection.setWatching(true);
+        connection.setEventVersion(detail.getVersion());
+        connection.setResponse(eventResponses[0], false);
+        // the deadline of a watching connection is its next keep-alive
+        connection.setDeadlineNanos(System.nanoTime() + keepAliveIntervalNanos);
+        watchers++;
+        return HttpURLConnection.HTTP_OK;
+    }
+
+    private @NotNull HealthDetail encodeEvent(final @NotNull HealthDetailCache healthDetailCache) {
+        final var detail = healthDetailCache.get();
+        if (detail != eventDetail) {
+            // encoded once per state change of the readiness monitor
+            eventResponses = HttpResponses.encodeEvent(detail);
+            eventDetail = detail;
+        }
+        return detail;
+    }
+
+    private void publishEvent(final @NotNull Selector selector) {
+        if (watchers == 0) {
+            return;
+        }
+        // the listeners share one health detail cache
+        final var version = encodeEvent(routes[0].healthDetailCache).getVersion();
+        for (final var key : selector.keys()) {
+            final var attachment = key.attachment();
+            if (!key.isValid() || !(attachment instanceof NioConnection)) {
+                continue;
+            }
+            final var connection = (NioConnection) attachment;
+            // a connection that is still writing is sent the latest event once the write completes
+            if (connection.isWatching() &&
+                    connection.getEventVersion() != version &&
+                    connection.getResponse() == null) {
+                connection.setEventVersion(version);
+                connection.setResponse(eventResponses[1], false);
+                writeEvent(key);
+            }
+        }
+    }
+
+    private void writeEvent(final @NotNull SelectionKey key) {
+        try {
+            write(key);
+        } catch (final IOException e) {
+            LOG.trace("Closing heartbeat watch connection due to I/O error: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    /**
+     * Writes the pending response of the connection.
+     *
+     * @param key the selection key of the connection
+     * @return {@code true} if the response was written completely and the connection waits for the next request
+     * @throws IOException if the response could not be written
+     */
+    private boolean write(final @NotNull SelectionKey key) throws IOException {
+        final var channel = (SocketChannel) key.channel();
+        final var connection = (NioConnection) key.attachment();
+        final var response = connection.getResponse();
+        if (response == null) {
+            return false;
+        }
+        // the response buffers are shared, only the selector thread moves their position
+        response.limit(response.capacity()).position(connection.getResponseOffset());
+        channel.write(response);
+        connection.setResponseOffset(response.position());
+        if (response.hasRemaining()) {
+            if (!connection.isWatching()) {
+                connection.setDeadlineNanos(System.nanoTime() + requestTimeoutNanos);
+            }
+            key.interestOps(SelectionKey.OP_WRITE);
+            return false;
+        }
+        if (connection.isWatching()) {
+            connection.clearResponse();
+            key.interestOps(SelectionKey.OP_READ);
+            final var detail = eventDetail;
+            if (detail != null && connection.getEventVersion() != detail.getVersion()) {
+                // the readiness changed while the previous event was written
+                connection.setEventVersion(detail.getVersion());
+                connection.setResponse(eventResponses[1], false);
+                return write(key);
+            }
+            return false;
+        }
+        if (connection.isCloseAfterResponse()) {
+            close(key);
+            return false;
+        }
+        connection.resetRequest();
+        connection.setDeadlineNanos(System.nanoTime() + idleTimeoutNanos);
+        key.interestOps(SelectionKey.OP_READ);
+        return true;
+    }
+
+    private void reap(final @NotNull Selector selector, final long now) {
+        for (final var key : selector.keys()) {
+            final var attachment = key.attachment();
+            if (!key.isValid() ||
+                    !(attachment instanceof NioConnection) ||
+                    now - ((NioConnection) attachment).getDeadlineNanos() < 0) {
+                continue;
+            }
+            final var connection = (NioConnection) attachment;
+            if (connection.isWatching() && connection.getResponse() == null) {
+                connection.setDeadlineNanos(now + keepAliveIntervalNanos);
+                connection.setResponse(HttpResponses.keepAliveEvent(), false);
+                writeEvent(key);
+            } else {
+                // includes watching connections that did not take the previous event within the keep-alive interval
+                reapedMeter.mark();
+                close(key);
+            }
+        }
+    }
+
+    private void close(final @NotNull SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (final IOException e) {
+            LOG.trace("Could not close heartbeat connection: {}", e.getMessage());
+        }
+        final var attachment = key.attachment();
+        if (attachment instanceof NioConnection) {
+            final var connection = (NioConnection) attachment;
+            openConnections--;
+            if (connection.isWatching()) {
+                watchers--;
+            }
+            if (connectionPool.size() < MAX_POOLED_CONNECTIONS) {
+                connection.reset();
+                connectionPool.offer(connection);
+            }
+            resumeAccept();
+        }
+        key.attach(null);
+    }
+
+    private void resumeAccept() {
+        acceptBackingOff = false;
+        if (!acceptPaused || !running) {
+            return;
+        }
+        for (final var serverKey : serverKeys) {
+            if (serverKey.isValid()) {
+                serverKey.interestOps(SelectionKey.OP_ACCEPT);
+            }
+        }
+        acceptPaused = false;
+    }
+
+    private static void closeQuietly(final @NotNull SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOG.trace("Could not close heartbeat connection: {}", e.getMessage());
+        }
+    }
+
+    private void closeAll(final @NotNull Selector selector) {
+        for (final var key : selector.keys()) {
+            close(key);
+        }
+        try {
+            selector.close();
+        } catch (final IOException e) {
+            LOG.trace("Could not close heartbeat selector: {}", e.getMessage());
+        }
+        serverKeys = List.of();
+        serverChannels = List.of();
+        this.selector = null;
+    }
+
+    /**
+     * A response that is rendered off the selector thread, with the request fields for the access log. The fields are
+     * published to the render thread by the executor and back to the selector thread by the queue of renderings.
+     */
+    private static final class Rendering {
+
+        private final @NotNull Supplier<byte[]> renderer;
+        private final @NotNull String contentType;
+        private final boolean keepAlive;
+        private final @Nullable String path;
+        private @Nullable SelectionKey key;
+        private @Nullable InetSocketAddress remoteAddress;
+        private int listener;
+        private long startNanos;
+        // null if the rendering failed
+        private byte @Nullable [] body;
+        // the encoded response, null for the metrics document whose responses are shared
+        private @Nullable ByteBuffer response;
+
+        private Rendering(
+                final @NotNull Supplier<byte[]> renderer,
+                final @NotNull String contentType,
+                final boolean keepAlive,
+                final @Nullable String path) {
+            this.renderer = renderer;
+            this.contentType = contentType;
+            this.keepAlive = keepAlive;
+            this.path = path;
+        }
+
+        private @NotNull Rendering forRequest(
+                final @NotNull SelectionKey key,
+                final @Nullable InetSocketAddress remoteAddress,
+                final int listener,
+                final long startNanos) {
+            this.key = key;
+            this.remoteAddress = remoteAddress;
+            this.listener = listener;
+            this.startNanos = startNanos;
+            return this;
+        }
+    }
+
+    /**
+     * The immutable endpoints of a listener, replaced as a whole when the endpoints are updated.
+     */
+    private static final class Routes {
+
+        // ordered from the longest to the shortest path, a null probe routes to the health detail, the metrics, the
+        // probers or the watch endpoint
+        private final byte @NotNull [] @NotNull [] paths;
+        private final @NotNull String @NotNull [] names;
+        private final @Nullable Probe @NotNull [] probes;
+        // the index of the metrics path, or -1 if the metrics endpoint is disabled
+        private final int metricsRoute;
+        // the index of the probers path, or -1 if the probers endpoint is disabled
+        private final int probersRoute;
+        // the index of the watch path, or -1 if the watch endpoint is disabled
+        private final int watchRoute;
+        private final @NotNull HealthDetailCache healthDetailCache;
+        private final @NotNull PrometheusExposition prometheusExposition;
+        private final @Nullable ProberTracker proberTracker;
+        private final int top;
+
+        private static @NotNull Routes @NotNull [] of(
+                final @NotNull Heartbeat heartbeat,
+                final @NotNull ReadinessMonitor readinessMonitor,
+                final @NotNull MetricRegistry metricRegistry,
+                final @Nullable ProberTracker proberTracker) {
+            // the listeners share one cache, so the detail is serialized once per state change and the metrics once
+            // per max-age
+            final var healthDetailCache = new HealthDetailCache(readinessMonitor, heartbeat.getDetailMaxAge());
+            final var prometheusExposition = new PrometheusExposition(metricRegistry, heartbeat.getMetricsMaxAge());
+            final var listeners = ListenerEndpoints.of(heartbeat);
+            final var routes = new Routes[listeners.size()];
+            for (var i = 0; i < routes.length; i++) {
+                routes[i] = new Routes(listeners.get(i),
+                        healthDetailCache,
+                        prometheusExposition,
+                        proberTracker,
+                        heartbeat.getProberStatistics().getTop(),
+                        heartbeat.getWatch().isEnabled());
+            }
+            return routes;
+        }
+
+        private Routes(
+                final @NotNull ListenerEndpoints listener,
+                final @NotNull HealthDetailCache healthDetailCache,
+                final @NotNull PrometheusExposition prometheusExposition,
+                final @Nullable ProberTracker proberTracker,
+                final int top,
+                final boolean watchEnabled) {
+            final var routes = new ArrayList<Map.Entry<String, Probe>>(listener.getProbePaths().entrySet());
+            final var detailPath = listener.getDetailPath();
+            if (!detailPath.isEmpty()) {
+                routes.add(new AbstractMap.SimpleImmutableEntry<>(detailPath, null));
+            }
+            final var metricsPath = listener.getMetricsPath();
+            if (!metricsPath.isEmpty()) {
+                routes.add(new AbstractMap.SimpleImmutableEntry<>(metricsPath, null));
+            }
+            // the probers endpoint is only served if the remote addresses are tracked
+            final var probersPath = proberTracker != null ? listener.getProbersPath() : "";
+            if (!probersPath.isEmpty()) {
+                routes.add(new AbstractMap.SimpleImmutableEntry<>(probersPath, null));
+            }
+            final var watchPath = watchEnabled ? listener.getWatchPath() : "";
+            if (!watchPath.isEmpty()) {
+                routes.add(new AbstractMap.SimpleImmutableEntry<>(watchPath, null));
+            }
+            routes.sort(Comparator.comparingInt((Map.Entry<String, Probe> route) -> route.getKey().length())
+                    .reversed());
+            this.paths = new byte[routes.size()][];
+            this.names = new String[routes.size()];
+            this.probes = new Probe[routes.size()];
+            var metricsIndex = -1;
+            var probersIndex = -1;
+            var watchIndex = -1;
+            for (var i = 0; i < routes.size(); i++) {
+                names[i] = routes.get(i).getKey();
+                paths[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+                probes[i] = routes.get(i).getValue();
+                if (names[i].equals(metricsPath)) {
+                    metricsIndex = i;
+                } else if (names[i].equals(probersPath)) {
+                    probersIndex = i;
+                } else if (names[i].equals(watchPath)) {
+                    watchIndex = i;
+                }
+            }
+            this.metricsRoute = metricsIndex;
+            this.probersRoute = probersIndex;
+            this.watchRoute = watchIndex;
+            this.healthDetailCache = healthDetailCache;
+            this.prometheusExposition = prometheusExposition;
+            this.proberTracker = proberTracker;
+            this.top = top;
+        }
+
+        private int route(final @NotNull NioConnection connection) {
+            for (var i = 0; i < paths.length; i++) {
+                if (connection.matchesPath(paths[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
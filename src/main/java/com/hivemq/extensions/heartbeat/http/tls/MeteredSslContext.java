@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.tls;
+
+import com.codahale.metrics.Counter;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.security.SecureRandom;
+
+/**
+ * {@link SSLContext} that delegates to an initialized context of the JDK and wraps every created engine into a
+ * {@link MeteredSslEngine}.
+ *
+ * @since  1.2.0
+ */
+final class MeteredSslContext extends SSLContext {
+
+    MeteredSslContext(
+            final @NotNull SSLContext delegate,
+            final @NotNull Counter fullHandshakes,
+            final @NotNull Counter resumedHandshakes) {
+        super(new Spi(delegate, fullHandshakes, resumedHandshakes), delegate.getProvider(), delegate.getProtocol());
+    }
+
+    private static final class Spi extends SSLContextSpi {
+
+        private final @NotNull SSLContext delegate;
+        private final @NotNull Counter fullHandshakes;
+        private final @NotNull Counter resumedHandshakes;
+
+        private Spi(
+                final @NotNull SSLContext delegate,
+                final @NotNull Counter fullHandshakes,
+                final @NotNull Counter resumedHandshakes) {
+            this.delegate = delegate;
+            this.fullHandshakes = fullHandshakes;
+            this.resumedHandshakes = resumedHandshakes;
+        }
+
+        @Override
+        protected void engineInit(
+                final @NotNull KeyManager @NotNull [] keyManagers,
+                final @NotNull TrustManager @NotNull [] trustManagers,
+                final @NotNull SecureRandom secureRandom) {
+            throw new UnsupportedOperationException("The delegate context is already initialized");
+        }
+
+        @Override
+        protected @NotNull SSLSocketFactory engineGetSocketFactory() {
+            return delegate.getSocketFactory();
+        }
+
+        @Override
+        protected @NotNull SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected @NotNull SSLEngine engineCreateSSLEngine() {
+            return new MeteredSslEngine(delegate.createSSLEngine(), fullHandshakes, resumedHandshakes);
+        }
+
+        @Override
+        protected @NotNull SSLEngine engineCreateSSLEngine(final @NotNull String host, final int port) {
+            return new MeteredSslEngine(delegate.createSSLEngine(host, port), fullHandshakes, resumedHandshakes);
+        }
+
+        @Override
+        protected @NotNull SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected @NotNull SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected @NotNull SSLParameters engineGetDefaultSSLParameters() {
+            return delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected @NotNull SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.tls;
+
+import com.codahale.metrics.Counter;
+import com.hivemq.extension.sdk.api.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.nio.ByteBuffer;
+
+/**
+ * Server {@link SSLEngine} that delegates to the engine of the JDK and counts its first handshake as either a full or
+ * a resumed handshake.
+ * <p>
+ * The JDK does not expose whether a session was resumed. A resumed session, from the session cache or from a session
+ * ticket, keeps the creation time of the session it was resumed from, while a full handshake creates a new session.
+ * So a handshake is counted as resumed if its session was created before this engine.
+ *
+ * @since  1.2.0
+ */
+@NotThreadSafe
+final class MeteredSslEngine extends SSLEngine {
+
+    private final @NotNull SSLEngine delegate;
+    private final @NotNull Counter fullHandshakes;
+    private final @NotNull Counter resumedHandshakes;
+    private final long createdMillis = System.currentTimeMillis();
+    private boolean handshakeRecorded;
+
+    MeteredSslEngine(
+            final @NotNull SSLEngine delegate,
+            final @NotNull Counter fullHandshakes,
+            final @NotNull Counter resumedHandshakes) {
+        super(delegate.getPeerHost(), delegate.getPeerPort());
+        this.delegate = delegate;
+        this.fullHandshakes = fullHandshakes;
+        this.resumedHandshakes = resumedHandshakes;
+    }
+
+    @Override
+    public @NotNull SSLEngineResult wrap(
+            final @NotNull ByteBuffer @NotNull [] srcs,
+            final int offset,
+            final int length,
+            final @NotNull ByteBuffer dst) throws SSLException {
+        return record(delegate.wrap(srcs, offset, length, dst));
+    }
+
+    @Override
+    public @NotNull SSLEngineResult unwrap(
+            final @NotNull ByteBuffer src,
+            final @NotNull ByteBuffer @NotNull [] dsts,
+            final int offset,
+            final int length) throws SSLException {
+        return record(delegate.unwrap(src, dsts, offset, length));
+    }
+
+    private @NotNull SSLEngineResult record(final @NotNull SSLEngineResult result) {
+        if (!handshakeRecorded && result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED) {
+            // later handshakes on the same connection, e.g. a TLS 1.3 key update, are not counted
+            handshakeRecorded = true;
+            if (delegate.getSession().getCreationTime() < createdMillis) {
+                resumedHandshakes.inc();
+            } else {
+                fullHandshakes.inc();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public @Nullable Runnable getDelegatedTask() {
+        return delegate.getDelegatedTask();
+    }
+
+    @Override
+    public void closeInbound() throws SSLException {
+        delegate.closeInbound();
+    }
+
+    @Override
+    public boolean isInboundDone() {
+        return delegate.isInboundDone();
+    }
+
+    @Override
+    public void closeOutbound() {
+        delegate.closeOutbound();
+    }
+
+    @Override
+    public boolean isOutboundDone() {
+        return delegate.isOutboundDone();
+    }
+
+    @Override
+    public @NotNull String @NotNull [] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public @NotNull String @NotNull [] getEnabledCipherSuites() {
+        return delegate.getEnabledCipherSuites();
+    }
+
+    @Override
+    public void setEnabledCipherSuites(final @NotNull String @NotNull [] suites) {
+        delegate.setEnabledCipherSuites(suites);
+    }
+
+    @Override
+    public @NotNull String @NotNull [] getSupportedProtocols() {
+        return delegate.getSupportedProtocols();
+    }
+
+    @Override
+    public @NotNull String @NotNull [] getEnabledProtocols() {
+        return delegate.getEnabledProtocols();
+    }
+
+    @Override
+    public void setEnabledProtocols(final @NotNull String @NotNull [] protocols) {
+        delegate.setEnabledProtocols(protocols);
+    }
+
+    @Override
+    public @NotNull SSLSession getSession() {
+        return delegate.getSession();
+    }
+
+    @Override
+    public @Nullable SSLSession getHandshakeSession() {
+        return delegate.getHandshakeSession();
+    }
+
+    @Override
+    public void beginHandshake() throws SSLException {
+        delegate.beginHandshake();
+    }
+
+    @Override
+    public @NotNull SSLEngineResult.HandshakeStatus getHandshakeStatus() {
+        return delegate.getHandshakeStatus();
+    }
+
+    @Override
+    public void setUseClientMode(final boolean mode) {
+        delegate.setUseClientMode(mode);
+    }
+
+    @Override
+    public boolean getUseClientMode() {
+        return delegate.getUseClientMode();
+    }
+
+    @Override
+    public void setNeedClientAuth(final boolean need) {
+        delegate.setNeedClientAuth(need);
+    }
+
+    @Override
+    public boolean getNeedClientAuth() {
+        return delegate.getNeedClientAuth();
+    }
+
+    @Override
+    public void setWantClientAuth(final boolean want) {
+        delegate.setWantClientAuth(want);
+    }
+
+    @Override
+    public boolean getWantClientAuth() {
+        return delegate.getWantClientAuth();
+    }
+
+    @Override
+    public void setEnableSessionCreation(final boolean flag) {
+        delegate.setEnableSessionCreation(flag);
+    }
+
+    @Override
+    public boolean getEnableSessionCreation() {
+        return delegate.getEnableSessionCreation();
+    }
+
+    @Override
+    public @NotNull SSLParameters getSSLParameters() {
+        return delegate.getSSLParameters();
+    }
+
+    @Override
+    public void setSSLParameters(final @NotNull SSLParameters params) {
+        delegate.setSSLParameters(params);
+    }
+
+    @Override
+    public @Nullable String getApplicationProtocol() {
+        return delegate.getApplicationProtocol();
+    }
+
+    @Override
+    public @Nullable String getHandshakeApplicationProtocol() {
+        return delegate.getHandshakeApplicationProtocol();
+    }
+}
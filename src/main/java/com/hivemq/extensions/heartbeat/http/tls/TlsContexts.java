@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.tls;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.Tls;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+
+/**
+ * Creates the {@link SSLContext} of the HTTPS listeners from the {@link Tls} configuration.
+ * <p>
+ * The server session cache of the context is sized and timed out as configured, so probes that reconnect within the
+ * session timeout resume their session instead of doing a full handshake. Since Java 13 the JDK additionally issues
+ * stateless session tickets, unless the system property {@value SESSION_TICKET_PROPERTY} is {@code false}, so resumed
+ * sessions do not depend on the size of the cache.
+ * <p>
+ * Every handshake is counted in {@value FULL_HANDSHAKES_COUNTER} or {@value RESUMED_HANDSHAKES_COUNTER}, see
+ * {@link MeteredSslEngine}.
+ *
+ * @since  1.2.0
+ */
+public final class TlsContexts {
+
+    public static final @NotNull String FULL_HANDSHAKES_COUNTER = "http-heartbeat-tls-full-handshakes-counter";
+    public static final @NotNull String RESUMED_HANDSHAKES_COUNTER = "http-heartbeat-tls-resumed-handshakes-counter";
+
+    private static final @NotNull String SESSION_TICKET_PROPERTY = "jdk.tls.server.enableSessionTicketExtension";
+    private static final int SESSION_TICKET_JAVA_VERSION = 13;
+
+    private TlsContexts() {
+    }
+
+    /**
+     * Loads the keystore and creates the server context.
+     *
+     * @param  tls            the validated TLS configuration with an absolute keystore path
+     * @param  metricRegistry the registry in which the handshake counters are created
+     * @return                the initialized context
+     * @throws IOException    if the keystore cannot be read or does not contain a usable key
+     */
+    public static @NotNull SSLContext create(final @NotNull Tls tls, final @NotNull MetricRegistry metricRegistry)
+            throws IOException {
+        final var keystorePassword = tls.getKeystorePassword().toCharArray();
+        final var privateKeyPassword =
+                tls.getPrivateKeyPassword().isEmpty() ? keystorePassword : tls.getPrivateKeyPassword().toCharArray();
+        try (final var in = Files.newInputStream(Path.of(tls.getKeystorePath()))) {
+            final var keyStore = KeyStore.getInstance(tls.getKeystoreType());
+            keyStore.load(in, keystorePassword);
+            final var keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, privateKeyPassword);
+            final var context = SSLContext.getInstance("TLS");
+            context.init(keyManagerFactory.getKeyManagers(), null, null);
+            final var sessionContext = context.getServerSessionContext();
+            sessionContext.setSessionCacheSize(tls.getSessionCacheSize());
+            sessionContext.setSessionTimeout(tls.getSessionTimeout());
+            return new MeteredSslContext(context,
+                    metricRegistry.counter(FULL_HANDSHAKES_COUNTER),
+                    metricRegistry.counter(RESUMED_HANDSHAKES_COUNTER));
+        } catch (final GeneralSecurityException e) {
+            throw new IOException("Could not load TLS keystore " + tls.getKeystorePath() + ": " + e.getMessage(), e);
+        } finally {
+            Arrays.fill(keystorePassword, '\0');
+            Arrays.fill(privateKeyPassword, '\0');
+        }
+    }
+
+    /**
+     * Returns the parameters of the server connections with the configured protocols.
+     *
+     * @param  context the context created by {@link #create(Tls, MetricRegistry)}
+     * @param  tls     the TLS configuration
+     * @return         the parameters of the server connections
+     */
+    public static @NotNull SSLParameters parameters(final @NotNull SSLContext context, final @NotNull Tls tls) {
+        final var parameters = context.getDefaultSSLParameters();
+        if (!tls.getProtocols().isBlank()) {
+            parameters.setProtocols(Arrays.stream(tls.getProtocols().split(","))
+                    .map(String::trim)
+                    .filter(protocol -> !protocol.isEmpty())
+                    .toArray(String[]::new));
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns whether the JDK issues stateless session tickets.
+     *
+     * @return {@code true} on Java 13 or later unless the tickets are disabled by the system property
+     */
+    public static boolean isSessionTicketEnabled() {
+        return Runtime.version().feature() >= SESSION_TICKET_JAVA_VERSION &&
+                Boolean.parseBoolean(System.getProperty(SESSION_TICKET_PROPERTY, "true"));
+    }
+}
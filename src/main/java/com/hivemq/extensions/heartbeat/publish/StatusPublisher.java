@@ -0,0 +1,253 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.publish;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.http.HealthDetail;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import com.hivemq.extensions.heartbeat.state.ReadinessSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Publishes the readiness of the node as a compact retained JSON message, so MQTT clients can subscribe to the node
+ * status instead of polling the heartbeat endpoints of every node.
+ * <p>
+ * A message is published when the publisher starts, whenever the state of the {@link ReadinessMonitor} changes and
+ * every {@link StatusPublish#getRefreshInterval() refresh interval}. Two messages are at least
+ * {@link StatusPublish#getMinInterval() min interval} apart: all changes within the interval are coalesced into a
+ * single message with the latest state, so a flapping node cannot flood the topic. When the publisher stops, a last
+ * message with the final state is published, e.g. the failed readiness of a draining node.
+ * <p>
+ * The number of published, coalesced and failed messages is exposed via the {@value PUBLISHED_COUNTER},
+ * {@value COALESCED_COUNTER} and {@value FAILED_COUNTER} metrics.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class StatusPublisher {
+
+    public static final @NotNull String PUBLISHED_COUNTER = "http-heartbeat-status-published-counter";
+    public static final @NotNull String COALESCED_COUNTER = "http-heartbeat-status-coalesced-counter";
+    public static final @NotNull String FAILED_COUNTER = "http-heartbeat-status-failed-counter";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(StatusPublisher.class);
+
+    private final @NotNull StatusPublish statusPublish;
+    private final @NotNull ReadinessMonitor readinessMonitor;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull BiFunction<String, byte[], CompletionStage<Void>> publisher;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull String node;
+    private final @NotNull String topic;
+    private final @NotNull Runnable readinessListener = this::onReadinessChange;
+    private final @NotNull AtomicBoolean pending = new AtomicBoolean();
+    private final long minIntervalNanos;
+
+    private volatile @Nullable Counter publishedCounter;
+    private volatile @Nullable Counter coalescedCounter;
+    private volatile @Nullable Counter failedCounter;
+    private volatile @Nullable ScheduledFuture<?> refreshFuture;
+    private volatile boolean running;
+
+    // guarded by this
+    private long publishedVersion = -1;
+    private long lastPublishNanos;
+
+    /**
+     * Creates a new status publisher.
+     *
+     * @param statusPublish    the status publish configuration
+     * @param node             the name of the node, replaces the {@value StatusPublish#NODE_PLACEHOLDER} placeholder
+     *                         of the topic
+     * @param readinessMonitor the monitor providing the readiness snapshots
+     * @param scheduler        the scheduler that runs the delayed and periodic publishes
+     * @param publisher        publishes a retained message with the given topic and payload
+     * @param metricRegistry   the registry for the publish metrics
+     */
+    public StatusPublisher(
+            final @NotNull StatusPublish statusPublish,
+            final @NotNull String node,
+            final @NotNull ReadinessMonitor readinessMonitor,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull BiFunction<String, byte[], CompletionStage<Void>> publisher,
+            final @NotNull MetricRegistry metricRegistry) {
+        this.statusPublish = statusPublish;
+        this.readinessMonitor = readinessMonitor;
+        this.scheduler = scheduler;
+        this.publisher = publisher;
+        this.metricRegistry = metricRegistry;
+        this.node = node;
+        this.topic = statusPublish.getTopic().replace(StatusPublish.NODE_PLACEHOLDER, node);
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(statusPublish.getMinInterval());
+    }
+
+    /**
+     * Publishes the current state, starts listening for changes of the readiness and schedules the periodic refresh.
+     */
+    public void start() {
+        publishedCounter = metricRegistry.counter(PUBLISHED_COUNTER);
+        coalescedCounter = metricRegistry.counter(COALESCED_COUNTER);
+        failedCounter = metricRegistry.counter(FAILED_COUNTER);
+        running = true;
+        readinessMonitor.addListener(readinessListener);
+        publish(true);
+        final var refreshInterval = statusPublish.getRefreshInterval();
+        if (refreshInterval > 0) {
+            refreshFuture = scheduler.scheduleWithFixedDelay(() -> publish(true),
+                    refreshInterval,
+                    refreshInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+        LOG.info("Publishing the readiness of node '{}' to topic '{}'", node, topic);
+    }
+
+    /**
+     * Stops listening for changes of the readiness, publishes a pending change and removes the metrics.
+     */
+    public void stop() {
+        readinessMonitor.removeListener(readinessListener);
+        final var future = refreshFuture;
+        if (future != null) {
+            future.cancel(false);
+            refreshFuture = null;
+        }
+        // the final state is published regardless of the min interval, e.g. the drain of the node
+        publish(false);
+        running = false;
+        metricRegistry.remove(PUBLISHED_COUNTER);
+        metricRegistry.remove(COALESCED_COUNTER);
+        metricRegistry.remove(FAILED_COUNTER);
+    }
+
+    /**
+     * Returns the topic the readiness is published to.
+     *
+     * @return the topic with the replaced node placeholder
+     */
+    public @NotNull String getTopic() {
+        return topic;
+    }
+
+    private void onReadinessChange() {
+        if (!running) {
+            return;
+        }
+        if (!pending.compareAndSet(false, true)) {
+            // the change is part of the already scheduled publish
+            increment(coalescedCounter);
+            return;
+        }
+        final long delayNanos;
+        synchronized (this) {
+            delayNanos = Math.max(0, lastPublishNanos + minIntervalNanos - System.nanoTime());
+        }
+        try {
+            scheduler.schedule(() -> {
+                pending.set(false);
+                publish(false);
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            pending.set(false);
+            LOG.debug("Could not schedule the publish of the readiness, the scheduler is shut down");
+        }
+    }
+
+    private synchronized void publish(final boolean refresh) {
+        if (!running) {
+            return;
+        }
+        final var snapshot = readinessMonitor.getSnapshot();
+        if (!refresh && snapshot.getVersion() == publishedVersion) {
+            return;
+        }
+        publishedVersion = snapshot.getVersion();
+        lastPublishNanos = System.nanoTime();
+        final var payload = encode(node, snapshot, Instant.now());
+        try {
+            // published while holding the lock, so the messages are passed to HiveMQ in the order of the states
+            publisher.apply(topic, payload).whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    increment(publishedCounter);
+                } else {
+                    increment(failedCounter);
+                    LOG.debug("Could not publish the readiness to topic '{}'", topic, throwable);
+                }
+            });
+        } catch (final RuntimeException e) {
+            increment(failedCounter);
+            LOG.debug("Could not publish the readiness to topic '{}'", topic, e);
+        }
+    }
+
+    /**
+     * Encodes the readiness of the node as compact JSON.
+     *
+     * @param  node     the name of the node
+     * @param  snapshot the readiness snapshot
+     * @param  time     the time of the publish
+     * @return          the UTF-8 encoded JSON payload
+     */
+    static byte @NotNull [] encode(
+            final @NotNull String node,
+            final @NotNull ReadinessSnapshot snapshot,
+            final @NotNull Instant time) {
+        final var json = new StringBuilder(192).append("{\"node\":");
+        HealthDetail.appendString(json, node);
+        json.append(",\"ready\":")
+                .append(snapshot.isReady())
+                .append(",\"status\":")
+                .append(snapshot.getStatusCode())
+                .append(",\"stage\":");
+        HealthDetail.appendString(json, snapshot.getStage().name());
+        json.append(",\"failing\":[");
+        var first = true;
+        for (final var check : snapshot.getChecks()) {
+            if (!check.isHealthy()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                HealthDetail.appendString(json, check.getName());
+            }
+        }
+        json.append("],\"version\":").append(snapshot.getVersion()).append(",\"time\":");
+        HealthDetail.appendString(json, time.toString());
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void increment(final @Nullable Counter counter) {
+        if (counter != null) {
+            counter.inc();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.state;
+
+/**
+ * The kinds of probes that are answered by the heartbeat endpoints, each with its own semantics.
+ *
+ * @since  1.2.0
+ */
+public enum Probe {
+
+    /**
+     * The JVM and the extension are responsive, i.e. the background refresh of the readiness monitor is running.
+     */
+    LIVENESS,
+
+    /**
+     * HiveMQ has started successfully and all health checks pass.
+     */
+    READINESS,
+
+    /**
+     * HiveMQ has reached the lifecycle stage {@code STARTED_SUCCESSFULLY} at least once.
+     */
+    STARTUP
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.state;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.annotations.ThreadSafe;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.health.HealthCheckFactory;
+import com.hivemq.extensions.heartbeat.health.HealthCheckResult;
+import com.hivemq.extensions.heartbeat.health.HealthCheckStatus;
+import com.hivemq.extensions.heartbeat.health.ScheduledHealthCheck;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Samples the HiveMQ lifecycle stage in the background and publishes it together with the last known results of the
+ * {@link ScheduledHealthCheck health checks} as an immutable {@link ReadinessSnapshot}.
+ * <p>
+ * Heartbeat requests only read the latest snapshot from a single volatile field, so the number of load balancers and
+ * monitoring systems polling the endpoint does not increase the load on the HiveMQ admin service. The stage is sampled
+ * every {@link Heartbeat#getStatePollInterval() state poll interval} plus a random
+ * {@link Heartbeat#getStatePollJitter() jitter}, so the refreshes of all cluster nodes do not line up. The health
+ * checks are evaluated on their own schedules, and a new snapshot is published whenever one of their statuses changes.
+ * <p>
+ * Besides the readiness, the monitor answers the other {@link Probe probes} from the same state: the startup probe
+ * passes once HiveMQ has started successfully, and the liveness probe passes as long as the background refresh has run
+ * within the last {@value LIVENESS_MISSED_POLLS} poll intervals. Once the monitor {@link #drain() drains}, the
+ * readiness fails with an additional unhealthy {@value HealthCheckFactory#DRAIN_CHECK} check.
+ * <p>
+ * Listeners that are {@link #addListener(Runnable) added} are notified whenever the state of a new snapshot differs
+ * from the previous snapshot, so streaming endpoints can push changes instead of being polled.
+ * <p>
+ * The age of the current snapshot is exposed via the {@value SNAPSHOT_AGE_GAUGE} metric.
+ *
+ * @since  1.2.0
+ */
+@ThreadSafe
+public class ReadinessMonitor {
+
+    public static final @NotNull String SNAPSHOT_AGE_GAUGE = "http-heartbeat-snapshot-age-millis";
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ReadinessMonitor.class);
+    private static final int LIVENESS_MISSED_POLLS = 10;
+
+    private final @NotNull Heartbeat heartbeat;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull Supplier<LifecycleStage> stageSupplier;
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @NotNull List<ScheduledHealthCheck> healthChecks;
+    private final @NotNull List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final long livenessTimeoutNanos;
+
+    private volatile @NotNull ReadinessSnapshot snapshot;
+    private volatile long lastRefreshNanos;
+    private volatile @Nullable ScheduledFuture<?> refreshFuture;
+    private volatile boolean running;
+    private volatile @Nullable HealthCheckStatus drainStatus;
+
+    /**
+     * Creates a new readiness monitor.
+     *
+     * @param heartbeat      the heartbeat configuration containing the poll interval and jitter
+     * @param scheduler      the scheduler that runs the background refresh
+     * @param stageSupplier  the supplier of the current HiveMQ lifecycle stage
+     * @param metricRegistry the registry for the snapshot age metric
+     */
+    public ReadinessMonitor(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull Supplier<LifecycleStage> stageSupplier,
+            final @NotNull MetricRegistry metricRegistry) {
+        this(heartbeat, scheduler, stageSupplier, metricRegistry, List.of());
+    }
+
+    /**
+     * Creates a new readiness monitor with additional health checks.
+     *
+     * @param heartbeat      the heartbeat configuration containing the poll interval and jitter
+     * @param scheduler      the scheduler that runs the background refresh
+     * @param stageSupplier  the supplier of the current HiveMQ lifecycle stage
+     * @param metricRegistry the registry for the snapshot age metric
+     * @param healthChecks   the health checks that contribute to the readiness, started and stopped by this monitor
+     */
+    public ReadinessMonitor(
+            final @NotNull Heartbeat heartbeat,
+            final @NotNull ScheduledExecutorService scheduler,
+            final @NotNull Supplier<LifecycleStage> stageSupplier,
+            final @NotNull MetricRegistry metricRegistry,
+            final @NotNull List<ScheduledHealthCheck> healthChecks) {
+        this.heartbeat = heartbeat;
+        this.scheduler = scheduler;
+        this.stageSupplier = stageSupplier;
+        this.metricRegistry = metricRegistry;
+        this.healthChecks = List.copyOf(healthChecks);
+        this.livenessTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(LIVENESS_MISSED_POLLS *
+                (heartbeat.getStatePollInterval() + heartbeat.getStatePollJitter()));
+        // HiveMQ is not ready until the first sample says otherwise
+        this.snapshot = ReadinessSnapshot.of(LifecycleStage.STARTING, System.nanoTime(), checkStatuses());
+        this.lastRefreshNanos = snapshot.getTimestampNanos();
+    }
+
+    /**
+     * Takes the first snapshot synchronously and schedules the background refresh and the health checks.
+     */
+    public void start() {
+        running = true;
+        refresh();
+        metricRegistry.register(SNAPSHOT_AGE_GAUGE, (Gauge<Long>) this::getSnapshotAgeMillis);
+        scheduleNextRefresh();
+        for (final var healthCheck : healthChecks) {
+            healthCheck.start(this::publishHealthChecks);
+        }
+        LOG.debug("Started readiness monitor with poll interval {} ms, jitter {} ms and {} health checks",
+                heartbeat.getStatePollInterval(),
+                heartbeat.getStatePollJitter(),
+                healthChecks.size());
+    }
+
+    /**
+     * Cancels the background refresh and the health checks and removes the snapshot age metric.
+     */
+    public void stop() {
+        running = false;
+        final var future = refreshFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+        for (final var healthCheck : healthChecks) {
+            healthCheck.stop();
+        }
+        metricRegistry.remove(SNAPSHOT_AGE_GAUGE);
+    }
+
+    /**
+     * Fails the readiness probe from now on, so load balancers take HiveMQ out of rotation before the heartbeat
+     * endpoints are closed. The liveness and startup probes are not affected.
+     */
+    public void drain() {
+        drainStatus = HealthCheckStatus.of(HealthCheckFactory.DRAIN_CHECK,
+                HealthCheckResult.unhealthy("Draining before shutdown"),
+                System.nanoTime());
+        publishHealthChecks();
+    }
+
+    /**
+     * Adds a listener that is notified after a snapshot with a changed state was published.
+     * <p>
+     * The listener is called on the thread that published the snapshot, e.g. the background refresh, and must not
+     * block. It reads the new state with {@link #getSnapshot()}.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(final @NotNull Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added with {@link #addListener(Runnable)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(final @NotNull Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the latest readiness snapshot.
+     *
+     * @return the latest snapshot, never blocks
+     */
+    public @NotNull ReadinessSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the HTTP status code for the given probe.
+     *
+     * @param  probe the kind of probe
+     * @return       HTTP 200 if the probe passes, HTTP 429 if the readiness only fails because HiveMQ is overloaded,
+     *               HTTP 503 otherwise, never blocks
+     */
+    public int getStatusCode(final @NotNull Probe probe) {
+        switch (probe) {
+            case LIVENESS:
+                return System.nanoTime() - lastRefreshNanos <= livenessTimeoutNanos ?
+                        HttpURLConnection.HTTP_OK :
+                        HttpURLConnection.HTTP_UNAVAILABLE;
+            case STARTUP:
+                return snapshot.getStartupStatusCode();
+            default:
+                return snapshot.getStatusCode();
+        }
+    }
+
+    /**
+     * Returns the age of the latest readiness snapshot.
+     *
+     * @return the snapshot age in milliseconds
+     */
+    public long getSnapshotAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - snapshot.getTimestampNanos());
+    }
+
+    /**
+     * Samples the current lifecycle stage and publishes a new snapshot.
+     * <p>
+     * If the lifecycle stage cannot be sampled, the previous snapshot is kept and the failure is logged.
+     */
+    public void refresh() {
+        // the refresh is running even if the stage cannot be sampled, so the extension is still alive
+        lastRefreshNanos = System.nanoTime();
+        final LifecycleStage stage;
+        try {
+            stage = stageSupplier.get();
+        } catch (final Exception e) {
+            LOG.warn("Could not refresh HiveMQ readiness state, reason: {}", e.getMessage());
+            LOG.debug("Original exception", e);
+            return;
+        }
+        final var timestampNanos = System.nanoTime();
+        final boolean changed;
+        synchronized (this) {
+            final var current = snapshot;
+            snapshot = current.next(stage, timestampNanos, checkStatuses());
+            changed = snapshot.getVersion() != current.getVersion();
+        }
+        if (changed) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Publishes a new snapshot with the latest health check statuses and the last sampled lifecycle stage.
+     */
+    private void publishHealthChecks() {
+        final boolean changed;
+        synchronized (this) {
+            final var current = snapshot;
+            snapshot = current.next(current.getStage(), current.getTimestampNanos(), checkStatuses());
+            changed = snapshot.getVersion() != current.getVersion();
+        }
+        if (changed) {
+            notifyListeners();
+        }
+    }
+
+    private void notifyListeners() {
+        for (final var listener : listeners) {
+            try {
+                listener.run();
+            } catch (final Exception e) {
+                LOG.warn("Readiness listener failed, reason: {}", e.getMessage());
+                LOG.debug("Original exception", e);
+            }
+        }
+    }
+
+    private @NotNull List<HealthCheckStatus> checkStatuses() {
+        final var statuses = new ArrayList<HealthCheckStatus>(healthChecks.size());
+        for (final var healthCheck : healthChecks) {
+            statuses.add(healthCheck.getStatus());
+        }
+        final var currentDrainStatus = drainStatus;
+        if (currentDrainStatus != null) {
+            statuses.add(currentDrainStatus);
+        }
+        return statuses;
+    }
+
+    private void scheduleNextRefresh() {
+        if (!running) {
+            return;
+        }
+        final var jitter = heartbeat.getStatePollJitter();
+        final var delay = heartbeat.getStatePollInterval() +
+                (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        try {
+            refreshFuture = scheduler.schedule(() -> {
+                refresh();
+                scheduleNextRefresh();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the scheduler is shut down together with HiveMQ
+            LOG.debug("Could not schedule readiness refresh, the scheduler is shut down");
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.state;
+
+import com.hivemq.extension.sdk.api.annotations.Immutable;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.health.HealthCheckFactory;
+import com.hivemq.extensions.heartbeat.health.HealthCheckResult;
+import com.hivemq.extensions.heartbeat.health.HealthCheckStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the HiveMQ readiness at a specific point in time.
+ * <p>
+ * A snapshot is created by the {@link ReadinessMonitor} in the background and read by the heartbeat handler, so the
+ * HTTP status code is computed once per refresh and not once per request. HiveMQ is ready if it has started
+ * successfully and the last known results of all health checks are healthy, including stale results.
+ * <p>
+ * Every snapshot carries a version that only changes if the observable state changes, so derived representations
+ * can be cached until the next state change.
+ *
+ * @since  1.2.0
+ */
+@Immutable
+public final class ReadinessSnapshot {
+
+    // not defined by HttpURLConnection
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final @NotNull LifecycleStage stage;
+    private final long timestampNanos;
+    private final @NotNull List<HealthCheckStatus> checks;
+    private final int statusCode;
+    private final boolean started;
+    private final long version;
+
+    private ReadinessSnapshot(
+            final @NotNull LifecycleStage stage,
+            final long timestampNanos,
+            final @NotNull List<HealthCheckStatus> checks,
+            final int statusCode,
+            final boolean started,
+            final long version) {
+        this.stage = stage;
+        this.timestampNanos = timestampNanos;
+        this.checks = checks;
+        this.statusCode = statusCode;
+        this.started = started;
+        this.version = version;
+    }
+
+    /**
+     * Creates a snapshot for the given lifecycle stage.
+     *
+     * @param  stage          the current HiveMQ lifecycle stage
+     * @param  timestampNanos the {@link System#nanoTime()} at which the stage was sampled
+     * @return                the snapshot with the precomputed HTTP status code
+     */
+    public static @NotNull ReadinessSnapshot of(final @NotNull LifecycleStage stage, final long timestampNanos) {
+        return of(stage, timestampNanos, List.of());
+    }
+
+    /**
+     * Creates a snapshot for the given lifecycle stage and health check results.
+     *
+     * @param  stage          the current HiveMQ lifecycle stage
+     * @param  timestampNanos the {@link System#nanoTime()} at which the stage was sampled
+     * @param  healthChecks   the last known statuses of the health checks
+     * @return                the snapshot with the precomputed HTTP status codes
+     */
+    public static @NotNull ReadinessSnapshot of(
+            final @NotNull LifecycleStage stage,
+            final long timestampNanos,
+            final @NotNull List<HealthCheckStatus> healthChecks) {
+        return create(stage, timestampNanos, healthChecks, false, 0);
+    }
+
+    /**
+     * Creates the snapshot that follows this snapshot.
+     * <p>
+     * The new snapshot has started successfully if this snapshot has, and it keeps the version of this snapshot if the
+     * observable state did not change.
+     *
+     * @param  stage          the current HiveMQ lifecycle stage
+     * @param  timestampNanos the {@link System#nanoTime()} at which the stage was sampled
+     * @param  healthChecks   the last known statuses of the health checks
+     * @return                the next snapshot with the precomputed HTTP status codes
+     */
+    public @NotNull ReadinessSnapshot next(
+            final @NotNull LifecycleStage stage,
+            final long timestampNanos,
+            final @NotNull List<HealthCheckStatus> healthChecks) {
+        final var next = create(stage, timestampNanos, healthChecks, started, version);
+        return next.hasSameState(this) ? next : next.withVersion(version + 1);
+    }
+
+    private static @NotNull ReadinessSnapshot create(
+            final @NotNull LifecycleStage stage,
+            final long timestampNanos,
+            final @NotNull List<HealthCheckStatus> healthChecks,
+            final boolean startedBefore,
+            final long version) {
+        final var started = stage == LifecycleStage.STARTED_SUCCESSFULLY;
+        final var checks = new ArrayList<HealthCheckStatus>(healthChecks.size() + 1);
+        checks.add(HealthCheckStatus.of(HealthCheckFactory.LIFECYCLE_CHECK,
+                started ? HealthCheckResult.healthy(stage.name()) : HealthCheckResult.unhealthy(stage.name()),
+                timestampNanos));
+        checks.addAll(healthChecks);
+        var ready = true;
+        var overloaded = true;
+        for (final var check : checks) {
+            if (!check.isHealthy()) {
+                ready = false;
+                overloaded &= check.getResult().isOverloaded();
+            }
+        }
+        final int statusCode;
+        if (ready) {
+            statusCode = HttpURLConnection.HTTP_OK;
+        } else if (overloaded) {
+            statusCode = HTTP_TOO_MANY_REQUESTS;
+        } else {
+            statusCode = HttpURLConnection.HTTP_UNAVAILABLE;
+        }
+        return new ReadinessSnapshot(stage,
+                timestampNanos,
+                Collections.unmodifiableList(checks),
+                statusCode,
+                startedBefore || started,
+                version);
+    }
+
+    private @NotNull ReadinessSnapshot withVersion(final long version) {
+        return new ReadinessSnapshot(stage, timestampNanos, checks, statusCode, started, version);
+    }
+
+    private boolean hasSameState(final @NotNull ReadinessSnapshot other) {
+        if (stage != other.stage ||
+                statusCode != other.statusCode ||
+                started != other.started ||
+                checks.size() != other.checks.size()) {
+            return false;
+        }
+        for (var i = 0; i < checks.size(); i++) {
+            if (!checks.get(i).hasSameState(other.checks.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sampled HiveMQ lifecycle stage.
+     *
+     * @return the lifecycle stage
+     */
+    public @NotNull LifecycleStage getStage() {
+        return stage;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the lifecycle stage was sampled.
+     *
+     * @return the sample timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Returns the last known statuses of all health checks, starting with the check derived from the lifecycle stage.
+     *
+     * @return the unmodifiable list of health check statuses
+     */
+    public @NotNull List<HealthCheckStatus> getChecks() {
+        return checks;
+    }
+
+    /**
+     * Returns the HTTP status code that is sent to heartbeat clients.
+     *
+     * @return HTTP 200 if HiveMQ has started successfully and all health checks are healthy, HTTP 429 if all failing
+     *         health checks are {@link HealthCheckResult#isOverloaded() overloaded}, HTTP 503 otherwise
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the HTTP status code that is sent to startup probes.
+     *
+     * @return HTTP 200 if HiveMQ has started successfully at least once, HTTP 503 otherwise
+     */
+    public int getStartupStatusCode() {
+        return started ? HttpURLConnection.HTTP_OK : HttpURLConnection.HTTP_UNAVAILABLE;
+    }
+
+    /**
+     * Returns whether HiveMQ has started successfully at least once until this snapshot was taken.
+     *
+     * @return {@code true} if HiveMQ has reached {@link LifecycleStage#STARTED_SUCCESSFULLY}
+     */
+    public boolean hasStarted() {
+        return started;
+    }
+
+    /**
+     * Returns whether HiveMQ was ready when this snapshot was taken.
+     *
+     * @return {@code true} if the status code is HTTP 200
+     */
+    public boolean isReady() {
+        return statusCode == HttpURLConnection.HTTP_OK;
+    }
+
+    /**
+     * Returns the version of the observable state, which only changes if the stage, the status codes or the result of
+     * a health check change.
+     *
+     * @return the state version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ReadinessSnapshot{" +
+                "stage=" +
+                stage +
+                ", timestampNanos=" +
+                timestampNanos +
+                ", checks=" +
+                checks +
+                ", statusCode=" +
+                statusCode +
+                ", started=" +
+                started +
+                ", version=" +
+                version +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigurationWatcherTest {
+
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final @NotNull Semaphore changes = new Semaphore(0);
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void poll_whenConfigFileWritten_thenListenerCalled() throws Exception {
+        final var configFile = tempDir.resolve("config.xml");
+        final var watcher = new ConfigurationWatcher(configFile, scheduler, changes::release, 10);
+        watcher.start();
+
+        Files.writeString(configFile, "<heartbeat-extension-configuration/>");
+
+        assertThat(changes.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+        watcher.stop();
+    }
+
+    @Test
+    void poll_whenOtherFileWritten_thenListenerNotCalled() throws Exception {
+        final var watcher = new ConfigurationWatcher(tempDir.resolve("config.xml"), scheduler, changes::release, 10);
+        watcher.start();
+
+        Files.writeString(tempDir.resolve("other.xml"), "<other/>");
+
+        assertThat(changes.tryAcquire(500, TimeUnit.MILLISECONDS)).isFalse();
+        watcher.stop();
+    }
+
+    @Test
+    void start_whenFolderMissing_thenNotWatching() throws IOException {
+        final var configFile = tempDir.resolve("conf").resolve("config.xml");
+        final var watcher = new ConfigurationWatcher(configFile, scheduler, changes::release, 10);
+        watcher.start();
+
+        Files.createDirectories(configFile.getParent());
+        Files.writeString(configFile, "<heartbeat-extension-configuration/>");
+        watcher.poll();
+
+        assertThat(changes.availablePermits()).isEqualTo(0);
+        watcher.stop();
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.configuration;
+
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigurationXmlParserTest {
+
+    private final @NotNull ConfigurationXmlParser parser = new ConfigurationXmlParser();
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @Test
+    void unmarshalExtensionConfig_whenAllElementsConfigured_thenAllValuesRead() throws Exception {
+        final var configFile = tempDir.resolve("config.xml");
+        Files.writeString(configFile, """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <!-- every element of the schema with a non-default value -->
+                <heartbeat-extension-configuration>
+                        <port>4711</port>
+                        <bind-address>127.0.0.1</bind-address>
+                        <path>/alive</path>
+                        <liveness-path>/livez</liveness-path>
+                        <readiness-path></readiness-path>
+                        <startup-path>/startupz</startup-path>
+                        <detail-path>/status</detail-path>
+                        <detail-max-age-seconds>5</detail-max-age-seconds>
+                        <metrics-path>/metrics</metrics-path>
+                        <metrics-max-age-ms>500</metrics-max-age-ms>
+                        <probers-path>/clients</probers-path>
+                        <watch-path>/events</watch-path>
+                        <state-poll-interval-ms>200</state-poll-interval-ms>
+                        <state-poll-jitter-ms>20</state-poll-jitter-ms>
+                        <engine>nio</engine>
+                        <unknown><nested>ignored</nested></unknown>
+                        <executor>
+                                <type>bounded</type>
+                                <threads>4</threads>
+                                <queue-size>16</queue-size>
+                                <rejection-policy>caller-runs</rejection-policy>
+                        </executor>
+                        <connections>
+                                <keep-alive>false</keep-alive>
+                                <max-connections>10</max-connections>
+                                <idle-timeout-ms>1000</idle-timeout-ms>
+                                <request-timeout-ms>500</request-timeout-ms>
+                        </connections>
+                        <socket-options>
+                                <backlog>2048</backlog>
+                                <reuse-port>true</reuse-port>
+                                <acceptors>2</acceptors>
+                                <tcp-no-delay>false</tcp-no-delay>
+                        </socket-options>
+                        <rate-limit>
+                                <requests-per-second>50</requests-per-second>
+                                <burst>5</burst>
+                                <max-clients>64</max-clients>
+                                <action>drop</action>
+                        </rate-limit>
+                        <tls>
+                                <keystore-path>/opt/hivemq/conf/heartbeat.p12</keystore-path>
+                                <keystore-password>secret</keystore-password>
+                                <keystore-type>JKS</keystore-type>
+                                <private-key-password>key-secret</private-key-password>
+                                <protocols>TLSv1.3, TLSv1.2</protocols>
+                                <session-cache-size>128</session-cache-size>
+                                <session-timeout-seconds>300</session-timeout-seconds>
+                        </tls>
+                        <access-log>
+                                <enabled>true</enabled>
+                                <file>/var/log/hivemq/heartbeat-access.log</file>
+                                <buffer-size>4096</buffer-size>
+                                <overflow>drop-oldest</overflow>
+                                <flush-interval-ms>250</flush-interval-ms>
+                                <max-file-size-mb>20</max-file-size-mb>
+                                <max-files>3</max-files>
+                        </access-log>
+                        <prober-statistics>
+                                <enabled>true</enabled>
+                                <max-probers>256</max-probers>
+                                <top>5</top>
+                        </prober-statistics>
+                        <watch>
+                                <enabled>true</enabled>
+                                <max-streams>10</max-streams>
+                                <keep-alive-interval-ms>5000</keep-alive-interval-ms>
+                        </watch>
+                        <layer4>
+                                <bind-address>10.0.0.1</bind-address>
+                                <tcp-port>9191</tcp-port>
+                                <udp-port>9192</udp-port>
+                        </layer4>
+                        <grpc-health>
+                                <bind-address>10.0.0.1</bind-address>
+                                <port>9193</port>
+                                <max-streams>10</max-streams>
+                        </grpc-health>
+                        <status-publish>
+                                <enabled>true</enabled>
+                                <topic>status/{node}</topic>
+                                <qos>2</qos>
+                                <message-expiry-seconds>600</message-expiry-seconds>
+                        </status-publish>
+                        <drain>
+                                <check-interval-ms>5000</check-interval-ms>
+                                <unhealthy-threshold>3</unhealthy-threshold>
+                        </drain>
+                        <listeners>
+                                <listener>
+                                        <port>4712</port>
+                                </listener>
+                                <listener>
+                                        <port>4713</port>
+                                        <bind-address>::</bind-address>
+                                        <path></path>
+                                        <detail-path>/details</detail-path>
+                                        <metrics-path>/prometheus</metrics-path>
+                                        <probers-path></probers-path>
+                                        <watch-path></watch-path>
+                                </listener>
+                        </listeners>
+                        <health-checks>
+                                <listeners>
+                                        <interval-ms>2000</interval-ms>
+                                        <deadline-ms>500</deadline-ms>
+                                </listeners>
+                                <resources>
+                                        <enabled>0</enabled>
+                                        <min-free-heap-percent>10</min-free-heap-percent>
+                                        <min-free-disk-mb>1024</min-free-disk-mb>
+                                </resources>
+                                <overload>
+                                        <interval-ms>500</interval-ms>
+                                        <status-code>429</status-code>
+                                        <thresholds>
+                                                <threshold>
+                                                        <metric>com.hivemq.networking.connections.current</metric>
+                                                        <max>10000</max>
+                                                </threshold>
+                                        </thresholds>
+                                </overload>
+                                <custom>
+                                        <enabled>false</enabled>
+                                </custom>
+                        </health-checks>
+                </heartbeat-extension-configuration>
+                """);
+
+        final var heartbeat = parser.unmarshalExtensionConfig(configFile.toFile());
+
+        assertThat(heartbeat.getPort()).isEqualTo(4711);
+        assertThat(heartbeat.getBindAddress()).isEqualTo("127.0.0.1");
+        assertThat(heartbeat.getPath()).isEqualTo("/alive");
+        assertThat(heartbeat.getLivenessPath()).isEqualTo("/livez");
+        assertThat(heartbeat.getReadinessPath()).isEmpty();
+        assertThat(heartbeat.getStartupPath()).isEqualTo("/startupz");
+        assertThat(heartbeat.getDetailPath()).isEqualTo("/status");
+        assertThat(heartbeat.getDetailMaxAge()).isEqualTo(5);
+        assertThat(heartbeat.getMetricsPath()).isEqualTo("/metrics");
+        assertThat(heartbeat.getMetricsMaxAge()).isEqualTo(500);
+        assertThat(heartbeat.getProbersPath()).isEqualTo("/clients");
+        assertThat(heartbeat.getWatchPath()).isEqualTo("/events");
+        assertThat(heartbeat.getStatePollInterval()).isEqualTo(200);
+        assertThat(heartbeat.getStatePollJitter()).isEqualTo(20);
+        assertThat(heartbeat.getEngine()).isEqualTo("nio");
+        assertThat(heartbeat.getExecutor().getType()).isEqualTo("bounded");
+        assertThat(heartbeat.getExecutor().getThreads()).isEqualTo(4);
+        assertThat(heartbeat.getExecutor().getQueueSize()).isEqualTo(16);
+        assertThat(heartbeat.getExecutor().getRejectionPolicy()).isEqualTo("caller-runs");
+        assertThat(heartbeat.getConnections().isKeepAlive()).isFalse();
+        assertThat(heartbeat.getConnections().getMaxConnections()).isEqualTo(10);
+        assertThat(heartbeat.getConnections().getIdleTimeout()).isEqualTo(1000);
+        assertThat(heartbeat.getConnections().getRequestTimeout()).isEqualTo(500);
+        assertThat(heartbeat.getSocketOptions().getBacklog()).isEqualTo(2048);
+        assertThat(heartbeat.getSocketOptions().isReusePort()).isTrue();
+        assertThat(heartbeat.getSocketOptions().getAcceptors()).isEqualTo(2);
+        assertThat(heartbeat.getSocketOptions().isTcpNoDelay()).isFalse();
+        assertThat(heartbeat.getRateLimit().getRequestsPerSecond()).isEqualTo(50);
+        assertThat(heartbeat.getRateLimit().getBurst()).isEqualTo(5);
+        assertThat(heartbeat.getRateLimit().getMaxClients()).isEqualTo(64);
+        assertThat(heartbeat.getRateLimit().getAction()).isEqualTo("drop");
+        assertThat(heartbeat.getTls().getKeystorePath()).isEqualTo("/opt/hivemq/conf/heartbeat.p12");
+        assertThat(heartbeat.getTls().getKeystorePassword()).isEqualTo("secret");
+        assertThat(heartbeat.getTls().getKeystoreType()).isEqualTo("JKS");
+        assertThat(heartbeat.getTls().getPrivateKeyPassword()).isEqualTo("key-secret");
+        assertThat(heartbeat.getTls().getProtocols()).isEqualTo("TLSv1.3, TLSv1.2");
+        assertThat(heartbeat.getTls().getSessionCacheSize()).isEqualTo(128);
+        assertThat(heartbeat.getTls().getSessionTimeout()).isEqualTo(300);
+        assertThat(heartbeat.getAccessLog().isEnabled()).isTrue();
+        assertThat(heartbeat.getAccessLog().getFile()).isEqualTo("/var/log/hivemq/heartbeat-access.log");
+        assertThat(heartbeat.getAccessLog().getBufferSize()).isEqualTo(4096);
+        assertThat(heartbeat.getAccessLog().getOverflow()).isEqualTo("drop-oldest");
+        assertThat(heartbeat.getAccessLog().getFlushInterval()).isEqualTo(250);
+        assertThat(heartbeat.getAccessLog().getMaxFileSize()).isEqualTo(20);
+        assertThat(heartbeat.getAccessLog().getMaxFiles()).isEqualTo(3);
+        assertThat(heartbeat.getProberStatistics().isEnabled()).isTrue();
+        assertThat(heartbeat.getProberStatistics().getMaxProbers()).isEqualTo(256);
+        assertThat(heartbeat.getProberStatistics().getTop()).isEqualTo(5);
+        assertThat(heartbeat.getWatch().isEnabled()).isTrue();
+        assertThat(heartbeat.getWatch().getMaxStreams()).isEqualTo(10);
+        assertThat(heartbeat.getWatch().getKeepAliveInterval()).isEqualTo(5000);
+        assertThat(heartbeat.getLayer4().getBindAddress()).isEqualTo("10.0.0.1");
+        assertThat(heartbeat.getLayer4().getTcpPort()).isEqualTo(9191);
+        assertThat(heartbeat.getLayer4().getUdpPort()).isEqualTo(9192);
+        assertThat(heartbeat.getGrpcHealth().getBindAddress()).isEqualTo("10.0.0.1");
+        assertThat(heartbeat.getGrpcHealth().getPort()).isEqualTo(9193);
+        assertThat(heartbeat.getGrpcHealth().getMaxStreams()).isEqualTo(10);
+        assertThat(heartbeat.getStatusPublish().isEnabled()).isTrue();
+        assertThat(heartbeat.getStatusPublish().getTopic()).isEqualTo("status/{node}");
+        assertThat(heartbeat.getStatusPublish().getQos()).isEqualTo(2);
+        assertThat(heartbeat.getStatusPublish().getMessageExpiry()).isEqualTo(600);
+        assertThat(heartbeat.getDrain().getCheckInterval()).isEqualTo(5000);
+        assertThat(heartbeat.getDrain().getUnhealthyThreshold()).isEqualTo(3);
+        assertThat(heartbeat.getListeners()).hasSize(2);
+        assertThat(heartbeat.getListeners().get(0).getPort()).isEqualTo(4712);
+        assertThat(heartbeat.getListeners().get(0).getBindAddress()).isNull();
+        assertThat(heartbeat.getListeners().get(0).getPath()).isNull();
+        assertThat(heartbeat.getListeners().get(1).getPort()).isEqualTo(4713);
+        assertThat(heartbeat.getListeners().get(1).getBindAddress()).isEqualTo("::");
+        assertThat(heartbeat.getListeners().get(1).getPath()).isEmpty();
+        assertThat(heartbeat.getListeners().get(1).getDetailPath()).isEqualTo("/details");
+        assertThat(heartbeat.getListeners().get(1).getMetricsPath()).isEqualTo("/prometheus");
+        assertThat(heartbeat.getListeners().get(1).getProbersPath()).isEmpty();
+        assertThat(heartbeat.getListeners().get(1).getWatchPath()).isEmpty();
+        assertThat(heartbeat.getHealthChecks().getListeners().isEnabled()).isTrue();
+        assertThat(heartbeat.getHealthChecks().getListeners().getInterval()).isEqualTo(2000);
+        assertThat(heartbeat.getHealthChecks().getListeners().getDeadline()).isEqualTo(500);
+        assertThat(heartbeat.getHealthChecks().getResources().isEnabled()).isFalse();
+        assertThat(heartbeat.getHealthChecks().getResources().getMinFreeHeapPercent()).isEqualTo(10);
+        assertThat(heartbeat.getHealthChecks().getResources().getMinFreeDisk()).isEqualTo(1024);
+        assertThat(heartbeat.getHealthChecks().getOverload().getInterval()).isEqualTo(500);
+        assertThat(heartbeat.getHealthChecks().getOverload().getStatusCode()).isEqualTo(429);
+        assertThat(heartbeat.getHealthChecks().getOverload().getThresholds()).hasSize(1);
+        assertThat(heartbeat.getHealthChecks().getOverload().getThresholds().get(0).getMetric()).isEqualTo(
+                "com.hivemq.networking.connections.current");
+        assertThat(heartbeat.getHealthChecks().getOverload().getThresholds().get(0).getMax()).isEqualTo(10_000);
+        assertThat(heartbeat.getHealthChecks().getCustom().isEnabled()).isFalse();
+    }
+
+    @Test
+    void unmarshalExtensionConfig_whenInvalidNumber_thenDefault() throws IOException {
+        final var configFile = tempDir.resolve("config.xml");
+        Files.writeString(configFile, """
+                <heartbeat-extension-configuration>
+                        <port>not-a-port</port>
+                        <state-poll-interval-ms> 250 </state-poll-interval-ms>
+                </heartbeat-extension-configuration>
+                """);
+
+        final var heartbeat = parser.unmarshalExtensionConfig(configFile.toFile());
+
+        assertThat(heartbeat.getPort()).isEqualTo(new Heartbeat().getPort());
+        assertThat(heartbeat.getStatePollInterval()).isEqualTo(250);
+    }
+
+    @Test
+    void unmarshalExtensionConfig_whenUnexpectedRootElement_thenIOException() throws IOException {
+        final var configFile = tempDir.resolve("config.xml");
+        Files.writeString(configFile, "<heartbeat><port>4711</port></heartbeat>");
+
+        assertThatThrownBy(() -> parser.unmarshalExtensionConfig(configFile.toFile())).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void unmarshalExtensionConfig_whenExternalEntity_thenIOException() throws IOException {
+        final var configFile = tempDir.resolve("config.xml");
+        Files.writeString(configFile, """
+                <?xml version="1.0"?>
+                <!DOCTYPE heartbeat-extension-configuration [<!ENTITY port SYSTEM "file:///etc/hostname">]>
+                <heartbeat-extension-configuration><path>&port;</path></heartbeat-extension-configuration>
+                """);
+
+        assertThatThrownBy(() -> parser.unmarshalExtensionConfig(configFile.toFile())).isInstanceOf(IOException.class);
+    }
+}
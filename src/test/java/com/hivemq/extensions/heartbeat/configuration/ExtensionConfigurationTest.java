@@ -16,7 +16,21 @@
 
 package com.hivemq.extensions.heartbeat.configuration;
 
+import com.hivemq.extensions.heartbeat.configuration.entities.AccessLog;
+import com.hivemq.extensions.heartbeat.configuration.entities.CheckSchedule;
+import com.hivemq.extensions.heartbeat.configuration.entities.Connections;
+import com.hivemq.extensions.heartbeat.configuration.entities.Drain;
+import com.hivemq.extensions.heartbeat.configuration.entities.GrpcHealth;
 import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.Layer4;
+import com.hivemq.extensions.heartbeat.configuration.entities.OverloadCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.ProberStatistics;
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import com.hivemq.extensions.heartbeat.configuration.entities.ResourcesCheck;
+import com.hivemq.extensions.heartbeat.configuration.entities.SocketOptions;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.configuration.entities.Tls;
+import com.hivemq.extensions.heartbeat.configuration.entities.Watch;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -123,4 +137,900 @@ class ExtensionConfigurationTest {
         final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
         assertThat(config.getPort()).isEqualTo(9090);
     }
+
+    @Test
+    void statePollConfiguration_ok() throws IOException {
+        final var pollConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <state-poll-interval-ms>250</state-poll-interval-ms>
+                        <state-poll-jitter-ms>0</state-poll-jitter-ms>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), pollConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getStatePollInterval()).isEqualTo(250);
+        assertThat(config.getStatePollJitter()).isEqualTo(0);
+    }
+
+    @Test
+    void statePollConfiguration_Nok() throws IOException {
+        final var pollConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <state-poll-interval-ms>0</state-poll-interval-ms>
+                        <state-poll-jitter-ms>-1</state-poll-jitter-ms>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), pollConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        final var defaultConfig = new Heartbeat();
+        assertThat(config.getStatePollInterval()).isEqualTo(defaultConfig.getStatePollInterval());
+        assertThat(config.getStatePollJitter()).isEqualTo(defaultConfig.getStatePollJitter());
+    }
+
+    @Test
+    void connectionsConfiguration_ok() throws IOException {
+        final var connectionsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <connections>
+                                <keep-alive>false</keep-alive>
+                                <max-connections>16</max-connections>
+                                <idle-timeout-ms>2000</idle-timeout-ms>
+                                <request-timeout-ms>500</request-timeout-ms>
+                        </connections>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), connectionsConfig);
+
+        final var connections = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getConnections();
+        assertThat(connections.isKeepAlive()).isFalse();
+        assertThat(connections.getMaxConnections()).isEqualTo(16);
+        assertThat(connections.getIdleTimeout()).isEqualTo(2000);
+        assertThat(connections.getRequestTimeout()).isEqualTo(500);
+    }
+
+    @Test
+    void connectionsConfiguration_Nok() throws IOException {
+        final var connectionsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <connections>
+                                <max-connections>0</max-connections>
+                                <idle-timeout-ms>-1</idle-timeout-ms>
+                                <request-timeout-ms>0</request-timeout-ms>
+                        </connections>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), connectionsConfig);
+
+        final var connections = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getConnections();
+        final var defaultConnections = new Connections();
+        assertThat(connections.isKeepAlive()).isTrue();
+        assertThat(connections.getMaxConnections()).isEqualTo(defaultConnections.getMaxConnections());
+        assertThat(connections.getIdleTimeout()).isEqualTo(defaultConnections.getIdleTimeout());
+        assertThat(connections.getRequestTimeout()).isEqualTo(defaultConnections.getRequestTimeout());
+    }
+
+    @Test
+    void socketOptionsConfiguration_ok() throws IOException {
+        final var socketOptionsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <engine>nio</engine>
+                        <socket-options>
+                                <backlog>4096</backlog>
+                                <reuse-address>false</reuse-address>
+                                <reuse-port>true</reuse-port>
+                                <acceptors>4</acceptors>
+                                <tcp-no-delay>false</tcp-no-delay>
+                                <send-buffer-size>65536</send-buffer-size>
+                                <receive-buffer-size>32768</receive-buffer-size>
+                        </socket-options>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), socketOptionsConfig);
+
+        final var socketOptions =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getSocketOptions();
+        assertThat(socketOptions.getBacklog()).isEqualTo(4096);
+        assertThat(socketOptions.isReuseAddress()).isFalse();
+        assertThat(socketOptions.isReusePort()).isTrue();
+        assertThat(socketOptions.getAcceptors()).isEqualTo(4);
+        assertThat(socketOptions.isTcpNoDelay()).isFalse();
+        assertThat(socketOptions.getSendBufferSize()).isEqualTo(65536);
+        assertThat(socketOptions.getReceiveBufferSize()).isEqualTo(32768);
+    }
+
+    @Test
+    void socketOptionsConfiguration_Nok() throws IOException {
+        final var socketOptionsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <socket-options>
+                                <backlog>0</backlog>
+                                <acceptors>4</acceptors>
+                                <send-buffer-size>-1</send-buffer-size>
+                                <receive-buffer-size>-1</receive-buffer-size>
+                        </socket-options>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), socketOptionsConfig);
+
+        final var socketOptions =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getSocketOptions();
+        // several acceptors require reuse-port
+        assertThat(socketOptions).isEqualTo(new SocketOptions());
+    }
+
+    @Test
+    void rateLimitConfiguration_ok() throws IOException {
+        final var rateLimitConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <rate-limit>
+                                <requests-per-second>5</requests-per-second>
+                                <burst>20</burst>
+                                <max-clients>256</max-clients>
+                                <action>drop</action>
+                        </rate-limit>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), rateLimitConfig);
+
+        final var rateLimit = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getRateLimit();
+        assertThat(rateLimit.isEnabled()).isTrue();
+        assertThat(rateLimit.getRequestsPerSecond()).isEqualTo(5);
+        assertThat(rateLimit.getBurst()).isEqualTo(20);
+        assertThat(rateLimit.getMaxClients()).isEqualTo(256);
+        assertThat(rateLimit.getAction()).isEqualTo(RateLimit.ACTION_DROP);
+    }
+
+    @Test
+    void rateLimitConfiguration_Nok() throws IOException {
+        final var rateLimitConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <rate-limit>
+                                <requests-per-second>-1</requests-per-second>
+                                <burst>0</burst>
+                                <max-clients>0</max-clients>
+                                <action>ignore</action>
+                        </rate-limit>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), rateLimitConfig);
+
+        final var rateLimit = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getRateLimit();
+        assertThat(rateLimit).isEqualTo(new RateLimit());
+        assertThat(rateLimit.isEnabled()).isFalse();
+    }
+
+    @Test
+    void tlsConfiguration_ok() throws IOException {
+        final var tlsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <engine>nio</engine>
+                        <tls>
+                                <keystore-path>conf/heartbeat.p12</keystore-path>
+                                <keystore-password>changeit</keystore-password>
+                                <protocols>TLSv1.3</protocols>
+                                <session-cache-size>64</session-cache-size>
+                                <session-timeout-seconds>600</session-timeout-seconds>
+                        </tls>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), tlsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        final var tls = config.getTls();
+        assertThat(tls.isEnabled()).isTrue();
+        assertThat(tls.getKeystorePath()).isEqualTo(tempDir.resolve("conf/heartbeat.p12").toString());
+        assertThat(tls.getKeystoreType()).isEqualTo("PKCS12");
+        assertThat(tls.getProtocols()).isEqualTo("TLSv1.3");
+        assertThat(tls.getSessionCacheSize()).isEqualTo(64);
+        assertThat(tls.getSessionTimeout()).isEqualTo(600);
+        assertThat(config.getEngine()).isEqualTo(Heartbeat.ENGINE_JDK);
+    }
+
+    @Test
+    void tlsConfiguration_Nok() throws IOException {
+        final var tlsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <engine>nio</engine>
+                        <tls>
+                                <session-cache-size>0</session-cache-size>
+                                <session-timeout-seconds>-1</session-timeout-seconds>
+                        </tls>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), tlsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getTls()).isEqualTo(new Tls());
+        assertThat(config.getTls().isEnabled()).isFalse();
+        assertThat(config.getEngine()).isEqualTo(Heartbeat.ENGINE_NIO);
+    }
+
+    @Test
+    void accessLogConfiguration_ok() throws IOException {
+        final var accessLogConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <access-log>
+                                <enabled>true</enabled>
+                                <file>logs/heartbeat-access.log</file>
+                                <buffer-size>1024</buffer-size>
+                                <overflow>drop-oldest</overflow>
+                                <flush-interval-ms>100</flush-interval-ms>
+                                <max-file-size-mb>1</max-file-size-mb>
+                                <max-files>2</max-files>
+                        </access-log>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), accessLogConfig);
+
+        final var accessLog = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getAccessLog();
+        assertThat(accessLog.isEnabled()).isTrue();
+        assertThat(accessLog.getFile()).isEqualTo(tempDir.resolve("logs/heartbeat-access.log").toString());
+        assertThat(accessLog.getBufferSize()).isEqualTo(1024);
+        assertThat(accessLog.getOverflow()).isEqualTo(AccessLog.OVERFLOW_DROP_OLDEST);
+        assertThat(accessLog.getFlushInterval()).isEqualTo(100);
+        assertThat(accessLog.getMaxFileSize()).isEqualTo(1);
+        assertThat(accessLog.getMaxFiles()).isEqualTo(2);
+    }
+
+    @Test
+    void accessLogConfiguration_Nok() throws IOException {
+        final var accessLogConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <access-log>
+                                <enabled>true</enabled>
+                                <file> </file>
+                                <buffer-size>0</buffer-size>
+                                <overflow>block</overflow>
+                                <flush-interval-ms>0</flush-interval-ms>
+                                <max-file-size-mb>-1</max-file-size-mb>
+                                <max-files>0</max-files>
+                        </access-log>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), accessLogConfig);
+
+        final var accessLog = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getAccessLog();
+        final var expected = new AccessLog();
+        expected.setEnabled(true);
+        expected.setFile(tempDir.resolve(expected.getFile()).toString());
+        assertThat(accessLog).isEqualTo(expected);
+    }
+
+    @Test
+    void drainConfiguration_ok() throws IOException {
+        final var drainConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <drain>
+                                <check-interval-ms>5000</check-interval-ms>
+                                <unhealthy-threshold>3</unhealthy-threshold>
+                        </drain>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), drainConfig);
+
+        final var drain = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getDrain();
+        assertThat(drain.isEnabled()).isTrue();
+        assertThat(drain.getCheckInterval()).isEqualTo(5000);
+        assertThat(drain.getUnhealthyThreshold()).isEqualTo(3);
+        assertThat(drain.getWindow()).isEqualTo(15000L);
+    }
+
+    @Test
+    void drainConfiguration_Nok() throws IOException {
+        final var drainConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <drain>
+                                <check-interval-ms>-1</check-interval-ms>
+                                <unhealthy-threshold>0</unhealthy-threshold>
+                        </drain>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), drainConfig);
+
+        final var drain = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getDrain();
+        assertThat(drain).isEqualTo(new Drain());
+        assertThat(drain.isEnabled()).isFalse();
+    }
+
+    @Test
+    void probePathsConfiguration_ok() throws IOException {
+        final var probePathsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <liveness-path>/livez</liveness-path>
+                        <readiness-path></readiness-path>
+                        <startup-path>startup</startup-path>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), probePathsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getLivenessPath()).isEqualTo("/livez");
+        assertThat(config.getReadinessPath()).isEmpty();
+        assertThat(config.getStartupPath()).isEqualTo(new Heartbeat().getStartupPath());
+    }
+
+    @Test
+    void detailConfiguration_ok() throws IOException {
+        final var detailConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <detail-path>/status</detail-path>
+                        <detail-max-age-seconds>10</detail-max-age-seconds>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), detailConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getDetailPath()).isEqualTo("/status");
+        assertThat(config.getDetailMaxAge()).isEqualTo(10);
+    }
+
+    @Test
+    void detailConfiguration_Nok() throws IOException {
+        final var detailConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <detail-path>status</detail-path>
+                        <detail-max-age-seconds>-1</detail-max-age-seconds>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), detailConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        final var defaults = new Heartbeat();
+        assertThat(config.getDetailPath()).isEqualTo(defaults.getDetailPath());
+        assertThat(config.getDetailMaxAge()).isEqualTo(defaults.getDetailMaxAge());
+    }
+
+    @Test
+    void metricsConfiguration_ok() throws IOException {
+        final var metricsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <metrics-path>/metrics</metrics-path>
+                        <metrics-max-age-ms>5000</metrics-max-age-ms>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <metrics-path>/prometheus</metrics-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), metricsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getMetricsPath()).isEqualTo("/metrics");
+        assertThat(config.getMetricsMaxAge()).isEqualTo(5000L);
+        assertThat(config.getListeners().get(0).getMetricsPath()).isEqualTo("/prometheus");
+    }
+
+    @Test
+    void metricsConfiguration_Nok() throws IOException {
+        final var metricsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <metrics-path>metrics</metrics-path>
+                        <metrics-max-age-ms>-1</metrics-max-age-ms>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <metrics-path>prometheus</metrics-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), metricsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        final var defaults = new Heartbeat();
+        assertThat(config.getMetricsPath()).isEqualTo(defaults.getMetricsPath());
+        assertThat(config.getMetricsMaxAge()).isEqualTo(defaults.getMetricsMaxAge());
+        assertThat(config.getListeners().get(0).getMetricsPath()).isNull();
+    }
+
+    @Test
+    void proberStatisticsConfiguration_ok() throws IOException {
+        final var proberStatisticsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <probers-path>/clients</probers-path>
+                        <prober-statistics>
+                                <enabled>true</enabled>
+                                <max-probers>100</max-probers>
+                                <top>5</top>
+                        </prober-statistics>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <probers-path></probers-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), proberStatisticsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getProbersPath()).isEqualTo("/clients");
+        assertThat(config.getListeners().get(0).getProbersPath()).isEmpty();
+        final var proberStatistics = config.getProberStatistics();
+        assertThat(proberStatistics.isEnabled()).isTrue();
+        assertThat(proberStatistics.getMaxProbers()).isEqualTo(100);
+        assertThat(proberStatistics.getTop()).isEqualTo(5);
+    }
+
+    @Test
+    void proberStatisticsConfiguration_Nok() throws IOException {
+        final var proberStatisticsConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <probers-path>clients</probers-path>
+                        <prober-statistics>
+                                <enabled>true</enabled>
+                                <max-probers>0</max-probers>
+                                <top>-1</top>
+                        </prober-statistics>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <probers-path>clients</probers-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), proberStatisticsConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getProbersPath()).isEqualTo(new Heartbeat().getProbersPath());
+        assertThat(config.getListeners().get(0).getProbersPath()).isNull();
+        final var expected = new ProberStatistics();
+        expected.setEnabled(true);
+        assertThat(config.getProberStatistics()).isEqualTo(expected);
+    }
+
+    @Test
+    void watchConfiguration_ok() throws IOException {
+        final var watchConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <engine>nio</engine>
+                        <watch-path>/events</watch-path>
+                        <watch>
+                                <enabled>true</enabled>
+                                <max-streams>10</max-streams>
+                                <keep-alive-interval-ms>5000</keep-alive-interval-ms>
+                        </watch>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <watch-path></watch-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), watchConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getWatchPath()).isEqualTo("/events");
+        assertThat(config.getListeners().get(0).getWatchPath()).isEmpty();
+        final var watch = config.getWatch();
+        assertThat(watch.isEnabled()).isTrue();
+        assertThat(watch.getMaxStreams()).isEqualTo(10);
+        assertThat(watch.getKeepAliveInterval()).isEqualTo(5000);
+    }
+
+    @Test
+    void watchConfiguration_Nok() throws IOException {
+        final var watchConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <engine>jdk</engine>
+                        <watch-path>events</watch-path>
+                        <watch>
+                                <enabled>true</enabled>
+                                <max-streams>0</max-streams>
+                                <keep-alive-interval-ms>-1</keep-alive-interval-ms>
+                        </watch>
+                        <listeners>
+                                <listener>
+                                        <port>9091</port>
+                                        <watch-path>events</watch-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), watchConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getWatchPath()).isEqualTo(new Heartbeat().getWatchPath());
+        assertThat(config.getListeners().get(0).getWatchPath()).isNull();
+        // the watch endpoint requires the nio engine
+        assertThat(config.getWatch()).isEqualTo(new Watch());
+    }
+
+    @Test
+    void layer4Configuration_ok() throws IOException {
+        final var layer4Config = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <layer4>
+                                <bind-address>127.0.0.1</bind-address>
+                                <tcp-port>9191</tcp-port>
+                                <udp-port>9192</udp-port>
+                        </layer4>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), layer4Config);
+
+        final var layer4 = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getLayer4();
+        assertThat(layer4.getBindAddress()).isEqualTo("127.0.0.1");
+        assertThat(layer4.getTcpPort()).isEqualTo(9191);
+        assertThat(layer4.getUdpPort()).isEqualTo(9192);
+        assertThat(layer4.isEnabled()).isTrue();
+    }
+
+    @Test
+    void layer4Configuration_Nok() throws IOException {
+        final var layer4Config = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <layer4>
+                                <tcp-port>-1</tcp-port>
+                                <udp-port>65536</udp-port>
+                        </layer4>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), layer4Config);
+
+        final var layer4 = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getLayer4();
+        assertThat(layer4).isEqualTo(new Layer4());
+        assertThat(layer4.isEnabled()).isFalse();
+    }
+
+    @Test
+    void grpcHealthConfiguration_ok() throws IOException {
+        final var grpcHealthConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <grpc-health>
+                                <bind-address>127.0.0.1</bind-address>
+                                <port>9193</port>
+                                <max-streams>10</max-streams>
+                        </grpc-health>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), grpcHealthConfig);
+
+        final var grpcHealth = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getGrpcHealth();
+        assertThat(grpcHealth.getBindAddress()).isEqualTo("127.0.0.1");
+        assertThat(grpcHealth.getPort()).isEqualTo(9193);
+        assertThat(grpcHealth.getMaxStreams()).isEqualTo(10);
+        assertThat(grpcHealth.isEnabled()).isTrue();
+    }
+
+    @Test
+    void grpcHealthConfiguration_Nok() throws IOException {
+        final var grpcHealthConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <grpc-health>
+                                <port>65536</port>
+                                <max-streams>0</max-streams>
+                        </grpc-health>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), grpcHealthConfig);
+
+        final var grpcHealth = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getGrpcHealth();
+        assertThat(grpcHealth).isEqualTo(new GrpcHealth());
+        assertThat(grpcHealth.isEnabled()).isFalse();
+    }
+
+    @Test
+    void statusPublishConfiguration_ok() throws IOException {
+        final var statusPublishConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <status-publish>
+                                <enabled>true</enabled>
+                                <topic>status/{node}/ready</topic>
+                                <qos>0</qos>
+                                <min-interval-ms>500</min-interval-ms>
+                                <refresh-interval-ms>0</refresh-interval-ms>
+                                <message-expiry-seconds>300</message-expiry-seconds>
+                        </status-publish>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), statusPublishConfig);
+
+        final var statusPublish =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getStatusPublish();
+        assertThat(statusPublish.isEnabled()).isTrue();
+        assertThat(statusPublish.getTopic()).isEqualTo("status/{node}/ready");
+        assertThat(statusPublish.getQos()).isEqualTo(0);
+        assertThat(statusPublish.getMinInterval()).isEqualTo(500);
+        assertThat(statusPublish.getRefreshInterval()).isEqualTo(0);
+        assertThat(statusPublish.getMessageExpiry()).isEqualTo(300);
+    }
+
+    @Test
+    void statusPublishConfiguration_Nok() throws IOException {
+        final var statusPublishConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <status-publish>
+                                <topic>status/+/ready</topic>
+                                <qos>3</qos>
+                                <min-interval-ms>-1</min-interval-ms>
+                                <refresh-interval-ms>-1</refresh-interval-ms>
+                                <message-expiry-seconds>-1</message-expiry-seconds>
+                        </status-publish>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), statusPublishConfig);
+
+        final var statusPublish =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getStatusPublish();
+        assertThat(statusPublish).isEqualTo(new StatusPublish());
+        assertThat(statusPublish.isEnabled()).isFalse();
+    }
+
+    @Test
+    void listenersConfiguration_ok() throws IOException {
+        final var listenersConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <listeners>
+                                <listener>
+                                        <port>9090</port>
+                                </listener>
+                                <listener>
+                                        <port>9091</port>
+                                        <bind-address>::</bind-address>
+                                        <readiness-path>/ready</readiness-path>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), listenersConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getListeners()).hasSize(2);
+        assertThat(config.getListeners().get(0).getPort()).isEqualTo(9090);
+        assertThat(config.getListeners().get(0).getBindAddress()).isNull();
+        assertThat(config.getListeners().get(1).getBindAddress()).isEqualTo("::");
+        assertThat(config.getListeners().get(1).getReadinessPath()).isEqualTo("/ready");
+        assertThat(config.getListeners().get(1).getPath()).isNull();
+    }
+
+    @Test
+    void listenersConfiguration_Nok() throws IOException {
+        final var listenersConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <bind-address>127.0.0.1</bind-address>
+                        <listeners>
+                                <listener>
+                                        <bind-address>::</bind-address>
+                                </listener>
+                                <listener>
+                                        <port>9090</port>
+                                        <liveness-path>live</liveness-path>
+                                </listener>
+                                <listener>
+                                        <port>9090</port>
+                                        <bind-address>127.0.0.1</bind-address>
+                                </listener>
+                        </listeners>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), listenersConfig);
+
+        final var config = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig();
+        assertThat(config.getListeners()).hasSize(1);
+        assertThat(config.getListeners().get(0).getPort()).isEqualTo(9090);
+        assertThat(config.getListeners().get(0).getLivenessPath()).isNull();
+    }
+
+    @Test
+    void reload_whenFileChanged_thenNewConfiguration() throws IOException {
+        final var configFile = tempDir.resolve("extension-config.xml");
+        Files.writeString(configFile, """
+                <heartbeat-extension-configuration>
+                        <port>4711</port>
+                </heartbeat-extension-configuration>
+                """);
+        final var extensionConfiguration = new ExtensionConfiguration(tempDir.toFile());
+        assertThat(extensionConfiguration.getHeartbeatConfig().getPort()).isEqualTo(4711);
+
+        Files.writeString(configFile, """
+                <heartbeat-extension-configuration>
+                        <port>4712</port>
+                </heartbeat-extension-configuration>
+                """);
+        final var reloaded = extensionConfiguration.reload();
+
+        assertThat(reloaded).isNotNull();
+        assertThat(reloaded.getPort()).isEqualTo(4712);
+        assertThat(extensionConfiguration.getHeartbeatConfig()).isSameAs(reloaded);
+    }
+
+    @Test
+    void reload_whenFileInvalid_thenCurrentConfigurationKept() throws IOException {
+        final var configFile = tempDir.resolve("extension-config.xml");
+        Files.writeString(configFile, """
+                <heartbeat-extension-configuration>
+                        <port>4711</port>
+                </heartbeat-extension-configuration>
+                """);
+        final var extensionConfiguration = new ExtensionConfiguration(tempDir.toFile());
+        final var current = extensionConfiguration.getHeartbeatConfig();
+
+        Files.writeString(configFile, "<heartbeat-extension-configuration><port>47");
+
+        assertThat(extensionConfiguration.reload()).isNull();
+        assertThat(extensionConfiguration.getHeartbeatConfig()).isSameAs(current);
+    }
+
+    @Test
+    void healthChecksConfiguration_ok() throws IOException {
+        final var healthChecksConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <health-checks>
+                                <listeners>
+                                        <interval-ms>2000</interval-ms>
+                                        <deadline-ms>500</deadline-ms>
+                                </listeners>
+                                <resources>
+                                        <min-free-heap-percent>10</min-free-heap-percent>
+                                        <min-free-disk-mb>1024</min-free-disk-mb>
+                                </resources>
+                                <custom>
+                                        <enabled>false</enabled>
+                                </custom>
+                        </health-checks>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), healthChecksConfig);
+
+        final var healthChecks = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getHealthChecks();
+        assertThat(healthChecks.getListeners().isEnabled()).isTrue();
+        assertThat(healthChecks.getListeners().getInterval()).isEqualTo(2000);
+        assertThat(healthChecks.getListeners().getDeadline()).isEqualTo(500);
+        assertThat(healthChecks.getResources().isEnabled()).isTrue();
+        assertThat(healthChecks.getResources().getMinFreeHeapPercent()).isEqualTo(10);
+        assertThat(healthChecks.getResources().getMinFreeDisk()).isEqualTo(1024);
+        assertThat(healthChecks.getCustom().isEnabled()).isFalse();
+    }
+
+    @Test
+    void healthChecksConfiguration_whenNotConfigured_thenOnlyCustomEnabled() {
+        final var healthChecks = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getHealthChecks();
+        assertThat(healthChecks.getListeners().isEnabled()).isFalse();
+        assertThat(healthChecks.getResources().isEnabled()).isFalse();
+        assertThat(healthChecks.getOverload().isEnabled()).isFalse();
+        assertThat(healthChecks.getCustom().isEnabled()).isTrue();
+    }
+
+    @Test
+    void healthChecksConfiguration_Nok() throws IOException {
+        final var healthChecksConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <health-checks>
+                                <listeners>
+                                        <interval-ms>0</interval-ms>
+                                        <deadline-ms>-1</deadline-ms>
+                                </listeners>
+                                <resources>
+                                        <min-free-heap-percent>100</min-free-heap-percent>
+                                        <min-free-disk-mb>-1</min-free-disk-mb>
+                                </resources>
+                        </health-checks>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), healthChecksConfig);
+
+        final var healthChecks = new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getHealthChecks();
+        final var defaultSchedule = new CheckSchedule();
+        final var defaultResources = new ResourcesCheck();
+        assertThat(healthChecks.getListeners().getInterval()).isEqualTo(defaultSchedule.getInterval());
+        assertThat(healthChecks.getListeners().getDeadline()).isEqualTo(defaultSchedule.getDeadline());
+        assertThat(healthChecks.getResources().getMinFreeHeapPercent()).isEqualTo(
+                defaultResources.getMinFreeHeapPercent());
+        assertThat(healthChecks.getResources().getMinFreeDisk()).isEqualTo(defaultResources.getMinFreeDisk());
+    }
+
+    @Test
+    void overloadConfiguration_ok() throws IOException {
+        final var overloadConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <health-checks>
+                                <overload>
+                                        <status-code>429</status-code>
+                                        <recover-percent>80</recover-percent>
+                                        <thresholds>
+                                                <threshold>
+                                                        <metric>com.hivemq.networking.connections.current</metric>
+                                                        <max>10000</max>
+                                                </threshold>
+                                                <threshold>
+                                                        <metric>com.hivemq.messages.incoming.publish.rate</metric>
+                                                        <max>2500.5</max>
+                                                </threshold>
+                                        </thresholds>
+                                </overload>
+                        </health-checks>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), overloadConfig);
+
+        final var overload =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getHealthChecks().getOverload();
+        assertThat(overload.isEnabled()).isTrue();
+        assertThat(overload.getInterval()).isEqualTo(new OverloadCheck().getInterval());
+        assertThat(overload.getStatusCode()).isEqualTo(OverloadCheck.STATUS_CODE_TOO_MANY_REQUESTS);
+        assertThat(overload.getRecoverPercent()).isEqualTo(80);
+        assertThat(overload.getThresholds()).hasSize(2);
+        assertThat(overload.getThresholds().get(0).getMetric()).isEqualTo(
+                "com.hivemq.networking.connections.current");
+        assertThat(overload.getThresholds().get(1).getMax()).isEqualTo(2500.5);
+    }
+
+    @Test
+    void overloadConfiguration_Nok() throws IOException {
+        final var overloadConfig = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <heartbeat-extension-configuration>
+                        <health-checks>
+                                <overload>
+                                        <status-code>500</status-code>
+                                        <recover-percent>0</recover-percent>
+                                        <thresholds>
+                                                <threshold>
+                                                        <metric> </metric>
+                                                        <max>10</max>
+                                                </threshold>
+                                                <threshold>
+                                                        <metric>com.hivemq.messages.queued.count</metric>
+                                                        <max>-1</max>
+                                                </threshold>
+                                                <threshold>
+                                                        <metric>com.hivemq.networking.connections.current</metric>
+                                                        <max>NaN</max>
+                                                </threshold>
+                                        </thresholds>
+                                </overload>
+                        </health-checks>
+                </heartbeat-extension-configuration>
+                """;
+        Files.writeString(tempDir.resolve("extension-config.xml"), overloadConfig);
+
+        final var overload =
+                new ExtensionConfiguration(tempDir.toFile()).getHeartbeatConfig().getHealthChecks().getOverload();
+        final var defaultOverload = new OverloadCheck();
+        assertThat(overload.getStatusCode()).isEqualTo(defaultOverload.getStatusCode());
+        assertThat(overload.getRecoverPercent()).isEqualTo(defaultOverload.getRecoverPercent());
+        assertThat(overload.getThresholds()).isEmpty();
+    }
 }
+
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.HealthChecks;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HealthCheckFactoryTest {
+
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void create_whenCustomCheckHasOwnSchedule_thenOwnIntervalAndDeadline() throws IOException {
+        final var checks = create(OwnScheduleCheck.class);
+
+        assertThat(checks).hasSize(1);
+        assertThat(checks.get(0).getName()).isEqualTo("own-schedule");
+        assertThat(checks.get(0).getIntervalMillis()).isEqualTo(60_000);
+        assertThat(checks.get(0).getDeadlineMillis()).isEqualTo(10_000);
+    }
+
+    @Test
+    void create_whenCustomCheckHasNoSchedule_thenCustomIntervalAndDeadline() throws IOException {
+        final var checks = create(DefaultScheduleCheck.class);
+
+        assertThat(checks).hasSize(1);
+        assertThat(checks.get(0).getName()).isEqualTo("default-schedule");
+        assertThat(checks.get(0).getIntervalMillis()).isEqualTo(2_000);
+        assertThat(checks.get(0).getDeadlineMillis()).isEqualTo(500);
+    }
+
+    @Test
+    void create_whenCustomCheckTakesBuiltInName_thenIgnored() throws IOException {
+        final var checks = create(LifecycleNamedCheck.class);
+
+        assertThat(checks).isEmpty();
+    }
+
+    private @NotNull List<ScheduledHealthCheck> create(final @NotNull Class<? extends HealthCheck> checkClass)
+            throws IOException {
+        final var services = tempDir.resolve("META-INF/services/" + HealthCheck.class.getName());
+        Files.createDirectories(services.getParent());
+        Files.writeString(services, checkClass.getName() + "\n");
+        final var healthChecks = new HealthChecks();
+        healthChecks.getCustom().setInterval(2_000);
+        healthChecks.getCustom().setDeadline(500);
+        try (final var classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()},
+                getClass().getClassLoader())) {
+            return HealthCheckFactory.create(healthChecks,
+                    scheduler,
+                    List::of,
+                    () -> tempDir.toFile(),
+                    new MetricRegistry(),
+                    classLoader);
+        }
+    }
+
+    public static class OwnScheduleCheck implements HealthCheck {
+
+        @Override
+        public @NotNull String getName() {
+            return "own-schedule";
+        }
+
+        @Override
+        public long getIntervalMillis() {
+            return 60_000;
+        }
+
+        @Override
+        public long getDeadlineMillis() {
+            return 10_000;
+        }
+
+        @Override
+        public @NotNull CompletionStage<HealthCheckResult> check() {
+            return CompletableFuture.completedFuture(HealthCheckResult.healthy());
+        }
+    }
+
+    public static class DefaultScheduleCheck implements HealthCheck {
+
+        @Override
+        public @NotNull String getName() {
+            return "default-schedule";
+        }
+
+        @Override
+        public @NotNull CompletionStage<HealthCheckResult> check() {
+            return CompletableFuture.completedFuture(HealthCheckResult.healthy());
+        }
+    }
+
+    public static class LifecycleNamedCheck implements HealthCheck {
+
+        @Override
+        public @NotNull String getName() {
+            return HealthCheckFactory.LIFECYCLE_CHECK;
+        }
+
+        @Override
+        public @NotNull CompletionStage<HealthCheckResult> check() {
+            return CompletableFuture.completedFuture(HealthCheckResult.healthy());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListenersHealthCheckTest {
+
+    private final @NotNull Executor executor = Runnable::run;
+
+    @Test
+    void check_whenListenerAccepts_thenHealthy() throws Exception {
+        try (final var serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            final var address = new InetSocketAddress("0.0.0.0", serverSocket.getLocalPort());
+            final var check = new ListenersHealthCheck(() -> List.of(address), executor, 1000);
+
+            final var result = check.check().toCompletableFuture().get();
+
+            assertThat(result.isHealthy()).isTrue();
+        }
+    }
+
+    @Test
+    void check_whenListenerClosed_thenUnhealthy() throws Exception {
+        final int port;
+        try (final var serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = serverSocket.getLocalPort();
+        }
+        final var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        final var check = new ListenersHealthCheck(() -> List.of(address), executor, 1000);
+
+        final var result = check.check().toCompletableFuture().get();
+
+        assertThat(result.isHealthy()).isFalse();
+    }
+
+    @Test
+    void check_whenNoListeners_thenUnhealthy() throws Exception {
+        final var check = new ListenersHealthCheck(List::of, executor, 1000);
+
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.MetricThreshold;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OverloadHealthCheckTest {
+
+    private static final @NotNull String CONNECTIONS = "com.hivemq.networking.connections.current";
+    private static final @NotNull String PUBLISH_RATE = "com.hivemq.messages.incoming.publish.rate";
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull AtomicLong connections = new AtomicLong();
+
+    @Test
+    void check_whenGaugeBelowThreshold_thenHealthy() throws Exception {
+        metricRegistry.register(CONNECTIONS, (Gauge<Long>) connections::get);
+        connections.set(50);
+        final var check = check(false, new MetricThreshold(CONNECTIONS, 100));
+
+        final var result = check.check().toCompletableFuture().get();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getMessage()).isEqualTo(CONNECTIONS + " 50 of 100");
+    }
+
+    @Test
+    void check_whenGaugeAboveThreshold_thenUnhealthy() throws Exception {
+        metricRegistry.register(CONNECTIONS, (Gauge<Long>) connections::get);
+        connections.set(150);
+        final var check = check(false, new MetricThreshold(CONNECTIONS, 100));
+
+        final var result = check.check().toCompletableFuture().get();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.isOverloaded()).isFalse();
+        assertThat(result.getMessage()).isEqualTo(CONNECTIONS + " 150 above 100");
+    }
+
+    @Test
+    void check_whenTooManyRequests_thenOverloaded() throws Exception {
+        metricRegistry.counter(CONNECTIONS).inc(150);
+        final var check = check(true, new MetricThreshold(CONNECTIONS, 100));
+
+        final var result = check.check().toCompletableFuture().get();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.isOverloaded()).isTrue();
+    }
+
+    @Test
+    void check_whenExceededGaugeDrops_thenHealthyBelowRecoverShareOnly() throws Exception {
+        metricRegistry.register(CONNECTIONS, (Gauge<Long>) connections::get);
+        final var check = check(false, new MetricThreshold(CONNECTIONS, 100));
+
+        connections.set(110);
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isFalse();
+        connections.set(95);
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isFalse();
+        connections.set(85);
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isTrue();
+        connections.set(95);
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isTrue();
+    }
+
+    @Test
+    void check_whenMeterRateAboveThreshold_thenUnhealthyFromSecondEvaluation() throws Exception {
+        final var meter = metricRegistry.meter(PUBLISH_RATE);
+        final var check = check(false, new MetricThreshold(PUBLISH_RATE, 10));
+
+        meter.mark(1_000);
+        // the first evaluation only takes the count
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isTrue();
+        meter.mark(1_000);
+        Thread.sleep(10);
+        final var result = check.check().toCompletableFuture().get();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).startsWith(PUBLISH_RATE);
+    }
+
+    @Test
+    void check_whenMetricNotRegistered_thenHealthy() throws Exception {
+        final var check = check(false, new MetricThreshold(CONNECTIONS, 100));
+
+        assertThat(check.check().toCompletableFuture().get().isHealthy()).isTrue();
+    }
+
+    private @NotNull OverloadHealthCheck check(
+            final boolean tooManyRequests,
+            final @NotNull MetricThreshold threshold) {
+        return new OverloadHealthCheck(metricRegistry, List.of(threshold), tooManyRequests, 90);
+    }
+}
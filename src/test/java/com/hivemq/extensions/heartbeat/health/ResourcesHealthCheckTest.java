@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourcesHealthCheckTest {
+
+    private static final long MAX_HEAP = 1_000_000;
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @Test
+    void check_whenHeapBelowThreshold_thenUnhealthy() {
+        final var check = new ResourcesHealthCheck(tempDir::toFile, 10, 0, () -> 950_000, () -> MAX_HEAP);
+
+        final var result = check.check().toCompletableFuture().join();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Free heap 5% below 10%");
+    }
+
+    @Test
+    void check_whenHeapAboveThreshold_thenHealthy() {
+        final var check = new ResourcesHealthCheck(tempDir::toFile, 10, 0, () -> 500_000, () -> MAX_HEAP);
+
+        final var result = check.check().toCompletableFuture().join();
+
+        assertThat(result.isHealthy()).isTrue();
+        assertThat(result.getMessage()).startsWith("Free heap 50%, free disk ");
+    }
+
+    @Test
+    void check_whenDiskBelowThreshold_thenUnhealthy() {
+        final var check = new ResourcesHealthCheck(tempDir::toFile, 0, Long.MAX_VALUE, () -> 0, () -> MAX_HEAP);
+
+        final var result = check.check().toCompletableFuture().join();
+
+        assertThat(result.isHealthy()).isFalse();
+        assertThat(result.getMessage()).startsWith("Free disk ");
+    }
+
+    @Test
+    void usedHeapAfterCollection_whenGarbageAllocated_thenNotCounted() {
+        final var usedHeap = ResourcesHealthCheck.usedHeapAfterCollection(ManagementFactory.getMemoryPoolMXBeans());
+        System.gc();
+        final var before = usedHeap.getAsLong();
+
+        // garbage that was not collected yet only grows the current usage of the pools
+        var garbage = new byte[0];
+        for (var i = 0; i < 64; i++) {
+            garbage = new byte[1024 * 1024];
+        }
+
+        assertThat(garbage).hasSize(1024 * 1024);
+        assertThat(usedHeap.getAsLong()).isLessThan(before + 32 * garbage.length);
+    }
+
+    @Test
+    void check_withMemoryPools_thenHealthy() {
+        final var check = new ResourcesHealthCheck(tempDir::toFile, 0, 0);
+
+        final var result = check.check().toCompletableFuture().join();
+
+        assertThat(result.isHealthy()).isTrue();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.health;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduledHealthCheckTest {
+
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final @NotNull AtomicInteger evaluations = new AtomicInteger();
+    private final @NotNull AtomicReference<CompletableFuture<HealthCheckResult>> nextResult =
+            new AtomicReference<>(CompletableFuture.completedFuture(HealthCheckResult.healthy()));
+
+    private final @NotNull HealthCheck check = new HealthCheck() {
+        @Override
+        public @NotNull String getName() {
+            return "test";
+        }
+
+        @Override
+        public @NotNull CompletionStage<HealthCheckResult> check() {
+            evaluations.incrementAndGet();
+            return nextResult.get();
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void status_whenNotEvaluated_thenPendingAndUnhealthy() {
+        final var scheduledCheck = new ScheduledHealthCheck(check, scheduler, 10_000, 100);
+
+        assertThat(scheduledCheck.getStatus().getName()).isEqualTo("test");
+        assertThat(scheduledCheck.getStatus().isHealthy()).isFalse();
+        assertThat(scheduledCheck.getStatus().isStale()).isFalse();
+    }
+
+    @Test
+    void evaluate_whenHealthy_thenStatusHealthyAndListenerCalled() {
+        final var updates = new AtomicInteger();
+        final var scheduledCheck = new ScheduledHealthCheck(check, scheduler, 10_000, 100);
+        scheduledCheck.start(updates::incrementAndGet);
+        try {
+            await(() -> updates.get() > 0);
+            assertThat(scheduledCheck.getStatus().isHealthy()).isTrue();
+            assertThat(scheduledCheck.getStatus().isStale()).isFalse();
+        } finally {
+            scheduledCheck.stop();
+        }
+    }
+
+    @Test
+    void evaluate_whenFailed_thenUnhealthyWithMessage() {
+        nextResult.set(CompletableFuture.failedFuture(new IllegalStateException("disk on fire")));
+        final var scheduledCheck = new ScheduledHealthCheck(check, scheduler, 10_000, 100);
+
+        scheduledCheck.evaluate();
+
+        assertThat(scheduledCheck.getStatus().isHealthy()).isFalse();
+        assertThat(scheduledCheck.getStatus().getResult().getMessage()).isEqualTo("disk on fire");
+    }
+
+    @Test
+    void evaluate_whenDeadlineOverrun_thenLastResultKeptAndStale() {
+        final var scheduledCheck = new ScheduledHealthCheck(check, scheduler, 10_000, 20);
+        scheduledCheck.evaluate();
+        assertThat(scheduledCheck.getStatus().isHealthy()).isTrue();
+
+        final var hanging = new CompletableFuture<HealthCheckResult>();
+        nextResult.set(hanging);
+        scheduledCheck.evaluate();
+        await(() -> scheduledCheck.getStatus().isStale());
+
+        assertThat(scheduledCheck.getStatus().isHealthy()).isTrue();
+
+        hanging.complete(HealthCheckResult.unhealthy("late"));
+        assertThat(scheduledCheck.getStatus().isStale()).isFalse();
+        assertThat(scheduledCheck.getStatus().isHealthy()).isFalse();
+    }
+
+    @Test
+    void evaluate_whenPreviousInFlight_thenNoNewEvaluation() {
+        nextResult.set(new CompletableFuture<>());
+        final var scheduledCheck = new ScheduledHealthCheck(check, scheduler, 10_000, 10_000);
+
+        scheduledCheck.evaluate();
+        scheduledCheck.evaluate();
+
+        assertThat(evaluations.get()).isEqualTo(1);
+    }
+
+    private static void await(final @NotNull BooleanSupplier condition) {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
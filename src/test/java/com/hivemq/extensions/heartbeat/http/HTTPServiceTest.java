@@ -0,0 +1,352 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.Listener;
+import com.hivemq.extensions.heartbeat.http.nio.NioHeartbeatServer;
+import com.hivemq.extensions.heartbeat.http.tls.TlsContexts;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HTTPServiceTest {
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    private @NotNull ScheduledExecutorService scheduler;
+    private @NotNull ReadinessMonitor readinessMonitor;
+    private @NotNull HTTPService httpService;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        readinessMonitor = new ReadinessMonitor(new Heartbeat(),
+                scheduler,
+                () -> LifecycleStage.STARTED_SUCCESSFULLY,
+                metricRegistry);
+        readinessMonitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpService.stopHTTPServer();
+        readinessMonitor.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void reload_whenPortChanged_thenServedOnNewPortOnly() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        start(heartbeat);
+        final var oldPort = heartbeat.getPort();
+
+        final var changed = heartbeat(Heartbeat.ENGINE_NIO);
+        httpService.reload(changed);
+
+        assertThat(get(changed.getPort(), "/heartbeat")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThatThrownBy(() -> get(oldPort, "/heartbeat")).isInstanceOf(ConnectException.class);
+        assertThat(metricRegistry.getGauges()).containsKey(NioHeartbeatServer.OPEN_CONNECTIONS_GAUGE);
+    }
+
+    @Test
+    void reload_whenEngineChangedOnSamePort_thenServedByNewEngine() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_JDK);
+        start(heartbeat);
+
+        final var changed = heartbeat(Heartbeat.ENGINE_NIO);
+        changed.setPort(heartbeat.getPort());
+        httpService.reload(changed);
+
+        // the JDK engine answers with a Date header, the NIO engine does not
+        final var response = get(changed.getPort(), "/heartbeat");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).doesNotContain("Date: ");
+    }
+
+    @Test
+    void reload_whenConnectionsChangedOnSamePort_thenNoProbeRefused() throws Exception {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        start(heartbeat);
+
+        final var refused = new AtomicInteger();
+        final var served = new AtomicInteger();
+        final var probing = new AtomicBoolean(true);
+        final var prober = new Thread(() -> {
+            while (probing.get()) {
+                try {
+                    if (get(heartbeat.getPort(), "/heartbeat").startsWith("HTTP/1.1 200 OK\r\n")) {
+                        served.incrementAndGet();
+                    }
+                } catch (final ConnectException e) {
+                    refused.incrementAndGet();
+                } catch (final IOException e) {
+                    // reset while queued on a listener that is closed, but not refused
+                }
+            }
+        });
+        prober.start();
+        try {
+            for (var i = 0; i < 20; i++) {
+                final var changed = heartbeat(Heartbeat.ENGINE_NIO);
+                changed.setPort(heartbeat.getPort());
+                changed.getConnections().setMaxConnections(100 + i);
+                httpService.reload(changed);
+            }
+        } finally {
+            probing.set(false);
+            prober.join();
+        }
+
+        assertThat(refused.get()).isZero();
+        assertThat(served.get()).isPositive();
+        assertThat(get(heartbeat.getPort(), "/heartbeat")).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void reload_whenPathChanged_thenNewPathServedByJdkEngine() throws IOException {
+        reload_whenPathChanged_thenNewPathServed(Heartbeat.ENGINE_JDK);
+    }
+
+    @Test
+    void reload_whenPathChanged_thenNewPathServedByNioEngine() throws IOException {
+        reload_whenPathChanged_thenNewPathServed(Heartbeat.ENGINE_NIO);
+    }
+
+    private void reload_whenPathChanged_thenNewPathServed(final @NotNull String engine) throws IOException {
+        final var heartbeat = heartbeat(engine);
+        start(heartbeat);
+
+        // keeps the connection open across the update, which must not touch the listener
+        try (final var socket = new Socket("127.0.0.1", heartbeat.getPort())) {
+            final var changed = heartbeat(engine);
+            changed.setPort(heartbeat.getPort());
+            changed.setPath("/alive");
+            changed.setDetailPath("");
+            httpService.reload(changed);
+
+            socket.getOutputStream().write("GET /alive HTTP/1.1\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            assertThat(new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII)).startsWith(
+                    "HTTP/1.1 200 OK\r\n");
+        }
+        assertThat(get(heartbeat.getPort(), "/heartbeat")).startsWith("HTTP/1.1 404 Not Found\r\n");
+        assertThat(get(heartbeat.getPort(), "/health")).startsWith("HTTP/1.1 404 Not Found\r\n");
+        assertThat(get(heartbeat.getPort(), "/readiness")).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void startHttpServer_withListeners_thenEachListenerServesItsPathsByJdkEngine() throws IOException {
+        startHttpServer_withListeners_thenEachListenerServesItsPaths(Heartbeat.ENGINE_JDK);
+    }
+
+    @Test
+    void startHttpServer_withListeners_thenEachListenerServesItsPathsByNioEngine() throws IOException {
+        startHttpServer_withListeners_thenEachListenerServesItsPaths(Heartbeat.ENGINE_NIO);
+    }
+
+    private void startHttpServer_withListeners_thenEachListenerServesItsPaths(final @NotNull String engine)
+            throws IOException {
+        final var heartbeat = heartbeat(engine);
+        final var probeListener = new Listener(null, freePort());
+        probeListener.setDetailPath("");
+        final var detailListener = new Listener("127.0.0.1", freePort());
+        detailListener.setPath("");
+        detailListener.setLivenessPath("");
+        detailListener.setReadinessPath("");
+        detailListener.setStartupPath("");
+        detailListener.setDetailPath("/status");
+        heartbeat.getListeners().add(probeListener);
+        heartbeat.getListeners().add(detailListener);
+        start(heartbeat);
+
+        assertThat(get(probeListener.getPort(), "/heartbeat")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(get(probeListener.getPort(), "/health")).startsWith("HTTP/1.1 404 Not Found\r\n");
+        assertThat(get(detailListener.getPort(), "/status")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(get(detailListener.getPort(), "/heartbeat")).startsWith("HTTP/1.1 404 Not Found\r\n");
+        // the port of the heartbeat is only used without listeners
+        assertThatThrownBy(() -> get(heartbeat.getPort(), "/heartbeat")).isInstanceOf(ConnectException.class);
+
+        final var changed = heartbeat(engine);
+        changed.setPort(heartbeat.getPort());
+        changed.setPath("/alive");
+        changed.getListeners().add(probeListener);
+        changed.getListeners().add(detailListener);
+        httpService.reload(changed);
+
+        assertThat(get(probeListener.getPort(), "/alive")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(get(detailListener.getPort(), "/alive")).startsWith("HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void startHttpServer_withMetricsPath_thenMetricsServedByJdkEngine() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_JDK);
+        heartbeat.setMetricsPath("/metrics");
+        start(heartbeat);
+        metricRegistry.counter("com.hivemq.networking.connections.current").inc(3);
+
+        final var response = get(heartbeat.getPort(), "/metrics");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).contains("\ncom_hivemq_networking_connections_current 3\n");
+
+        final var changed = heartbeat(Heartbeat.ENGINE_JDK);
+        changed.setPort(heartbeat.getPort());
+        httpService.reload(changed);
+        assertThat(get(heartbeat.getPort(), "/metrics")).startsWith("HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void startHttpServer_withProberStatistics_thenProbersServedByNioEngine() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        heartbeat.getProberStatistics().setEnabled(true);
+        start(heartbeat);
+        assertThat(get(heartbeat.getPort(), "/heartbeat")).startsWith("HTTP/1.1 200 OK\r\n");
+
+        final var response = get(heartbeat.getPort(), "/probers");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).contains("{\"tracked\":1,\"probers\":[{\"address\":\"127.0.0.1\",\"requests\":2,");
+        assertThat(metricRegistry.getCounters()).containsKey(ProberTracker.EVICTED_PROBERS_COUNTER);
+    }
+
+    @Test
+    void startHttpServer_withProberStatistics_thenPipelinedRequestAnsweredAfterProbers() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        heartbeat.getProberStatistics().setEnabled(true);
+        start(heartbeat);
+
+        try (final var socket = new Socket("127.0.0.1", heartbeat.getPort())) {
+            socket.getOutputStream().write(("GET /probers HTTP/1.1\r\n\r\nGET /probers HTTP/1.1\r\n\r\n" +
+                    "GET /heartbeat HTTP/1.1\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            final var responses = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(responses).startsWith("HTTP/1.1 200 OK\r\n");
+            assertThat(responses).contains("\"requests\":1,").contains("\"requests\":2,");
+            assertThat(responses.indexOf("\"requests\":1,")).isLessThan(responses.indexOf("\"requests\":2,"));
+            assertThat(responses.substring(responses.indexOf("\"requests\":2,"))).contains("HTTP/1.1 200 OK\r\n");
+        }
+    }
+
+    @Test
+    void startHttpServer_withTls_thenRepeatedConnectionsResumeSession() throws Exception {
+        final var keystore = Path.of(getClass().getResource("/heartbeat-test.p12").toURI());
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_JDK);
+        heartbeat.getTls().setKeystorePath(keystore.toString());
+        heartbeat.getTls().setKeystorePassword("changeit");
+        start(heartbeat);
+
+        final var trustStore = KeyStore.getInstance("PKCS12");
+        try (final var in = Files.newInputStream(keystore)) {
+            trustStore.load(in, "changeit".toCharArray());
+        }
+        final var trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        final var clientContext = SSLContext.getInstance("TLS");
+        clientContext.init(null, trustManagerFactory.getTrustManagers(), null);
+
+        for (int i = 0; i < 3; i++) {
+            try (final var socket = clientContext.getSocketFactory().createSocket("127.0.0.1", heartbeat.getPort())) {
+                assertThat(get(socket, "/heartbeat")).startsWith("HTTP/1.1 200 OK\r\n");
+            }
+        }
+        assertThat(metricRegistry.counter(TlsContexts.FULL_HANDSHAKES_COUNTER).getCount()).isEqualTo(1L);
+        assertThat(metricRegistry.counter(TlsContexts.RESUMED_HANDSHAKES_COUNTER).getCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void drain_whenEnabled_thenReadinessFailsWhileServing() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        heartbeat.getDrain().setCheckInterval(50);
+        heartbeat.getDrain().setUnhealthyThreshold(2);
+        start(heartbeat);
+
+        final var startNanos = System.nanoTime();
+        httpService.drain();
+        assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(100_000_000L);
+
+        assertThat(get(heartbeat.getPort(), "/readiness")).startsWith("HTTP/1.1 503 Service Unavailable\r\n");
+        assertThat(get(heartbeat.getPort(), "/liveness")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(metricRegistry.timer(HTTPService.DRAIN_TIMER).getCount()).isEqualTo(1L);
+        assertThat(metricRegistry.getGauges().get(HTTPService.DRAINING_GAUGE).getValue()).isEqualTo(0);
+    }
+
+    @Test
+    void drain_whenDisabled_thenReadinessUnchanged() throws IOException {
+        final var heartbeat = heartbeat(Heartbeat.ENGINE_NIO);
+        start(heartbeat);
+
+        httpService.drain();
+
+        assertThat(get(heartbeat.getPort(), "/readiness")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(metricRegistry.getTimers()).doesNotContainKey(HTTPService.DRAIN_TIMER);
+    }
+
+    private void start(final @NotNull Heartbeat heartbeat) {
+        httpService = new HTTPService(heartbeat,
+                readinessMonitor,
+                new HeartbeatMetrics(scheduler, metricRegistry),
+                metricRegistry);
+        httpService.startHttpServer();
+    }
+
+    private static @NotNull Heartbeat heartbeat(final @NotNull String engine) throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setBindAddress("127.0.0.1");
+        heartbeat.setEngine(engine);
+        heartbeat.setPort(freePort());
+        return heartbeat;
+    }
+
+    private static int freePort() throws IOException {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static @NotNull String get(final int port, final @NotNull String path) throws IOException {
+        try (final var socket = new Socket("127.0.0.1", port)) {
+            return get(socket, path);
+        }
+    }
+
+    private static @NotNull String get(final @NotNull Socket socket, final @NotNull String path) throws IOException {
+        socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+    }
+}
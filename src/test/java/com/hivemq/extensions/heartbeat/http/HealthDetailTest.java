@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.health.HealthCheckResult;
+import com.hivemq.extensions.heartbeat.health.HealthCheckStatus;
+import com.hivemq.extensions.heartbeat.state.ReadinessSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HealthDetailTest {
+
+    @Test
+    void of_thenJsonContainsStageAndChecks() {
+        final var snapshot = ReadinessSnapshot.of(LifecycleStage.STARTED_SUCCESSFULLY,
+                System.nanoTime(),
+                List.of(HealthCheckStatus.of("custom", HealthCheckResult.unhealthy("quote \" and\nnewline"), 0)));
+
+        final var detail = HealthDetail.of(snapshot, 0, 0);
+
+        assertThat(new String(detail.getBody(), StandardCharsets.UTF_8)).isEqualTo(
+                "{\"ready\":false,\"started\":true,\"stage\":\"STARTED_SUCCESSFULLY\"," +
+                        "\"start-time\":\"1970-01-01T00:00:00Z\",\"checks\":[" +
+                        "{\"name\":\"lifecycle\",\"healthy\":true,\"stale\":false," +
+                        "\"message\":\"STARTED_SUCCESSFULLY\"}," +
+                        "{\"name\":\"custom\",\"healthy\":false,\"stale\":false," +
+                        "\"message\":\"quote \\\" and\\nnewline\"}]}");
+        assertThat(detail.getStatusCode()).isEqualTo(503);
+        assertThat(detail.getCacheControl()).isEqualTo("no-cache");
+    }
+
+    @Test
+    void of_whenSameState_thenSameEntityTag() {
+        final var first = ReadinessSnapshot.of(LifecycleStage.STARTED_SUCCESSFULLY, 1);
+        final var second = first.next(LifecycleStage.STARTED_SUCCESSFULLY, 2, List.of());
+        final var third = second.next(LifecycleStage.STARTING, 3, List.of());
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion());
+        assertThat(third.getVersion()).isNotEqualTo(second.getVersion());
+        assertThat(HealthDetail.of(second, 0, 5).getEntityTag()).isEqualTo(HealthDetail.of(first, 0, 5)
+                .getEntityTag());
+        assertThat(HealthDetail.of(third, 0, 5).getEntityTag()).isNotEqualTo(HealthDetail.of(first, 0, 5)
+                .getEntityTag());
+        assertThat(HealthDetail.of(first, 0, 5).getCacheControl()).isEqualTo("max-age=5");
+    }
+
+    @Test
+    void isNotModified_thenMatchesListsAndWildcard() {
+        final var detail = HealthDetail.of(ReadinessSnapshot.of(LifecycleStage.STARTING, 1), 0, 0);
+        final var entityTag = detail.getEntityTag();
+
+        assertThat(detail.isNotModified(null)).isFalse();
+        assertThat(detail.isNotModified("\"other\"")).isFalse();
+        assertThat(detail.isNotModified(entityTag)).isTrue();
+        assertThat(detail.isNotModified("\"other\", W/" + entityTag)).isTrue();
+        assertThat(detail.isNotModified(" *")).isTrue();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.HandlerExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeartbeatExecutorTest {
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    void execute_whenDispatcher_thenRunsOnCallingThread() {
+        final var executor = HeartbeatExecutor.create(new HandlerExecutor(), metricRegistry);
+        final var thread = new AtomicReference<Thread>();
+
+        executor.execute(() -> thread.set(Thread.currentThread()));
+
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void execute_whenBoundedAndSaturated_thenRunsInlineAsSaturated() throws Exception {
+        final var config = new HandlerExecutor();
+        config.setType(HandlerExecutor.TYPE_BOUNDED);
+        config.setThreads(1);
+        config.setQueueSize(1);
+        final var executor = HeartbeatExecutor.create(config, metricRegistry);
+        final var release = new CountDownLatch(1);
+        final var running = new CountDownLatch(1);
+        try {
+            // occupy the only thread and the only queue slot
+            executor.execute(() -> {
+                running.countDown();
+                awaitQuietly(release);
+            });
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            executor.execute(() -> awaitQuietly(release));
+
+            final var saturated = new AtomicBoolean();
+            executor.execute(() -> saturated.set(HeartbeatExecutor.isSaturated()));
+
+            assertThat(saturated.get()).isTrue();
+            assertThat(HeartbeatExecutor.isSaturated()).isFalse();
+            assertThat(metricRegistry.meter(HeartbeatExecutor.EXECUTOR_REJECTED_METER).getCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void execute_whenBoundedAndCallerRuns_thenRunsInlineNotSaturated() throws Exception {
+        final var config = new HandlerExecutor();
+        config.setType(HandlerExecutor.TYPE_BOUNDED);
+        config.setThreads(1);
+        config.setQueueSize(1);
+        config.setRejectionPolicy(HandlerExecutor.POLICY_CALLER_RUNS);
+        final var executor = HeartbeatExecutor.create(config, metricRegistry);
+        final var release = new CountDownLatch(1);
+        final var running = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                running.countDown();
+                awaitQuietly(release);
+            });
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            executor.execute(() -> awaitQuietly(release));
+
+            final var ran = new AtomicBoolean();
+            final var saturated = new AtomicBoolean(true);
+            executor.execute(() -> {
+                ran.set(true);
+                saturated.set(HeartbeatExecutor.isSaturated());
+            });
+
+            assertThat(ran.get()).isTrue();
+            assertThat(saturated.get()).isFalse();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(final @NotNull CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
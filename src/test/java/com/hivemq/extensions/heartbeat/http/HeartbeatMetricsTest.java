@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeartbeatMetricsTest {
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final @NotNull HeartbeatMetrics heartbeatMetrics = new HeartbeatMetrics(scheduler, metricRegistry);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void record_whenNotFolded_thenRegistryUnchanged() {
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 1_000);
+
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(0);
+        assertThat(metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    void fold_thenCountersAndTimerUpdated() {
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 1_000);
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 2_000);
+        heartbeatMetrics.record(HttpURLConnection.HTTP_UNAVAILABLE, 3_000);
+        heartbeatMetrics.record(HttpURLConnection.HTTP_BAD_METHOD, 4_000);
+        heartbeatMetrics.record(HttpURLConnection.HTTP_NOT_FOUND, 5_000);
+
+        heartbeatMetrics.fold();
+
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(2);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.SERVICE_UNAVAILABLE_COUNTER).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.METHOD_NOT_ALLOWED_COUNTER).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter(HiveMQHeartbeatHandler.HTTP_HEARTBEAT_METER).getCount()).isEqualTo(3);
+        assertThat(metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getCount()).isEqualTo(4);
+    }
+
+    @Test
+    void fold_twice_thenOnlyNewValuesFolded() {
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 1_000);
+        heartbeatMetrics.fold();
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 1_000);
+        heartbeatMetrics.fold();
+        heartbeatMetrics.fold();
+
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(2);
+        assertThat(metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fold_thenLatencyWithinBucketError() {
+        final var latency = TimeUnit.MICROSECONDS.toNanos(123);
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, latency);
+        heartbeatMetrics.fold();
+
+        final var max = metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getSnapshot().getMax();
+        assertThat(max).isBetween(latency - latency / 16, latency + latency / 16);
+    }
+
+    @Test
+    void fold_whenManyRequests_thenSnapshotWeightedByBucket() {
+        final var fast = TimeUnit.MICROSECONDS.toNanos(100);
+        final var slow = TimeUnit.MILLISECONDS.toNanos(10);
+        for (var i = 0; i < 100_000; i++) {
+            heartbeatMetrics.record(HttpURLConnection.HTTP_OK, fast);
+        }
+        for (var i = 0; i < 100; i++) {
+            heartbeatMetrics.record(HttpURLConnection.HTTP_OK, slow);
+        }
+        heartbeatMetrics.fold();
+
+        final var timer = metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER);
+        assertThat(timer.getCount()).isEqualTo(100_100);
+        // one sample per bucket, weighted by the number of requests in the bucket
+        assertThat(timer.getSnapshot().size()).isEqualTo(2);
+        assertThat(timer.getSnapshot().get99thPercentile()).isBetween(fast - fast / 16d, fast + fast / 16d);
+        assertThat(timer.getSnapshot().getMax()).isBetween(slow - slow / 16, slow + slow / 16);
+    }
+
+    @Test
+    void create_whenTimerOfPreviousStartRegistered_thenReplaced() {
+        heartbeatMetrics.record(HttpURLConnection.HTTP_OK, 1_000);
+        heartbeatMetrics.fold();
+
+        final var restarted = new HeartbeatMetrics(scheduler, metricRegistry);
+        restarted.record(HttpURLConnection.HTTP_OK, 1_000);
+        restarted.fold();
+
+        assertThat(metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void latencyTimer_whenRecordedOutsideFold_thenInSnapshot() throws Exception {
+        final var timer = metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER);
+        final var latency = TimeUnit.MILLISECONDS.toNanos(5);
+
+        timer.update(latency, TimeUnit.NANOSECONDS);
+        timer.update(Duration.ofNanos(latency));
+        timer.time(() -> {
+        });
+        timer.timeSupplier(() -> 1);
+        timer.time(() -> 1);
+
+        assertThat(timer.getCount()).isEqualTo(5);
+        assertThat(timer.getSnapshot().getMax()).isBetween(latency - latency / 16, latency + latency / 16);
+        assertThatThrownBy(timer::time).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void stop_thenRemainingValuesFolded() {
+        heartbeatMetrics.start();
+        heartbeatMetrics.record(HttpURLConnection.HTTP_UNAVAILABLE, 1_000);
+
+        heartbeatMetrics.stop();
+
+        assertThat(metricRegistry.counter(HeartbeatMetrics.SERVICE_UNAVAILABLE_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void bucket_thenValueRoundTrips() {
+        for (var value = 0L; value < 16; value++) {
+            assertThat(LatencyHistogram.valueOf(LatencyHistogram.bucketOf(value))).isEqualTo(value);
+        }
+        for (final var value : new long[]{100, 1_000, 123_456, 10_000_000_000L, Long.MAX_VALUE}) {
+            final var represented = LatencyHistogram.valueOf(LatencyHistogram.bucketOf(value));
+            assertThat(Math.abs(represented - value)).isLessThanOrEqualTo(value / 16);
+        }
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+}
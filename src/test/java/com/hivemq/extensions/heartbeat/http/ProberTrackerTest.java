@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.ProberStatistics;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProberTrackerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    void create_whenDisabled_thenNull() {
+        assertThat(ProberTracker.create(new ProberStatistics(), metricRegistry)).isNull();
+    }
+
+    @Test
+    void capacity_thenMaxProbersRoundedUpToStripes() {
+        assertThat(new ProberTracker(proberStatistics(1), metricRegistry).capacity()).isEqualTo(
+                ProberTracker.STRIPE_SIZE);
+        assertThat(new ProberTracker(proberStatistics(1000), metricRegistry).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void bucket_thenPowerOfTwoMilliseconds() {
+        assertThat(ProberTracker.bucket(0)).isEqualTo(0);
+        assertThat(ProberTracker.bucket(MILLI - 1)).isEqualTo(0);
+        assertThat(ProberTracker.bucket(MILLI)).isEqualTo(1);
+        assertThat(ProberTracker.bucket(2 * MILLI)).isEqualTo(2);
+        assertThat(ProberTracker.bucket(3 * MILLI)).isEqualTo(2);
+        assertThat(ProberTracker.bucket(5000 * MILLI)).isEqualTo(13);
+        assertThat(ProberTracker.bucket(Long.MAX_VALUE)).isEqualTo(ProberTracker.BUCKETS - 1);
+    }
+
+    @Test
+    void record_thenCountsAndIntervalsTracked() throws UnknownHostException {
+        final var tracker = new ProberTracker(proberStatistics(16), metricRegistry);
+        final var nowNanos = System.nanoTime();
+        tracker.record(address(1), nowNanos - 20 * MILLI);
+        tracker.record(address(1), nowNanos - 15 * MILLI);
+        tracker.record(address(1), nowNanos - 5 * MILLI);
+        tracker.record(InetAddress.getByName("::1"), nowNanos);
+
+        final var json = new String(tracker.toJson(10), StandardCharsets.UTF_8);
+        assertThat(json).startsWith("{\"tracked\":2,\"probers\":[{\"address\":\"10.0.0.1\",\"requests\":3,");
+        assertThat(json).contains("\"min-interval-ms\":5.0,\"mean-interval-ms\":7.5,");
+        assertThat(json).contains("\"intervals\":[{\"from-ms\":4,\"count\":1},{\"from-ms\":8,\"count\":1}]}");
+        assertThat(json).contains("{\"address\":\"0:0:0:0:0:0:0:1\",\"requests\":1,");
+        assertThat(json).endsWith("\"min-interval-ms\":null,\"mean-interval-ms\":null,\"intervals\":[]}]}");
+    }
+
+    @Test
+    void toJson_thenOnlyTopProbersListed() throws UnknownHostException {
+        final var tracker = new ProberTracker(proberStatistics(16), metricRegistry);
+        for (var i = 0; i < 3; i++) {
+            for (var request = 0; request <= i; request++) {
+                tracker.record(address(i), request * MILLI);
+            }
+        }
+
+        final var json = new String(tracker.toJson(1), StandardCharsets.UTF_8);
+        assertThat(json).startsWith("{\"tracked\":3,\"probers\":[{\"address\":\"10.0.0.2\",\"requests\":3,");
+        assertThat(json).doesNotContain("10.0.0.1");
+    }
+
+    @Test
+    void record_whenTableFull_thenLeastRecentlySeenProberEvicted() throws UnknownHostException {
+        // a single stripe, so every address competes for the same slots
+        final var tracker = new ProberTracker(proberStatistics(ProberTracker.STRIPE_SIZE), metricRegistry);
+        for (var i = 0; i < ProberTracker.STRIPE_SIZE; i++) {
+            tracker.record(address(i), i);
+        }
+        // address 0 is seen again, so address 1 is the least recently seen address
+        tracker.record(address(0), ProberTracker.STRIPE_SIZE);
+        tracker.record(address(100), ProberTracker.STRIPE_SIZE + 1);
+
+        final var json = new String(tracker.toJson(100), StandardCharsets.UTF_8);
+        assertThat(json).startsWith("{\"tracked\":" + ProberTracker.STRIPE_SIZE + ",");
+        assertThat(json).contains("\"address\":\"10.0.0.0\",\"requests\":2,");
+        assertThat(json).contains("\"address\":\"10.0.0.100\",\"requests\":1,");
+        assertThat(json).doesNotContain("\"10.0.0.1\"");
+        assertThat(metricRegistry.counter(ProberTracker.EVICTED_PROBERS_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    private static @NotNull ProberStatistics proberStatistics(final int maxProbers) {
+        final var proberStatistics = new ProberStatistics();
+        proberStatistics.setEnabled(true);
+        proberStatistics.setMaxProbers(maxProbers);
+        return proberStatistics;
+    }
+
+    private static @NotNull InetAddress address(final int host) throws UnknownHostException {
+        return InetAddress.getByAddress(new byte[]{10, 0, 0, (byte) host});
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrometheusExpositionTest {
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    void get_thenMetricsInTextFormat() {
+        metricRegistry.counter("com.hivemq.networking.connections.current").inc(42);
+        metricRegistry.meter("com.hivemq.messages.incoming.publish.count").mark(7);
+        metricRegistry.register("com.hivemq.ratio", (Gauge<Double>) () -> 0.25);
+        metricRegistry.register("com.hivemq.enabled", (Gauge<Boolean>) () -> true);
+        metricRegistry.register("com.hivemq.infinite", (Gauge<Double>) () -> Double.POSITIVE_INFINITY);
+        metricRegistry.register("com.hivemq.text", (Gauge<String>) () -> "not a number");
+        metricRegistry.timer("com.hivemq.latency").update(3, TimeUnit.MILLISECONDS);
+
+        final var document = render(new PrometheusExposition(metricRegistry, 0));
+
+        assertThat(document).contains("""
+                # HELP com_hivemq_networking_connections_current com.hivemq.networking.connections.current
+                # TYPE com_hivemq_networking_connections_current gauge
+                com_hivemq_networking_connections_current 42
+                """);
+        assertThat(document).contains("""
+                # HELP com_hivemq_messages_incoming_publish_count_total com.hivemq.messages.incoming.publish.count
+                # TYPE com_hivemq_messages_incoming_publish_count_total counter
+                com_hivemq_messages_incoming_publish_count_total 7
+                """);
+        assertThat(document).contains("\ncom_hivemq_ratio 0.25\n");
+        assertThat(document).contains("\ncom_hivemq_enabled 1\n");
+        assertThat(document).contains("\ncom_hivemq_infinite +Inf\n");
+        assertThat(document).doesNotContain("com_hivemq_text");
+        assertThat(document).contains("# TYPE com_hivemq_latency summary\n");
+        assertThat(document).contains("\ncom_hivemq_latency{quantile=\"0.99\"} 0.003\n");
+        assertThat(document).contains("\ncom_hivemq_latency_count 1\n");
+    }
+
+    @Test
+    void get_withinMaxAge_thenDocumentReused() throws Exception {
+        final var counter = metricRegistry.counter("com.hivemq.counter");
+        final var exposition = new PrometheusExposition(metricRegistry, 100);
+
+        final var first = exposition.get();
+        counter.inc();
+        assertThat(exposition.get()).isSameAs(first);
+        assertThat(metricRegistry.timer(PrometheusExposition.RENDER_TIMER).getCount()).isEqualTo(1L);
+
+        Thread.sleep(150);
+        final var second = exposition.get();
+        assertThat(second).isNotSameAs(first);
+        assertThat(new String(second, StandardCharsets.UTF_8)).contains("\ncom_hivemq_counter 1\n");
+    }
+
+    @Test
+    void get_whenMetricRemoved_thenNotRendered() {
+        final var exposition = new PrometheusExposition(metricRegistry, 0);
+        metricRegistry.counter("com.hivemq.counter").inc();
+        assertThat(render(exposition)).contains("com_hivemq_counter 1");
+
+        metricRegistry.remove("com.hivemq.counter");
+        metricRegistry.meter("com.hivemq.counter");
+        final var document = render(exposition);
+        assertThat(document).doesNotContain("com_hivemq_counter 1");
+        assertThat(document).contains("com_hivemq_counter_total 0");
+    }
+
+    @Test
+    void get_whenSanitizedNamesCollide_thenFirstNameExposed() {
+        metricRegistry.counter("com-hivemq-clients").inc(1);
+        metricRegistry.counter("com.hivemq.clients").inc(2);
+
+        final var document = render(new PrometheusExposition(metricRegistry, 0));
+
+        assertThat(document).contains("\ncom_hivemq_clients 1\n");
+        assertThat(document).doesNotContain("\ncom_hivemq_clients 2\n");
+    }
+
+    @Test
+    void sanitize_thenOnlyValidCharacters() {
+        assertThat(PrometheusExposition.sanitize("http-heartbeat-200-counter")).isEqualTo(
+                "http_heartbeat_200_counter");
+        assertThat(PrometheusExposition.sanitize("com.hivemq:jvm.gc")).isEqualTo("com_hivemq:jvm_gc");
+        assertThat(PrometheusExposition.sanitize("1st metric")).isEqualTo("_1st_metric");
+        assertThat(PrometheusExposition.sanitize("")).isEqualTo("_");
+    }
+
+    private static @NotNull String render(final @NotNull PrometheusExposition exposition) {
+        return new String(exposition.get(), StandardCharsets.UTF_8);
+    }
+}
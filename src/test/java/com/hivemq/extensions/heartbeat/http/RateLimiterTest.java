@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http;
+
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void create_whenDisabled_thenNull() {
+        assertThat(RateLimiter.create(new RateLimit())).isNull();
+    }
+
+    @Test
+    void tryAcquire_whenBurstExceeded_thenLimitedUntilRefilled() throws UnknownHostException {
+        final var rateLimiter = new RateLimiter(rateLimit(10, 3, 16));
+        final var client = address(1);
+
+        for (var i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(client, 0)).isTrue();
+        }
+        assertThat(rateLimiter.tryAcquire(client, 0)).isFalse();
+        // one request is refilled every 100 ms
+        assertThat(rateLimiter.tryAcquire(client, SECOND / 10 - 1)).isFalse();
+        assertThat(rateLimiter.tryAcquire(client, SECOND / 10)).isTrue();
+        assertThat(rateLimiter.tryAcquire(client, SECOND / 10)).isFalse();
+        // an idle client gets its full burst back, but not more
+        for (var i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(client, 10 * SECOND)).isTrue();
+        }
+        assertThat(rateLimiter.tryAcquire(client, 10 * SECOND)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_whenOtherClientLimited_thenNotLimited() throws UnknownHostException {
+        final var rateLimiter = new RateLimiter(rateLimit(1, 1, 16));
+
+        assertThat(rateLimiter.tryAcquire(address(1), 0)).isTrue();
+        assertThat(rateLimiter.tryAcquire(address(1), 0)).isFalse();
+        assertThat(rateLimiter.tryAcquire(address(2), 0)).isTrue();
+    }
+
+    @Test
+    void tryAcquire_whenTableFull_thenLeastRecentlySeenClientEvicted() throws UnknownHostException {
+        // a single stripe, so every client competes for the same slots
+        final var rateLimiter = new RateLimiter(rateLimit(1, 1, RateLimiter.STRIPE_SIZE));
+        for (var i = 0; i < RateLimiter.STRIPE_SIZE; i++) {
+            assertThat(rateLimiter.tryAcquire(address(i), i)).isTrue();
+        }
+        // client 0 is seen again, so client 1 is the least recently seen client
+        assertThat(rateLimiter.tryAcquire(address(0), RateLimiter.STRIPE_SIZE)).isFalse();
+
+        assertThat(rateLimiter.tryAcquire(address(100), RateLimiter.STRIPE_SIZE + 1)).isTrue();
+
+        assertThat(rateLimiter.tryAcquire(address(0), RateLimiter.STRIPE_SIZE + 2)).isFalse();
+        assertThat(rateLimiter.tryAcquire(address(2), RateLimiter.STRIPE_SIZE + 2)).isFalse();
+        // the evicted client starts with a full burst
+        assertThat(rateLimiter.tryAcquire(address(1), RateLimiter.STRIPE_SIZE + 3)).isTrue();
+    }
+
+    @Test
+    void capacity_thenMaxClientsRoundedUpToStripes() {
+        assertThat(new RateLimiter(rateLimit(1, 1, 1)).capacity()).isEqualTo(RateLimiter.STRIPE_SIZE);
+        assertThat(new RateLimiter(rateLimit(1, 1, 4096)).capacity()).isEqualTo(4096);
+        assertThat(new RateLimiter(rateLimit(1, 1, 4097)).capacity()).isEqualTo(8192);
+    }
+
+    private static @NotNull RateLimit rateLimit(final int requestsPerSecond, final int burst, final int maxClients) {
+        final var rateLimit = new RateLimit();
+        rateLimit.setRequestsPerSecond(requestsPerSecond);
+        rateLimit.setBurst(burst);
+        rateLimit.setMaxClients(maxClients);
+        return rateLimit;
+    }
+
+    private static @NotNull InetAddress address(final int host) throws UnknownHostException {
+        return InetAddress.getByAddress(new byte[]{10, 0, (byte) (host >>> 8), (byte) host});
+    }
+}
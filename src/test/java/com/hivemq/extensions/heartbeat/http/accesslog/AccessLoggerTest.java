@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.heartbeat.configuration.entities.AccessLog;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLoggerTest {
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @Test
+    void create_whenDisabled_thenNull() {
+        assertThat(AccessLogger.create(new AccessLog(), metricRegistry)).isNull();
+    }
+
+    @Test
+    void create_whenBufferSizeNotPowerOfTwo_thenRoundedUp() {
+        final var accessLog = accessLog(AccessLog.OVERFLOW_DROP_NEWEST);
+        accessLog.setBufferSize(100);
+
+        assertThat(AccessLogger.create(accessLog, metricRegistry).capacity()).isEqualTo(128);
+    }
+
+    @Test
+    void stop_whenRecorded_thenRecordsWritten() throws IOException {
+        final var accessLogger = AccessLogger.create(accessLog(AccessLog.OVERFLOW_DROP_NEWEST), metricRegistry);
+        accessLogger.start();
+        accessLogger.record(InetAddress.getByName("10.0.0.1"), 51234, 9090, "/heartbeat", 200, 1_500_000);
+        accessLogger.record(InetAddress.getByName("::1"), 51235, 9090, null, 0, 2_000);
+        accessLogger.stop();
+
+        final var lines = Files.readAllLines(tempDir.resolve("access.log"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).matches("\\S+Z 10\\.0\\.0\\.1 51234 9090 /heartbeat 200 1500");
+        assertThat(lines.get(1)).matches("\\S+Z 0:0:0:0:0:0:0:1 51235 9090 - - 2");
+        assertThat(metricRegistry.counter(AccessLogger.DROPPED_COUNTER).getCount()).isZero();
+    }
+
+    @Test
+    void record_whenBufferFullWithDropNewest_thenNewRecordDroppedAndCounted() throws IOException {
+        final var accessLogger = AccessLogger.create(accessLog(AccessLog.OVERFLOW_DROP_NEWEST), metricRegistry);
+        // the writer is not started yet, so the buffer fills up
+        for (var i = 0; i < 3; i++) {
+            accessLogger.record(InetAddress.getLoopbackAddress(), i, 9090, "/heartbeat", 200, 0);
+        }
+        accessLogger.start();
+        accessLogger.stop();
+
+        final var lines = Files.readAllLines(tempDir.resolve("access.log"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains(" 0 9090 ");
+        assertThat(lines.get(1)).contains(" 1 9090 ");
+        assertThat(metricRegistry.counter(AccessLogger.DROPPED_COUNTER).getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void record_whenBufferFullWithDropOldest_thenOldestRecordDroppedAndCounted() throws IOException {
+        final var accessLogger = AccessLogger.create(accessLog(AccessLog.OVERFLOW_DROP_OLDEST), metricRegistry);
+        for (var i = 0; i < 3; i++) {
+            accessLogger.record(InetAddress.getLoopbackAddress(), i, 9090, "/heartbeat", 200, 0);
+        }
+        accessLogger.start();
+        accessLogger.stop();
+
+        final var lines = Files.readAllLines(tempDir.resolve("access.log"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains(" 1 9090 ");
+        assertThat(lines.get(1)).contains(" 2 9090 ");
+        assertThat(metricRegistry.counter(AccessLogger.DROPPED_COUNTER).getCount()).isEqualTo(1L);
+    }
+
+    private @NotNull AccessLog accessLog(final @NotNull String overflow) {
+        final var accessLog = new AccessLog();
+        accessLog.setEnabled(true);
+        accessLog.setFile(tempDir.resolve("access.log").toString());
+        accessLog.setBufferSize(2);
+        accessLog.setOverflow(overflow);
+        return accessLog;
+    }
+}
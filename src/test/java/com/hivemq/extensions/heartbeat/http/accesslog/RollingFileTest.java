@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.accesslog;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingFileTest {
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @Test
+    void write_whenMaxFileSizeExceeded_thenRolledAndOldestDeleted() throws IOException {
+        final var file = tempDir.resolve("access.log");
+        try (final var rollingFile = new RollingFile(file, 10, 2)) {
+            for (var i = 0; i < 4; i++) {
+                rollingFile.write(("record-" + i + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        assertThat(Files.readString(file)).isEqualTo("record-3\n");
+        assertThat(Files.readString(tempDir.resolve("access.log.1"))).isEqualTo("record-2\n");
+        assertThat(Files.readString(tempDir.resolve("access.log.2"))).isEqualTo("record-1\n");
+        assertThat(tempDir.resolve("access.log.3")).doesNotExist();
+    }
+
+    @Test
+    void write_whenFileExists_thenAppended() throws IOException {
+        final var file = tempDir.resolve("logs").resolve("access.log");
+        try (final var rollingFile = new RollingFile(file, 1024, 1)) {
+            rollingFile.write("first\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        try (final var rollingFile = new RollingFile(file, 1024, 1)) {
+            rollingFile.write("second\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        assertThat(Files.readString(file)).isEqualTo("first\nsecond\n");
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hivemq.extensions.heartbeat.http.grpc.GrpcHealthConnection.CHECK_PATH;
+import static com.hivemq.extensions.heartbeat.http.grpc.GrpcHealthConnection.NOT_SERVING;
+import static com.hivemq.extensions.heartbeat.http.grpc.GrpcHealthConnection.SERVING;
+import static com.hivemq.extensions.heartbeat.http.grpc.GrpcHealthConnection.WATCH_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrpcHealthServerTest {
+
+    private final @NotNull AtomicReference<LifecycleStage> stage =
+            new AtomicReference<>(LifecycleStage.STARTED_SUCCESSFULLY);
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull Heartbeat heartbeat = new Heartbeat();
+
+    private @NotNull ScheduledExecutorService scheduler;
+    private @NotNull ReadinessMonitor readinessMonitor;
+    private @NotNull GrpcHealthServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        heartbeat.setBindAddress("127.0.0.1");
+        heartbeat.setStatePollInterval(10);
+        heartbeat.setStatePollJitter(0);
+        heartbeat.getGrpcHealth().setPort(freePort());
+        heartbeat.getGrpcHealth().setMaxStreams(2);
+        readinessMonitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        readinessMonitor.start();
+        server = new GrpcHealthServer(heartbeat, readinessMonitor, metricRegistry);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        readinessMonitor.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void check_whenReady_thenServing() throws Exception {
+        try (final var client = new Client(heartbeat.getGrpcHealth().getPort())) {
+            client.request(1, CHECK_PATH, "");
+            final var response = client.awaitResponse(1);
+            assertThat(response.headers).containsEntry(":status", "200");
+            assertThat(response.headers).containsEntry("content-type", "application/grpc");
+            assertThat(response.headers).containsEntry("grpc-status", "0");
+            assertThat(response.status).isEqualTo(SERVING);
+        }
+        assertThat(metricRegistry.counter(GrpcHealthServer.CHECK_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void check_whenNotReady_thenNotServingAndLivenessServing() throws Exception {
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+        try (final var client = new Client(heartbeat.getGrpcHealth().getPort())) {
+            // both streams are multiplexed on the same connection
+            client.request(1, CHECK_PATH, "readiness");
+            client.request(3, CHECK_PATH, "liveness");
+            assertThat(client.awaitResponse(1).status).isEqualTo(NOT_SERVING);
+            assertThat(client.awaitResponse(3).status).isEqualTo(SERVING);
+        }
+    }
+
+    @Test
+    void check_whenUnknownServiceOrMethod_thenErrorStatus() throws Exception {
+        try (final var client = new Client(heartbeat.getGrpcHealth().getPort())) {
+            client.request(1, CHECK_PATH, "unknown");
+            assertThat(client.awaitResponse(1).headers).containsEntry("grpc-status", "5");
+            client.request(3, "/grpc.health.v1.Health/List", "");
+            assertThat(client.awaitResponse(3).headers).containsEntry("grpc-status", "12");
+        }
+    }
+
+    @Test
+    void watch_whenReadinessChanges_thenChangePushed() throws Exception {
+        try (final var client = new Client(heartbeat.getGrpcHealth().getPort())) {
+            client.request(1, WATCH_PATH, "");
+            assertThat(client.awaitStatus(1)).isEqualTo(SERVING);
+            assertThat(metricRegistry.getGauges().get(GrpcHealthServer.WATCHERS_GAUGE).getValue()).isEqualTo(1);
+
+            stage.set(LifecycleStage.STARTING);
+            assertThat(client.awaitStatus(1)).isEqualTo(NOT_SERVING);
+            stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+            assertThat(client.awaitStatus(1)).isEqualTo(SERVING);
+        }
+    }
+
+    @Test
+    void request_whenMaxStreamsExceeded_thenStreamRefused() throws Exception {
+        try (final var client = new Client(heartbeat.getGrpcHealth().getPort())) {
+            client.request(1, WATCH_PATH, "");
+            client.request(3, WATCH_PATH, "liveness");
+            assertThat(client.awaitStatus(1)).isEqualTo(SERVING);
+            assertThat(client.awaitStatus(3)).isEqualTo(SERVING);
+            client.request(5, CHECK_PATH, "");
+            // REFUSED_STREAM
+            assertThat(client.awaitResponse(5).resetCode).isEqualTo(0x7);
+        }
+    }
+
+    @Test
+    void accept_whenMaxConnectionsReached_thenFurtherClientServedAfterClose() throws Exception {
+        heartbeat.getConnections().setMaxConnections(1);
+        restart();
+        try (final var first = new Client(heartbeat.getGrpcHealth().getPort());
+             final var second = new Client(heartbeat.getGrpcHealth().getPort())) {
+            first.request(1, CHECK_PATH, "");
+            assertThat(first.awaitResponse(1).status).isEqualTo(SERVING);
+
+            // the second client waits in the accept backlog
+            second.request(1, CHECK_PATH, "");
+            second.socket.setSoTimeout(300);
+            assertThatThrownBy(() -> second.awaitResponse(1)).isInstanceOf(SocketTimeoutException.class);
+
+            first.close();
+            second.socket.setSoTimeout(5000);
+            assertThat(second.awaitResponse(1).status).isEqualTo(SERVING);
+        }
+    }
+
+    @Test
+    void connection_whenNoPreface_thenClosedAfterRequestTimeout() throws Exception {
+        heartbeat.getConnections().setRequestTimeout(100);
+        restart();
+        try (final var socket = new Socket("127.0.0.1", heartbeat.getGrpcHealth().getPort())) {
+            socket.setSoTimeout(5000);
+            // the SETTINGS and the GOAWAY frame of the server, then the end of the stream
+            socket.getInputStream().readAllBytes();
+        }
+        assertThat(metricRegistry.meter(GrpcHealthServer.REAPED_CONNECTIONS_METER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void connection_whenIdle_thenClosedUnlessWatching() throws Exception {
+        heartbeat.getConnections().setIdleTimeout(100);
+        restart();
+        try (final var checking = new Client(heartbeat.getGrpcHealth().getPort());
+             final var watching = new Client(heartbeat.getGrpcHealth().getPort())) {
+            checking.request(1, CHECK_PATH, "");
+            assertThat(checking.awaitResponse(1).status).isEqualTo(SERVING);
+            watching.request(1, WATCH_PATH, "");
+            assertThat(watching.awaitStatus(1)).isEqualTo(SERVING);
+
+            // the GOAWAY frame of the server, then the end of the stream
+            checking.socket.getInputStream().readAllBytes();
+            assertThat(metricRegistry.meter(GrpcHealthServer.REAPED_CONNECTIONS_METER).getCount()).isEqualTo(1);
+
+            stage.set(LifecycleStage.STARTING);
+            assertThat(watching.awaitStatus(1)).isEqualTo(NOT_SERVING);
+        }
+    }
+
+    @Test
+    void parseService_whenUnknownFields_thenSkipped() {
+        // field 2 as varint, field 1 as "liveness", field 3 as fixed32
+        final var body = new byte[]{
+                0, 0, 0, 0, 17, 0x10, 0x05, 0x0A, 8, 'l', 'i', 'v', 'e', 'n', 'e', 's', 's', 0x1D, 0, 0, 0, 0};
+        assertThat(GrpcHealthConnection.parseService(body, body.length)).isEqualTo("liveness");
+        assertThat(GrpcHealthConnection.parseService(body, body.length - 1)).isNull();
+        assertThat(GrpcHealthConnection.parseService(body, 0)).isEqualTo("");
+    }
+
+    private void restart() throws IOException {
+        server.stop();
+        server = new GrpcHealthServer(heartbeat, readinessMonitor, metricRegistry);
+        server.start();
+    }
+
+    private static int freePort() throws IOException {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Response {
+
+        private final @NotNull Map<String, String> headers = new HashMap<>();
+        private int status;
+        private int resetCode = -1;
+    }
+
+    /**
+     * A minimal HTTP/2 client that sends uncompressed header blocks and decodes the responses of the server.
+     */
+    private static final class Client implements AutoCloseable {
+
+        private final @NotNull Socket socket;
+        private final @NotNull OutputStream out;
+        private final @NotNull DataInputStream in;
+        private final @NotNull HpackDecoder decoder = new HpackDecoder();
+
+        private Client(final int port) throws IOException {
+            socket = new Socket("127.0.0.1", port);
+            socket.setSoTimeout(5000);
+            out = socket.getOutputStream();
+            in = new DataInputStream(socket.getInputStream());
+            out.write(GrpcHealthConnection.PREFACE);
+            writeFrame(GrpcHealthConnection.SETTINGS, 0, 0, new byte[0]);
+        }
+
+        private void request(final int streamId, final @NotNull String path, final @NotNull String service)
+                throws IOException {
+            final var block = new ByteArrayOutputStream();
+            // ":method: POST" and ":scheme: http" from the static table
+            block.write(new byte[]{(byte) 0x83, (byte) 0x86});
+            // ":path" and "content-type" as literals without indexing
+            block.write(0x04);
+            writeString(block, path);
+            block.write(new byte[]{0x0F, 0x10});
+            writeString(block, "application/grpc");
+            writeFrame(GrpcHealthConnection.HEADERS, GrpcHealthConnection.FLAG_END_HEADERS, streamId,
+                    block.toByteArray());
+
+            final var name = service.getBytes(StandardCharsets.UTF_8);
+            final var message = new ByteArrayOutputStream();
+            message.write(new byte[]{0, 0, 0, 0, (byte) (name.length + 2), 0x0A, (byte) name.length});
+            message.write(name);
+            writeFrame(GrpcHealthConnection.DATA, GrpcHealthConnection.FLAG_END_STREAM, streamId,
+                    message.toByteArray());
+        }
+
+        /**
+         * Reads frames until the stream is closed by the server.
+         */
+        private @NotNull Response awaitResponse(final int streamId) throws IOException {
+            final var response = new Response();
+            while (true) {
+                final var frame = readFrame();
+                if (frame.streamId != streamId) {
+                    continue;
+                }
+                switch (frame.type) {
+                    case GrpcHealthConnection.HEADERS:
+                        decoder.decode(frame.payload, 0, frame.payload.length, response.headers::put);
+                        break;
+                    case GrpcHealthConnection.DATA:
+                        response.status = frame.payload[6];
+                        break;
+                    case GrpcHealthConnection.RST_STREAM:
+                        response.resetCode = frame.payload[3];
+                        return response;
+                    default:
+                }
+                if ((frame.flags & GrpcHealthConnection.FLAG_END_STREAM) != 0) {
+                    return response;
+                }
+            }
+        }
+
+        /**
+         * Reads frames until the next status message on the stream.
+         */
+        private int awaitStatus(final int streamId) throws IOException {
+            while (true) {
+                final var frame = readFrame();
+                if (frame.streamId == streamId && frame.type == GrpcHealthConnection.DATA) {
+                    return frame.payload[6];
+                }
+            }
+        }
+
+        private @NotNull Frame readFrame() throws IOException {
+            final var length = in.readUnsignedShort() << 8 | in.readUnsignedByte();
+            final var frame = new Frame(in.readUnsignedByte(), in.readUnsignedByte(), in.readInt(), length);
+            in.readFully(frame.payload);
+            if (frame.type == GrpcHealthConnection.SETTINGS &&
+                    (frame.flags & GrpcHealthConnection.FLAG_ACK) == 0) {
+                writeFrame(GrpcHealthConnection.SETTINGS, GrpcHealthConnection.FLAG_ACK, 0, new byte[0]);
+            }
+            return frame;
+        }
+
+        private void writeFrame(final int type, final int flags, final int streamId, final byte @NotNull [] payload)
+                throws IOException {
+            final var frame = new ByteArrayOutputStream();
+            frame.write(new byte[]{(byte) (payload.length >>> 16), (byte) (payload.length >>> 8),
+                    (byte) payload.length, (byte) type, (byte) flags, (byte) (streamId >>> 24),
+                    (byte) (streamId >>> 16), (byte) (streamId >>> 8), (byte) streamId});
+            frame.write(payload);
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+
+        private static void writeString(final @NotNull ByteArrayOutputStream block, final @NotNull String value) {
+            final var bytes = value.getBytes(StandardCharsets.US_ASCII);
+            block.write(bytes.length);
+            block.write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static final class Frame {
+
+        private final int type;
+        private final int flags;
+        private final int streamId;
+        private final byte @NotNull [] payload;
+
+        private Frame(final int type, final int flags, final int streamId, final int length) {
+            this.type = type;
+            this.flags = flags;
+            this.streamId = streamId;
+            this.payload = new byte[length];
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.grpc;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HpackDecoderTest {
+
+    private final @NotNull HpackDecoder decoder = new HpackDecoder();
+
+    @Test
+    void decode_whenRequestsWithoutHuffman_thenDecodedWithDynamicTable() throws Exception {
+        // RFC 7541 Appendix C.3
+        assertThat(decode("828684410f7777772e6578616d706c652e636f6d")).containsExactly(":method: GET",
+                ":scheme: http",
+                ":path: /",
+                ":authority: www.example.com");
+        assertThat(decode("828684be58086e6f2d6361636865")).containsExactly(":method: GET",
+                ":scheme: http",
+                ":path: /",
+                ":authority: www.example.com",
+                "cache-control: no-cache");
+        assertThat(decode("828785bf400a637573746f6d2d6b65790c637573746f6d2d76616c7565")).containsExactly(
+                ":method: GET",
+                ":scheme: https",
+                ":path: /index.html",
+                ":authority: www.example.com",
+                "custom-key: custom-value");
+    }
+
+    @Test
+    void decode_whenRequestsWithHuffman_thenDecodedWithDynamicTable() throws Exception {
+        // RFC 7541 Appendix C.4
+        assertThat(decode("828684418cf1e3c2e5f23a6ba0ab90f4ff")).containsExactly(":method: GET",
+                ":scheme: http",
+                ":path: /",
+                ":authority: www.example.com");
+        assertThat(decode("828684be5886a8eb10649cbf")).containsExactly(":method: GET",
+                ":scheme: http",
+                ":path: /",
+                ":authority: www.example.com",
+                "cache-control: no-cache");
+        assertThat(decode("828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf")).containsExactly(":method: GET",
+                ":scheme: https",
+                ":path: /index.html",
+                ":authority: www.example.com",
+                "custom-key: custom-value");
+    }
+
+    @Test
+    void decode_whenTableSizeUpdate_thenEntriesEvicted() throws Exception {
+        decode("828684410f7777772e6578616d706c652e636f6d");
+        // a size of 0 evicts every entry, the dynamic index 62 is invalid afterwards
+        assertThat(decode("20")).isEmpty();
+        assertThatThrownBy(() -> decode("be")).isInstanceOf(Http2Exception.class);
+    }
+
+    @Test
+    void decode_whenInvalidIndex_thenCompressionError() {
+        assertThatThrownBy(() -> decode("80")).isInstanceOf(Http2Exception.class);
+        assertThatThrownBy(() -> decode("ff00")).isInstanceOf(Http2Exception.class);
+    }
+
+    @Test
+    void decode_whenInvalidHuffmanPadding_thenCompressionError() {
+        // the padding of "0" is 000 instead of 111
+        assertThatThrownBy(() -> decode("008100810f")).isInstanceOf(Http2Exception.class)
+                .hasMessageContaining("padding");
+    }
+
+    private @NotNull List<String> decode(final @NotNull String hex) throws Http2Exception {
+        final var block = HexFormat.of().parseHex(hex);
+        final var headers = new ArrayList<String>();
+        decoder.decode(block, 0, block.length, (name, value) -> headers.add(name + ": " + value));
+        return headers;
+    }
+}
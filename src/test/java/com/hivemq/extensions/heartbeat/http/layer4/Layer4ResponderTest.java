@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.layer4;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Layer4ResponderTest {
+
+    private final @NotNull AtomicReference<LifecycleStage> stage =
+            new AtomicReference<>(LifecycleStage.STARTED_SUCCESSFULLY);
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull Heartbeat heartbeat = new Heartbeat();
+
+    private @NotNull ScheduledExecutorService scheduler;
+    private @NotNull ReadinessMonitor readinessMonitor;
+    private @NotNull Layer4Responder responder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        heartbeat.setBindAddress("127.0.0.1");
+        heartbeat.setStatePollInterval(10);
+        heartbeat.setStatePollJitter(0);
+        heartbeat.getLayer4().setTcpPort(freePort());
+        heartbeat.getLayer4().setUdpPort(freePort());
+        readinessMonitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        readinessMonitor.start();
+        responder = new Layer4Responder(heartbeat, readinessMonitor, metricRegistry);
+        responder.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        responder.stop();
+        readinessMonitor.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void tcp_whenReady_thenAcceptedAndClosed() throws Exception {
+        try (final var socket = new Socket("127.0.0.1", heartbeat.getLayer4().getTcpPort())) {
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+        awaitCount(Layer4Responder.READY_COUNTER, 1);
+    }
+
+    @Test
+    void tcp_whenNotReady_thenRefusedUntilReady() throws Exception {
+        stage.set(LifecycleStage.STARTING);
+        final var port = heartbeat.getLayer4().getTcpPort();
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (isAccepted(port) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThatThrownBy(() -> new Socket("127.0.0.1", port).close()).isInstanceOf(ConnectException.class);
+
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        while (!isAccepted(port) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(isAccepted(port)).isTrue();
+    }
+
+    @Test
+    void udp_thenStatusByteOfReadiness() throws Exception {
+        assertThat(udp()).isEqualTo((byte) Layer4Responder.STATUS_READY);
+
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+        assertThat(udp()).isEqualTo((byte) Layer4Responder.STATUS_UNAVAILABLE);
+        awaitCount(Layer4Responder.UNAVAILABLE_COUNTER, 1);
+    }
+
+    private byte udp() throws IOException {
+        try (final var socket = new DatagramSocket()) {
+            socket.setSoTimeout(5000);
+            final var request = new byte[]{'p', 'i', 'n', 'g'};
+            socket.send(new DatagramPacket(request,
+                    request.length,
+                    InetAddress.getByName("127.0.0.1"),
+                    heartbeat.getLayer4().getUdpPort()));
+            final var response = new DatagramPacket(new byte[16], 16);
+            socket.receive(response);
+            assertThat(response.getLength()).isEqualTo(1);
+            return response.getData()[0];
+        }
+    }
+
+    private void awaitCount(final @NotNull String counter, final long count) throws InterruptedException {
+        // the probes are counted on the selector thread
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metricRegistry.counter(counter).getCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metricRegistry.counter(counter).getCount()).isEqualTo(count);
+    }
+
+    private static boolean isAccepted(final int port) {
+        try (final var ignored = new Socket("127.0.0.1", port)) {
+            return true;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.http.nio;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.RateLimit;
+import com.hivemq.extensions.heartbeat.http.HeartbeatMetrics;
+import com.hivemq.extensions.heartbeat.http.HiveMQHeartbeatHandler;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NioHeartbeatServerTest {
+
+    private static final @NotNull String CLOSE = "Connection: close\r\n";
+    private static final @NotNull String KEEP_ALIVE = "Connection: keep-alive\r\n";
+
+    private final @NotNull AtomicReference<LifecycleStage> stage =
+            new AtomicReference<>(LifecycleStage.STARTED_SUCCESSFULLY);
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+
+    private @NotNull ScheduledExecutorService scheduler;
+    private @NotNull ReadinessMonitor readinessMonitor;
+    private @NotNull HeartbeatMetrics heartbeatMetrics;
+    private @NotNull NioHeartbeatServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        start(new Heartbeat());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        readinessMonitor.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void get_whenStarted_then200() throws IOException {
+        assertThat(request("GET /heartbeat HTTP/1.1\r\nHost: localhost\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 200 OK\r\n");
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.meter(HiveMQHeartbeatHandler.HTTP_HEARTBEAT_METER).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(HeartbeatMetrics.LATENCY_TIMER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenStarting_then503() throws IOException {
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 503 Service Unavailable\r\n");
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.SERVICE_UNAVAILABLE_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_withQuery_then200() throws IOException {
+        assertThat(request("GET /heartbeat?probe=lb HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void get_unknownPath_then404() throws IOException {
+        assertThat(request("GET /heartbeats HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void get_probePaths_whenNotReadyAfterStart_thenOnlyReadinessUnavailable() throws IOException {
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+        assertThat(request("GET /readiness HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 503 Service Unavailable\r\n");
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 503 Service Unavailable\r\n");
+        assertThat(request("GET /startup HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(request("GET /liveness HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 200 OK\r\n");
+    }
+
+    @Test
+    void get_nestedProbePath_thenMostSpecificPathAnswers() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setStartupPath("/heartbeat/startup");
+        heartbeat.setReadinessPath("");
+        restart(heartbeat);
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+
+        assertThat(request("GET /heartbeat/startup HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 200 OK\r\n");
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 503 Service Unavailable\r\n");
+        assertThat(request("GET /readiness HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void get_detail_thenJsonWithEntityTag() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setDetailPath("/health");
+        restart(heartbeat);
+
+        final var response = request("GET /health HTTP/1.1\r\n" + CLOSE + "\r\n");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).contains("Content-Type: application/json\r\n");
+        assertThat(response).contains("Cache-Control: no-cache\r\n");
+        assertThat(response).endsWith("]}");
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(0);
+
+        final var entityTag = response.substring(response.indexOf("ETag: ") + 6, response.indexOf("\r\nCache-Control"));
+        final var conditional = "GET /health HTTP/1.1\r\nIf-None-Match: " + entityTag + "\r\n" + CLOSE + "\r\n";
+        final var notModified = request(conditional);
+        assertThat(notModified).startsWith("HTTP/1.1 304 Not Modified\r\n");
+        assertThat(notModified).contains("ETag: " + entityTag + "\r\n");
+        assertThat(notModified).endsWith("\r\n\r\n");
+
+        stage.set(LifecycleStage.STARTING);
+        readinessMonitor.refresh();
+        final var changed = request(conditional);
+        assertThat(changed).startsWith("HTTP/1.1 503 Service Unavailable\r\n");
+        assertThat(changed).contains("\"stage\":\"STARTING\"");
+    }
+
+    @Test
+    void get_detail_whenNotConfigured_then404() throws IOException {
+        assertThat(request("GET /health HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 404 Not Found\r\n");
+    }
+
+    @Test
+    void get_metrics_thenPrometheusText() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setMetricsPath("/metrics");
+        restart(heartbeat);
+        metricRegistry.counter("com.hivemq.networking.connections.current").inc(3);
+
+        final var response = request("GET /metrics HTTP/1.1\r\n" + CLOSE + "\r\n");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(response).contains("Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n");
+        assertThat(response).contains("\ncom_hivemq_networking_connections_current 3\n");
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    void get_metrics_whileRendering_thenProbesAnsweredAndPipelinedRequestServedAfterwards() throws Exception {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setMetricsPath("/metrics");
+        restart(heartbeat);
+        final var rendering = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        metricRegistry.register("slow", (Gauge<Integer>) () -> {
+            rendering.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            write(socket,
+                    "GET /metrics HTTP/1.1\r\n" + KEEP_ALIVE + "\r\nGET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n");
+            assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // the selector thread does not wait for the rendering
+            assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 200 OK\r\n");
+
+            release.countDown();
+            final var responses = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(responses).startsWith("HTTP/1.1 200 OK\r\n");
+            assertThat(responses).contains("\nslow 1\n");
+            assertThat(responses.substring(responses.indexOf("\nslow 1\n"))).contains("HTTP/1.1 200 OK\r\n");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void post_then405() throws IOException {
+        assertThat(request("POST /heartbeat HTTP/1.1\r\nContent-Length: 0\r\n" + CLOSE + "\r\n")).startsWith(
+                "HTTP/1.1 405 Method Not Allowed\r\n");
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.meter(HiveMQHeartbeatHandler.HTTP_HEARTBEAT_METER).getCount()).isEqualTo(0);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.METHOD_NOT_ALLOWED_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void post_withBodyOnKeptAliveConnection_thenClosedBeforeBodyIsParsed() throws IOException {
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            // the body looks like a request that must not be answered, the GET behind it is never answered either
+            final var body = "GET /heartbeat HTTP/1.1\r\n\r\n";
+            write(socket,
+                    "POST /heartbeat HTTP/1.1\r\nContent-Length: " + body.length() + "\r\n\r\n" + body +
+                            "GET /heartbeat HTTP/1.1\r\n\r\n");
+            final var response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(response).startsWith("HTTP/1.1 405 Method Not Allowed\r\n").contains(CLOSE);
+            assertThat(response).doesNotContain("HTTP/1.1 200 OK");
+        }
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.METHOD_NOT_ALLOWED_COUNTER).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    void get_withChunkedBody_thenClosed() throws IOException {
+        final var response = request("GET /heartbeat HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\n\r\n");
+        assertThat(response).startsWith("HTTP/1.1 200 OK\r\n").contains(CLOSE);
+        assertThat(response.split("HTTP/1.1 ", -1)).hasSize(2);
+    }
+
+    @Test
+    void requestLineTooLong_then400() throws IOException {
+        final var path = "/" + "a".repeat(NioConnection.MAX_REQUEST_LINE_LENGTH);
+        assertThat(request("GET " + path + " HTTP/1.1\r\n\r\n")).startsWith("HTTP/1.1 400 Bad Request\r\n");
+    }
+
+    @Test
+    void get_splitAcrossWrites_then200() throws IOException {
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            final var out = socket.getOutputStream();
+            out.write("GET /heart".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            out.write(("beat HTTP/1.1\r\nHost: localhost\r\n" + CLOSE).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            final var response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(response).startsWith("HTTP/1.1 200 OK\r\n");
+        }
+    }
+
+    @Test
+    void get_keepAlive_thenConnectionReused() throws IOException {
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            for (var i = 0; i < 3; i++) {
+                write(socket, "GET /heartbeat HTTP/1.1\r\n\r\n");
+                assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n").contains(KEEP_ALIVE);
+            }
+        }
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.meter(HiveMQHeartbeatHandler.HTTP_HEARTBEAT_METER).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void get_pipelined_thenAllAnswered() throws IOException {
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            write(socket, "GET /heartbeat HTTP/1.1\r\n\r\nGET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n");
+            final var response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(response.split("HTTP/1.1 200 OK", -1)).hasSize(3);
+        }
+    }
+
+    @Test
+    void get_pipelinedBehindPartiallyWrittenResponse_thenAllAnswered() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.setMetricsPath("/metrics");
+        heartbeat.getSocketOptions().setSendBufferSize(4096);
+        restart(heartbeat);
+        // a metrics response that is larger than the socket buffers is written across several OP_WRITE wakeups
+        for (var i = 0; i < 5_000; i++) {
+            metricRegistry.counter("com.hivemq.test.pipelined." + "a".repeat(64) + "." + i).inc();
+        }
+
+        try (final var socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.setSoTimeout(5_000);
+            socket.connect(new InetSocketAddress("127.0.0.1", server.getLocalPort()));
+            write(socket, "GET /metrics HTTP/1.1\r\n\r\nGET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n");
+            final var response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(response.split("HTTP/1.1 200 OK", -1)).hasSize(3);
+            assertThat(response.substring(response.lastIndexOf("HTTP/1.1 200 OK"))).contains(CLOSE);
+        }
+    }
+
+    @Test
+    void get_http10_thenClosed() throws IOException {
+        assertThat(request("GET /heartbeat HTTP/1.0\r\n\r\n")).startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("Connection: close\r\n");
+    }
+
+    @Test
+    void get_keepAliveDisabled_thenClosed() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getConnections().setKeepAlive(false);
+        restart(heartbeat);
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n\r\n")).startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("Connection: close\r\n");
+    }
+
+    @Test
+    void idleConnection_whenIdleTimeoutExceeded_thenReaped() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getConnections().setIdleTimeout(50);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            write(socket, "GET /heartbeat HTTP/1.1\r\n\r\n");
+            assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n");
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+        assertThat(metricRegistry.meter(NioHeartbeatServer.REAPED_CONNECTIONS_METER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void partialRequest_whenRequestTimeoutExceeded_thenReaped() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getConnections().setRequestTimeout(50);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            write(socket, "GET /heartbeat HTTP/1.1\r\n");
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+        assertThat(metricRegistry.meter(NioHeartbeatServer.REAPED_CONNECTIONS_METER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void connect_whenMaxConnectionsReached_thenAcceptedAfterClose() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getConnections().setMaxConnections(1);
+        restart(heartbeat);
+        try (final var first = new Socket("127.0.0.1", server.getLocalPort());
+             final var second = new Socket("127.0.0.1", server.getLocalPort())) {
+            write(first, "GET /heartbeat HTTP/1.1\r\n\r\n");
+            assertThat(readHead(first)).startsWith("HTTP/1.1 200 OK\r\n");
+            assertThat(server.getOpenConnections()).isEqualTo(1);
+            // the second connection waits in the accept backlog until the first one is closed
+            write(second, "GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n");
+            first.close();
+            second.setSoTimeout(5_000);
+            assertThat(readHead(second)).startsWith("HTTP/1.1 200 OK\r\n");
+        }
+        assertThat(metricRegistry.counter(NioHeartbeatServer.ACCEPT_PAUSED_COUNTER).getCount()).isPositive();
+    }
+
+    @Test
+    void get_withReusePortAcceptors_thenAllConnectionsAnswered() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getSocketOptions().setBacklog(16);
+        heartbeat.getSocketOptions().setReusePort(true);
+        heartbeat.getSocketOptions().setAcceptors(4);
+        heartbeat.getSocketOptions().setSendBufferSize(16_384);
+        heartbeat.getSocketOptions().setReceiveBufferSize(16_384);
+        restart(heartbeat);
+        // the operating system spreads the connections over the accept queues of all acceptors
+        for (var i = 0; i < 20; i++) {
+            assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 200 OK\r\n");
+        }
+    }
+
+    @Test
+    void get_whenRateLimitExceeded_then429() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getRateLimit().setRequestsPerSecond(1);
+        heartbeat.getRateLimit().setBurst(2);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            write(socket, "GET /heartbeat HTTP/1.1\r\n\r\n");
+            assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n");
+            write(socket, "GET /heartbeat HTTP/1.1\r\n\r\n");
+            assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n");
+            // the limit applies to the address, not to the connection
+            assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith(
+                    "HTTP/1.1 429 Too Many Requests\r\n");
+        }
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.OK_COUNTER).getCount()).isEqualTo(2);
+        assertThat(metricRegistry.counter(HeartbeatMetrics.RATE_LIMITED_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenRateLimitExceededWithDrop_thenClosed() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getRateLimit().setRequestsPerSecond(1);
+        heartbeat.getRateLimit().setBurst(1);
+        heartbeat.getRateLimit().setAction(RateLimit.ACTION_DROP);
+        restart(heartbeat);
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(request("GET /heartbeat HTTP/1.1\r\n" + CLOSE + "\r\n")).isEmpty();
+        heartbeatMetrics.fold();
+        assertThat(metricRegistry.counter(HeartbeatMetrics.RATE_LIMITED_COUNTER).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_watch_whenStateChanges_thenEventStreamed() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getWatch().setEnabled(true);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            write(socket, "GET /watch HTTP/1.1\r\n\r\n");
+            assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n")
+                    .contains("Content-Type: text/event-stream\r\n")
+                    .contains("Transfer-Encoding: chunked\r\n");
+            final var initial = readChunk(socket);
+            assertThat(initial).startsWith("id: ")
+                    .contains("\nevent: readiness\ndata: {\"ready\":true")
+                    .endsWith("\n\n");
+            assertThat(server.getWatchers()).isEqualTo(1);
+            assertThat(metricRegistry.getGauges()).containsKey(NioHeartbeatServer.WATCHERS_GAUGE);
+
+            stage.set(LifecycleStage.STARTING);
+            readinessMonitor.refresh();
+            assertThat(readChunk(socket)).contains("data: {\"ready\":false");
+        }
+    }
+
+    @Test
+    void get_watch_whenIdle_thenKeepAliveSent() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getWatch().setEnabled(true);
+        heartbeat.getWatch().setKeepAliveInterval(50);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            write(socket, "GET /watch HTTP/1.1\r\n\r\n");
+            readHead(socket);
+            readChunk(socket);
+            assertThat(readChunk(socket)).isEqualTo(": keep-alive\n\n");
+        }
+        assertThat(metricRegistry.meter(NioHeartbeatServer.REAPED_CONNECTIONS_METER).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    void get_watch_whenMaxStreamsReached_then503() throws IOException {
+        final var heartbeat = new Heartbeat();
+        heartbeat.getWatch().setEnabled(true);
+        heartbeat.getWatch().setMaxStreams(1);
+        restart(heartbeat);
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            socket.setSoTimeout(5_000);
+            write(socket, "GET /watch HTTP/1.1\r\n\r\n");
+            assertThat(readHead(socket)).startsWith("HTTP/1.1 200 OK\r\n");
+            assertThat(request("GET /watch HTTP/1.1\r\n\r\n")).startsWith("HTTP/1.1 503 Service Unavailable\r\n");
+        }
+    }
+
+    @Test
+    void get_watch_whenDisabled_then404() throws IOException {
+        assertThat(request("GET /watch HTTP/1.1\r\n" + CLOSE + "\r\n")).startsWith("HTTP/1.1 404 Not Found\r\n");
+    }
+
+    private void start(final @NotNull Heartbeat heartbeat) throws IOException {
+        heartbeat.setPort(0);
+        heartbeat.setEngine(Heartbeat.ENGINE_NIO);
+        readinessMonitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        readinessMonitor.start();
+        heartbeatMetrics = new HeartbeatMetrics(scheduler, metricRegistry);
+        server = new NioHeartbeatServer(heartbeat, readinessMonitor, heartbeatMetrics, metricRegistry, null, null);
+        server.start();
+    }
+
+    private void restart(final @NotNull Heartbeat heartbeat) throws IOException {
+        server.stop();
+        readinessMonitor.stop();
+        start(heartbeat);
+    }
+
+    private @NotNull String request(final @NotNull String request) throws IOException {
+        try (final var socket = new Socket("127.0.0.1", server.getLocalPort())) {
+            write(socket, request);
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static void write(final @NotNull Socket socket, final @NotNull String request) throws IOException {
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private static @NotNull String readChunk(final @NotNull Socket socket) throws IOException {
+        final var size = readUntil(socket, "\r\n");
+        final var length = Integer.parseInt(size.substring(0, size.length() - 2), 16);
+        final var chunk = socket.getInputStream().readNBytes(length + 2);
+        return new String(chunk, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static @NotNull String readHead(final @NotNull Socket socket) throws IOException {
+        return readUntil(socket, "\r\n\r\n");
+    }
+
+    private static @NotNull String readUntil(final @NotNull Socket socket, final @NotNull String end)
+            throws IOException {
+        final var in = socket.getInputStream();
+        final var head = new StringBuilder();
+        while (!head.toString().endsWith(end)) {
+            final var b = in.read();
+            if (b < 0) {
+                break;
+            }
+            head.append((char) b);
+        }
+        return head.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.publish;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.configuration.entities.StatusPublish;
+import com.hivemq.extensions.heartbeat.state.ReadinessMonitor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusPublisherTest {
+
+    private final @NotNull AtomicReference<LifecycleStage> stage =
+            new AtomicReference<>(LifecycleStage.STARTED_SUCCESSFULLY);
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull Heartbeat heartbeat = new Heartbeat();
+    private final @NotNull StatusPublish statusPublish = new StatusPublish();
+    private final @NotNull List<String> topics = new CopyOnWriteArrayList<>();
+    private final @NotNull List<String> payloads = new CopyOnWriteArrayList<>();
+
+    private @NotNull ScheduledExecutorService scheduler;
+    private @NotNull ReadinessMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        // the stage is only refreshed explicitly by the tests
+        heartbeat.setStatePollInterval(60_000);
+        monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        statusPublish.setRefreshInterval(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void start_thenCurrentStatePublishedToNodeTopic() {
+        final var publisher = newPublisher(this::record);
+        publisher.start();
+        try {
+            assertThat(publisher.getTopic()).isEqualTo("hivemq/heartbeat/node-1");
+            assertThat(topics).containsExactly("hivemq/heartbeat/node-1");
+            assertThat(payloads.get(0)).startsWith(
+                    "{\"node\":\"node-1\",\"ready\":true,\"status\":200,\"stage\":\"STARTED_SUCCESSFULLY\"," +
+                            "\"failing\":[],\"version\":");
+            assertThat(metricRegistry.counter(StatusPublisher.PUBLISHED_COUNTER).getCount()).isEqualTo(1);
+        } finally {
+            publisher.stop();
+        }
+        assertThat(metricRegistry.getCounters()).doesNotContainKey(StatusPublisher.PUBLISHED_COUNTER);
+    }
+
+    @Test
+    void onReadinessChange_whenFlapping_thenCoalescedIntoLatestState() throws Exception {
+        statusPublish.setMinInterval(200);
+        final var publisher = newPublisher(this::record);
+        publisher.start();
+        try {
+            stage.set(LifecycleStage.STARTING);
+            monitor.refresh();
+            stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+            monitor.refresh();
+            stage.set(LifecycleStage.STARTING);
+            monitor.refresh();
+
+            awaitPayloads(2);
+            Thread.sleep(300);
+            assertThat(payloads).hasSize(2);
+            assertThat(payloads.get(1)).contains("\"ready\":false,\"status\":503,\"stage\":\"STARTING\"");
+            assertThat(metricRegistry.counter(StatusPublisher.COALESCED_COUNTER).getCount()).isEqualTo(2);
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void refresh_whenIntervalElapsed_thenUnchangedStatePublishedAgain() throws Exception {
+        statusPublish.setRefreshInterval(20);
+        final var publisher = newPublisher(this::record);
+        publisher.start();
+        try {
+            awaitPayloads(3);
+            assertThat(payloads.get(2).substring(0, payloads.get(2).indexOf(",\"time\""))).isEqualTo(payloads.get(0)
+                    .substring(0, payloads.get(0).indexOf(",\"time\"")));
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void stop_whenChangePending_thenFinalStatePublishedImmediately() {
+        statusPublish.setMinInterval(60_000);
+        final var publisher = newPublisher(this::record);
+        publisher.start();
+        stage.set(LifecycleStage.STARTING);
+        monitor.refresh();
+        assertThat(payloads).hasSize(1);
+
+        publisher.stop();
+        assertThat(payloads).hasSize(2);
+        assertThat(payloads.get(1)).contains("\"stage\":\"STARTING\"");
+    }
+
+    @Test
+    void start_whenPublishFails_thenFailedCounterIncremented() {
+        final var publisher = newPublisher((topic, payload) -> CompletableFuture.failedFuture(new IllegalStateException(
+                "publish service unavailable")));
+        publisher.start();
+        try {
+            assertThat(metricRegistry.counter(StatusPublisher.FAILED_COUNTER).getCount()).isEqualTo(1);
+            assertThat(metricRegistry.counter(StatusPublisher.PUBLISHED_COUNTER).getCount()).isEqualTo(0);
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    private @NotNull StatusPublisher newPublisher(
+            final @NotNull BiFunction<String, byte[], CompletionStage<Void>> sink) {
+        return new StatusPublisher(statusPublish, "node-1", monitor, scheduler, sink, metricRegistry);
+    }
+
+    private @NotNull CompletionStage<Void> record(final @NotNull String topic, final byte @NotNull [] payload) {
+        topics.add(topic);
+        payloads.add(new String(payload, StandardCharsets.UTF_8));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void awaitPayloads(final int count) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (payloads.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(payloads).hasSizeGreaterThanOrEqualTo(count);
+    }
+}
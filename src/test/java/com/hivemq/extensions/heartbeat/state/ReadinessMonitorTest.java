@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.heartbeat.state;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.admin.LifecycleStage;
+import com.hivemq.extensions.heartbeat.configuration.entities.Heartbeat;
+import com.hivemq.extensions.heartbeat.health.HealthCheck;
+import com.hivemq.extensions.heartbeat.health.HealthCheckFactory;
+import com.hivemq.extensions.heartbeat.health.HealthCheckResult;
+import com.hivemq.extensions.heartbeat.health.ScheduledHealthCheck;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadinessMonitorTest {
+
+    private final @NotNull AtomicReference<LifecycleStage> stage = new AtomicReference<>(LifecycleStage.STARTING);
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull Heartbeat heartbeat = new Heartbeat();
+
+    private @NotNull ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        heartbeat.setStatePollInterval(10);
+        heartbeat.setStatePollJitter(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void start_whenStarted_thenSnapshotReady() {
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        try {
+            final var snapshot = monitor.getSnapshot();
+            assertThat(snapshot.getStage()).isEqualTo(LifecycleStage.STARTED_SUCCESSFULLY);
+            assertThat(snapshot.getStatusCode()).isEqualTo(200);
+            assertThat(snapshot.isReady()).isTrue();
+            assertThat(metricRegistry.getGauges()).containsKey(ReadinessMonitor.SNAPSHOT_AGE_GAUGE);
+        } finally {
+            monitor.stop();
+        }
+        assertThat(metricRegistry.getGauges()).doesNotContainKey(ReadinessMonitor.SNAPSHOT_AGE_GAUGE);
+    }
+
+    @Test
+    void start_whenStarting_thenSnapshotUnavailable() {
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        try {
+            assertThat(monitor.getSnapshot().getStatusCode()).isEqualTo(503);
+            assertThat(monitor.getSnapshot().isReady()).isFalse();
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void refresh_whenStageChanges_thenSnapshotUpdatedInBackground() throws Exception {
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        try {
+            stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+            final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!monitor.getSnapshot().isReady() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(monitor.getSnapshot().isReady()).isTrue();
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void getStatusCode_whenNotReadyAfterStart_thenStartupAndLivenessPass() {
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        assertThat(monitor.getStatusCode(Probe.STARTUP)).isEqualTo(503);
+        monitor.start();
+        try {
+            stage.set(LifecycleStage.STARTING);
+            monitor.refresh();
+            assertThat(monitor.getStatusCode(Probe.READINESS)).isEqualTo(503);
+            assertThat(monitor.getStatusCode(Probe.STARTUP)).isEqualTo(200);
+            assertThat(monitor.getStatusCode(Probe.LIVENESS)).isEqualTo(200);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void drain_thenReadinessFailsAndStartupAndLivenessPass() {
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        try {
+            monitor.drain();
+            final var checks = monitor.getSnapshot().getChecks();
+            assertThat(checks.get(checks.size() - 1).getName()).isEqualTo(HealthCheckFactory.DRAIN_CHECK);
+            assertThat(monitor.getStatusCode(Probe.READINESS)).isEqualTo(503);
+            assertThat(monitor.getStatusCode(Probe.STARTUP)).isEqualTo(200);
+            assertThat(monitor.getStatusCode(Probe.LIVENESS)).isEqualTo(200);
+            // the drain is not undone by the lifecycle stage
+            monitor.refresh();
+            assertThat(monitor.getStatusCode(Probe.READINESS)).isEqualTo(503);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void addListener_whenStateChanges_thenNotifiedOnlyOnChange() {
+        final var notifications = new AtomicInteger();
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.addListener(notifications::incrementAndGet);
+        monitor.start();
+        try {
+            final var initial = notifications.get();
+            monitor.refresh();
+            assertThat(notifications.get()).isEqualTo(initial);
+
+            stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+            monitor.refresh();
+            assertThat(notifications.get()).isEqualTo(initial + 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void getStatusCode_whenRefreshStopped_thenLivenessFails() throws Exception {
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry);
+        monitor.start();
+        monitor.stop();
+        // the liveness timeout is 10 times the poll interval plus jitter
+        Thread.sleep(200);
+        assertThat(monitor.getStatusCode(Probe.LIVENESS)).isEqualTo(503);
+    }
+
+    @Test
+    void refresh_whenStageSupplierFails_thenPreviousSnapshotKept() {
+        final var calls = new AtomicInteger();
+        final var monitor = new ReadinessMonitor(heartbeat, scheduler, () -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IllegalStateException("admin service unavailable");
+            }
+            return LifecycleStage.STARTED_SUCCESSFULLY;
+        }, metricRegistry);
+        monitor.start();
+        try {
+            final var snapshot = monitor.getSnapshot();
+            monitor.refresh();
+            assertThat(monitor.getSnapshot()).isSameAs(snapshot);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void healthChecks_whenCheckUnhealthy_thenSnapshotUnavailableUntilHealthy() throws Exception {
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        final var result = new AtomicReference<>(HealthCheckResult.unhealthy("listener down"));
+        final var healthCheck = new ScheduledHealthCheck(new HealthCheck() {
+            @Override
+            public @NotNull String getName() {
+                return "custom";
+            }
+
+            @Override
+            public @NotNull CompletionStage<HealthCheckResult> check() {
+                return CompletableFuture.completedFuture(result.get());
+            }
+        }, scheduler, 10, 100);
+        final var monitor =
+                new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry, List.of(healthCheck));
+        monitor.start();
+        try {
+            assertThat(monitor.getSnapshot().isReady()).isFalse();
+            assertThat(monitor.getSnapshot().getChecks()).hasSize(2);
+            final var lifecycle = monitor.getSnapshot().getChecks().get(0);
+            assertThat(lifecycle.getName()).isEqualTo(HealthCheckFactory.LIFECYCLE_CHECK);
+            assertThat(lifecycle.isHealthy()).isTrue();
+
+            result.set(HealthCheckResult.healthy());
+            final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!monitor.getSnapshot().isReady() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(monitor.getSnapshot().isReady()).isTrue();
+            assertThat(monitor.getSnapshot().getChecks().get(1).getName()).isEqualTo("custom");
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void healthChecks_whenOnlyOverloaded_thenTooManyRequestsUntilDrained() throws Exception {
+        stage.set(LifecycleStage.STARTED_SUCCESSFULLY);
+        final var healthCheck = new ScheduledHealthCheck(new HealthCheck() {
+            @Override
+            public @NotNull String getName() {
+                return "custom";
+            }
+
+            @Override
+            public @NotNull CompletionStage<HealthCheckResult> check() {
+                return CompletableFuture.completedFuture(HealthCheckResult.overloaded("too many connections"));
+            }
+        }, scheduler, 10, 100);
+        final var monitor =
+                new ReadinessMonitor(heartbeat, scheduler, stage::get, metricRegistry, List.of(healthCheck));
+        monitor.start();
+        try {
+            final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (monitor.getStatusCode(Probe.READINESS) != 429 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(monitor.getStatusCode(Probe.READINESS)).isEqualTo(429);
+            assertThat(monitor.getStatusCode(Probe.LIVENESS)).isEqualTo(200);
+            assertThat(monitor.getStatusCode(Probe.STARTUP)).isEqualTo(200);
+
+            // a failing check that is not overloaded takes precedence
+            monitor.drain();
+            assertThat(monitor.getStatusCode(Probe.READINESS)).isEqualTo(503);
+        } finally {
+            monitor.stop();
+        }
+    }
+}